@@ -0,0 +1,6 @@
+@echo off
+rem Starts the todo app on the bundled runtime. Classes are mapped from the class-data-sharing archive app.jsa;
+rem if it is missing or no longer matches the runtime and jars, the JVM records a new one when the app exits.
+rem Extra JVM options can be passed in JAVA_OPTS.
+set "APP_HOME=%~dp0.."
+"%APP_HOME%\runtime\bin\java" -XX:SharedArchiveFile="%APP_HOME%\app.jsa" -XX:+AutoCreateSharedArchive %JAVA_OPTS% -jar "%APP_HOME%\lib\@APP_JAR@" %*
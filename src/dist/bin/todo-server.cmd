@@ -0,0 +1,5 @@
+@echo off
+rem Starts the headless todo server on the bundled runtime. It keeps its own class-data-sharing archive,
+rem recorded when the server first exits. Extra JVM options can be passed in JAVA_OPTS.
+set "APP_HOME=%~dp0.."
+"%APP_HOME%\runtime\bin\java" -XX:SharedArchiveFile="%APP_HOME%\server.jsa" -XX:+AutoCreateSharedArchive %JAVA_OPTS% -cp "%APP_HOME%\lib\@APP_JAR@" org.example.demo.server.TodoServer %*
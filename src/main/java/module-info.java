@@ -1,20 +1,13 @@
 module org.example.demo {
     requires javafx.controls;
     requires javafx.fxml;
-    requires javafx.web;
     requires javafx.graphics;
     requires java.sql;
     requires java.desktop;
+    requires java.net.http;
+    requires jdk.httpserver;
     requires com.zaxxer.hikari;
     requires org.slf4j;
-
-    requires org.controlsfx.controls;
-    requires com.dlsc.formsfx;
-    requires net.synedra.validatorfx;
-    requires org.kordamp.ikonli.javafx;
-    requires org.kordamp.bootstrapfx.core;
-    requires eu.hansolo.tilesfx;
-    requires com.almasb.fxgl.all;
     requires static lombok;
 
     opens org.example.demo to javafx.fxml;
@@ -25,7 +18,24 @@ module org.example.demo {
     exports org.example.demo.controller;
     exports org.example.demo.model;
     exports org.example.demo.service;
+    exports org.example.demo.service.event;
+    exports org.example.demo.service.store;
+    exports org.example.demo.service.sort;
+    exports org.example.demo.service.agenda;
+    exports org.example.demo.service.archive;
+    exports org.example.demo.service.recurrence;
+    exports org.example.demo.service.search;
+    exports org.example.demo.service.history;
+    exports org.example.demo.service.notification;
+    exports org.example.demo.service.sync;
+    exports org.example.demo.service.trace;
     exports org.example.demo.component;
     exports org.example.demo.config;
     exports org.example.demo.dao;
+    exports org.example.demo.dao.profiling;
+    exports org.example.demo.metrics;
+    exports org.example.demo.cache;
+    exports org.example.demo.logging;
+    exports org.example.demo.server;
+    exports org.example.demo.tools;
 }
\ No newline at end of file
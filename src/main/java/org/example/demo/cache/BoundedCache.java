@@ -0,0 +1,127 @@
+package org.example.demo.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+/**
+ * Size-aware LRU cache with expire-after-write. Bounded both by entry count and by total weight
+ * (an estimate of retained bytes supplied by a weigher), whichever limit is reached first.
+ * <p>
+ * All operations take the cache lock; entries are kept in access order so the eldest entry is always
+ * the least recently used one. The bounds can be changed at runtime with {@link #resize}.
+ */
+public class BoundedCache<K, V> {
+    private final String name;
+    private int maxEntries;
+    private long maxWeight;
+    private long ttlNanos;
+    private final ToIntFunction<V> weigher;
+    private final LinkedHashMap<K, Node<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public BoundedCache(String name, int maxEntries, long maxWeight, Duration ttl, ToIntFunction<V> weigher) {
+        this.name = name;
+        this.weigher = weigher;
+        resize(maxEntries, maxWeight, ttl);
+    }
+
+    /**
+     * Changes the bounds; entries beyond the new limits are evicted right away, least recently used first.
+     * A changed TTL also applies to entries already cached.
+     */
+    public synchronized void resize(int maxEntries, long maxWeight, Duration ttl) {
+        if (maxEntries <= 0 || maxWeight <= 0) {
+            throw new IllegalArgumentException("Cache '" + name + "' needs positive bounds");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttl.isZero() || ttl.isNegative() ? Long.MAX_VALUE : ttl.toNanos();
+        evictIfNeeded();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized Optional<V> get(K key) {
+        Node<V> node = map.get(key);
+        if (node == null) {
+            misses++;
+            return Optional.empty();
+        }
+        if (isExpired(node, System.nanoTime())) {
+            removeNode(key);
+            expirations++;
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        return Optional.of(node.value);
+    }
+
+    public synchronized void put(K key, V value) {
+        int entryWeight = weigher.applyAsInt(value);
+        if (entryWeight > maxWeight) {
+            // Would evict everything else and still not fit
+            invalidate(key);
+            return;
+        }
+        Node<V> previous = map.put(key, new Node<>(value, entryWeight, System.nanoTime()));
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        weight += entryWeight;
+        evictIfNeeded();
+    }
+
+    public synchronized void invalidate(K key) {
+        removeNode(key);
+    }
+
+    public synchronized void invalidateAll() {
+        map.clear();
+        weight = 0;
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, expirations, map.size(), weight);
+    }
+
+    private void evictIfNeeded() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<K, Node<V>>> eldest = map.entrySet().iterator();
+        while (eldest.hasNext() && (map.size() > maxEntries || weight > maxWeight)) {
+            Node<V> node = eldest.next().getValue();
+            eldest.remove();
+            weight -= node.weight;
+            if (isExpired(node, now)) {
+                expirations++;
+            } else {
+                evictions++;
+            }
+        }
+    }
+
+    private void removeNode(K key) {
+        Node<V> node = map.remove(key);
+        if (node != null) {
+            weight -= node.weight;
+        }
+    }
+
+    private boolean isExpired(Node<V> node, long now) {
+        return now - node.writtenAtNanos > ttlNanos;
+    }
+
+    private record Node<V>(V value, int weight, long writtenAtNanos) {
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.demo.cache;
+
+/**
+ * Point-in-time counters of a {@link BoundedCache}.
+ */
+public record CacheStats(long hits, long misses, long evictions, long expirations, int size, long weight) {
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d (%.1f%% hit rate) evictions=%d expirations=%d size=%d weight=%dB",
+                hits, misses, hitRate() * 100, evictions, expirations, size, weight);
+    }
+}
@@ -0,0 +1,161 @@
+package org.example.demo.component;
+
+import javafx.application.Platform;
+import javafx.scene.Group;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import org.example.demo.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.BiConsumer;
+
+/**
+ * A modal dialog that is built once and then reused. The view (node tree and controller) can be built ahead
+ * of time on a background thread, which is allowed as long as the nodes are not in a showing window. Scene
+ * and stage are created on the FX thread once and kept, so later opens only reset the controller and show
+ * the window again.
+ * <p>
+ * The time from the open request until the window is shown is recorded as {@code dialog.<name>.open}.
+ * Except for {@link #preload()}, all methods must be called on the FX thread.
+ */
+public class ReusableDialog<C> {
+    private static final Logger logger = LoggerFactory.getLogger(ReusableDialog.class);
+
+    /**
+     * A built view: its root node and the controller that manages it.
+     */
+    public record View<C>(Parent root, C controller) {
+    }
+
+    private final String name;
+    private final Callable<View<C>> builder;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private FutureTask<View<C>> preloading;
+    private View<C> view;
+    private Scene scene;
+    private Stage stage;
+
+    public ReusableDialog(String name, Callable<View<C>> builder) {
+        this.name = name;
+        this.builder = builder;
+    }
+
+    /**
+     * Starts building the view on a background thread; once built, its CSS is applied on the FX thread while
+     * the application is idle. Does nothing if the view is already built or being built.
+     */
+    public synchronized void preload() {
+        if (preloading != null) {
+            return;
+        }
+        preloading = new FutureTask<>(this::build);
+        FutureTask<View<C>> task = preloading;
+        Thread thread = new Thread(() -> {
+            task.run();
+            Platform.runLater(this::warmUp);
+        }, "dialog-preload-" + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Lets {@code prepare} reset the controller for this open, shows the dialog and waits until it is closed.
+     * Returns the controller to read the result from.
+     *
+     * @throws IOException if the view cannot be built
+     */
+    public C showAndWait(Window owner, String title, BiConsumer<C, Stage> prepare) throws IOException {
+        long start = System.nanoTime();
+        View<C> built = view();
+        Stage dialogStage = stageFor(owner, built);
+        dialogStage.setTitle(title);
+        prepare.accept(built.controller(), dialogStage);
+        dialogStage.setOnShown(event -> {
+            long nanos = System.nanoTime() - start;
+            metrics.recordNanos("dialog." + name + ".open", nanos);
+            logger.debug("Dialog '{}' shown after {} ms", name, nanos / 1_000_000);
+        });
+        dialogStage.showAndWait();
+        return built.controller();
+    }
+
+    private View<C> build() throws Exception {
+        long start = System.nanoTime();
+        View<C> built = builder.call();
+        metrics.recordNanos("dialog." + name + ".build", System.nanoTime() - start);
+        return built;
+    }
+
+    /**
+     * The built view, waiting for a preload in progress or building it right here if there was none or it failed.
+     */
+    private View<C> view() throws IOException {
+        if (view != null) {
+            return view;
+        }
+        FutureTask<View<C>> task;
+        synchronized (this) {
+            task = preloading;
+        }
+        try {
+            if (task != null) {
+                try {
+                    view = task.get();
+                    return view;
+                } catch (ExecutionException e) {
+                    logger.warn("Preloading dialog '{}' failed, building it now: {}", name, e.getCause().getMessage());
+                }
+            }
+            view = build();
+            return view;
+        } catch (IOException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while building dialog '" + name + "'", e);
+        } catch (Exception e) {
+            throw new IOException("Could not build dialog '" + name + "'", e);
+        }
+    }
+
+    /**
+     * Applies CSS to a preloaded view so skins exist before the first open.
+     */
+    private void warmUp() {
+        try {
+            if (scene == null) {
+                scene = new Scene(view().root());
+                scene.getRoot().applyCss();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not warm up dialog '{}': {}", name, e.getMessage());
+        }
+    }
+
+    private Stage stageFor(Window owner, View<C> built) {
+        if (stage != null && stage.getOwner() == owner) {
+            return stage;
+        }
+        if (scene == null) {
+            scene = new Scene(built.root());
+        }
+        if (stage != null) {
+            // The owner of a stage cannot change; the scene moves to a new stage
+            stage.setScene(new Scene(new Group()));
+        }
+        stage = new Stage();
+        stage.initModality(Modality.WINDOW_MODAL);
+        stage.initOwner(owner);
+        stage.setResizable(false);
+        stage.setScene(scene);
+        return stage;
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.demo.component;
+
+import javafx.animation.PauseTransition;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.stage.Popup;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Small non-modal notifications stacked in the bottom-right corner of the application window. They never
+ * take focus or block input, hide themselves after a while, and only the newest few are kept on screen.
+ * Must be used on the FX thread.
+ */
+public class ToastPresenter {
+    private static final double WIDTH = 320;
+    private static final double MARGIN = 16;
+    private static final double GAP = 8;
+
+    /**
+     * A button on a toast; clicking it runs {@code handler} and closes the toast.
+     */
+    public record Action(String label, Runnable handler) {
+    }
+
+    private final Duration visibleFor;
+    private final int maxVisible;
+    private final List<Popup> visible = new ArrayList<>();
+
+    public ToastPresenter(java.time.Duration visibleFor, int maxVisible) {
+        this.visibleFor = Duration.millis(visibleFor.toMillis());
+        this.maxVisible = Math.max(1, maxVisible);
+    }
+
+    /**
+     * Shows a toast over the focused application window, or the first one showing. Returns false if no
+     * window is showing, e.g. while minimized to the tray.
+     */
+    public boolean show(String title, String message, List<Action> actions) {
+        Window owner = findOwner();
+        if (owner == null) {
+            return false;
+        }
+        Popup popup = new Popup();
+        popup.setAutoFix(true);
+        popup.getContent().add(createContent(popup, title, message, actions));
+
+        while (visible.size() >= maxVisible) {
+            close(visible.get(0));
+        }
+        visible.add(popup);
+        popup.show(owner);
+        layout(owner);
+
+        PauseTransition timeout = new PauseTransition(visibleFor);
+        timeout.setOnFinished(event -> close(popup));
+        timeout.play();
+        return true;
+    }
+
+    private VBox createContent(Popup popup, String title, String message, List<Action> actions) {
+        Label titleLabel = new Label(title);
+        titleLabel.setFont(Font.font("System", FontWeight.BOLD, 13));
+        titleLabel.setTextFill(Color.WHITE);
+
+        Label messageLabel = new Label(message);
+        messageLabel.setWrapText(true);
+        messageLabel.setTextFill(Color.WHITE);
+
+        HBox buttons = new HBox(6);
+        buttons.setAlignment(Pos.CENTER_RIGHT);
+        for (Action action : actions) {
+            Button button = new Button(action.label());
+            button.setFocusTraversable(false);
+            button.setOnAction(event -> {
+                close(popup);
+                action.handler().run();
+            });
+            buttons.getChildren().add(button);
+        }
+
+        VBox content = new VBox(6, titleLabel, messageLabel, buttons);
+        content.setPadding(new Insets(12));
+        content.setPrefWidth(WIDTH);
+        content.setMaxWidth(WIDTH);
+        content.setStyle("-fx-background-color: rgba(40, 40, 40, 0.92); -fx-background-radius: 6;");
+        return content;
+    }
+
+    private void close(Popup popup) {
+        if (visible.remove(popup)) {
+            Window owner = popup.getOwnerWindow();
+            popup.hide();
+            if (owner != null) {
+                layout(owner);
+            }
+        }
+    }
+
+    /**
+     * Stacks the toasts upwards from the bottom-right corner, newest at the bottom.
+     */
+    private void layout(Window owner) {
+        double y = owner.getY() + owner.getHeight() - MARGIN;
+        for (int i = visible.size() - 1; i >= 0; i--) {
+            Popup popup = visible.get(i);
+            y -= popup.getHeight();
+            popup.setX(owner.getX() + owner.getWidth() - WIDTH - MARGIN);
+            popup.setY(y);
+            y -= GAP;
+        }
+    }
+
+    private static Window findOwner() {
+        Window fallback = null;
+        for (Window window : Window.getWindows()) {
+            if (!window.isShowing() || window instanceof Popup) {
+                continue;
+            }
+            if (window.isFocused()) {
+                return window;
+            }
+            if (fallback == null) {
+                fallback = window;
+            }
+        }
+        return fallback;
+    }
+}
@@ -2,14 +2,23 @@ package org.example.demo.component;
 
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Cursor;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+import org.example.demo.model.Recurrence;
 import org.example.demo.model.Todo;
+import org.example.demo.service.search.Highlighter;
+
+import java.util.List;
 
 public class TodoCell extends ListCell<Todo> {
+    private static final Color MATCH_COLOR = Color.web("#e65100");
+
     private VBox container;
     private HBox mainContent;
     private HBox actionButtons;
@@ -20,6 +29,10 @@ public class TodoCell extends ListCell<Todo> {
     private Label dueDateLabel;
     private Button editButton;
     private Button deleteButton;
+    private final Tooltip expandTooltip = new Tooltip("Click to show the full description");
+    /** Todo whose full description this cell has loaded, and that description. */
+    private Todo expandedTodo;
+    private String expandedDescription;
 
     private final TodoCellCallback callback;
 
@@ -27,6 +40,20 @@ public class TodoCell extends ListCell<Todo> {
         void onEdit(Todo todo);
         void onDelete(Todo todo);
         void onToggleComplete(Todo todo);
+
+        /**
+         * Words to emphasize, from the search that produced the list.
+         */
+        default Highlighter getHighlighter() {
+            return Highlighter.NONE;
+        }
+
+        /**
+         * Full text of a description of which the list holds only the start.
+         */
+        default String loadDescription(Todo todo) {
+            return todo.getDescription();
+        }
     }
 
     public TodoCell(TodoCellCallback callback) {
@@ -60,6 +87,7 @@ public class TodoCell extends ListCell<Todo> {
         descriptionLabel = new Label();
         descriptionLabel.setTextFill(Color.GRAY);
         descriptionLabel.setWrapText(true);
+        descriptionLabel.setOnMouseClicked(e -> expandDescription());
 
         HBox metaInfo = new HBox(15);
         priorityLabel = new Label();
@@ -108,10 +136,79 @@ public class TodoCell extends ListCell<Todo> {
         }
     }
 
+    /**
+     * Replaces a description preview with the full text, loaded once per shown todo.
+     */
+    private void expandDescription() {
+        Todo todo = getItem();
+        if (todo == null || !todo.isDescriptionTruncated() || expandedTodo == todo || callback == null) {
+            return;
+        }
+        expandedDescription = callback.loadDescription(todo);
+        expandedTodo = todo;
+        updateContent(todo);
+    }
+
+    private String describeRecurrence(Todo todo) {
+        if (!todo.isRecurring()) {
+            return "";
+        }
+        try {
+            return " \u21bb " + todo.getRecurrence().map(Recurrence::describe).orElse("");
+        } catch (IllegalArgumentException e) {
+            return " \u21bb " + todo.getRecurrenceRule();
+        }
+    }
+
+    /**
+     * Shows {@code text} in the label, with matched search words in bold and color.
+     */
+    private void showText(Label label, String text, Highlighter highlighter, Color fill, double size) {
+        label.setText(text);
+        List<Highlighter.Span> spans = highlighter.spans(text);
+        if (spans.isEmpty()) {
+            label.setGraphic(null);
+            label.setContentDisplay(ContentDisplay.TEXT_ONLY);
+            return;
+        }
+        TextFlow flow = new TextFlow();
+        int position = 0;
+        for (Highlighter.Span span : spans) {
+            if (span.start() > position) {
+                flow.getChildren().add(styledText(text.substring(position, span.start()), fill, label.getFont()));
+            }
+            flow.getChildren().add(styledText(text.substring(span.start(), span.end()), MATCH_COLOR,
+                    Font.font(label.getFont().getFamily(), FontWeight.BOLD, size)));
+            position = span.end();
+        }
+        if (position < text.length()) {
+            flow.getChildren().add(styledText(text.substring(position), fill, label.getFont()));
+        }
+        label.setGraphic(flow);
+        label.setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+    }
+
+    private static Text styledText(String content, Color fill, Font font) {
+        Text text = new Text(content);
+        text.setFill(fill);
+        text.setFont(font);
+        return text;
+    }
+
     private void updateContent(Todo todo) {
         completedCheckBox.setSelected(todo.isCompleted());
-        titleLabel.setText(todo.getTitle());
-        descriptionLabel.setText(todo.getDescription());
+        Highlighter highlighter = callback != null ? callback.getHighlighter() : Highlighter.NONE;
+        showText(titleLabel, todo.getTitle(), highlighter, todo.isCompleted() ? Color.GRAY : Color.BLACK, 14);
+        String description = todo.getDescription();
+        boolean preview = todo.isDescriptionTruncated() && expandedTodo != todo;
+        if (preview) {
+            description += " \u2026";
+        } else if (todo.isDescriptionTruncated()) {
+            description = expandedDescription;
+        }
+        showText(descriptionLabel, description, highlighter, todo.isCompleted() ? Color.LIGHTGRAY : Color.GRAY, 12);
+        descriptionLabel.setTooltip(preview ? expandTooltip : null);
+        descriptionLabel.setCursor(preview ? Cursor.HAND : null);
 
         // Update priority label
         priorityLabel.setText(todo.getPriority().getDisplayName());
@@ -119,7 +216,7 @@ public class TodoCell extends ListCell<Todo> {
                               "; -fx-text-fill: white; -fx-padding: 2 6; -fx-background-radius: 3;");
 
         // Update due date
-        dueDateLabel.setText("Due: " + todo.getFormattedDueDate());
+        dueDateLabel.setText("Due: " + todo.getFormattedDueDate() + describeRecurrence(todo));
         if (todo.isOverdue()) {
             dueDateLabel.setTextFill(Color.RED);
             dueDateLabel.setFont(Font.font("System", FontWeight.BOLD, 11));
@@ -0,0 +1,36 @@
+package org.example.demo.config;
+
+import java.util.Objects;
+
+/**
+ * One key whose value differs after a reload. {@code oldValue} is null for added keys and {@code newValue}
+ * is null for removed ones.
+ */
+public record ConfigChange(String key, String oldValue, String newValue) {
+
+    public ConfigChange {
+        Objects.requireNonNull(key);
+    }
+
+    public boolean isRemoved() {
+        return newValue == null;
+    }
+
+    /**
+     * The new value as an integer, or {@code defaultValue} when it was removed or is not a number.
+     */
+    public int intValue(int defaultValue) {
+        if (newValue != null) {
+            try {
+                return Integer.parseInt(newValue.trim());
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+
+    public boolean booleanValue(boolean defaultValue) {
+        return newValue != null ? Boolean.parseBoolean(newValue.trim()) : defaultValue;
+    }
+}
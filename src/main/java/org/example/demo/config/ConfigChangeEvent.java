@@ -0,0 +1,38 @@
+package org.example.demo.config;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The keys that changed in one configuration reload, published to {@link ConfigChangeListener}s after the
+ * new values are in place, so listeners may read them through {@link ConfigurationManager} as well.
+ */
+public record ConfigChangeEvent(Map<String, ConfigChange> changes) {
+
+    public ConfigChangeEvent {
+        changes = Map.copyOf(changes);
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public Optional<ConfigChange> get(ConfigKey<?> key) {
+        return Optional.ofNullable(changes.get(key.name()));
+    }
+
+    /**
+     * Whether any of {@code keys} changed. Their {@link ConfigKey#get()} already returns the new values.
+     */
+    public boolean affects(ConfigKey<?>... keys) {
+        return Arrays.stream(keys).map(ConfigKey::name).anyMatch(changes::containsKey);
+    }
+
+    /**
+     * Whether any key starting with {@code prefix} changed, e.g. {@code "db.pool."}.
+     */
+    public boolean affectsPrefix(String prefix) {
+        return changes.keySet().stream().anyMatch(key -> key.startsWith(prefix));
+    }
+}
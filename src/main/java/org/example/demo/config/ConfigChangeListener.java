@@ -0,0 +1,10 @@
+package org.example.demo.config;
+
+/**
+ * Reacts to configuration reloads. Called on the thread that performed the reload (the config watcher for
+ * file edits), so implementations should only adjust settings and hand longer work to their own executors.
+ */
+@FunctionalInterface
+public interface ConfigChangeListener {
+    void onConfigChanged(ConfigChangeEvent event);
+}
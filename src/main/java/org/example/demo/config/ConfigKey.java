@@ -0,0 +1,162 @@
+package org.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A typed setting: name, default and validation in one declaration, kept as a constant by the component
+ * that uses it. {@link #get()} parses and validates the value once per loaded configuration; later calls
+ * return the cached result without locking or parsing. Invalid values are reported once and replaced by
+ * the default.
+ * <p>
+ * Every declared key is registered, which lets {@link ConfigurationManager#logReport()} list the resolved
+ * configuration and flag keys in the file that nothing declares.
+ */
+public final class ConfigKey<T> {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigKey.class);
+    private static final Map<String, ConfigKey<?>> REGISTRY = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final T defaultValue;
+    private final Function<String, T> parser;
+    private final Predicate<T> validator;
+    private final String requirement;
+    private volatile Resolved<T> resolved;
+
+    /**
+     * The value of a key in one snapshot, where it came from, and why the configured value was rejected if it was.
+     */
+    record Resolved<T>(ConfigSnapshot snapshot, T value, ConfigSnapshot.Source source, String problem) {
+    }
+
+    private ConfigKey(String name, T defaultValue, Function<String, T> parser, Predicate<T> validator, String requirement) {
+        this.name = Objects.requireNonNull(name);
+        this.defaultValue = defaultValue;
+        this.parser = parser;
+        this.validator = validator;
+        this.requirement = requirement;
+    }
+
+    /**
+     * A text setting; {@code defaultValue} may be null for settings without a sensible default.
+     */
+    public static ConfigKey<String> ofString(String name, String defaultValue) {
+        return register(new ConfigKey<>(name, defaultValue, Function.identity(), value -> !value.isEmpty(), "not empty"));
+    }
+
+    public static ConfigKey<Boolean> ofBoolean(String name, boolean defaultValue) {
+        return register(new ConfigKey<>(name, defaultValue, ConfigKey::parseBoolean, value -> true, "true or false"));
+    }
+
+    public static ConfigKey<Integer> ofInt(String name, int defaultValue) {
+        return register(new ConfigKey<>(name, defaultValue, Integer::valueOf, value -> true, "an integer"));
+    }
+
+    /**
+     * An integer setting that must be at least {@code min}.
+     */
+    public static ConfigKey<Integer> ofInt(String name, int defaultValue, int min) {
+        return register(new ConfigKey<>(name, defaultValue, Integer::valueOf, value -> value >= min, "an integer >= " + min));
+    }
+
+    private static <T> ConfigKey<T> register(ConfigKey<T> key) {
+        if (REGISTRY.putIfAbsent(key.name, key) != null) {
+            throw new IllegalStateException("Configuration key '" + key.name + "' is declared twice");
+        }
+        return key;
+    }
+
+    static Optional<ConfigKey<?>> find(String name) {
+        return Optional.ofNullable(REGISTRY.get(name));
+    }
+
+    static List<ConfigKey<?>> registered() {
+        List<ConfigKey<?>> keys = new ArrayList<>(REGISTRY.values());
+        keys.sort(Comparator.comparing(ConfigKey::name));
+        return keys;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public T defaultValue() {
+        return defaultValue;
+    }
+
+    public T get() {
+        return resolved().value();
+    }
+
+    Resolved<T> resolved() {
+        ConfigSnapshot snapshot = ConfigurationManager.snapshot();
+        Resolved<T> current = resolved;
+        if (current == null || current.snapshot() != snapshot) {
+            // Racing threads may both resolve; they compute the same value
+            current = resolve(snapshot);
+            resolved = current;
+        }
+        return current;
+    }
+
+    private Resolved<T> resolve(ConfigSnapshot snapshot) {
+        Optional<ConfigSnapshot.Setting> setting = snapshot.lookup(name);
+        if (setting.isEmpty()) {
+            return new Resolved<>(snapshot, defaultValue, ConfigSnapshot.Source.DEFAULT, null);
+        }
+        String raw = setting.get().value().trim();
+        T value;
+        try {
+            value = parser.apply(raw);
+        } catch (IllegalArgumentException e) {
+            value = null;
+        }
+        if (value == null || !validator.test(value)) {
+            String problem = "'" + display(raw) + "' from " + setting.get().source() + " is not " + requirement;
+            logger.warn("Invalid value for {}: {}; using {}", name, problem, display(defaultValue));
+            return new Resolved<>(snapshot, defaultValue, ConfigSnapshot.Source.DEFAULT, problem);
+        }
+        return new Resolved<>(snapshot, value, setting.get().source(), null);
+    }
+
+    /**
+     * Passwords and secrets are never shown in logs.
+     */
+    boolean isSecret() {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return lower.contains("password") || lower.contains("secret");
+    }
+
+    String display(Object value) {
+        if (value == null) {
+            return "<unset>";
+        }
+        return isSecret() ? "****" : value.toString();
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (value.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new IllegalArgumentException(value);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
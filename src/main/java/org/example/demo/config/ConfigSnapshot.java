@@ -0,0 +1,52 @@
+package org.example.demo.config;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * One loaded configuration: the values of the properties file that was found, never modified after loading.
+ * {@code path} is the file on disk the values were read from, or null for a classpath resource.
+ * A lookup checks, in order, a system property named like the key, an environment variable named after the
+ * key ({@code db.pool.maximumPoolSize} becomes {@code DB_POOL_MAXIMUMPOOLSIZE}) and then the file.
+ */
+record ConfigSnapshot(String fileName, Path path, Map<String, String> fileValues) {
+
+    enum Source {
+        DEFAULT,
+        FILE,
+        ENVIRONMENT,
+        SYSTEM_PROPERTY
+    }
+
+    record Setting(String value, Source source) {
+    }
+
+    /** Environment variable names from before any key could be set from the environment. */
+    private static final Map<String, String> LEGACY_ENVIRONMENT = Map.of("db.schema.name", "DB_SCHEMA");
+
+    ConfigSnapshot {
+        fileValues = Map.copyOf(fileValues);
+    }
+
+    Optional<Setting> lookup(String key) {
+        String value = System.getProperty(key);
+        if (value != null) {
+            return Optional.of(new Setting(value, Source.SYSTEM_PROPERTY));
+        }
+        value = System.getenv(environmentName(key));
+        if (value == null && LEGACY_ENVIRONMENT.containsKey(key)) {
+            value = System.getenv(LEGACY_ENVIRONMENT.get(key));
+        }
+        if (value != null) {
+            return Optional.of(new Setting(value, Source.ENVIRONMENT));
+        }
+        value = fileValues.get(key);
+        return value != null ? Optional.of(new Setting(value, Source.FILE)) : Optional.empty();
+    }
+
+    static String environmentName(String key) {
+        return key.replace('.', '_').replace('-', '_').toUpperCase(Locale.ROOT);
+    }
+}
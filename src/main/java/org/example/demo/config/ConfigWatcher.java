@@ -0,0 +1,100 @@
+package org.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the directory of the loaded configuration file and calls {@code onChange} after the file was
+ * written. Editors usually save in several steps (truncate, write, rename), so events are debounced: the
+ * callback runs once the file has been quiet for {@code debounceMillis}.
+ */
+public class ConfigWatcher implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigWatcher.class);
+
+    private final Path file;
+    private final long debounceMillis;
+    private final Runnable onChange;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    public ConfigWatcher(Path file, long debounceMillis, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        // Directories are watched, not files; a rename-on-save replaces the file but keeps the directory
+        this.file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::run, "config-watcher");
+        thread.setDaemon(true);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public void start() {
+        thread.start();
+        logger.info("Watching {} for configuration changes", file);
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key);
+                // Keep collecting until the file has been quiet for the debounce period
+                while (changed) {
+                    WatchKey next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    drain(next);
+                }
+                if (changed) {
+                    try {
+                        onChange.run();
+                    } catch (RuntimeException e) {
+                        logger.error("Error applying changed configuration from {}", file, e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.debug("Configuration watcher stopped");
+        }
+    }
+
+    /**
+     * Consumes the key's events and re-arms it. Returns whether one of them was about the watched file.
+     */
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path changed && changed.getFileName().equals(file.getFileName())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.debug("Could not close configuration watcher: {}", e.getMessage());
+        }
+        thread.interrupt();
+    }
+}
@@ -5,107 +5,152 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Configuration properties loader following enterprise software architecture best practices.
  * Supports multiple configuration sources with fallback mechanism.
+ * <p>
+ * Components declare their settings as {@link ConfigKey} constants and read them with {@link ConfigKey#get()}.
+ * Any key can be overridden by a system property of the same name or by an environment variable named after
+ * it (see {@link ConfigSnapshot}). The loaded configuration is an immutable snapshot, so reads never lock.
+ * <p>
+ * The file is looked up outside the application first: the path named by the {@code config.file} system property
+ * or {@code CONFIG_FILE} environment variable, then the file names below in the working directory, and only then
+ * on the classpath. While {@link #startWatching()} is active, edits to an external file are picked up without a
+ * restart and published to {@link ConfigChangeListener}s as a {@link ConfigChangeEvent}.
  */
 public class ConfigurationManager {
     private static final Logger logger = LoggerFactory.getLogger(ConfigurationManager.class);
-    
+
     private static final String[] CONFIG_FILES = {
         "database-local.properties",    // Local override (highest priority)
         "database.properties",          // Default configuration
         "database-default.properties"   // Fallback configuration
     };
-    
-    private static Properties properties;
-    
+    /** Names the configuration file itself, so it can only be set outside of it. */
+    private static final String CONFIG_FILE_PROPERTY = "config.file";
+
+    // Configuration keys
+    private static final ConfigKey<Boolean> WATCH_ENABLED_KEY = ConfigKey.ofBoolean("config.watch.enabled", true);
+    private static final ConfigKey<Integer> WATCH_DEBOUNCE_KEY = ConfigKey.ofInt("config.watch.debounceMs", 300, 0);
+
+    // Replaced as a whole on reload, so readers never see a half-loaded configuration
+    private static volatile ConfigSnapshot snapshot;
+    private static final List<ConfigChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private static ConfigWatcher watcher;
+
     static {
-        loadConfiguration();
+        snapshot = loadConfiguration();
     }
-    
-    private static void loadConfiguration() {
-        properties = new Properties();
-        
+
+    private static ConfigSnapshot loadConfiguration() {
+        Optional<Path> external = externalFile();
+        if (external.isPresent()) {
+            Optional<Properties> loaded = loadExternalFile(external.get());
+            if (loaded.isPresent()) {
+                logger.info("Loaded configuration from: {}", external.get());
+                return snapshotOf(external.get().toString(), external.get(), loaded.get());
+            }
+        }
         // Load configuration files in order of priority
         for (String configFile : CONFIG_FILES) {
-            if (loadPropertiesFile(configFile)) {
+            Optional<Properties> loaded = loadPropertiesFile(configFile);
+            if (loaded.isPresent()) {
                 logger.info("Loaded configuration from: {}", configFile);
-                break; // Use the first available configuration file
+                return snapshotOf(configFile, null, loaded.get());
             }
         }
-        
-        // Override with environment variables if present
-        loadEnvironmentVariables();
-        
-        // Override with system properties (highest priority)
-        loadSystemProperties();
+        logger.warn("No configuration file found, using defaults, environment variables and system properties");
+        return new ConfigSnapshot(null, null, Map.of());
+    }
+
+    private static ConfigSnapshot snapshotOf(String fileName, Path path, Properties properties) {
+        Map<String, String> values = new HashMap<>();
+        properties.stringPropertyNames().forEach(key -> values.put(key, properties.getProperty(key)));
+        return new ConfigSnapshot(fileName, path, values);
     }
-    
-    private static boolean loadPropertiesFile(String fileName) {
+
+    /**
+     * The configuration file outside the application: the one named by {@code config.file}, or else the first
+     * of {@link #CONFIG_FILES} in the working directory.
+     */
+    private static Optional<Path> externalFile() {
+        String configured = System.getProperty(CONFIG_FILE_PROPERTY);
+        if (configured == null) {
+            configured = System.getenv(ConfigSnapshot.environmentName(CONFIG_FILE_PROPERTY));
+        }
+        if (configured != null && !configured.isBlank()) {
+            Path path = Path.of(configured.trim()).toAbsolutePath();
+            if (Files.isRegularFile(path)) {
+                return Optional.of(path);
+            }
+            logger.warn("Configuration file {} named by {} does not exist", path, CONFIG_FILE_PROPERTY);
+        }
+        for (String configFile : CONFIG_FILES) {
+            Path path = Path.of(configFile).toAbsolutePath();
+            if (Files.isRegularFile(path)) {
+                return Optional.of(path);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Properties> loadExternalFile(Path path) {
+        try (InputStream input = Files.newInputStream(path)) {
+            Properties properties = new Properties();
+            properties.load(input);
+            return Optional.of(properties);
+        } catch (IOException e) {
+            logger.warn("Could not load configuration file: {} ({})", path, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Properties> loadPropertiesFile(String fileName) {
         try (InputStream input = ConfigurationManager.class.getClassLoader()
                 .getResourceAsStream(fileName)) {
-            
+
             if (input != null) {
+                Properties properties = new Properties();
                 properties.load(input);
-                return true;
+                return Optional.of(properties);
             }
         } catch (IOException e) {
             logger.debug("Could not load configuration file: {} ({})", fileName, e.getMessage());
         }
-        return false;
-    }
-    
-    private static void loadEnvironmentVariables() {
-        // Map environment variables to properties
-        String[] envMappings = {
-            "DB_URL:db.url",
-            "DB_USERNAME:db.username", 
-            "DB_PASSWORD:db.password",
-            "DB_SCHEMA:db.schema.name"
-        };
-        
-        for (String mapping : envMappings) {
-            String[] parts = mapping.split(":");
-            String envVar = System.getenv(parts[0]);
-            if (envVar != null) {
-                properties.setProperty(parts[1], envVar);
-                logger.debug("Loaded {} from environment variable", parts[1]);
-            }
-        }
+        return Optional.empty();
     }
-    
-    private static void loadSystemProperties() {
-        // Override with system properties (e.g., -Ddb.url=...)
-        System.getProperties().forEach((key, value) -> {
-            String keyStr = key.toString();
-            if (keyStr.startsWith("db.")) {
-                properties.setProperty(keyStr, value.toString());
-                logger.debug("Loaded {} from system property", keyStr);
-            }
-        });
+
+    static ConfigSnapshot snapshot() {
+        return snapshot;
     }
-    
+
     /**
-     * Get a configuration property with a default value
+     * Get a configuration property with a default value. Prefer a {@link ConfigKey}, which is parsed only once.
      */
     public static String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue);
+        return snapshot.lookup(key).map(ConfigSnapshot.Setting::value).orElse(defaultValue);
     }
-    
+
     /**
-     * Get a configuration property
+     * Get a configuration property, or null if it is not set
      */
     public static String getProperty(String key) {
-        String value = properties.getProperty(key);
-        if (value == null) {
-            logger.warn("Configuration property '{}' not found", key);
-        }
-        return value;
+        return getProperty(key, null);
     }
-    
+
     /**
      * Get a configuration property as integer
      */
@@ -113,37 +158,138 @@ public class ConfigurationManager {
         String value = getProperty(key);
         if (value != null) {
             try {
-                return Integer.parseInt(value);
+                return Integer.parseInt(value.trim());
             } catch (NumberFormatException e) {
                 logger.warn("Invalid integer value for property '{}': {}", key, value);
             }
         }
         return defaultValue;
     }
-    
+
     /**
      * Get a configuration property as boolean
      */
     public static boolean getBooleanProperty(String key, boolean defaultValue) {
         String value = getProperty(key);
         if (value != null) {
-            return Boolean.parseBoolean(value);
+            return Boolean.parseBoolean(value.trim());
         }
         return defaultValue;
     }
-    
+
     /**
      * Check if a property exists
      */
     public static boolean hasProperty(String key) {
-        return properties.containsKey(key);
+        return snapshot.lookup(key).isPresent();
     }
-    
+
+    /**
+     * Logs every declared setting with its resolved value and where it came from, and warns about keys in the
+     * configuration file that no component declares. Those are usually typos, which would otherwise be ignored
+     * without notice. Meant to run once startup has created all components.
+     */
+    public static void logReport() {
+        ConfigSnapshot current = snapshot;
+        StringBuilder report = new StringBuilder("Resolved configuration")
+                .append(current.fileName() != null ? " (file: " + current.fileName() + ")" : " (no file)");
+        for (ConfigKey<?> key : ConfigKey.registered()) {
+            ConfigKey.Resolved<?> resolved = key.resolved();
+            report.append(System.lineSeparator()).append("  ").append(key.name()).append(" = ")
+                    .append(key.display(resolved.value())).append("  [").append(resolved.source()).append(']');
+            if (resolved.problem() != null) {
+                report.append("  INVALID: ").append(resolved.problem());
+            }
+        }
+        logger.info(report.toString());
+        warnUnknown(current.fileValues().keySet());
+    }
+
+    private static void warnUnknown(Set<String> keys) {
+        String file = snapshot.fileName();
+        new TreeSet<>(keys).stream()
+                .filter(key -> ConfigKey.find(key).isEmpty())
+                .forEach(key -> logger.warn("Unknown configuration key '{}' in {} is ignored", key, file));
+    }
+
     /**
-     * Reload configuration (useful for testing or dynamic reconfiguration)
+     * Reload configuration (useful for testing or dynamic reconfiguration). Listeners are notified of the keys
+     * whose values changed, after the new values are visible.
      */
-    public static void reload() {
+    public static synchronized ConfigChangeEvent reload() {
         logger.info("Reloading configuration...");
-        loadConfiguration();
+        ConfigSnapshot previous = snapshot;
+        snapshot = loadConfiguration();
+        ConfigChangeEvent event = diff(previous, snapshot);
+        if (event.isEmpty()) {
+            logger.info("Configuration unchanged");
+            return event;
+        }
+        // Values are not logged, they may be credentials
+        logger.info("Configuration changed: {}", event.changes().keySet());
+        warnUnknown(event.changes().keySet());
+        for (ConfigChangeListener listener : listeners) {
+            try {
+                listener.onConfigChanged(event);
+            } catch (RuntimeException e) {
+                logger.error("Configuration listener failed", e);
+            }
+        }
+        return event;
+    }
+
+    public static void addChangeListener(ConfigChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeChangeListener(ConfigChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reloads the configuration whenever the loaded file changes on disk. Does nothing if watching is disabled or
+     * the configuration was not read from an external file: a classpath resource is a build output or part of a
+     * jar, so edits to the source file would not reach it.
+     */
+    public static synchronized void startWatching() {
+        if (watcher != null || !WATCH_ENABLED_KEY.get()) {
+            return;
+        }
+        Optional<Path> file = Optional.ofNullable(snapshot.path());
+        if (file.isEmpty()) {
+            logger.info("Configuration is not read from an external file (set {} or place one in the working "
+                    + "directory), changes require a restart", CONFIG_FILE_PROPERTY);
+            return;
+        }
+        try {
+            watcher = new ConfigWatcher(file.get(), WATCH_DEBOUNCE_KEY.get(), ConfigurationManager::reload);
+            watcher.start();
+        } catch (IOException e) {
+            logger.warn("Could not watch {} for changes: {}", file.get(), e.getMessage());
+        }
+    }
+
+    public static synchronized void stopWatching() {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Changed file values. Environment variables and system properties are fixed for the life of the process.
+     */
+    private static ConfigChangeEvent diff(ConfigSnapshot before, ConfigSnapshot after) {
+        Set<String> keys = new HashSet<>(before.fileValues().keySet());
+        keys.addAll(after.fileValues().keySet());
+        Map<String, ConfigChange> changes = new HashMap<>();
+        for (String key : keys) {
+            String oldValue = before.fileValues().get(key);
+            String newValue = after.fileValues().get(key);
+            if (!Objects.equals(oldValue, newValue)) {
+                changes.put(key, new ConfigChange(key, oldValue, newValue));
+            }
+        }
+        return new ConfigChangeEvent(changes);
     }
 }
@@ -1,12 +1,16 @@
 package org.example.demo.config;
 
 import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariConfigMXBean;
 import com.zaxxer.hikari.HikariDataSource;
+import org.example.demo.dao.profiling.QueryProfiler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -14,27 +18,29 @@ public class DatabaseConfig {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
     
     // Configuration keys
-    private static final String DB_URL_KEY = "db.url";
-    private static final String DB_USERNAME_KEY = "db.username";
-    private static final String DB_PASSWORD_KEY = "db.password";
-    private static final String DB_SCHEMA_KEY = "db.schema.name";
-    private static final String DB_AUTO_CREATE_KEY = "db.schema.autoCreate";
+    private static final ConfigKey<String> DB_URL_KEY = ConfigKey.ofString("db.url", null);
+    private static final ConfigKey<String> DB_USERNAME_KEY = ConfigKey.ofString("db.username", null);
+    private static final ConfigKey<String> DB_PASSWORD_KEY = ConfigKey.ofString("db.password", null);
+    private static final ConfigKey<String> DB_SCHEMA_KEY = ConfigKey.ofString("db.schema.name", "todo_app");
+    private static final ConfigKey<Boolean> DB_AUTO_CREATE_KEY = ConfigKey.ofBoolean("db.schema.autoCreate", true);
     
     // Connection pool configuration keys
-    private static final String POOL_MAX_SIZE_KEY = "db.pool.maximumPoolSize";
-    private static final String POOL_MIN_IDLE_KEY = "db.pool.minimumIdle";
-    private static final String POOL_CONNECTION_TIMEOUT_KEY = "db.pool.connectionTimeout";
-    private static final String POOL_IDLE_TIMEOUT_KEY = "db.pool.idleTimeout";
-    private static final String POOL_MAX_LIFETIME_KEY = "db.pool.maxLifetime";
+    private static final ConfigKey<Integer> POOL_MAX_SIZE_KEY = ConfigKey.ofInt("db.pool.maximumPoolSize", 10, 1);
+    private static final ConfigKey<Integer> POOL_MIN_IDLE_KEY = ConfigKey.ofInt("db.pool.minimumIdle", 2, 0);
+    // Hikari's lower bound for the connection timeout
+    private static final ConfigKey<Integer> POOL_CONNECTION_TIMEOUT_KEY = ConfigKey.ofInt("db.pool.connectionTimeout", 30000, 250);
+    private static final ConfigKey<Integer> POOL_IDLE_TIMEOUT_KEY = ConfigKey.ofInt("db.pool.idleTimeout", 600000, 0);
+    private static final ConfigKey<Integer> POOL_MAX_LIFETIME_KEY = ConfigKey.ofInt("db.pool.maxLifetime", 1800000, 0);
     
     private static HikariDataSource dataSource;
+    private static QueryProfiler profiler;
     
     static {
         try {
             // Load database configuration from properties
-            String dbUrl = ConfigurationManager.getProperty(DB_URL_KEY);
-            String dbUsername = ConfigurationManager.getProperty(DB_USERNAME_KEY);
-            String dbPassword = ConfigurationManager.getProperty(DB_PASSWORD_KEY);
+            String dbUrl = DB_URL_KEY.get();
+            String dbUsername = DB_USERNAME_KEY.get();
+            String dbPassword = DB_PASSWORD_KEY.get();
             
             // Validate required configuration
             if (dbUrl == null || dbUsername == null || dbPassword == null) {
@@ -50,13 +56,15 @@ public class DatabaseConfig {
             config.setPassword(dbPassword);
             
             // Configure connection pool from properties
-            config.setMaximumPoolSize(ConfigurationManager.getIntProperty(POOL_MAX_SIZE_KEY, 10));
-            config.setMinimumIdle(ConfigurationManager.getIntProperty(POOL_MIN_IDLE_KEY, 2));
-            config.setConnectionTimeout(ConfigurationManager.getIntProperty(POOL_CONNECTION_TIMEOUT_KEY, 30000));
-            config.setIdleTimeout(ConfigurationManager.getIntProperty(POOL_IDLE_TIMEOUT_KEY, 600000));
-            config.setMaxLifetime(ConfigurationManager.getIntProperty(POOL_MAX_LIFETIME_KEY, 1800000));
+            config.setMaximumPoolSize(POOL_MAX_SIZE_KEY.get());
+            config.setMinimumIdle(Math.min(POOL_MIN_IDLE_KEY.get(), POOL_MAX_SIZE_KEY.get()));
+            config.setConnectionTimeout(POOL_CONNECTION_TIMEOUT_KEY.get());
+            config.setIdleTimeout(POOL_IDLE_TIMEOUT_KEY.get());
+            config.setMaxLifetime(POOL_MAX_LIFETIME_KEY.get());
             
             dataSource = new HikariDataSource(config);
+            profiler = QueryProfiler.create(dataSource).orElse(null);
+            ConfigurationManager.addChangeListener(DatabaseConfig::applyPoolChanges);
             
             // Test the connection
             try (Connection testConn = dataSource.getConnection()) {
@@ -64,7 +72,7 @@ public class DatabaseConfig {
             }
             
             // Initialize database tables if auto-create is enabled
-            if (ConfigurationManager.getBooleanProperty(DB_AUTO_CREATE_KEY, true)) {
+            if (DB_AUTO_CREATE_KEY.get()) {
                 initializeDatabase();
             }
             
@@ -77,6 +85,36 @@ public class DatabaseConfig {
         }
     }
     
+    /**
+     * Applies changed pool settings to the running pool. Connections above a lowered maximum are retired as
+     * they are returned; connection settings (URL, credentials) only take effect after a restart.
+     */
+    private static void applyPoolChanges(ConfigChangeEvent event) {
+        if (event.affects(DB_URL_KEY, DB_USERNAME_KEY, DB_PASSWORD_KEY)) {
+            logger.warn("Database connection settings changed; restart the application to use them");
+        }
+        HikariDataSource pool = dataSource;
+        if (pool == null || !event.affectsPrefix("db.pool.")) {
+            return;
+        }
+        HikariConfigMXBean bean = pool.getHikariConfigMXBean();
+        int maxSize = POOL_MAX_SIZE_KEY.get();
+        int minIdle = Math.min(POOL_MIN_IDLE_KEY.get(), maxSize);
+        // Hikari rejects a minimum above the maximum, so shrink the minimum before the maximum and grow it after
+        if (maxSize < bean.getMaximumPoolSize()) {
+            bean.setMinimumIdle(minIdle);
+            bean.setMaximumPoolSize(maxSize);
+        } else {
+            bean.setMaximumPoolSize(maxSize);
+            bean.setMinimumIdle(minIdle);
+        }
+        bean.setConnectionTimeout(POOL_CONNECTION_TIMEOUT_KEY.get());
+        bean.setIdleTimeout(POOL_IDLE_TIMEOUT_KEY.get());
+        bean.setMaxLifetime(POOL_MAX_LIFETIME_KEY.get());
+        logger.info("Connection pool reconfigured: maximumPoolSize={}, minimumIdle={}, connectionTimeout={}ms",
+                bean.getMaximumPoolSize(), bean.getMinimumIdle(), bean.getConnectionTimeout());
+    }
+    
     public static DataSource getDataSource() {
         return dataSource;
     }
@@ -85,7 +123,8 @@ public class DatabaseConfig {
         if (dataSource == null) {
             throw new SQLException("Database connection pool is not initialized. Please check your MySQL configuration.");
         }
-        return dataSource.getConnection();
+        Connection connection = dataSource.getConnection();
+        return profiler != null ? profiler.wrap(connection) : connection;
     }
     
     private static void initializeDatabase() {
@@ -97,28 +136,148 @@ public class DatabaseConfig {
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement()) {
             
-            String schemaName = ConfigurationManager.getProperty(DB_SCHEMA_KEY, "todo_app");
+            String schemaName = DB_SCHEMA_KEY.get();
             
             // Create a database if it doesn't exist
             stmt.executeUpdate("CREATE DATABASE IF NOT EXISTS " + schemaName);
             stmt.executeUpdate("USE " + schemaName);
             
+            // Create users and their lists
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS users (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    username VARCHAR(100) NOT NULL UNIQUE,
+                    display_name VARCHAR(255),
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS todo_lists (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    owner_id INT NOT NULL,
+                    name VARCHAR(255) NOT NULL,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    INDEX idx_todo_lists_owner (owner_id),
+                    FOREIGN KEY (owner_id) REFERENCES users(id) ON DELETE CASCADE
+                )
+            """);
+            // Default user and list that unscoped (pre-existing) todos belong to
+            stmt.executeUpdate("INSERT IGNORE INTO users (id, username, display_name) VALUES (1, 'default', 'Default User')");
+            stmt.executeUpdate("INSERT IGNORE INTO todo_lists (id, owner_id, name) VALUES (1, 1, 'Inbox')");
+            
             // Create todos table
             String createTableSQL = """
                 CREATE TABLE IF NOT EXISTS todos (
                     id INT AUTO_INCREMENT PRIMARY KEY,
+                    owner_id INT NOT NULL DEFAULT 1,
+                    list_id INT NOT NULL DEFAULT 1,
                     title VARCHAR(255) NOT NULL,
                     description TEXT,
                     priority ENUM('LOW', 'MEDIUM', 'HIGH') NOT NULL DEFAULT 'MEDIUM',
                     completed BOOLEAN NOT NULL DEFAULT FALSE,
                     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                     due_date TIMESTAMP NULL,
-                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+                    recurrence_rule VARCHAR(255) NULL,
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                    version INT NOT NULL DEFAULT 0,
+                    client_key CHAR(36) NULL,
+                    UNIQUE INDEX uk_todos_client_key (client_key),
+                    INDEX idx_todos_scope (owner_id, list_id, created_at),
+                    INDEX idx_todos_updated (owner_id, list_id, updated_at),
+                    INDEX idx_todos_archivable (completed, updated_at),
+                    INDEX idx_todos_owner_archivable (owner_id, completed, updated_at)
                 )
             """;
             
             stmt.executeUpdate(createTableSQL);
-            
+            // Upgrade tables created by older versions
+            addColumnIfMissing(conn, schemaName, "owner_id", """
+                ALTER TABLE todos
+                    ADD COLUMN owner_id INT NOT NULL DEFAULT 1 AFTER id,
+                    ADD COLUMN list_id INT NOT NULL DEFAULT 1 AFTER owner_id,
+                    ADD INDEX idx_todos_scope (owner_id, list_id, created_at)
+            """);
+            addColumnIfMissing(conn, schemaName, "recurrence_rule",
+                    "ALTER TABLE todos ADD COLUMN recurrence_rule VARCHAR(255) NULL AFTER due_date");
+            addColumnIfMissing(conn, schemaName, "version",
+                    "ALTER TABLE todos ADD COLUMN version INT NOT NULL DEFAULT 0 AFTER updated_at");
+            addColumnIfMissing(conn, schemaName, "client_key",
+                    "ALTER TABLE todos ADD COLUMN client_key CHAR(36) NULL AFTER version, ADD UNIQUE INDEX uk_todos_client_key (client_key)");
+            addIndexIfMissing(conn, schemaName, "idx_todos_updated",
+                    "ALTER TABLE todos ADD INDEX idx_todos_updated (owner_id, list_id, updated_at)");
+            addIndexIfMissing(conn, schemaName, "idx_todos_archivable",
+                    "ALTER TABLE todos ADD INDEX idx_todos_archivable (completed, updated_at)");
+            addIndexIfMissing(conn, schemaName, "idx_todos_owner_archivable",
+                    "ALTER TABLE todos ADD INDEX idx_todos_owner_archivable (owner_id, completed, updated_at)");
+
+            // Reminder progress per todo, read by next fire time so startup only loads the near horizon
+            boolean remindersExisted = tableExists(conn, schemaName, "reminders");
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS reminders (
+                    todo_id INT PRIMARY KEY,
+                    owner_id INT NOT NULL,
+                    list_id INT NOT NULL,
+                    due_at TIMESTAMP NULL,
+                    next_fire_at TIMESTAMP NULL,
+                    last_fired_at TIMESTAMP NULL,
+                    snoozed_until TIMESTAMP NULL,
+                    INDEX idx_reminders_next_fire (owner_id, list_id, next_fire_at),
+                    FOREIGN KEY (todo_id) REFERENCES todos(id) ON DELETE CASCADE
+                )
+            """);
+            if (!remindersExisted) {
+                // Seed open todos once; recurring ones are moved to their next occurrence when first loaded
+                int seeded = stmt.executeUpdate("""
+                    INSERT IGNORE INTO reminders (todo_id, owner_id, list_id, due_at, next_fire_at)
+                    SELECT id, owner_id, list_id, due_date, due_date - INTERVAL 5 MINUTE
+                    FROM todos WHERE completed = FALSE AND due_date IS NOT NULL
+                """);
+                logger.info("Created reminders table, seeded {} reminder(s)", seeded);
+            }
+
+            // Change feed: notices of written todo ids, numbered per list by a counter row that writers lock
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS todo_change_seqs (
+                    owner_id INT NOT NULL,
+                    list_id INT NOT NULL,
+                    seq BIGINT NOT NULL,
+                    PRIMARY KEY (owner_id, list_id)
+                )
+            """);
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS todo_changes (
+                    owner_id INT NOT NULL,
+                    list_id INT NOT NULL,
+                    seq BIGINT NOT NULL,
+                    todo_id INT NOT NULL,
+                    deleted BOOLEAN NOT NULL,
+                    origin CHAR(36) NOT NULL,
+                    changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    PRIMARY KEY (owner_id, list_id, seq),
+                    INDEX idx_todo_changes_age (changed_at)
+                )
+            """);
+
+            // Cold tier: todos completed long ago, moved here whole so that they can be moved back
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS todos_archive (
+                    id INT PRIMARY KEY,
+                    owner_id INT NOT NULL,
+                    list_id INT NOT NULL,
+                    title VARCHAR(255) NOT NULL,
+                    description TEXT,
+                    priority ENUM('LOW', 'MEDIUM', 'HIGH') NOT NULL,
+                    completed BOOLEAN NOT NULL,
+                    created_at TIMESTAMP NULL,
+                    due_date TIMESTAMP NULL,
+                    recurrence_rule VARCHAR(255) NULL,
+                    updated_at TIMESTAMP NULL,
+                    version INT NOT NULL,
+                    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    INDEX idx_todos_archive_scope (owner_id, list_id, updated_at)
+                )
+            """);
+
             logger.info("Database initialized successfully!");
             
         } catch (SQLException e) {
@@ -126,7 +285,63 @@ public class DatabaseConfig {
         }
     }
     
+    /**
+     * Runs {@code alterSql} unless {@code todos} already has {@code column}. Existing rows get the column defaults,
+     * which put them in the default user's first list.
+     */
+    private static void addColumnIfMissing(Connection conn, String schemaName, String column, String alterSql) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = ? AND TABLE_NAME = 'todos' AND COLUMN_NAME = ?";
+        try (PreparedStatement check = conn.prepareStatement(sql)) {
+            check.setString(1, schemaName);
+            check.setString(2, column);
+            try (ResultSet rs = check.executeQuery()) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    return;
+                }
+            }
+        }
+        logger.info("Migrating todos table: adding {}", column);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(alterSql);
+        }
+    }
+    
+    /**
+     * Runs {@code alterSql} unless {@code todos} already has an index named {@code index}.
+     */
+    private static void addIndexIfMissing(Connection conn, String schemaName, String index, String alterSql) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = ? AND TABLE_NAME = 'todos' AND INDEX_NAME = ?";
+        try (PreparedStatement check = conn.prepareStatement(sql)) {
+            check.setString(1, schemaName);
+            check.setString(2, index);
+            try (ResultSet rs = check.executeQuery()) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    return;
+                }
+            }
+        }
+        logger.info("Migrating todos table: adding index {}", index);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(alterSql);
+        }
+    }
+    
+    private static boolean tableExists(Connection conn, String schemaName, String table) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ?";
+        try (PreparedStatement check = conn.prepareStatement(sql)) {
+            check.setString(1, schemaName);
+            check.setString(2, table);
+            try (ResultSet rs = check.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
     public static void closeDataSource() {
+        if (profiler != null) {
+            profiler.close();
+            profiler = null;
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
         }
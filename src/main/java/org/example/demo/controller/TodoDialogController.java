@@ -14,16 +14,62 @@ import javafx.stage.Stage;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.example.demo.model.Recurrence;
 import org.example.demo.model.Todo;
 
 import java.net.URL;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Objects;
 import java.util.ResourceBundle;
 
 @Slf4j
 public class TodoDialogController implements Initializable {
+
+    /**
+     * Choices of the Repeat box. {@code CUSTOM} is only offered when editing a todo whose rule matches no preset,
+     * and keeps that rule unchanged.
+     */
+    enum Repeat {
+        NONE("Does not repeat", null),
+        DAILY("Every day", "FREQ=DAILY"),
+        WEEKDAYS("Every weekday", "FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR"),
+        WEEKLY("Every week", "FREQ=WEEKLY"),
+        MONTHLY("Every month", "FREQ=MONTHLY"),
+        YEARLY("Every year", "FREQ=YEARLY"),
+        CUSTOM("Custom", null);
+
+        private final String displayName;
+        private final String rule;
+
+        Repeat(String displayName, String rule) {
+            this.displayName = displayName;
+            this.rule = rule;
+        }
+
+        static Repeat of(String rule) {
+            if (rule == null || rule.isBlank()) {
+                return NONE;
+            }
+            try {
+                String normalized = Recurrence.parse(rule).withStart(null).toRule();
+                for (Repeat repeat : values()) {
+                    if (normalized.equals(repeat.rule)) {
+                        return repeat;
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Unreadable recurrence rule '{}': {}", rule, e.getMessage());
+            }
+            return CUSTOM;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
     @FXML
     private TextField titleField;
     @FXML
@@ -37,6 +83,8 @@ public class TodoDialogController implements Initializable {
     @FXML
     private Spinner<Integer> minuteSpinner;
     @FXML
+    private ComboBox<Repeat> repeatComboBox;
+    @FXML
     private Button okButton;
     @FXML
     private Button cancelButton;
@@ -49,11 +97,16 @@ public class TodoDialogController implements Initializable {
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        log.info("Initializing TodoDialogController");
+        log.debug("Initializing TodoDialogController");
 
         try {
             priorityComboBox.getItems().addAll(Todo.Priority.values());
-            priorityComboBox.setValue(Todo.Priority.MEDIUM);
+
+            for (Repeat repeat : Repeat.values()) {
+                if (repeat != Repeat.CUSTOM) {
+                    repeatComboBox.getItems().add(repeat);
+                }
+            }
 
             // Setup time spinners with proper value factories
             SpinnerValueFactory<Integer> hourValueFactory = new SpinnerValueFactory.IntegerSpinnerValueFactory(0, 23, 9);
@@ -64,19 +117,54 @@ public class TodoDialogController implements Initializable {
             minuteSpinner.setValueFactory(minuteValueFactory);
             minuteSpinner.setEditable(true);
 
-            // Set default due date to tomorrow
-            dueDatePicker.setValue(LocalDate.now().plusDays(1));
+            reset();
 
             // Validation
             setupValidation();
 
-            log.info("TodoDialogController initialized successfully");
+            log.debug("TodoDialogController initialized successfully");
         } catch (Exception e) {
             log.error("Error initializing TodoDialogController", e);
             throw e;
         }
     }
 
+    /**
+     * Takes the nodes of a view built in code instead of FXML injection and initializes as after loading.
+     */
+    void bind(TodoDialogView view) {
+        titleField = view.titleField;
+        descriptionArea = view.descriptionArea;
+        priorityComboBox = view.priorityComboBox;
+        dueDatePicker = view.dueDatePicker;
+        hourSpinner = view.hourSpinner;
+        minuteSpinner = view.minuteSpinner;
+        repeatComboBox = view.repeatComboBox;
+        okButton = view.okButton;
+        cancelButton = view.cancelButton;
+        okButton.setOnAction(event -> handleOk());
+        cancelButton.setOnAction(event -> handleCancel());
+        initialize(null, null);
+    }
+
+    /**
+     * Puts the form back to an empty new todo, so one instance can serve every open of the dialog.
+     */
+    public void reset() {
+        todo = null;
+        okClicked = false;
+        titleField.clear();
+        descriptionArea.clear();
+        priorityComboBox.setValue(Todo.Priority.MEDIUM);
+        repeatComboBox.getItems().remove(Repeat.CUSTOM);
+        repeatComboBox.setValue(Repeat.NONE);
+        // Default due date is tomorrow at 9:00
+        dueDatePicker.setValue(LocalDate.now().plusDays(1));
+        hourSpinner.getValueFactory().setValue(9);
+        minuteSpinner.getValueFactory().setValue(0);
+        titleField.requestFocus();
+    }
+
     private void setupValidation() {
         okButton.disableProperty().bind(
                 titleField.textProperty().isEmpty()
@@ -84,7 +172,7 @@ public class TodoDialogController implements Initializable {
     }
 
     public Todo getTodo() {
-        log.info("Getting todo from form");
+        log.debug("Getting todo from form");
 
         try {
             // Get the values from the form
@@ -103,17 +191,25 @@ public class TodoDialogController implements Initializable {
                 log.debug("Due date set to: {}", dueDate);
             }
 
+            Repeat repeat = repeatComboBox.getValue();
+            // An unchanged series keeps its start; a new repeat or due date starts it again at the due date
+            boolean sameSeries = todo != null && Repeat.of(todo.getRecurrenceRule()) == repeat
+                    && Objects.equals(todo.getDueDate(), dueDate);
+            String recurrenceRule = repeat == Repeat.CUSTOM || sameSeries ? todo.getRecurrenceRule() : repeat.rule;
+
             if (todo == null) {
                 // Create new toDoInfo with the form values
                 todo = new Todo(title, description, priority, dueDate);
-                log.info("Created new todo: {}", title);
+                todo.setRecurrenceRule(recurrenceRule);
+                log.debug("Created new todo: {}", title);
             } else {
                 // Update existing toDoInfo
                 todo.setTitle(title);
                 todo.setDescription(description);
                 todo.setPriority(priority);
                 todo.setDueDate(dueDate);
-                log.info("Updated existing todo: {}", title);
+                todo.setRecurrenceRule(recurrenceRule);
+                log.debug("Updated existing todo: {}", title);
             }
 
             return todo;
@@ -124,8 +220,9 @@ public class TodoDialogController implements Initializable {
     }
 
     public void setTodo(Todo todo) {
-        log.info("Setting todo for editing: {}", todo != null ? todo.getTitle() : "new todo");
+        log.debug("Setting todo for editing: {}", todo != null ? todo.getTitle() : "new todo");
 
+        reset();
         this.todo = todo;
 
         if (todo != null) {
@@ -141,7 +238,13 @@ public class TodoDialogController implements Initializable {
                     log.debug("Set due date: {}", todo.getDueDate());
                 }
 
-                log.info("Todo fields populated successfully");
+                Repeat repeat = Repeat.of(todo.getRecurrenceRule());
+                if (repeat == Repeat.CUSTOM) {
+                    repeatComboBox.getItems().add(Repeat.CUSTOM);
+                }
+                repeatComboBox.setValue(repeat);
+
+                log.debug("Todo fields populated successfully");
             } catch (Exception e) {
                 log.error("Error setting todo fields", e);
             }
@@ -150,10 +253,10 @@ public class TodoDialogController implements Initializable {
 
     @FXML
     private void handleOk() {
-        log.info("OK button clicked, validating input");
+        log.debug("OK button clicked, validating input");
 
         if (isInputValid()) {
-            log.info("Input validation passed, closing dialog");
+            log.debug("Input validation passed, closing dialog");
             okClicked = true;
             dialogStage.close();
         } else {
@@ -163,7 +266,7 @@ public class TodoDialogController implements Initializable {
 
     @FXML
     private void handleCancel() {
-        log.info("Cancel button clicked, closing dialog without saving");
+        log.debug("Cancel button clicked, closing dialog without saving");
         dialogStage.close();
     }
 
@@ -186,11 +289,16 @@ public class TodoDialogController implements Initializable {
             log.warn("Validation failed: Description too long ({})", descriptionArea.getText().trim().length());
         }
 
+        if (repeatComboBox.getValue() != Repeat.NONE && dueDatePicker.getValue() == null) {
+            errorMessage += "A repeating todo needs a due date for its first occurrence!\n";
+            log.warn("Validation failed: Repeat without due date");
+        }
+
         if (errorMessage.isEmpty()) {
             log.debug("Input validation passed");
             return true;
         } else {
-            log.info("Input validation failed with errors: {}", errorMessage.trim());
+            log.debug("Input validation failed with errors: {}", errorMessage.trim());
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.initOwner(dialogStage);
             alert.setTitle("Invalid Input");
@@ -0,0 +1,112 @@
+package org.example.demo.controller;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import org.example.demo.component.ReusableDialog;
+import org.example.demo.model.Todo;
+
+/**
+ * The todo dialog built in code: the same node tree as {@code todo-dialog.fxml}, without the FXML parser and
+ * reflective field injection. Keep both in sync; the FXML stays the version to edit in Scene Builder.
+ */
+final class TodoDialogView {
+    private static final String FIELD_STYLE = "-fx-background-radius: 5; -fx-border-radius: 5; -fx-border-color: #ddd;";
+    private static final String CHOICE_STYLE = "-fx-background-radius: 5;";
+
+    final BorderPane root = new BorderPane();
+    final TextField titleField = new TextField();
+    final TextArea descriptionArea = new TextArea();
+    final ComboBox<Todo.Priority> priorityComboBox = new ComboBox<>();
+    final DatePicker dueDatePicker = new DatePicker();
+    final Spinner<Integer> hourSpinner = new Spinner<>();
+    final Spinner<Integer> minuteSpinner = new Spinner<>();
+    final ComboBox<TodoDialogController.Repeat> repeatComboBox = new ComboBox<>();
+    final Button cancelButton = new Button("Cancel");
+    final Button okButton = new Button("Save");
+
+    /**
+     * Builds the view together with a controller bound to it.
+     */
+    static ReusableDialog.View<TodoDialogController> build() {
+        TodoDialogView view = new TodoDialogView();
+        TodoDialogController controller = new TodoDialogController();
+        controller.bind(view);
+        return new ReusableDialog.View<>(view.root, controller);
+    }
+
+    private TodoDialogView() {
+        root.getStylesheets().add(TodoDialogView.class.getResource("/org/example/demo/styles.css").toExternalForm());
+
+        titleField.setPrefHeight(35);
+        titleField.setPromptText("Enter todo title...");
+        titleField.setStyle(FIELD_STYLE);
+
+        descriptionArea.setPrefHeight(80);
+        descriptionArea.setPromptText("Enter description (optional)...");
+        descriptionArea.setStyle(FIELD_STYLE);
+        descriptionArea.setWrapText(true);
+
+        priorityComboBox.setPrefSize(150, 35);
+        priorityComboBox.setStyle(CHOICE_STYLE);
+
+        dueDatePicker.setPrefHeight(35);
+        dueDatePicker.setStyle(CHOICE_STYLE);
+        hourSpinner.setPrefSize(70, 35);
+        minuteSpinner.setPrefSize(70, 35);
+        Label at = new Label("at");
+        at.setStyle("-fx-text-fill: #666;");
+        Label colon = new Label(":");
+        colon.setStyle("-fx-text-fill: #666; -fx-font-weight: bold;");
+        HBox dueRow = new HBox(10, dueDatePicker, at, hourSpinner, colon, minuteSpinner);
+        dueRow.setAlignment(Pos.CENTER_LEFT);
+        Label timeFormat = new Label("(24-hour format: HH:MM)");
+        timeFormat.setStyle("-fx-text-fill: #888; -fx-font-size: 10px;");
+
+        repeatComboBox.setPrefSize(180, 35);
+        repeatComboBox.setStyle(CHOICE_STYLE);
+
+        VBox form = new VBox(15,
+                section("Title", titleField),
+                section("Description", descriptionArea),
+                section("Priority", priorityComboBox),
+                section("Due Date and Time", dueRow, timeFormat),
+                section("Repeat", repeatComboBox));
+        form.setStyle("-fx-background-color: white;");
+        form.setPadding(new Insets(20));
+        root.setCenter(form);
+
+        cancelButton.setMnemonicParsing(false);
+        cancelButton.setPrefSize(80, 35);
+        cancelButton.setStyle("-fx-background-color: #757575; -fx-text-fill: white; -fx-background-radius: 5;");
+        okButton.setMnemonicParsing(false);
+        okButton.setPrefSize(80, 35);
+        okButton.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white; -fx-background-radius: 5;");
+        HBox buttons = new HBox(10, cancelButton, okButton);
+        buttons.setAlignment(Pos.CENTER_RIGHT);
+        buttons.setStyle("-fx-background-color: #f5f5f5; -fx-border-color: #ddd; -fx-border-width: 1 0 0 0;");
+        buttons.setPadding(new Insets(15, 20, 15, 20));
+        root.setBottom(buttons);
+    }
+
+    private static VBox section(String title, Node... content) {
+        Label label = new Label(title);
+        label.setTextFill(Color.web("#333333"));
+        label.setFont(new Font("System Bold", 12));
+        VBox section = new VBox(5, label);
+        section.getChildren().addAll(content);
+        return section;
+    }
+}
@@ -1,34 +1,63 @@
 package org.example.demo.controller;
 
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonBar;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
-import javafx.stage.Modality;
-import javafx.stage.Stage;
 import lombok.extern.slf4j.Slf4j;
+import org.example.demo.component.ReusableDialog;
 import org.example.demo.component.TodoCell;
+import org.example.demo.config.ConfigKey;
 import org.example.demo.model.Todo;
 import org.example.demo.service.TodoService;
+import org.example.demo.service.TodoStatistics;
+import org.example.demo.service.search.Highlighter;
+import org.example.demo.service.search.SearchHit;
+import org.example.demo.service.search.SearchResult;
+import org.example.demo.service.sort.SortKey;
+import org.example.demo.service.sync.TodoConflict;
+import org.example.demo.service.sync.TodoMerge;
 
 import java.io.IOException;
 import java.net.URL;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class TodoMainController implements Initializable, TodoCell.TodoCellCallback {
+    /** Ranked search shows only the best matches; more would not be read anyway. */
+    private static final int SEARCH_LIMIT = 200;
+    /** The archive is read on demand; a range with more rows shows the newest. */
+    private static final int ARCHIVE_LIMIT = 500;
+    private static final String ARCHIVED_FILTER = "Archived";
 
+    // Configuration keys
+    private static final ConfigKey<Boolean> DIALOG_PRELOAD_KEY = ConfigKey.ofBoolean("ui.dialog.preload", true);
+    private static final ConfigKey<Boolean> DIALOG_COMPILED_KEY = ConfigKey.ofBoolean("ui.dialog.compiled", true);
 
     @FXML
     private ListView<Todo> todoListView;
@@ -37,10 +66,22 @@ public class TodoMainController implements Initializable, TodoCell.TodoCellCallb
     @FXML
     private Button refreshButton;
     @FXML
+    private Button undoButton;
+    @FXML
+    private Button redoButton;
+    @FXML
     private ComboBox<String> filterComboBox;
     @FXML
+    private ComboBox<SortKey> sortComboBox;
+    @FXML
     private TextField searchField;
     @FXML
+    private HBox archiveRangeBox;
+    @FXML
+    private DatePicker archiveFromPicker;
+    @FXML
+    private DatePicker archiveToPicker;
+    @FXML
     private Label totalCountLabel;
     @FXML
     private Label completedCountLabel;
@@ -52,16 +93,30 @@ public class TodoMainController implements Initializable, TodoCell.TodoCellCallb
     private VBox emptyStateContainer;
 
     private TodoService todoService;
+    private SearchResult searchResult = SearchResult.EMPTY;
+    /** Rows of the archive range last loaded; null unless the archive is shown. */
+    private List<Todo> archivedTodos;
+    private final AtomicBoolean searchRefreshPending = new AtomicBoolean();
+    private final ReusableDialog<TodoDialogController> todoDialog = new ReusableDialog<>("todo",
+            DIALOG_COMPILED_KEY.get() ? TodoDialogView::build : TodoMainController::loadTodoDialog);
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         log.info("Initializing TodoMainController");
 
         try {
+            // Builds the dialog while the service loads the todos
+            if (DIALOG_PRELOAD_KEY.get()) {
+                todoDialog.preload();
+            }
             todoService = TodoService.getInstance();
             setupListView();
             setupFilters();
             setupSearch();
+            setupUndo();
+            todoService.setConflictHandler(this::resolveConflict);
+            // Counts are pushed from the change stream rather than recomputed after each action
+            todoService.getStatistics().addListener(snapshot -> Platform.runLater(() -> showStatistics(snapshot)));
             updateStatistics();
             refreshTodoList();
 
@@ -78,13 +133,48 @@ public class TodoMainController implements Initializable, TodoCell.TodoCellCallb
     }
 
     private void setupFilters() {
-        filterComboBox.getItems().addAll("All", "Pending", "Completed", "Overdue");
+        filterComboBox.getItems().addAll("All", "Pending", "Completed", "Overdue", ARCHIVED_FILTER);
         filterComboBox.setValue("All");
-        filterComboBox.setOnAction(e -> refreshTodoList());
+        filterComboBox.setOnAction(e -> onFilterChanged());
+        archiveToPicker.setValue(LocalDate.now());
+        archiveFromPicker.setValue(LocalDate.now().minusYears(1));
+        archiveFromPicker.setOnAction(e -> loadArchive());
+        archiveToPicker.setOnAction(e -> loadArchive());
+
+        // The sorted view reorders itself; the filtered list on top follows the permutation
+        var sortedTodos = todoService.getSortedTodos();
+        sortComboBox.getItems().addAll(SortKey.values());
+        sortComboBox.setValue(sortedTodos.getSortKey());
+        sortComboBox.setOnAction(e -> sortedTodos.setSortKey(sortComboBox.getValue()));
     }
 
     private void setupSearch() {
         searchField.textProperty().addListener((observable, oldValue, newValue) -> refreshTodoList());
+        // The index is updated in the background; re-run an open search once it caught up, at most once per pulse
+        todoService.getSearchEngine().addListener(() -> {
+            if (searchRefreshPending.compareAndSet(false, true)) {
+                Platform.runLater(() -> {
+                    searchRefreshPending.set(false);
+                    if (!searchField.getText().isBlank()) {
+                        refreshTodoList();
+                    }
+                });
+            }
+        });
+    }
+
+    private void setupUndo() {
+        undoButton.disableProperty().bind(todoService.canUndoProperty().not());
+        redoButton.disableProperty().bind(todoService.canRedoProperty().not());
+        undoButton.setTooltip(new Tooltip("Undo the last change (Ctrl+Z)"));
+        redoButton.setTooltip(new Tooltip("Redo (Ctrl+Shift+Z or Ctrl+Y)"));
+        todoListView.sceneProperty().addListener((observable, oldScene, scene) -> {
+            if (scene != null) {
+                scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN), this::handleUndo);
+                scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN), this::handleRedo);
+                scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN), this::handleRedo);
+            }
+        });
     }
 
     private VBox createEmptyStateView() {
@@ -112,63 +202,144 @@ public class TodoMainController implements Initializable, TodoCell.TodoCellCallb
         updateStatistics();
     }
 
+    @FXML
+    private void handleUndo() {
+        todoService.undo().ifPresent(description -> {
+            log.info("Undid: {}", description);
+            refreshTodoList();
+        });
+    }
+
+    @FXML
+    private void handleRedo() {
+        todoService.redo().ifPresent(description -> {
+            log.info("Redid: {}", description);
+            refreshTodoList();
+        });
+    }
+
     @FXML
     private void handleTestNotification() {
         todoService.testNotification();
     }
 
+    private void onFilterChanged() {
+        boolean archived = isArchiveShown();
+        archiveRangeBox.setVisible(archived);
+        archiveRangeBox.setManaged(archived);
+        if (archived) {
+            loadArchive();
+        } else {
+            archivedTodos = null;
+            refreshTodoList();
+        }
+    }
+
+    private boolean isArchiveShown() {
+        return ARCHIVED_FILTER.equals(filterComboBox.getValue());
+    }
+
+    /**
+     * Reads the archived todos completed in the chosen range. Unlike the other filters this goes to the
+     * database, so it is done once per range rather than per keystroke.
+     */
+    private void loadArchive() {
+        LocalDate from = archiveFromPicker.getValue();
+        LocalDate to = archiveToPicker.getValue();
+        if (from == null || to == null || from.isAfter(to)) {
+            archivedTodos = List.of();
+        } else {
+            try {
+                archivedTodos = todoService.getArchivedTodos(from, to, ARCHIVE_LIMIT);
+            } catch (Exception e) {
+                log.error("Error loading archived todos: {}", e.getMessage(), e);
+                showErrorAlert("Archive Error", "Could not load archived todos: " + e.getMessage());
+                archivedTodos = List.of();
+            }
+        }
+        refreshTodoList();
+    }
+
     private void refreshTodoList() {
-        var allTodos = todoService.getAllTodos();
-        var filteredTodos = allTodos.filtered(todo -> {
-            // Apply filter
-            boolean matchesFilter = switch (filterComboBox.getValue()) {
-                case "Pending" -> !todo.isCompleted();
-                case "Completed" -> todo.isCompleted();
-                case "Overdue" -> todo.isOverdue();
-                default -> true; // "All"
-            };
-
-            // Apply search
-            String searchText = searchField.getText().toLowerCase().trim();
-            boolean matchesSearch = searchText.isEmpty() ||
-                    todo.getTitle().toLowerCase().contains(searchText) ||
-                    todo.getDescription().toLowerCase().contains(searchText);
-
-            return matchesFilter && matchesSearch;
-        });
+        if (isArchiveShown()) {
+            showArchive();
+            return;
+        }
+        Predicate<Todo> matchesFilter = todo -> switch (filterComboBox.getValue()) {
+            case "Pending" -> !todo.isCompleted();
+            case "Completed" -> todo.isCompleted();
+            case "Overdue" -> todo.isOverdue();
+            default -> true; // "All"
+        };
+
+        String query = searchField.getText().trim();
+        if (query.isEmpty()) {
+            searchResult = SearchResult.EMPTY;
+            todoListView.setItems(todoService.getSortedTodos().filtered(matchesFilter));
+            return;
+        }
 
-        todoListView.setItems(filteredTodos);
-        updateStatistics();
+        // Searching shows the best matches in rank order instead of the chosen sort order
+        searchResult = todoService.search(query, SEARCH_LIMIT);
+        List<Todo> matches = new ArrayList<>(searchResult.hits().size());
+        for (SearchHit hit : searchResult.hits()) {
+            todoService.getTodoById(hit.todoId()).filter(matchesFilter).ifPresent(matches::add);
+        }
+        todoListView.setItems(FXCollections.observableArrayList(matches));
+        todoListView.refresh();
     }
 
-    private void updateStatistics() {
-        Platform.runLater(() -> {
-            totalCountLabel.setText(String.valueOf(todoService.getTotalCount()));
-            completedCountLabel.setText(String.valueOf(todoService.getCompletedCount()));
-            pendingCountLabel.setText(String.valueOf(todoService.getPendingCount()));
-            overdueCountLabel.setText(String.valueOf(todoService.getOverdueCount()));
-        });
+    private void showArchive() {
+        searchResult = SearchResult.EMPTY;
+        String query = searchField.getText().trim().toLowerCase(Locale.ROOT);
+        List<Todo> shown = archivedTodos != null ? archivedTodos : List.of();
+        if (!query.isEmpty()) {
+            // The search index covers the loaded list only; a loaded range is small enough to scan
+            shown = shown.stream()
+                    .filter(todo -> contains(todo.getTitle(), query) || contains(todo.getDescription(), query))
+                    .toList();
+        }
+        todoListView.setItems(FXCollections.observableArrayList(shown));
     }
 
-    private void openTodoDialog(Todo todo) {
-        log.info("Opening todo dialog for: {}", todo != null ? "editing " + todo.getTitle() : "new todo");
+    private static boolean contains(String text, String query) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(query);
+    }
 
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/org/example/demo/todo-dialog.fxml"));
-            Parent root = loader.load();
+    @Override
+    public Highlighter getHighlighter() {
+        return searchResult.highlighter();
+    }
+
+    private void updateStatistics() {
+        TodoStatistics.Snapshot snapshot = todoService.getStatistics().getSnapshot();
+        Platform.runLater(() -> showStatistics(snapshot));
+    }
+
+    private void showStatistics(TodoStatistics.Snapshot snapshot) {
+        totalCountLabel.setText(String.valueOf(snapshot.total()));
+        completedCountLabel.setText(String.valueOf(snapshot.completed()));
+        pendingCountLabel.setText(String.valueOf(snapshot.pending()));
+        overdueCountLabel.setText(String.valueOf(snapshot.overdue()));
+    }
 
-            TodoDialogController controller = loader.getController();
-            controller.setTodo(todo);
+    private static ReusableDialog.View<TodoDialogController> loadTodoDialog() throws IOException {
+        FXMLLoader loader = new FXMLLoader(TodoMainController.class.getResource("/org/example/demo/todo-dialog.fxml"));
+        Parent root = loader.load();
+        return new ReusableDialog.View<>(root, loader.getController());
+    }
 
-            Stage dialogStage = new Stage();
-            dialogStage.setTitle(todo == null ? "Add Todo" : "Edit Todo");
-            dialogStage.initModality(Modality.WINDOW_MODAL);
-            dialogStage.initOwner(addTodoButton.getScene().getWindow());
-            dialogStage.setScene(new Scene(root));
-            dialogStage.setResizable(false);
+    private void openTodoDialog(Todo todo) {
+        log.debug("Opening todo dialog for: {}", todo != null ? todo.getTitle() : "new todo");
 
-            controller.setDialogStage(dialogStage);
-            dialogStage.showAndWait();
+        try {
+            TodoDialogController controller = todoDialog.showAndWait(addTodoButton.getScene().getWindow(),
+                    todo == null ? "Add Todo" : "Edit Todo",
+                    (dialog, dialogStage) -> {
+                        dialog.setDialogStage(dialogStage);
+                        // The dialog edits a copy, so the listed todo keeps its previous state for undo
+                        dialog.setTodo(todo != null ? todo.copy() : null);
+                    });
 
             if (controller.isOkClicked()) {
                 Todo result = controller.getTodo();
@@ -207,13 +378,57 @@ public class TodoMainController implements Initializable, TodoCell.TodoCellCallb
             alert.showAndWait();
             return;
         }
-        
-        openTodoDialog(todo);
+
+        Todo editable;
+        try {
+            // The list may hold only the start of the description; the dialog must edit all of it
+            editable = todoService.beginEdit(todo);
+        } catch (Exception e) {
+            log.error("Could not load todo for editing: {}", todo.getTitle(), e);
+            showErrorAlert("Edit Error", "Could not load the full todo: " + e.getMessage());
+            return;
+        }
+        openTodoDialog(editable);
+    }
+
+    /**
+     * Another client changed fields this edit changed too, and their values were kept. Lets the user put
+     * theirs back.
+     */
+    private void resolveConflict(TodoConflict conflict) {
+        String fields = conflict.fields().stream()
+                .sorted()
+                .map(TodoMerge.Field::toString)
+                .collect(Collectors.joining(", "));
+        ButtonType keepTheirs = new ButtonType("Keep Theirs", ButtonBar.ButtonData.CANCEL_CLOSE);
+        ButtonType useMine = new ButtonType("Use Mine", ButtonBar.ButtonData.OK_DONE);
+
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "", keepTheirs, useMine);
+        alert.setTitle("Edit Conflict");
+        alert.setHeaderText("\"" + conflict.saved().getTitle() + "\" was changed elsewhere");
+        alert.setContentText("Your other changes were saved. Someone else also changed the " + fields
+                + ", and their version was kept. Use yours instead?");
+
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isPresent() && result.get() == useMine) {
+            try {
+                todoService.updateTodo(conflict.withMine());
+                refreshTodoList();
+            } catch (Exception e) {
+                log.error("Error saving todo: {}", e.getMessage(), e);
+                showErrorAlert("Save Error", "Failed to save todo: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public String loadDescription(Todo todo) {
+        return todoService.getFullDescription(todo);
     }
 
     @Override
     public void onDelete(Todo todo) {
-        log.info("Delete requested for todo: {}", todo.getTitle());
+        log.debug("Delete requested for todo: {}", todo.getTitle());
 
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Delete Todo");
@@ -223,7 +438,12 @@ public class TodoMainController implements Initializable, TodoCell.TodoCellCallb
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
             try {
-                todoService.deleteTodo(todo);
+                if (isArchiveShown()) {
+                    todoService.deleteArchivedTodo(todo);
+                    archivedTodos = withoutTodo(archivedTodos, todo);
+                } else {
+                    todoService.deleteTodo(todo);
+                }
                 log.info("Successfully deleted todo: {}", todo.getTitle());
                 refreshTodoList();
             } catch (Exception e) {
@@ -237,12 +457,20 @@ public class TodoMainController implements Initializable, TodoCell.TodoCellCallb
 
     @Override
     public void onToggleComplete(Todo todo) {
-        log.info("Toggling completion status for todo: {} (current: {})", todo.getTitle(), todo.isCompleted());
+        log.debug("Toggling completion status for todo: {} (current: {})", todo.getTitle(), todo.isCompleted());
 
         try {
-            todo.setCompleted(!todo.isCompleted());
-            todoService.updateTodo(todo);
-            log.info("Successfully toggled completion for todo: {} (new status: {})", todo.getTitle(), todo.isCompleted());
+            if (isArchiveShown()) {
+                // Reopening brings it back into the list; the archive holds completed todos only
+                todoService.reopenArchivedTodo(todo);
+                archivedTodos = withoutTodo(archivedTodos, todo);
+            } else if (todo.isCompleted()) {
+                todoService.reopenTodo(todo);
+            } else {
+                // Recurring todos advance to their next occurrence
+                todoService.completeTodo(todo);
+            }
+            log.debug("Successfully toggled completion for todo: {}", todo.getTitle());
             refreshTodoList();
         } catch (Exception e) {
             log.error("Error updating todo completion status: {}", todo.getTitle(), e);
@@ -250,6 +478,10 @@ public class TodoMainController implements Initializable, TodoCell.TodoCellCallb
         }
     }
 
+    private static List<Todo> withoutTodo(List<Todo> todos, Todo removed) {
+        return todos.stream().filter(todo -> todo.getId() != removed.getId()).toList();
+    }
+
     private void showErrorAlert(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -0,0 +1,222 @@
+package org.example.demo.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.cache.BoundedCache;
+import org.example.demo.cache.CacheStats;
+import org.example.demo.config.ConfigChangeEvent;
+import org.example.demo.config.ConfigKey;
+import org.example.demo.config.ConfigurationManager;
+import org.example.demo.metrics.MetricsRegistry;
+import org.example.demo.model.DueDayCount;
+import org.example.demo.model.PageCursor;
+import org.example.demo.model.Todo;
+import org.example.demo.model.TodoScope;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read-through cache in front of another {@link TodoDAO}. {@link #findById(TodoScope, int)} is served from a
+ * bounded LRU cache; {@link #save(Todo)} and {@link #deleteById(TodoScope, int)} write through to the delegate
+ * and invalidate the cached row. Cached todos are copied in and out, so callers can never mutate cached state.
+ * Ids are unique across scopes, so the cache is keyed by id alone and a hit is checked against the caller's scope.
+ * <p>
+ * Full descriptions requested through {@link #findDescription(TodoScope, int)} are kept in a second LRU cache,
+ * so expanding the same todo again does not go back to the database.
+ */
+@Slf4j
+public class CachingTodoDAO extends TodoDAO {
+    // Configuration keys
+    private static final ConfigKey<Boolean> CACHE_ENABLED_KEY = ConfigKey.ofBoolean("cache.todo.enabled", true);
+    private static final ConfigKey<Integer> CACHE_MAX_ENTRIES_KEY = ConfigKey.ofInt("cache.todo.maxEntries", 10_000, 1);
+    private static final ConfigKey<Integer> CACHE_MAX_WEIGHT_KEY = ConfigKey.ofInt("cache.todo.maxWeightBytes", 16 * 1024 * 1024, 1);
+    private static final ConfigKey<Integer> CACHE_TTL_KEY = ConfigKey.ofInt("cache.todo.ttlSeconds", 300, 0);
+    private static final ConfigKey<Integer> DESCRIPTION_CACHE_ENTRIES_KEY = ConfigKey.ofInt("cache.todo.descriptionEntries", 500, 1);
+
+    private final TodoDAO delegate;
+    private final BoundedCache<Integer, Todo> cache;
+    private final BoundedCache<Integer, String> descriptions;
+
+    public CachingTodoDAO(TodoDAO delegate, BoundedCache<Integer, Todo> cache, BoundedCache<Integer, String> descriptions) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.descriptions = descriptions;
+    }
+
+    /**
+     * Wraps {@code delegate} with a cache sized from configuration, or returns it unchanged when caching is disabled.
+     */
+    public static TodoDAO wrap(TodoDAO delegate) {
+        if (!CACHE_ENABLED_KEY.get()) {
+            return delegate;
+        }
+        int maxEntries = CACHE_MAX_ENTRIES_KEY.get();
+        long maxWeight = CACHE_MAX_WEIGHT_KEY.get();
+        Duration ttl = Duration.ofSeconds(CACHE_TTL_KEY.get());
+
+        BoundedCache<Integer, Todo> cache = new BoundedCache<>("todo", maxEntries, maxWeight, ttl, CachingTodoDAO::estimateBytes);
+        BoundedCache<Integer, String> descriptions = new BoundedCache<>("todo.description",
+                DESCRIPTION_CACHE_ENTRIES_KEY.get(), maxWeight, ttl, description -> 40 + description.length());
+        ConfigurationManager.addChangeListener(event -> resize(cache, descriptions, event));
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.registerGauge("cache.todo.hits", () -> cache.stats().hits());
+        metrics.registerGauge("cache.todo.misses", () -> cache.stats().misses());
+        metrics.registerGauge("cache.todo.evictions", () -> cache.stats().evictions());
+        metrics.registerGauge("cache.todo.size", () -> cache.stats().size());
+        metrics.registerGauge("cache.todo.weightBytes", () -> cache.stats().weight());
+        metrics.registerGauge("cache.todo.description.hits", () -> descriptions.stats().hits());
+        metrics.registerGauge("cache.todo.description.misses", () -> descriptions.stats().misses());
+        log.info("Todo cache enabled: maxEntries={}, maxWeightBytes={}, ttl={}s", maxEntries, maxWeight, ttl.toSeconds());
+        return new CachingTodoDAO(delegate, cache, descriptions);
+    }
+
+    private static void resize(BoundedCache<Integer, Todo> cache, BoundedCache<Integer, String> descriptions,
+                               ConfigChangeEvent event) {
+        if (event.affects(CACHE_ENABLED_KEY)) {
+            log.warn("Changing {} takes effect after a restart", CACHE_ENABLED_KEY);
+        }
+        if (!event.affects(CACHE_MAX_ENTRIES_KEY, CACHE_MAX_WEIGHT_KEY, CACHE_TTL_KEY, DESCRIPTION_CACHE_ENTRIES_KEY)) {
+            return;
+        }
+        int maxEntries = CACHE_MAX_ENTRIES_KEY.get();
+        long maxWeight = CACHE_MAX_WEIGHT_KEY.get();
+        Duration ttl = Duration.ofSeconds(CACHE_TTL_KEY.get());
+        cache.resize(maxEntries, maxWeight, ttl);
+        descriptions.resize(DESCRIPTION_CACHE_ENTRIES_KEY.get(), maxWeight, ttl);
+        log.info("Todo cache resized: maxEntries={}, maxWeightBytes={}, ttl={}s", maxEntries, maxWeight, ttl.toSeconds());
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    @Override
+    public List<Todo> findAll(TodoScope scope) {
+        return delegate.findAll(scope);
+    }
+
+    @Override
+    public List<Todo> findPage(TodoScope scope, PageCursor after, int limit) {
+        return delegate.findPage(scope, after, limit);
+    }
+
+    @Override
+    public Optional<Todo> findById(TodoScope scope, int id) {
+        Optional<Todo> cached = cache.get(id);
+        if (cached.isPresent()) {
+            return cached.filter(scope::contains).map(Todo::copy);
+        }
+        Optional<Todo> loaded = delegate.findById(scope, id);
+        loaded.ifPresent(todo -> cache.put(id, todo.copy()));
+        return loaded;
+    }
+
+    /**
+     * Served from the description cache or from a cached full row before asking the delegate.
+     */
+    @Override
+    public Optional<String> findDescription(TodoScope scope, int id) {
+        Optional<Todo> row = cache.get(id).filter(scope::contains).filter(todo -> !todo.isDescriptionTruncated());
+        if (row.isPresent()) {
+            return Optional.ofNullable(row.get().getDescription());
+        }
+        Optional<String> cached = descriptions.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<String> loaded = delegate.findDescription(scope, id);
+        loaded.ifPresent(description -> descriptions.put(id, description));
+        return loaded;
+    }
+
+    /**
+     * Forwards and drops the returned rows from the cache, since they may have been changed elsewhere.
+     */
+    @Override
+    public List<Todo> findUpdatedSince(TodoScope scope, LocalDateTime since) {
+        List<Todo> updated = delegate.findUpdatedSince(scope, since);
+        updated.forEach(todo -> invalidate(todo.getId()));
+        return updated;
+    }
+
+    /**
+     * Forwards and drops the requested rows from the cache; they are asked for because they changed elsewhere.
+     */
+    @Override
+    public List<Todo> findByIds(TodoScope scope, Collection<Integer> ids) {
+        List<Todo> found = delegate.findByIds(scope, ids);
+        ids.forEach(this::invalidate);
+        return found;
+    }
+
+    @Override
+    public Set<Integer> findIds(TodoScope scope) {
+        return delegate.findIds(scope);
+    }
+
+    @Override
+    public List<DueDayCount> countByDueDay(int ownerId, LocalDate from, LocalDate to) {
+        return delegate.countByDueDay(ownerId, from, to);
+    }
+
+    @Override
+    public boolean save(Todo todo) {
+        try {
+            return delegate.save(todo);
+        } finally {
+            invalidate(todo.getId());
+        }
+    }
+
+    @Override
+    public boolean insertOnce(Todo todo, String clientKey) {
+        try {
+            return delegate.insertOnce(todo, clientKey);
+        } finally {
+            invalidate(todo.getId());
+        }
+    }
+
+    @Override
+    public boolean deleteById(TodoScope scope, int id) {
+        try {
+            return delegate.deleteById(scope, id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public void applyBatch(TodoScope scope, List<Todo> upserts, List<Integer> deletes) {
+        try {
+            delegate.applyBatch(scope, upserts, deletes);
+        } finally {
+            upserts.forEach(todo -> invalidate(todo.getId()));
+            deletes.forEach(this::invalidate);
+        }
+    }
+
+    private void invalidate(int id) {
+        cache.invalidate(id);
+        descriptions.invalidate(id);
+    }
+
+    /**
+     * Rough retained size of a cached todo: object graph plus Latin-1 string payloads.
+     */
+    static int estimateBytes(Todo todo) {
+        int bytes = 200;
+        if (todo.getTitle() != null) {
+            bytes += 40 + todo.getTitle().length();
+        }
+        if (todo.getDescription() != null) {
+            bytes += 40 + todo.getDescription().length();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.demo.dao;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Classic three-state circuit breaker. After {@code failureThreshold} consecutive failures the circuit opens
+ * and calls are short-circuited; once the backoff has elapsed a single probe is let through (half-open).
+ * A successful probe closes the circuit, a failed one reopens it with the backoff doubled up to a cap.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long currentBackoffMillis;
+    private long openedAtMillis;
+    private Consumer<State> listener = state -> { };
+
+    public CircuitBreaker(int failureThreshold, Duration initialBackoff, Duration maxBackoff) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = Math.max(initialBackoffMillis, maxBackoff.toMillis());
+        this.currentBackoffMillis = initialBackoffMillis;
+    }
+
+    /**
+     * Notified, outside the breaker lock, after every state transition.
+     */
+    public void setListener(Consumer<State> listener) {
+        this.listener = listener;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Whether a call may go to the database now. Moves OPEN to HALF_OPEN once the backoff has elapsed,
+     * admitting exactly one probe.
+     */
+    public boolean allowRequest() {
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.HALF_OPEN || System.currentTimeMillis() - openedAtMillis < currentBackoffMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+        }
+        listener.accept(State.HALF_OPEN);
+        return true;
+    }
+
+    public synchronized long getCurrentBackoffMillis() {
+        return currentBackoffMillis;
+    }
+
+    public void recordSuccess() {
+        boolean closed;
+        synchronized (this) {
+            consecutiveFailures = 0;
+            closed = state != State.CLOSED;
+            state = State.CLOSED;
+            currentBackoffMillis = initialBackoffMillis;
+        }
+        if (closed) {
+            log.info("Database circuit closed");
+            listener.accept(State.CLOSED);
+        }
+    }
+
+    public void recordFailure() {
+        State newState = null;
+        long backoff;
+        synchronized (this) {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN) {
+                currentBackoffMillis = Math.min(currentBackoffMillis * 2, maxBackoffMillis);
+                newState = open();
+            } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+                newState = open();
+            }
+            backoff = currentBackoffMillis;
+        }
+        if (newState != null) {
+            log.warn("Database circuit opened after {} consecutive failure(s); next probe in {} ms", consecutiveFailures, backoff);
+            listener.accept(newState);
+        }
+    }
+
+    private State open() {
+        state = State.OPEN;
+        openedAtMillis = System.currentTimeMillis();
+        return state;
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.demo.dao;
+
+/**
+ * Unchecked wrapper for {@link java.sql.SQLException}s and other persistence failures raised by the DAOs.
+ */
+public class DataAccessException extends RuntimeException {
+
+    public DataAccessException(String message) {
+        super(message);
+    }
+
+    public DataAccessException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
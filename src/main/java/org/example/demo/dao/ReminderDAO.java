@@ -0,0 +1,131 @@
+package org.example.demo.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.config.DatabaseConfig;
+import org.example.demo.model.ReminderState;
+import org.example.demo.model.Todo;
+import org.example.demo.model.TodoScope;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to the {@code reminders} table, one row of {@link ReminderState} per todo. Rows are removed
+ * together with their todo by the foreign key.
+ */
+@Slf4j
+public class ReminderDAO {
+
+    /**
+     * A reminder that is due to fire, with the todo it belongs to.
+     */
+    public record DueReminder(ReminderState state, Todo todo) {
+    }
+
+    /**
+     * Pending reminders of {@code scope} that fire before {@code until}, earliest first. Served by
+     * {@code idx_reminders_next_fire}, so only the near horizon is read however many todos the list holds.
+     */
+    public List<DueReminder> findDueBefore(TodoScope scope, LocalDateTime until) {
+        List<DueReminder> due = new ArrayList<>();
+        String sql = """
+                SELECT t.*, r.due_at, r.next_fire_at, r.last_fired_at, r.snoozed_until
+                FROM reminders r JOIN todos t ON t.id = r.todo_id
+                WHERE r.owner_id = ? AND r.list_id = ? AND r.next_fire_at < ?
+                ORDER BY r.next_fire_at
+                """;
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, scope.ownerId());
+            stmt.setInt(2, scope.listId());
+            stmt.setTimestamp(3, Timestamp.valueOf(until));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Todo todo = TodoDAO.mapResultSetToTodo(rs);
+                    due.add(new DueReminder(mapResultSetToState(rs, todo.getId(), scope), todo));
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error fetching due reminders of {}: {}", scope, e.getMessage(), e);
+            throw new DataAccessException("Error fetching due reminders of " + scope, e);
+        }
+
+        return due;
+    }
+
+    public Optional<ReminderState> findByTodoId(TodoScope scope, int todoId) {
+        String sql = "SELECT * FROM reminders WHERE todo_id = ? AND owner_id = ? AND list_id = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, todoId);
+            stmt.setInt(2, scope.ownerId());
+            stmt.setInt(3, scope.listId());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapResultSetToState(rs, todoId, scope));
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error fetching reminder of todo {}: {}", todoId, e.getMessage(), e);
+            throw new DataAccessException("Error fetching reminder of todo " + todoId, e);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Inserts or replaces the reminder row of {@code state.todoId()}.
+     */
+    public void save(ReminderState state) {
+        String sql = """
+                INSERT INTO reminders (todo_id, owner_id, list_id, due_at, next_fire_at, last_fired_at, snoozed_until)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE due_at = VALUES(due_at), next_fire_at = VALUES(next_fire_at),
+                    last_fired_at = VALUES(last_fired_at), snoozed_until = VALUES(snoozed_until)
+                """;
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, state.todoId());
+            stmt.setInt(2, state.ownerId());
+            stmt.setInt(3, state.listId());
+            setTimestamp(stmt, 4, state.dueAt());
+            setTimestamp(stmt, 5, state.nextFireAt());
+            setTimestamp(stmt, 6, state.lastFiredAt());
+            setTimestamp(stmt, 7, state.snoozedUntil());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            log.error("Error saving reminder of todo {}: {}", state.todoId(), e.getMessage());
+            throw new DataAccessException("Error saving reminder of todo " + state.todoId(), e);
+        }
+    }
+
+    private static void setTimestamp(PreparedStatement stmt, int index, LocalDateTime value) throws SQLException {
+        if (value != null) {
+            stmt.setTimestamp(index, Timestamp.valueOf(value));
+        } else {
+            stmt.setNull(index, Types.TIMESTAMP);
+        }
+    }
+
+    private static ReminderState mapResultSetToState(ResultSet rs, int todoId, TodoScope scope) throws SQLException {
+        return new ReminderState(
+                todoId,
+                scope.ownerId(),
+                scope.listId(),
+                TodoDAO.toLocalDateTime(rs.getTimestamp("due_at")),
+                TodoDAO.toLocalDateTime(rs.getTimestamp("next_fire_at")),
+                TodoDAO.toLocalDateTime(rs.getTimestamp("last_fired_at")),
+                TodoDAO.toLocalDateTime(rs.getTimestamp("snoozed_until")));
+    }
+}
@@ -0,0 +1,446 @@
+package org.example.demo.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.config.ConfigKey;
+import org.example.demo.logging.LogSampler;
+import org.example.demo.metrics.MetricsRegistry;
+import org.example.demo.model.DueDayCount;
+import org.example.demo.model.PageCursor;
+import org.example.demo.model.Todo;
+import org.example.demo.model.TodoScope;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Keeps writes durable while the database is unreachable.
+ * <p>
+ * Calls go through a {@link CircuitBreaker}. A write that fails, or arrives while the circuit is open or older
+ * writes are still queued, is appended to a {@link WriteJournal} and reported as accepted. Offline inserts get
+ * a temporary negative id. A background prober pings the database with exponential backoff. Once the database
+ * answers, it replays the journal in order, swaps temporary ids for real ones and reports each swap through
+ * {@link Listener#onIdReassigned}.
+ * <p>
+ * Reads cannot be queued, so they fail fast with {@link DataAccessException} while the circuit is open.
+ */
+@Slf4j
+public class ResilientTodoDAO extends TodoDAO implements AutoCloseable {
+    // Configuration keys
+    private static final ConfigKey<Integer> FAILURE_THRESHOLD_KEY = ConfigKey.ofInt("db.resilience.failureThreshold", 3, 1);
+    private static final ConfigKey<Integer> INITIAL_BACKOFF_KEY = ConfigKey.ofInt("db.resilience.initialBackoffMs", 1000, 0);
+    private static final ConfigKey<Integer> MAX_BACKOFF_KEY = ConfigKey.ofInt("db.resilience.maxBackoffMs", 60000, 0);
+    private static final ConfigKey<String> JOURNAL_PATH_KEY = ConfigKey.ofString("db.journal.path",
+            Path.of(System.getProperty("user.home"), ".todo-app", "pending-writes.journal").toString());
+
+    /** While the database is down every write fails the same way. */
+    private static final LogSampler sampledLog = LogSampler.forSubsystem("db.journal");
+
+    /**
+     * Callbacks from the prober thread; implementations must hop to their own thread.
+     */
+    public interface Listener {
+        default void onIdReassigned(int temporaryId, int realId) {
+        }
+
+        default void onUnavailable() {
+        }
+
+        /** The database answered and every journaled write has been applied. */
+        default void onRecovered() {
+        }
+    }
+
+    private final TodoDAO delegate;
+    private final CircuitBreaker breaker;
+    private final WriteJournal journal;
+    private final ScheduledExecutorService prober;
+    private final AtomicBoolean probeScheduled = new AtomicBoolean();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private volatile Listener listener = new Listener() { };
+    private int nextTemporaryId;
+
+    public ResilientTodoDAO(TodoDAO delegate, CircuitBreaker breaker, WriteJournal journal) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+        this.journal = journal;
+        this.nextTemporaryId = Math.min(-1, journal.getLowestTemporaryId() - 1);
+        this.prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        breaker.setListener(state -> {
+            if (state == CircuitBreaker.State.OPEN) {
+                listener.onUnavailable();
+                scheduleProbe(breaker.getCurrentBackoffMillis());
+            }
+        });
+        metrics.registerGauge("db.circuit.state", () -> breaker.getState().ordinal());
+        metrics.registerGauge("db.journal.pending", journal::pendingCount);
+        if (journal.hasPending()) {
+            // Writes left over from a previous session
+            scheduleProbe(0);
+        }
+    }
+
+    /**
+     * Wraps {@code delegate} with a circuit breaker and a journal configured from the application configuration.
+     *
+     * @throws DataAccessException if the journal file cannot be opened
+     */
+    public static ResilientTodoDAO create(TodoDAO delegate) {
+        CircuitBreaker breaker = new CircuitBreaker(
+                FAILURE_THRESHOLD_KEY.get(),
+                Duration.ofMillis(INITIAL_BACKOFF_KEY.get()),
+                Duration.ofMillis(MAX_BACKOFF_KEY.get()));
+        Path journalPath = Path.of(JOURNAL_PATH_KEY.get());
+        try {
+            return new ResilientTodoDAO(delegate, breaker, new WriteJournal(journalPath));
+        } catch (IOException e) {
+            throw new DataAccessException("Could not open write journal " + journalPath, e);
+        }
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public boolean isDatabaseAvailable() {
+        return breaker.getState() == CircuitBreaker.State.CLOSED;
+    }
+
+    public int getPendingWriteCount() {
+        return journal.pendingCount();
+    }
+
+    public synchronized int nextTemporaryId() {
+        return nextTemporaryId--;
+    }
+
+    @Override
+    public void ping() {
+        call(() -> {
+            delegate.ping();
+            return null;
+        });
+    }
+
+    /**
+     * All rows with journaled writes applied on top, so offline changes stay visible after a reload.
+     */
+    @Override
+    public List<Todo> findAll(TodoScope scope) {
+        return applyPending(scope, call(() -> delegate.findAll(scope)));
+    }
+
+    /**
+     * Database rows only; journaled writes cannot be placed into a page without reading the pages before it.
+     */
+    @Override
+    public List<Todo> findPage(TodoScope scope, PageCursor after, int limit) {
+        return call(() -> delegate.findPage(scope, after, limit));
+    }
+
+    @Override
+    public Optional<Todo> findById(TodoScope scope, int id) {
+        return call(() -> delegate.findById(scope, journal.resolveId(id)));
+    }
+
+    @Override
+    public Optional<String> findDescription(TodoScope scope, int id) {
+        return call(() -> delegate.findDescription(scope, journal.resolveId(id)));
+    }
+
+    /**
+     * Changed rows with journaled writes applied on top, so a pending offline edit is not overwritten by the
+     * older database row. Journaled inserts are included as well.
+     */
+    @Override
+    public List<Todo> findUpdatedSince(TodoScope scope, LocalDateTime since) {
+        return applyPending(scope, call(() -> delegate.findUpdatedSince(scope, since)));
+    }
+
+    /**
+     * Database rows only; callers ask for rows that another client has written.
+     */
+    @Override
+    public List<Todo> findByIds(TodoScope scope, Collection<Integer> ids) {
+        return call(() -> delegate.findByIds(scope, ids));
+    }
+
+    /**
+     * Database ids only; todos that exist solely in the journal still carry temporary (negative) ids.
+     */
+    @Override
+    public Set<Integer> findIds(TodoScope scope) {
+        return call(() -> delegate.findIds(scope));
+    }
+
+    /**
+     * Database-side counts; journaled writes are not reflected until they have been replayed.
+     */
+    @Override
+    public List<DueDayCount> countByDueDay(int ownerId, LocalDate from, LocalDate to) {
+        return call(() -> delegate.countByDueDay(ownerId, from, to));
+    }
+
+    /**
+     * Writes that were accepted but not yet applied, folded onto an empty table. Used to show offline work
+     * when the initial load fails.
+     */
+    public List<Todo> findPending(TodoScope scope) {
+        return applyPending(scope, new ArrayList<>());
+    }
+
+    @Override
+    public synchronized boolean save(Todo todo) {
+        if (!journal.hasPending() && breaker.allowRequest()) {
+            try {
+                boolean saved = delegate.save(withResolvedId(todo));
+                breaker.recordSuccess();
+                return saved;
+            } catch (TodoConflictException e) {
+                // The database answered; the caller has to merge
+                breaker.recordSuccess();
+                throw e;
+            } catch (DataAccessException e) {
+                onFailure();
+                sampledLog.warn(log, "Save failed, journaling write for replay: {}", e.getMessage());
+            }
+        }
+        if (todo.getId() == 0) {
+            todo.setId(nextTemporaryId());
+            journal.append(WriteJournal.Operation.INSERT, todo.getId(), TodoScope.of(todo), todo);
+        } else {
+            journal.append(WriteJournal.Operation.UPDATE, todo.getId(), TodoScope.of(todo), todo);
+        }
+        onJournaled();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean deleteById(TodoScope scope, int id) {
+        if (!journal.hasPending() && breaker.allowRequest()) {
+            try {
+                boolean deleted = delegate.deleteById(scope, journal.resolveId(id));
+                breaker.recordSuccess();
+                return deleted;
+            } catch (DataAccessException e) {
+                onFailure();
+                sampledLog.warn(log, "Delete failed, journaling write for replay: {}", e.getMessage());
+            }
+        }
+        journal.append(WriteJournal.Operation.DELETE, id, scope, null);
+        onJournaled();
+        return true;
+    }
+
+    /**
+     * Applies the batch directly when possible, otherwise journals one upsert or delete per row.
+     */
+    @Override
+    public synchronized void applyBatch(TodoScope scope, List<Todo> upserts, List<Integer> deletes) {
+        if (!journal.hasPending() && breaker.allowRequest()) {
+            try {
+                delegate.applyBatch(scope, upserts.stream().map(this::withResolvedId).toList(),
+                        deletes.stream().map(journal::resolveId).toList());
+                breaker.recordSuccess();
+                return;
+            } catch (DataAccessException e) {
+                onFailure();
+                sampledLog.warn(log, "Batch failed, journaling writes for replay: {}", e.getMessage());
+            }
+        }
+        upserts.forEach(todo -> journal.append(WriteJournal.Operation.UPSERT, todo.getId(), scope, todo));
+        deletes.forEach(id -> journal.append(WriteJournal.Operation.DELETE, id, scope, null));
+        onJournaled();
+    }
+
+    @Override
+    public void close() {
+        prober.shutdownNow();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Error closing write journal: {}", e.getMessage());
+        }
+    }
+
+    private <T> T call(Supplier<T> operation) {
+        if (!breaker.allowRequest()) {
+            throw new DataAccessException("Database unavailable (circuit open)");
+        }
+        try {
+            T result = operation.get();
+            breaker.recordSuccess();
+            return result;
+        } catch (DataAccessException e) {
+            onFailure();
+            throw e;
+        }
+    }
+
+    private void onFailure() {
+        breaker.recordFailure();
+        // Make sure someone keeps probing, also while still below the failure threshold
+        scheduleProbe(breaker.getCurrentBackoffMillis());
+    }
+
+    private void onJournaled() {
+        metrics.increment("db.journal.appended");
+        if (breaker.getState() == CircuitBreaker.State.CLOSED) {
+            // Queued behind older entries while the database is up: replay right away
+            scheduleProbe(0);
+        }
+    }
+
+    private void scheduleProbe(long delayMillis) {
+        if (probeScheduled.compareAndSet(false, true)) {
+            prober.schedule(this::probe, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void probe() {
+        probeScheduled.set(false);
+        if (!breaker.allowRequest()) {
+            scheduleProbe(breaker.getCurrentBackoffMillis());
+            return;
+        }
+        try {
+            delegate.ping();
+            breaker.recordSuccess();
+            replay();
+            listener.onRecovered();
+        } catch (DataAccessException e) {
+            log.debug("Database probe failed: {}", e.getMessage());
+            onFailure();
+        } catch (RuntimeException e) {
+            log.error("Unexpected error while replaying write journal", e);
+            scheduleProbe(breaker.getCurrentBackoffMillis());
+        }
+    }
+
+    /**
+     * Applies journaled writes oldest first until none are left. Entries appended meanwhile are picked up by
+     * the next pass. A database failure propagates and leaves the remaining entries for the next probe.
+     */
+    private void replay() {
+        int replayed = 0;
+        List<WriteJournal.Entry> batch;
+        while (!(batch = journal.pendingEntries()).isEmpty()) {
+            for (WriteJournal.Entry entry : batch) {
+                apply(entry);
+                replayed++;
+            }
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} journaled write(s)", replayed);
+            metrics.add("db.journal.replayed", replayed);
+        }
+    }
+
+    private void apply(WriteJournal.Entry entry) {
+        switch (entry.operation()) {
+            case INSERT -> {
+                Todo todo = entry.todo().copy();
+                todo.setId(0);
+                delegate.insertOnce(todo, entry.clientKey());
+                journal.acknowledge(entry, todo.getId());
+                listener.onIdReassigned(entry.todoId(), todo.getId());
+            }
+            case UPDATE -> {
+                int id = journal.resolveId(entry.todoId());
+                if (id > 0) {
+                    Todo todo = entry.todo().copy();
+                    todo.setId(id);
+                    saveOverwriting(todo);
+                }
+                journal.acknowledge(entry, 0);
+            }
+            case UPSERT -> {
+                int id = journal.resolveId(entry.todoId());
+                if (id > 0) {
+                    Todo todo = entry.todo().copy();
+                    todo.setId(id);
+                    try {
+                        delegate.applyBatch(entry.scope(), List.of(todo), List.of());
+                    } catch (IllegalArgumentException e) {
+                        // The id now belongs to another list; retrying cannot succeed
+                        log.warn("Dropping journaled restore of todo {}: {}", id, e.getMessage());
+                    }
+                }
+                journal.acknowledge(entry, 0);
+            }
+            case DELETE -> {
+                int id = journal.resolveId(entry.todoId());
+                if (id > 0) {
+                    delegate.deleteById(entry.scope(), id);
+                }
+                journal.acknowledge(entry, 0);
+            }
+        }
+    }
+
+    /**
+     * Saves a journaled edit even if the row has changed since: the edit was reported as done long ago and
+     * there is no one left to merge it, so the last writer wins as it did before rows had versions.
+     */
+    private void saveOverwriting(Todo todo) {
+        try {
+            delegate.save(todo);
+        } catch (TodoConflictException e) {
+            log.warn("Journaled edit of todo {} overwrites a newer change: {}", todo.getId(), e.getMessage());
+            metrics.increment("db.journal.conflicts");
+            todo.setVersion(e.getCurrent().getVersion());
+            delegate.save(todo);
+        }
+    }
+
+    private Todo withResolvedId(Todo todo) {
+        int resolved = journal.resolveId(todo.getId());
+        if (resolved == todo.getId()) {
+            return todo;
+        }
+        Todo copy = todo.copy();
+        copy.setId(resolved);
+        return copy;
+    }
+
+    private List<Todo> applyPending(TodoScope scope, List<Todo> rows) {
+        for (WriteJournal.Entry entry : journal.pendingEntries()) {
+            if (!entry.scope().equals(scope)) {
+                continue;
+            }
+            int id = journal.resolveId(entry.todoId());
+            switch (entry.operation()) {
+                case INSERT -> rows.add(entry.todo().copy());
+                case UPDATE -> {
+                    Todo updated = entry.todo().copy();
+                    updated.setId(id);
+                    rows.replaceAll(row -> row.getId() == id || row.getId() == entry.todoId() ? updated : row);
+                }
+                case UPSERT -> {
+                    Todo restored = entry.todo().copy();
+                    restored.setId(id);
+                    rows.removeIf(row -> row.getId() == id || row.getId() == entry.todoId());
+                    rows.add(restored);
+                }
+                case DELETE -> rows.removeIf(row -> row.getId() == id || row.getId() == entry.todoId());
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.demo.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.config.DatabaseConfig;
+import org.example.demo.model.Todo;
+import org.example.demo.model.TodoScope;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * JDBC access to {@code todos_archive}, the cold tier for todos completed long ago. Archived rows keep their id
+ * and all columns, so they can be moved back unchanged; {@code updated_at}, normally the time of completion,
+ * is what archive queries range over.
+ * <p>
+ * Moves run in one transaction each and announce the rows as deleted, or written again, on the change feed, so
+ * open lists drop or show them like any other write.
+ */
+@Slf4j
+public class TodoArchiveDAO {
+    /** Owner id that makes {@link #archiveCompleted} move the todos of every owner. */
+    public static final int ALL_OWNERS = 0;
+    /** Order in which the change counters of several scopes are locked, so concurrent moves cannot deadlock. */
+    private static final Comparator<TodoScope> LOCK_ORDER =
+            Comparator.comparingInt(TodoScope::ownerId).thenComparingInt(TodoScope::listId);
+    private static final String COLUMNS = "id, owner_id, list_id, title, description, priority, completed, created_at, "
+            + "due_date, recurrence_rule, updated_at, version";
+
+    /**
+     * Moves up to {@code batchSize} todos of {@code ownerId}, or of all owners for {@link #ALL_OWNERS}, that were
+     * completed and last changed more than {@code days} ago. Rows another archiver is moving are skipped rather
+     * than waited for.
+     *
+     * @return the ids moved, by scope in lock order; empty once nothing is left to archive
+     */
+    public Map<TodoScope, List<Integer>> archiveCompleted(int ownerId, int days, int batchSize) {
+        // Served by idx_todos_owner_archivable or idx_todos_archivable; only the oldest rows are read and locked
+        String selectSql = "SELECT id, owner_id, list_id FROM todos WHERE "
+                + (ownerId != ALL_OWNERS ? "owner_id = ? AND " : "")
+                + "completed = TRUE AND updated_at < NOW() - INTERVAL ? DAY ORDER BY updated_at LIMIT ? FOR UPDATE SKIP LOCKED";
+        Map<TodoScope, List<Integer>> archived = new TreeMap<>(LOCK_ORDER);
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Integer> ids = new ArrayList<>();
+                try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+                    int index = 1;
+                    if (ownerId != ALL_OWNERS) {
+                        stmt.setInt(index++, ownerId);
+                    }
+                    stmt.setInt(index++, days);
+                    stmt.setInt(index, batchSize);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt("id"));
+                            archived.computeIfAbsent(new TodoScope(rs.getInt("owner_id"), rs.getInt("list_id")),
+                                    scope -> new ArrayList<>()).add(rs.getInt("id"));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    conn.commit();
+                    return archived;
+                }
+                String in = placeholders(ids.size());
+                // Replaces an older copy of a todo that was restored, e.g. by undo, and completed again
+                try (PreparedStatement copy = conn.prepareStatement(
+                        "REPLACE INTO todos_archive (" + COLUMNS + ") SELECT " + COLUMNS + " FROM todos WHERE id IN (" + in + ")");
+                     PreparedStatement delete = conn.prepareStatement("DELETE FROM todos WHERE id IN (" + in + ")")) {
+                    setIds(copy, ids);
+                    copy.executeUpdate();
+                    setIds(delete, ids);
+                    delete.executeUpdate();
+                }
+                for (Map.Entry<TodoScope, List<Integer>> entry : archived.entrySet()) {
+                    TodoChangeDAO.record(conn, entry.getKey(), List.of(), entry.getValue());
+                }
+                conn.commit();
+                return archived;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            log.error("Error archiving completed todos: {}", e.getMessage(), e);
+            throw new DataAccessException("Error archiving todos completed more than " + days + " day(s) ago", e);
+        }
+    }
+
+    /**
+     * Up to {@code limit} archived todos of {@code scope} last changed in {@code [from, to)}, newest first.
+     */
+    public List<Todo> findArchived(TodoScope scope, LocalDateTime from, LocalDateTime to, int limit) {
+        List<Todo> todos = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM todos_archive WHERE owner_id = ? AND list_id = ? AND updated_at >= ? AND updated_at < ? "
+                + "ORDER BY updated_at DESC LIMIT ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, scope.ownerId());
+            stmt.setInt(2, scope.listId());
+            stmt.setTimestamp(3, Timestamp.valueOf(from));
+            stmt.setTimestamp(4, Timestamp.valueOf(to));
+            stmt.setInt(5, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    todos.add(TodoDAO.mapResultSetToTodo(rs));
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error fetching archived todos of {}: {}", scope, e.getMessage(), e);
+            throw new DataAccessException("Error fetching archived todos of " + scope, e);
+        }
+
+        return todos;
+    }
+
+    /**
+     * Moves an archived todo back to {@code todos} as it was archived.
+     *
+     * @return the restored todo, or empty if it is not in the archive of {@code scope}
+     */
+    public Optional<Todo> restore(TodoScope scope, int id) {
+        String copySql = "INSERT INTO todos (" + COLUMNS + ") SELECT " + COLUMNS
+                + " FROM todos_archive WHERE id = ? AND owner_id = ? AND list_id = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement copy = conn.prepareStatement(copySql)) {
+                    setScopedId(copy, scope, id);
+                    if (copy.executeUpdate() == 0) {
+                        conn.rollback();
+                        return Optional.empty();
+                    }
+                }
+                deleteArchived(conn, scope, id);
+                TodoChangeDAO.record(conn, scope, List.of(id), List.of());
+                Optional<Todo> restored;
+                try (PreparedStatement select = conn.prepareStatement("SELECT * FROM todos WHERE id = ? AND owner_id = ? AND list_id = ?")) {
+                    setScopedId(select, scope, id);
+                    try (ResultSet rs = select.executeQuery()) {
+                        restored = rs.next() ? Optional.of(TodoDAO.mapResultSetToTodo(rs)) : Optional.empty();
+                    }
+                }
+                conn.commit();
+                return restored;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            log.error("Error restoring archived todo {}: {}", id, e.getMessage(), e);
+            throw new DataAccessException("Error restoring archived todo " + id, e);
+        }
+    }
+
+    /**
+     * Deletes an archived todo for good.
+     *
+     * @return false if it is not in the archive of {@code scope}
+     */
+    public boolean deleteById(TodoScope scope, int id) {
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            return deleteArchived(conn, scope, id);
+        } catch (SQLException e) {
+            log.error("Error deleting archived todo {}: {}", id, e.getMessage(), e);
+            throw new DataAccessException("Error deleting archived todo " + id, e);
+        }
+    }
+
+    private static boolean deleteArchived(Connection conn, TodoScope scope, int id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM todos_archive WHERE id = ? AND owner_id = ? AND list_id = ?")) {
+            setScopedId(stmt, scope, id);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    private static void setScopedId(PreparedStatement stmt, TodoScope scope, int id) throws SQLException {
+        stmt.setInt(1, id);
+        stmt.setInt(2, scope.ownerId());
+        stmt.setInt(3, scope.listId());
+    }
+
+    private static void setIds(PreparedStatement stmt, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            stmt.setInt(i + 1, ids.get(i));
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.demo.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.config.DatabaseConfig;
+import org.example.demo.model.TodoChangeNotice;
+import org.example.demo.model.TodoScope;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access to the change feed: the {@code todo_changes} outbox, with one notice per written todo, and the
+ * per-scope counters in {@code todo_change_seqs} that number them.
+ * <p>
+ * {@link TodoDAO} appends notices in the transaction of the write itself. The transaction increments its
+ * scope's counter row and holds the row lock until it commits, so the notices of a scope become visible in
+ * sequence order, and a rolled-back write takes its numbers back with it. A reader that finds a number
+ * missing has therefore missed notices, because they were purged, and has to catch up another way.
+ */
+@Slf4j
+public class TodoChangeDAO {
+    /** Written into every notice of this process, so that it can recognize its own writes. */
+    public static final String ORIGIN = UUID.randomUUID().toString();
+
+    private static final int PURGE_BATCH = 10_000;
+
+    /**
+     * Number of the newest notice of {@code scope}, or 0 if it has none. A primary key lookup, cheap enough to
+     * poll.
+     */
+    public long findLatestSequence(TodoScope scope) {
+        String sql = "SELECT seq FROM todo_change_seqs WHERE owner_id = ? AND list_id = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, scope.ownerId());
+            stmt.setInt(2, scope.listId());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            log.error("Error fetching change sequence of {}: {}", scope, e.getMessage(), e);
+            throw new DataAccessException("Error fetching change sequence of " + scope, e);
+        }
+    }
+
+    /**
+     * Up to {@code limit} notices of {@code scope} numbered after {@code afterSeq}, oldest first.
+     */
+    public List<TodoChangeNotice> findSince(TodoScope scope, long afterSeq, int limit) {
+        List<TodoChangeNotice> notices = new ArrayList<>();
+        String sql = "SELECT seq, todo_id, deleted, origin FROM todo_changes WHERE owner_id = ? AND list_id = ? AND seq > ? ORDER BY seq LIMIT ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, scope.ownerId());
+            stmt.setInt(2, scope.listId());
+            stmt.setLong(3, afterSeq);
+            stmt.setInt(4, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    notices.add(new TodoChangeNotice(rs.getLong("seq"), rs.getInt("todo_id"),
+                            rs.getBoolean("deleted"), rs.getString("origin")));
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error fetching change notices of {}: {}", scope, e.getMessage(), e);
+            throw new DataAccessException("Error fetching change notices of " + scope, e);
+        }
+
+        return notices;
+    }
+
+    /**
+     * Deletes notices of all scopes written more than {@code hours} ago by the database clock, in batches so
+     * that no single statement locks the table for long. Counters are kept, so the numbering of a scope never
+     * restarts.
+     *
+     * @return the number of notices deleted
+     */
+    public int purgeOlderThan(int hours) {
+        String sql = "DELETE FROM todo_changes WHERE changed_at < NOW() - INTERVAL ? HOUR LIMIT " + PURGE_BATCH;
+        int purged = 0;
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, hours);
+            int deleted;
+            do {
+                deleted = stmt.executeUpdate();
+                purged += deleted;
+            } while (deleted == PURGE_BATCH);
+        } catch (SQLException e) {
+            log.error("Error purging change notices: {}", e.getMessage(), e);
+            throw new DataAccessException("Error purging change notices older than " + hours + "h", e);
+        }
+
+        return purged;
+    }
+
+    /**
+     * Appends notices for the rows of {@code scope} written in the open transaction of {@code conn}: first
+     * {@code upserted}, then {@code deleted}. Does nothing if both are empty.
+     */
+    static void record(Connection conn, TodoScope scope, List<Integer> upserted, List<Integer> deleted) throws SQLException {
+        int count = upserted.size() + deleted.size();
+        if (count == 0) {
+            return;
+        }
+        // LAST_INSERT_ID(expr) hands the new counter value back as the generated key, saving a round trip
+        String reserveSql = """
+            INSERT INTO todo_change_seqs (owner_id, list_id, seq) VALUES (?, ?, LAST_INSERT_ID(?))
+            ON DUPLICATE KEY UPDATE seq = LAST_INSERT_ID(seq + ?)
+            """;
+        long last;
+        try (PreparedStatement reserve = conn.prepareStatement(reserveSql, Statement.RETURN_GENERATED_KEYS)) {
+            reserve.setInt(1, scope.ownerId());
+            reserve.setInt(2, scope.listId());
+            reserve.setInt(3, count);
+            reserve.setInt(4, count);
+            reserve.executeUpdate();
+            try (ResultSet keys = reserve.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("No change sequence reserved for " + scope);
+                }
+                last = keys.getLong(1);
+            }
+        }
+
+        String insertSql = "INSERT INTO todo_changes (owner_id, list_id, seq, todo_id, deleted, origin) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement insert = conn.prepareStatement(insertSql)) {
+            long seq = last - count + 1;
+            for (int id : upserted) {
+                addNotice(insert, scope, seq++, id, false);
+            }
+            for (int id : deleted) {
+                addNotice(insert, scope, seq++, id, true);
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void addNotice(PreparedStatement insert, TodoScope scope, long seq, int todoId, boolean deleted) throws SQLException {
+        insert.setInt(1, scope.ownerId());
+        insert.setInt(2, scope.listId());
+        insert.setLong(3, seq);
+        insert.setInt(4, todoId);
+        insert.setBoolean(5, deleted);
+        insert.setString(6, ORIGIN);
+        insert.addBatch();
+    }
+}
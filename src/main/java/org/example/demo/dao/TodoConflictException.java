@@ -0,0 +1,27 @@
+package org.example.demo.dao;
+
+import org.example.demo.model.Todo;
+
+/**
+ * An update was based on an older {@link Todo#getVersion() version} of the row than the database holds, so
+ * another client has changed it since it was read. Nothing was written. Carries the row as it is now, so the
+ * caller can merge the two and try again.
+ * <p>
+ * Not a {@link DataAccessException}: the database answered, and retrying the same update cannot succeed.
+ */
+public class TodoConflictException extends RuntimeException {
+    private final transient Todo current;
+
+    public TodoConflictException(Todo attempted, Todo current) {
+        super("Todo " + attempted.getId() + " was changed elsewhere (version " + attempted.getVersion()
+                + ", now " + current.getVersion() + ")");
+        this.current = current;
+    }
+
+    /**
+     * The row as the database holds it, with its full description.
+     */
+    public Todo getCurrent() {
+        return current.copy();
+    }
+}
@@ -1,43 +1,135 @@
 package org.example.demo.dao;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.demo.config.ConfigKey;
 import org.example.demo.config.DatabaseConfig;
+import org.example.demo.metrics.MetricsRegistry;
+import org.example.demo.model.DueDayCount;
+import org.example.demo.model.PageCursor;
 import org.example.demo.model.Todo;
+import org.example.demo.model.TodoScope;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
+/**
+ * JDBC access to the {@code todos} table. Failures are logged and rethrown as {@link DataAccessException};
+ * a {@code false} result means the statement ran but matched no row.
+ * <p>
+ * Every statement is restricted to one {@link TodoScope} (owner and list) and filters on the leading
+ * columns of {@code idx_todos_scope}, so a load touches only that partition no matter how many rows
+ * other users have. Saves use the scope stored on the todo itself.
+ * <p>
+ * List queries ({@link #findAll}, {@link #findUpdatedSince}) read only a preview of each description and mark
+ * the todo {@link Todo#isDescriptionTruncated() truncated} when the text is longer; {@link #findDescription}
+ * reads the rest when it is needed. Single-row reads return the full row.
+ * <p>
+ * Updates are optimistic: a row is only changed if it still has the {@link Todo#getVersion() version} the
+ * update was based on, otherwise {@link TodoConflictException} reports the row as it is now. No row is locked
+ * while a todo is being edited.
+ * <p>
+ * Every write also appends a notice per written row to the scope's change feed ({@link TodoChangeDAO}), in
+ * the same transaction, so other clients learn which rows to fetch again.
+ */
 @Slf4j
 public class TodoDAO {
+    // Configuration keys
+    private static final ConfigKey<Integer> DESCRIPTION_PREVIEW_KEY = ConfigKey.ofInt("todo.list.descriptionPreviewChars", 160, 0);
+
+    /** List columns: everything but the description, of which a prefix and the full length are read. */
+    private static final String SUMMARY_COLUMNS = "id, owner_id, list_id, title, priority, completed, created_at, due_date, "
+            + "recurrence_rule, updated_at, version, LEFT(description, %d) AS description, CHAR_LENGTH(description) AS description_length";
+
+    /**
+     * Cheapest possible round trip, used to probe whether the database is reachable again.
+     */
+    public void ping() {
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("SELECT 1");
+        } catch (SQLException e) {
+            throw new DataAccessException("Database ping failed", e);
+        }
+    }
     
-    public List<Todo> findAll() {
+    public List<Todo> findAll(TodoScope scope) {
         List<Todo> todos = new ArrayList<>();
-        String sql = "SELECT * FROM todos ORDER BY created_at DESC";
+        int previewChars = DESCRIPTION_PREVIEW_KEY.get();
+        String sql = "SELECT " + summaryColumns(previewChars) + " FROM todos WHERE owner_id = ? AND list_id = ? ORDER BY created_at DESC";
         
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, scope.ownerId());
+            stmt.setInt(2, scope.listId());
             
-            while (rs.next()) {
-                todos.add(mapResultSetToTodo(rs));
+            try (ResultSet rs = stmt.executeQuery()) {
+                mapSummaries(rs, previewChars, todos);
             }
         } catch (SQLException e) {
             log.error("Error fetching todos: {}", e.getMessage(), e);
+            throw new DataAccessException("Error fetching todos", e);
+        }
+        
+        return todos;
+    }
+    
+    /**
+     * Up to {@code limit} rows of {@code scope} in list order (newest first, then by id) that come after
+     * {@code after}, or from the start if it is null. The query seeks on {@code idx_todos_scope}, whose entries
+     * end with the primary key, so a page costs the same however deep it is. Descriptions are previews as in
+     * {@link #findAll}.
+     */
+    public List<Todo> findPage(TodoScope scope, PageCursor after, int limit) {
+        List<Todo> todos = new ArrayList<>();
+        int previewChars = DESCRIPTION_PREVIEW_KEY.get();
+        String sql = "SELECT " + summaryColumns(previewChars) + " FROM todos WHERE owner_id = ? AND list_id = ?"
+                + (after != null ? " AND (created_at < ? OR (created_at = ? AND id < ?))" : "")
+                + " ORDER BY created_at DESC, id DESC LIMIT ?";
+        
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            stmt.setInt(index++, scope.ownerId());
+            stmt.setInt(index++, scope.listId());
+            if (after != null) {
+                Timestamp createdAt = Timestamp.valueOf(after.createdAt());
+                stmt.setTimestamp(index++, createdAt);
+                stmt.setTimestamp(index++, createdAt);
+                stmt.setInt(index++, after.id());
+            }
+            stmt.setInt(index, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                mapSummaries(rs, previewChars, todos);
+            }
+        } catch (SQLException e) {
+            log.error("Error fetching todo page: {}", e.getMessage(), e);
+            throw new DataAccessException("Error fetching page of todos", e);
         }
         
         return todos;
     }
     
-    public Optional<Todo> findById(int id) {
-        String sql = "SELECT * FROM todos WHERE id = ?";
+    public Optional<Todo> findById(TodoScope scope, int id) {
+        String sql = "SELECT * FROM todos WHERE id = ? AND owner_id = ? AND list_id = ?";
         
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, id);
+            stmt.setInt(2, scope.ownerId());
+            stmt.setInt(3, scope.listId());
             
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
@@ -46,124 +138,506 @@ public class TodoDAO {
             }
         } catch (SQLException e) {
             log.error("Error fetching todo by id: {}", e.getMessage(), e);
+            throw new DataAccessException("Error fetching todo " + id, e);
         }
         
         return Optional.empty();
     }
     
-    public boolean save(Todo todo) {
-        if (todo.getId() == 0) {
-            return insert(todo);
-        } else {
-            return update(todo);
+    /**
+     * Full description of a todo whose list row holds only a preview. Empty if the row does not exist or has
+     * no description.
+     */
+    public Optional<String> findDescription(TodoScope scope, int id) {
+        String sql = "SELECT description FROM todos WHERE id = ? AND owner_id = ? AND list_id = ?";
+        
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, id);
+            stmt.setInt(2, scope.ownerId());
+            stmt.setInt(3, scope.listId());
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.ofNullable(rs.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error fetching todo description: {}", e.getMessage(), e);
+            throw new DataAccessException("Error fetching description of todo " + id, e);
         }
+        
+        return Optional.empty();
     }
     
-    private boolean insert(Todo todo) {
-        String sql = "INSERT INTO todos (title, description, priority, completed, due_date) VALUES (?, ?, ?, ?, ?)";
+    /**
+     * Rows of {@code scope} modified at or after {@code since}, for bringing a local copy up to date without
+     * reloading it. Served by {@code idx_todos_updated}.
+     */
+    public List<Todo> findUpdatedSince(TodoScope scope, LocalDateTime since) {
+        List<Todo> todos = new ArrayList<>();
+        int previewChars = DESCRIPTION_PREVIEW_KEY.get();
+        String sql = "SELECT " + summaryColumns(previewChars) + " FROM todos WHERE owner_id = ? AND list_id = ? AND updated_at >= ?";
         
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, todo.getTitle());
-            stmt.setString(2, todo.getDescription());
-            stmt.setString(3, todo.getPriority().name());
-            stmt.setBoolean(4, todo.isCompleted());
+            stmt.setInt(1, scope.ownerId());
+            stmt.setInt(2, scope.listId());
+            stmt.setTimestamp(3, Timestamp.valueOf(since));
             
-            if (todo.getDueDate() != null) {
-                stmt.setTimestamp(5, Timestamp.valueOf(todo.getDueDate()));
-            } else {
-                stmt.setNull(5, Types.TIMESTAMP);
+            try (ResultSet rs = stmt.executeQuery()) {
+                mapSummaries(rs, previewChars, todos);
             }
+        } catch (SQLException e) {
+            log.error("Error fetching updated todos: {}", e.getMessage(), e);
+            throw new DataAccessException("Error fetching todos updated since " + since, e);
+        }
+        
+        return todos;
+    }
+    
+    /**
+     * Rows of {@code scope} with the given ids, with description previews as in {@link #findAll}. Ids without
+     * a row in the scope are left out.
+     */
+    public List<Todo> findByIds(TodoScope scope, Collection<Integer> ids) {
+        List<Todo> todos = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return todos;
+        }
+        int previewChars = DESCRIPTION_PREVIEW_KEY.get();
+        String sql = "SELECT " + summaryColumns(previewChars) + " FROM todos WHERE owner_id = ? AND list_id = ? AND id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            int affectedRows = stmt.executeUpdate();
+            int index = 1;
+            stmt.setInt(index++, scope.ownerId());
+            stmt.setInt(index++, scope.listId());
+            for (int id : ids) {
+                stmt.setInt(index++, id);
+            }
             
-            if (affectedRows > 0) {
-                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        // Set the generated ID back to the todo object
-                        setTodoId(todo, generatedKeys.getInt(1));
-                    }
-                }
-                return true;
+            try (ResultSet rs = stmt.executeQuery()) {
+                mapSummaries(rs, previewChars, todos);
             }
         } catch (SQLException e) {
-            log.error("Error inserting todo: {}", e.getMessage(), e);
+            log.error("Error fetching todos by id: {}", e.getMessage(), e);
+            throw new DataAccessException("Error fetching " + ids.size() + " todos by id", e);
         }
         
-        return false;
+        return todos;
     }
     
-    private boolean update(Todo todo) {
-        String sql = "UPDATE todos SET title = ?, description = ?, priority = ?, completed = ?, due_date = ? WHERE id = ?";
+    /**
+     * Ids of every row in {@code scope}; together with {@link #findUpdatedSince} this detects deletions.
+     * Answered from the scope index alone.
+     */
+    public Set<Integer> findIds(TodoScope scope) {
+        Set<Integer> ids = new HashSet<>();
+        String sql = "SELECT id FROM todos WHERE owner_id = ? AND list_id = ?";
         
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, todo.getTitle());
-            stmt.setString(2, todo.getDescription());
-            stmt.setString(3, todo.getPriority().name());
-            stmt.setBoolean(4, todo.isCompleted());
+            stmt.setInt(1, scope.ownerId());
+            stmt.setInt(2, scope.listId());
             
-            if (todo.getDueDate() != null) {
-                stmt.setTimestamp(5, Timestamp.valueOf(todo.getDueDate()));
-            } else {
-                stmt.setNull(5, Types.TIMESTAMP);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
             }
-            
-            stmt.setInt(6, todo.getId());
-            
-            return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
-            log.error("Error updating todo: {}", e.getMessage());
+            log.error("Error fetching todo ids: {}", e.getMessage(), e);
+            throw new DataAccessException("Error fetching todo ids", e);
         }
         
-        return false;
+        return ids;
     }
     
-    public boolean deleteById(int id) {
-        String sql = "DELETE FROM todos WHERE id = ?";
+    /**
+     * Todos of all of an owner's lists due in {@code [from, to)}, counted per day, priority and completion
+     * by the database. Used for agendas over data that is not loaded, without transferring the rows.
+     */
+    public List<DueDayCount> countByDueDay(int ownerId, LocalDate from, LocalDate to) {
+        List<DueDayCount> counts = new ArrayList<>();
+        String sql = """
+            SELECT DATE(due_date) AS due_day, priority, completed, COUNT(*) AS todo_count
+            FROM todos
+            WHERE owner_id = ? AND due_date >= ? AND due_date < ?
+            GROUP BY due_day, priority, completed
+            """;
         
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            stmt.setInt(1, ownerId);
+            stmt.setTimestamp(2, Timestamp.valueOf(from.atStartOfDay()));
+            stmt.setTimestamp(3, Timestamp.valueOf(to.atStartOfDay()));
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.add(new DueDayCount(
+                            rs.getDate("due_day").toLocalDate(),
+                            Todo.Priority.valueOf(rs.getString("priority")),
+                            rs.getBoolean("completed"),
+                            rs.getInt("todo_count")));
+                }
+            }
         } catch (SQLException e) {
-            log.error("Error deleting todo: {}", e.getMessage());
+            log.error("Error counting todos by due date: {}", e.getMessage(), e);
+            throw new DataAccessException("Error counting todos by due date", e);
         }
         
-        return false;
+        return counts;
+    }
+    
+    /**
+     * Inserts or updates {@code todo} inside its own scope.
+     *
+     * @throws IllegalArgumentException if the todo has not been assigned an owner and list
+     */
+    public boolean save(Todo todo) {
+        if (todo.getOwnerId() <= 0 || todo.getListId() <= 0) {
+            throw new IllegalArgumentException("Todo '" + todo.getTitle() + "' has no owner/list");
+        }
+        if (todo.getId() == 0) {
+            return insert(todo);
+        } else {
+            return update(todo);
+        }
+    }
+    
+    /**
+     * Inserts {@code todo} unless a row was already inserted under {@code clientKey}, in which case {@code todo}
+     * takes that row's id and version. Lets a write be retried without creating a duplicate.
+     *
+     * @return whether a row was inserted
+     * @throws IllegalArgumentException if the todo has already been saved or has no owner and list
+     */
+    public boolean insertOnce(Todo todo, String clientKey) {
+        if (todo.getId() != 0) {
+            throw new IllegalArgumentException("Todo " + todo.getId() + " has already been saved");
+        }
+        if (todo.getOwnerId() <= 0 || todo.getListId() <= 0) {
+            throw new IllegalArgumentException("Todo '" + todo.getTitle() + "' has no owner/list");
+        }
+        return insert(todo, Objects.requireNonNull(clientKey, "clientKey"));
+    }
+    
+    private boolean insert(Todo todo) {
+        return insert(todo, null);
     }
     
-    private Todo mapResultSetToTodo(ResultSet rs) throws SQLException {
-        int id = rs.getInt("id");
-        String title = rs.getString("title");
-        String description = rs.getString("description");
-        Todo.Priority priority = Todo.Priority.valueOf(rs.getString("priority"));
-        boolean completed = rs.getBoolean("completed");
+    private boolean insert(Todo todo, String clientKey) {
+        String sql = "INSERT INTO todos (title, description, priority, completed, due_date, recurrence_rule, owner_id, list_id, client_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
-        Timestamp createdAtTimestamp = rs.getTimestamp("created_at");
-        LocalDateTime createdAt = createdAtTimestamp != null ? createdAtTimestamp.toLocalDateTime() : null;
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            if (clientKey != null && adoptExisting(conn, todo, clientKey)) {
+                conn.commit();
+                return false;
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                
+                stmt.setString(1, todo.getTitle());
+                stmt.setString(2, todo.getDescription());
+                stmt.setString(3, todo.getPriority().name());
+                stmt.setBoolean(4, todo.isCompleted());
+                
+                if (todo.getDueDate() != null) {
+                    stmt.setTimestamp(5, Timestamp.valueOf(todo.getDueDate()));
+                } else {
+                    stmt.setNull(5, Types.TIMESTAMP);
+                }
+                
+                stmt.setString(6, todo.getRecurrenceRule());
+                stmt.setInt(7, todo.getOwnerId());
+                stmt.setInt(8, todo.getListId());
+                stmt.setString(9, clientKey);
+                
+                int affectedRows = stmt.executeUpdate();
+                int id = 0;
+                
+                if (affectedRows > 0) {
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            id = generatedKeys.getInt(1);
+                        }
+                    }
+                    TodoChangeDAO.record(conn, TodoScope.of(todo), List.of(id), List.of());
+                }
+                conn.commit();
+                if (id > 0) {
+                    // Set the generated ID back to the todo object
+                    todo.setId(id);
+                    todo.setVersion(0);
+                }
+                return affectedRows > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            log.error("Error inserting todo: {}", e.getMessage(), e);
+            throw new DataAccessException("Error inserting todo", e);
+        }
+    }
+    
+    /** Gives {@code todo} the id and version of the row inserted under {@code clientKey}, if there is one. */
+    private static boolean adoptExisting(Connection conn, Todo todo, String clientKey) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT id, version FROM todos WHERE client_key = ? FOR UPDATE")) {
+            stmt.setString(1, clientKey);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return false;
+                }
+                todo.setId(rs.getInt("id"));
+                todo.setVersion(rs.getInt("version"));
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Updates the row if it still has {@code todo}'s version and advances the version of both.
+     *
+     * @throws TodoConflictException if the row has been updated since {@code todo} was read
+     */
+    private boolean update(Todo todo) {
+        // A preview must never replace the stored description
+        boolean writeDescription = !todo.isDescriptionTruncated();
+        String sql = "UPDATE todos SET title = ?, " + (writeDescription ? "description = ?, " : "")
+                + "priority = ?, completed = ?, due_date = ?, recurrence_rule = ?, version = version + 1"
+                + " WHERE id = ? AND owner_id = ? AND list_id = ? AND version = ?";
         
-        Timestamp dueDateTimestamp = rs.getTimestamp("due_date");
-        LocalDateTime dueDate = dueDateTimestamp != null ? dueDateTimestamp.toLocalDateTime() : null;
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                int index = 1;
+                stmt.setString(index++, todo.getTitle());
+                if (writeDescription) {
+                    stmt.setString(index++, todo.getDescription());
+                }
+                stmt.setString(index++, todo.getPriority().name());
+                stmt.setBoolean(index++, todo.isCompleted());
+                
+                if (todo.getDueDate() != null) {
+                    stmt.setTimestamp(index++, Timestamp.valueOf(todo.getDueDate()));
+                } else {
+                    stmt.setNull(index++, Types.TIMESTAMP);
+                }
+                
+                stmt.setString(index++, todo.getRecurrenceRule());
+                stmt.setInt(index++, todo.getId());
+                stmt.setInt(index++, todo.getOwnerId());
+                stmt.setInt(index++, todo.getListId());
+                stmt.setInt(index, todo.getVersion());
+                
+                if (stmt.executeUpdate() == 0) {
+                    // Either gone or changed by someone else; only the latter is a conflict
+                    Optional<Todo> current = findCurrent(conn, todo);
+                    conn.rollback();
+                    if (current.isPresent()) {
+                        throw new TodoConflictException(todo, current.get());
+                    }
+                    return false;
+                }
+                TodoChangeDAO.record(conn, TodoScope.of(todo), List.of(todo.getId()), List.of());
+                conn.commit();
+                todo.setVersion(todo.getVersion() + 1);
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            log.error("Error updating todo: {}", e.getMessage());
+            throw new DataAccessException("Error updating todo " + todo.getId(), e);
+        }
+    }
+    
+    private static Optional<Todo> findCurrent(Connection conn, Todo todo) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM todos WHERE id = ? AND owner_id = ? AND list_id = ?")) {
+            stmt.setInt(1, todo.getId());
+            stmt.setInt(2, todo.getOwnerId());
+            stmt.setInt(3, todo.getListId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Optional.of(mapResultSetToTodo(rs)) : Optional.empty();
+            }
+        }
+    }
+    
+    /**
+     * Writes several rows of {@code scope} in one transaction and one round trip per statement kind. Upserts
+     * keep their id, so a deleted row can be restored as it was; they must be rows of {@code scope}, since ids
+     * are unique across scopes and an existing row is updated in place. An existing row keeps its description
+     * if the upsert carries only a preview. Upserts are not checked against the row version: they restore a
+     * state the user asked for, such as on undo.
+     *
+     * @throws IllegalArgumentException if an upsert has the id of a row in another scope; nothing is written then
+     */
+    public void applyBatch(TodoScope scope, List<Todo> upserts, List<Integer> deletes) {
+        String upsertSql = """
+            INSERT INTO todos (id, owner_id, list_id, title, description, priority, completed, created_at, due_date, recurrence_rule)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE title = VALUES(title), description = IF(?, description, VALUES(description)), priority = VALUES(priority),
+                completed = VALUES(completed), due_date = VALUES(due_date), recurrence_rule = VALUES(recurrence_rule),
+                version = version + 1
+            """;
+        String deleteSql = "DELETE FROM todos WHERE id = ? AND owner_id = ? AND list_id = ?";
         
-        Todo todo = new Todo(title, description, priority, dueDate);
-        setTodoId(todo, id);
-        todo.setCompleted(completed);
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement upsert = conn.prepareStatement(upsertSql);
+                 PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+                checkUpsertScope(conn, scope, upserts);
+                for (Todo todo : upserts) {
+                    upsert.setInt(1, todo.getId());
+                    upsert.setInt(2, scope.ownerId());
+                    upsert.setInt(3, scope.listId());
+                    upsert.setString(4, todo.getTitle());
+                    upsert.setString(5, todo.getDescription());
+                    upsert.setString(6, todo.getPriority().name());
+                    upsert.setBoolean(7, todo.isCompleted());
+                    upsert.setTimestamp(8, Timestamp.valueOf(todo.getCreatedAt() != null ? todo.getCreatedAt() : LocalDateTime.now()));
+                    if (todo.getDueDate() != null) {
+                        upsert.setTimestamp(9, Timestamp.valueOf(todo.getDueDate()));
+                    } else {
+                        upsert.setNull(9, Types.TIMESTAMP);
+                    }
+                    upsert.setString(10, todo.getRecurrenceRule());
+                    upsert.setBoolean(11, todo.isDescriptionTruncated());
+                    upsert.addBatch();
+                }
+                for (int id : deletes) {
+                    delete.setInt(1, id);
+                    delete.setInt(2, scope.ownerId());
+                    delete.setInt(3, scope.listId());
+                    delete.addBatch();
+                }
+                if (!upserts.isEmpty()) {
+                    upsert.executeBatch();
+                }
+                if (!deletes.isEmpty()) {
+                    delete.executeBatch();
+                }
+                TodoChangeDAO.record(conn, scope, upserts.stream().map(Todo::getId).toList(), deletes);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            log.error("Error applying todo batch: {}", e.getMessage(), e);
+            throw new DataAccessException("Error applying batch of " + (upserts.size() + deletes.size()) + " todo writes", e);
+        }
+    }
+    
+    /**
+     * Rejects upserts whose id belongs to a row of another scope, which the upsert would otherwise overwrite.
+     * The rows are locked until the transaction ends so they cannot move in between.
+     */
+    private static void checkUpsertScope(Connection conn, TodoScope scope, List<Todo> upserts) throws SQLException {
+        if (upserts.isEmpty()) {
+            return;
+        }
+        String sql = "SELECT id FROM todos WHERE id IN (" + String.join(", ", Collections.nCopies(upserts.size(), "?"))
+                + ") AND (owner_id <> ? OR list_id <> ?) FOR UPDATE";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (Todo todo : upserts) {
+                stmt.setInt(index++, todo.getId());
+            }
+            stmt.setInt(index++, scope.ownerId());
+            stmt.setInt(index, scope.listId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Integer> foreign = new ArrayList<>();
+                while (rs.next()) {
+                    foreign.add(rs.getInt("id"));
+                }
+                if (!foreign.isEmpty()) {
+                    throw new IllegalArgumentException("Todos " + foreign + " are not in list " + scope.listId()
+                            + " of owner " + scope.ownerId());
+                }
+            }
+        }
+    }
+    
+    public boolean deleteById(TodoScope scope, int id) {
+        String sql = "DELETE FROM todos WHERE id = ? AND owner_id = ? AND list_id = ?";
         
-        return todo;
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, id);
+                stmt.setInt(2, scope.ownerId());
+                stmt.setInt(3, scope.listId());
+                boolean deleted = stmt.executeUpdate() > 0;
+                if (deleted) {
+                    TodoChangeDAO.record(conn, scope, List.of(), List.of(id));
+                }
+                conn.commit();
+                return deleted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            log.error("Error deleting todo: {}", e.getMessage());
+            throw new DataAccessException("Error deleting todo " + id, e);
+        }
+    }
+    
+    /**
+     * Columns to select for a list of todos; the description is cut to {@code previewChars} unless that is 0.
+     */
+    private static String summaryColumns(int previewChars) {
+        return previewChars > 0 ? SUMMARY_COLUMNS.formatted(previewChars) : "*";
     }
     
-    // Helper method to set the private id field using reflection
-    private void setTodoId(Todo todo, int id) {
-        try {
-            java.lang.reflect.Field idField = Todo.class.getDeclaredField("id");
-            idField.setAccessible(true);
-            idField.setInt(todo, id);
-        } catch (Exception e) {
-            log.error("Error setting todo id: {}", e.getMessage());
+    private static void mapSummaries(ResultSet rs, int previewChars, List<Todo> todos) throws SQLException {
+        long deferredChars = 0;
+        while (rs.next()) {
+            Todo todo = mapResultSetToTodo(rs);
+            if (previewChars > 0) {
+                int length = rs.getInt("description_length");
+                if (length > previewChars) {
+                    todo.setDescriptionTruncated(true);
+                    deferredChars += length - previewChars;
+                }
+            }
+            todos.add(todo);
         }
+        if (deferredChars > 0) {
+            MetricsRegistry.getInstance().add("db.todos.descriptionCharsDeferred", deferredChars);
+        }
+    }
+    
+    static Todo mapResultSetToTodo(ResultSet rs) throws SQLException {
+        return Todo.builder()
+                .id(rs.getInt("id"))
+                .ownerId(rs.getInt("owner_id"))
+                .listId(rs.getInt("list_id"))
+                .title(rs.getString("title"))
+                .description(rs.getString("description"))
+                .priority(Todo.Priority.valueOf(rs.getString("priority")))
+                .completed(rs.getBoolean("completed"))
+                .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                .dueDate(toLocalDateTime(rs.getTimestamp("due_date")))
+                .recurrenceRule(rs.getString("recurrence_rule"))
+                .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                .version(rs.getInt("version"))
+                .build();
+    }
+    
+    static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
     }
 }
@@ -0,0 +1,87 @@
+package org.example.demo.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.config.DatabaseConfig;
+import org.example.demo.model.TodoList;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access to the {@code todo_lists} table. Lists are always looked up through their owner.
+ */
+@Slf4j
+public class TodoListDAO {
+
+    public List<TodoList> findByOwner(int ownerId) {
+        List<TodoList> lists = new ArrayList<>();
+        String sql = "SELECT * FROM todo_lists WHERE owner_id = ? ORDER BY name";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, ownerId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    lists.add(TodoList.builder()
+                            .id(rs.getInt("id"))
+                            .ownerId(rs.getInt("owner_id"))
+                            .name(rs.getString("name"))
+                            .createdAt(TodoDAO.toLocalDateTime(rs.getTimestamp("created_at")))
+                            .build());
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error fetching lists of owner {}: {}", ownerId, e.getMessage(), e);
+            throw new DataAccessException("Error fetching lists of owner " + ownerId, e);
+        }
+
+        return lists;
+    }
+
+    /**
+     * Creates a list and sets its generated id.
+     */
+    public boolean insert(TodoList list) {
+        String sql = "INSERT INTO todo_lists (owner_id, name) VALUES (?, ?)";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            stmt.setInt(1, list.getOwnerId());
+            stmt.setString(2, list.getName());
+
+            if (stmt.executeUpdate() > 0) {
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        list.setId(generatedKeys.getInt(1));
+                    }
+                }
+                return true;
+            }
+        } catch (SQLException e) {
+            log.error("Error inserting list: {}", e.getMessage(), e);
+            throw new DataAccessException("Error inserting list '" + list.getName() + "'", e);
+        }
+
+        return false;
+    }
+
+    public boolean rename(TodoList list) {
+        String sql = "UPDATE todo_lists SET name = ? WHERE id = ? AND owner_id = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, list.getName());
+            stmt.setInt(2, list.getId());
+            stmt.setInt(3, list.getOwnerId());
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            log.error("Error renaming list: {}", e.getMessage());
+            throw new DataAccessException("Error renaming list " + list.getId(), e);
+        }
+    }
+}
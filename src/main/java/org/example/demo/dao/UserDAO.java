@@ -0,0 +1,41 @@
+package org.example.demo.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.config.DatabaseConfig;
+import org.example.demo.model.User;
+
+import java.sql.*;
+import java.util.Optional;
+
+/**
+ * JDBC access to the {@code users} table.
+ */
+@Slf4j
+public class UserDAO {
+
+    public Optional<User> findById(int id) {
+        String sql = "SELECT * FROM users WHERE id = ?";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, id);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(User.builder()
+                            .id(rs.getInt("id"))
+                            .username(rs.getString("username"))
+                            .displayName(rs.getString("display_name"))
+                            .createdAt(TodoDAO.toLocalDateTime(rs.getTimestamp("created_at")))
+                            .build());
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error fetching user by id: {}", e.getMessage(), e);
+            throw new DataAccessException("Error fetching user " + id, e);
+        }
+
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,321 @@
+package org.example.demo.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.demo.model.Todo;
+import org.example.demo.model.TodoScope;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, append-only log of writes that could not reach the database yet.
+ * <p>
+ * Every record is length-prefixed and CRC-checked and is forced to disk before {@link #append} returns.
+ * Replayed entries are not removed in place; an ACK record is appended instead (carrying the real id for
+ * offline inserts). The file is truncated once nothing is pending.
+ * <p>
+ * Replay is at-least-once: an entry is acknowledged only after it has been applied, so a crash between the two
+ * applies it again on the next start. Updates, upserts and deletes are harmless to repeat; inserts carry a
+ * generated client key that the database keeps unique, so a repeated insert finds the row it created before.
+ */
+@Slf4j
+public class WriteJournal implements AutoCloseable {
+
+    public enum Operation {
+        INSERT,
+        UPDATE,
+        DELETE,
+        /** Insert with a known id, or update if the row exists; restores deleted rows on undo. */
+        UPSERT
+    }
+
+    /**
+     * A pending write in {@code scope}. {@code todo} is a detached copy for inserts and updates and null for deletes.
+     * {@code clientKey} identifies the row an insert creates and is null for other operations.
+     */
+    public record Entry(long sequence, Operation operation, int todoId, TodoScope scope, Todo todo, String clientKey) {
+    }
+
+    private static final byte RECORD_WRITE = 1;
+    private static final byte RECORD_ACK = 2;
+    /**
+     * Layout of the entry in a write record, written after the record type. Bump it when the layout changes and
+     * keep reading the layouts of released versions.
+     */
+    private static final byte WRITE_FORMAT = 1;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final LinkedHashMap<Long, Entry> pending = new LinkedHashMap<>();
+    private final Map<Integer, Integer> reassignedIds = new HashMap<>();
+    private long lastSequence;
+    private int lowestTemporaryId;
+
+    public WriteJournal(Path path) throws IOException {
+        this.path = path;
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        load();
+        channel.position(channel.size());
+        if (!pending.isEmpty()) {
+            log.info("Write journal {} holds {} pending write(s)", path, pending.size());
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    public synchronized List<Entry> pendingEntries() {
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Lowest temporary (negative) id referenced by the journal, so new offline inserts never reuse one.
+     */
+    public synchronized int getLowestTemporaryId() {
+        return lowestTemporaryId;
+    }
+
+    /**
+     * Real id assigned to an offline insert, or the id itself when it was never reassigned.
+     */
+    public synchronized int resolveId(int id) {
+        return reassignedIds.getOrDefault(id, id);
+    }
+
+    public synchronized Entry append(Operation operation, int todoId, TodoScope scope, Todo todo) {
+        String clientKey = operation == Operation.INSERT ? UUID.randomUUID().toString() : null;
+        Entry entry = new Entry(++lastSequence, operation, todoId, scope, todo != null ? todo.copy() : null, clientKey);
+        write(RECORD_WRITE, out -> writeEntry(out, entry));
+        pending.put(entry.sequence(), entry);
+        lowestTemporaryId = Math.min(lowestTemporaryId, todoId);
+        return entry;
+    }
+
+    /**
+     * Marks an entry as applied. {@code realId} is the database id for replayed inserts, 0 otherwise.
+     */
+    public synchronized void acknowledge(Entry entry, int realId) {
+        write(RECORD_ACK, out -> {
+            out.writeLong(entry.sequence());
+            out.writeInt(entry.todoId());
+            out.writeInt(realId);
+        });
+        pending.remove(entry.sequence());
+        if (realId != 0 && realId != entry.todoId()) {
+            reassignedIds.put(entry.todoId(), realId);
+        }
+        if (pending.isEmpty()) {
+            truncate();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void truncate() {
+        try {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new DataAccessException("Could not truncate write journal " + path, e);
+        }
+    }
+
+    private void write(byte type, RecordWriter writer) {
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(body);
+            out.writeByte(type);
+            writer.write(out);
+            out.flush();
+
+            byte[] bytes = body.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            ByteBuffer buffer = ByteBuffer.allocate(4 + bytes.length + 8);
+            buffer.putInt(bytes.length).put(bytes).putLong(crc.getValue()).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new DataAccessException("Could not write to journal " + path, e);
+        }
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return;
+        }
+        ByteBuffer file = ByteBuffer.allocate((int) size);
+        while (file.hasRemaining() && channel.read(file, file.position()) > 0) {
+            // read fully
+        }
+        file.flip();
+        long validBytes = 0;
+        while (file.remaining() >= 4) {
+            int length = file.getInt();
+            if (length <= 0 || file.remaining() < length + 8) {
+                break;
+            }
+            byte[] bytes = new byte[length];
+            file.get(bytes);
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            if (crc.getValue() != file.getLong()) {
+                break;
+            }
+            readRecord(new DataInputStream(new ByteArrayInputStream(bytes)));
+            validBytes = file.position();
+        }
+        if (validBytes < size) {
+            // Torn tail from a crash mid-append: drop it so new records start on a clean boundary
+            log.warn("Discarding {} corrupt trailing byte(s) in write journal {}", size - validBytes, path);
+            channel.truncate(validBytes);
+        }
+    }
+
+    private void readRecord(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        if (type == RECORD_WRITE) {
+            Entry entry = readEntry(in);
+            pending.put(entry.sequence(), entry);
+            lastSequence = Math.max(lastSequence, entry.sequence());
+            lowestTemporaryId = Math.min(lowestTemporaryId, entry.todoId());
+        } else if (type == RECORD_ACK) {
+            long sequence = in.readLong();
+            int todoId = in.readInt();
+            int realId = in.readInt();
+            pending.remove(sequence);
+            if (realId != 0 && realId != todoId) {
+                reassignedIds.put(todoId, realId);
+            }
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+        out.writeByte(WRITE_FORMAT);
+        out.writeLong(entry.sequence());
+        out.writeByte(entry.operation().ordinal());
+        out.writeInt(entry.todoId());
+        out.writeInt(entry.scope().ownerId());
+        out.writeInt(entry.scope().listId());
+        writeString(out, entry.clientKey());
+        Todo todo = entry.todo();
+        out.writeBoolean(todo != null);
+        if (todo != null) {
+            writeString(out, todo.getTitle());
+            writeString(out, todo.getDescription());
+            writeString(out, todo.getPriority() != null ? todo.getPriority().name() : null);
+            out.writeBoolean(todo.isCompleted());
+            out.writeLong(toMillis(todo.getCreatedAt()));
+            out.writeLong(toMillis(todo.getDueDate()));
+            writeString(out, todo.getRecurrenceRule());
+            out.writeBoolean(todo.isDescriptionTruncated());
+            out.writeInt(todo.getVersion());
+        }
+    }
+
+    private static Entry readEntry(DataInputStream in) throws IOException {
+        byte format = in.readByte();
+        if (format != WRITE_FORMAT) {
+            // Written by a newer version; dropping it would lose the write
+            throw new IOException("Unsupported journal entry format " + format);
+        }
+        long sequence = in.readLong();
+        Operation operation = Operation.values()[in.readByte()];
+        int todoId = in.readInt();
+        TodoScope scope = new TodoScope(in.readInt(), in.readInt());
+        String clientKey = readString(in);
+        Todo todo = null;
+        if (in.readBoolean()) {
+            String title = readString(in);
+            String description = readString(in);
+            String priority = readString(in);
+            todo = Todo.builder()
+                    .id(todoId)
+                    .ownerId(scope.ownerId())
+                    .listId(scope.listId())
+                    .title(title)
+                    .description(description)
+                    .priority(priority != null ? Todo.Priority.valueOf(priority) : null)
+                    .completed(in.readBoolean())
+                    .createdAt(fromMillis(in.readLong()))
+                    .dueDate(fromMillis(in.readLong()))
+                    .recurrenceRule(readString(in))
+                    .descriptionTruncated(in.readBoolean())
+                    .version(in.readInt())
+                    .build();
+        }
+        return new Entry(sequence, operation, todoId, scope, todo, clientKey);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime == null ? NO_DATE : dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        if (millis == NO_DATE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L), (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
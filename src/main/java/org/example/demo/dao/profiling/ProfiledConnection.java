@@ -0,0 +1,175 @@
+package org.example.demo.dao.profiling;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+
+/**
+ * Dynamic proxies that time the statements prepared on a connection and report them to a
+ * {@link QueryProfiler}. Everything else is passed through unchanged. A proxied call costs a reflective
+ * invocation, well below a round trip to the database.
+ */
+final class ProfiledConnection implements InvocationHandler {
+    private final Connection target;
+    private final QueryProfiler profiler;
+
+    private ProfiledConnection(Connection target, QueryProfiler profiler) {
+        this.target = target;
+        this.profiler = profiler;
+    }
+
+    static Connection wrap(Connection connection, QueryProfiler profiler) {
+        return proxy(Connection.class, new ProfiledConnection(connection, profiler));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Object result = invokeOn(target, method, args);
+        if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+            return proxy(PreparedStatement.class, new StatementHandler(statement, (String) args[0], profiler));
+        }
+        return result;
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(ProfiledConnection.class.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Keeps the bound parameters, for {@code EXPLAIN}, and times executions. A query is reported once its rows
+     * have been read, i.e. when its result set or the statement is closed or the statement runs again.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final PreparedStatement target;
+        private final String sql;
+        private final QueryProfiler profiler;
+        private Object[] parameters = new Object[8];
+        /** Execution time of the query whose rows are being read, or -1. */
+        private long pendingNanos = -1;
+        private long rowsRead;
+
+        StatementHandler(PreparedStatement target, String sql, QueryProfiler profiler) {
+            this.target = target;
+            this.sql = sql;
+            this.profiler = profiler;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                reportPending();
+                bind(index, name.equals("setNull") ? null : args[1]);
+                return invokeOn(target, method, args);
+            }
+            switch (name) {
+                case "executeQuery" -> {
+                    reportPending();
+                    long start = System.nanoTime();
+                    ResultSet resultSet = (ResultSet) invokeOn(target, method, args);
+                    pendingNanos = System.nanoTime() - start;
+                    rowsRead = 0;
+                    return proxy(ResultSet.class, new ResultSetHandler(resultSet, this));
+                }
+                case "executeUpdate", "executeLargeUpdate" -> {
+                    reportPending();
+                    long start = System.nanoTime();
+                    Object result = invokeOn(target, method, args);
+                    profiler.record(sql, parameters, System.nanoTime() - start, ((Number) result).longValue());
+                    return result;
+                }
+                case "executeBatch", "executeLargeBatch" -> {
+                    reportPending();
+                    long start = System.nanoTime();
+                    Object result = invokeOn(target, method, args);
+                    profiler.record(sql, parameters, System.nanoTime() - start, affectedRows(result));
+                    return result;
+                }
+                case "execute" -> {
+                    reportPending();
+                    long start = System.nanoTime();
+                    Object result = invokeOn(target, method, args);
+                    long nanos = System.nanoTime() - start;
+                    profiler.record(sql, parameters, nanos, Boolean.TRUE.equals(result) ? 0 : Math.max(0, target.getUpdateCount()));
+                    return result;
+                }
+                case "clearParameters" -> Arrays.fill(parameters, null);
+                case "close" -> reportPending();
+                default -> {
+                }
+            }
+            return invokeOn(target, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+        }
+
+        void rowRead() {
+            rowsRead++;
+        }
+
+        void reportPending() {
+            if (pendingNanos >= 0) {
+                profiler.record(sql, parameters, pendingNanos, rowsRead);
+                pendingNanos = -1;
+            }
+        }
+
+        private static long affectedRows(Object counts) {
+            long rows = 0;
+            if (counts instanceof int[] ints) {
+                for (int count : ints) {
+                    rows += Math.max(0, count);
+                }
+            } else if (counts instanceof long[] longs) {
+                for (long count : longs) {
+                    rows += Math.max(0, count);
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final StatementHandler statement;
+
+        ResultSetHandler(ResultSet target, StatementHandler statement) {
+            this.target = target;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeOn(target, method, args);
+            switch (method.getName()) {
+                case "next" -> {
+                    if (Boolean.TRUE.equals(result)) {
+                        statement.rowRead();
+                    }
+                }
+                case "close" -> statement.reportPending();
+                default -> {
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package org.example.demo.dao.profiling;
+
+import org.example.demo.config.ConfigKey;
+import org.example.demo.logging.LogSampler;
+import org.example.demo.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Times every prepared statement run on the connections it {@link #wrap wraps}. The last
+ * {@code db.profile.ringSize} executions are kept in a ring, and each statement shape gets running totals.
+ * <p>
+ * The first execution of a shape slower than {@code db.profile.slowMs} is explained in the background with
+ * the same parameters; plans that scan a whole table or index, sort in a filesort or build a temporary table are
+ * logged and flagged. On {@link #close()}, or when the JVM exits, the totals, plans and slowest recent statements
+ * are written to {@code db.profile.reportPath}. Timings also go to the {@code db.query.*} metrics.
+ * <p>
+ * Profiling is a diagnostic and off unless {@code db.profile.enabled} is set: every statement call then goes
+ * through reflective proxies, and explaining takes connections from the pool.
+ */
+public class QueryProfiler implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(QueryProfiler.class);
+    private static final LogSampler sampledLog = LogSampler.forSubsystem("query");
+    // Configuration keys
+    private static final ConfigKey<Boolean> ENABLED_KEY = ConfigKey.ofBoolean("db.profile.enabled", false);
+    private static final ConfigKey<Integer> RING_SIZE_KEY = ConfigKey.ofInt("db.profile.ringSize", 1000, 1);
+    private static final ConfigKey<Integer> SLOW_MS_KEY = ConfigKey.ofInt("db.profile.slowMs", 200, 0);
+    private static final ConfigKey<String> REPORT_PATH_KEY = ConfigKey.ofString("db.profile.reportPath",
+            Path.of(System.getProperty("user.home"), ".todo-app", "query-report.txt").toString());
+
+    /** Shapes tracked separately; later ones are counted together so that generated SQL cannot grow the map. */
+    private static final int MAX_SHAPES = 500;
+    private static final String OTHER_SHAPE = "(other statements)";
+    private static final int REPORT_SHAPES = 50;
+    private static final int REPORT_SLOW_SAMPLES = 20;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern REPEATED_LISTS = Pattern.compile("\\(\\?, \\.\\.\\.\\)(?:\\s*,\\s*\\(\\?, \\.\\.\\.\\))+");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+\\b");
+
+    private final DataSource dataSource;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final Map<String, Statement> statements = new ConcurrentHashMap<>();
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final QuerySample[] ring;
+    private long recorded; // guarded by ring
+    private final LongAdder slowCount = new LongAdder();
+    private final ExecutorService explainer;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * @param dataSource unprofiled connections, used to explain slow statements
+     */
+    public QueryProfiler(DataSource dataSource, int ringSize) {
+        this.dataSource = dataSource;
+        this.ring = new QuerySample[ringSize];
+        this.explainer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "query-explain");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metrics.registerGauge("db.query.shapes", shapes::size);
+        metrics.registerGauge("db.query.flaggedShapes",
+                () -> shapes.values().stream().filter(stats -> !stats.flags.isEmpty()).count());
+    }
+
+    /**
+     * A profiler for the connections of {@code dataSource} that writes its report when the JVM exits, unless
+     * closed before; empty if profiling is disabled.
+     */
+    public static Optional<QueryProfiler> create(DataSource dataSource) {
+        if (!ENABLED_KEY.get()) {
+            return Optional.empty();
+        }
+        QueryProfiler profiler = new QueryProfiler(dataSource, RING_SIZE_KEY.get());
+        Runtime.getRuntime().addShutdownHook(new Thread(profiler::close, "query-report"));
+        return Optional.of(profiler);
+    }
+
+    public Connection wrap(Connection connection) {
+        return ProfiledConnection.wrap(connection, this);
+    }
+
+    void record(String sql, Object[] parameters, long nanos, long rows) {
+        Statement statement = describe(sql);
+        QuerySample sample = new QuerySample(statement.shape(), statement.parameters(), rows, nanos,
+                System.currentTimeMillis());
+        synchronized (ring) {
+            ring[(int) (recorded++ % ring.length)] = sample;
+        }
+        ShapeStats stats = statsFor(statement.shape());
+        stats.add(nanos, rows);
+        metrics.recordNanos("db.query", nanos);
+        metrics.recordNanos("db.query." + statement.verb(), nanos);
+
+        if (nanos >= TimeUnit.MILLISECONDS.toNanos(SLOW_MS_KEY.get())) {
+            slowCount.increment();
+            stats.slow.increment();
+            metrics.increment("db.query.slow");
+            sampledLog.warn(logger, "Slow statement: {}", String.format(Locale.ROOT, "%.1f ms, %d rows: %s",
+                    nanos / 1_000_000.0, rows, statement.shape()));
+            if (statement.explainable() && stats.explained.compareAndSet(false, true)) {
+                Object[] bound = Arrays.copyOf(parameters, statement.parameters());
+                try {
+                    explainer.execute(() -> explain(sql, bound, statement.shape(), stats));
+                } catch (RejectedExecutionException e) {
+                    // Closed
+                }
+            }
+        }
+    }
+
+    private ShapeStats statsFor(String shape) {
+        ShapeStats stats = shapes.get(shape);
+        if (stats != null) {
+            return stats;
+        }
+        return shapes.computeIfAbsent(shapes.size() < MAX_SHAPES ? shape : OTHER_SHAPE, key -> new ShapeStats());
+    }
+
+    private Statement describe(String sql) {
+        Statement statement = statements.get(sql);
+        if (statement == null) {
+            statement = Statement.of(sql);
+            // Statements with generated placeholder lists differ in text only; their shapes are shared
+            if (statements.size() < MAX_SHAPES * 4) {
+                statements.put(sql, statement);
+            }
+        }
+        return statement;
+    }
+
+    /**
+     * Runs {@code EXPLAIN} for a slow statement and keeps its plan. A plan is flagged if it reads a whole table
+     * or index, or sorts or groups through a filesort or temporary table.
+     */
+    private void explain(String sql, Object[] parameters, String shape, ShapeStats stats) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                if (parameters[i] == null) {
+                    stmt.setNull(i + 1, Types.NULL);
+                } else {
+                    stmt.setObject(i + 1, parameters[i]);
+                }
+            }
+            List<String> steps = new ArrayList<>();
+            List<String> flags = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String table = rs.getString("table");
+                    String type = rs.getString("type");
+                    String key = rs.getString("key");
+                    String extra = rs.getString("Extra");
+                    steps.add(table + " " + type + (key != null ? " via " + key : "") + ", ~" + rs.getLong("rows")
+                            + " rows" + (extra != null && !extra.isEmpty() ? " (" + extra + ")" : ""));
+                    if ("ALL".equals(type)) {
+                        flags.add("full scan of " + table);
+                    } else if ("index".equals(type)) {
+                        flags.add("full index scan of " + table);
+                    }
+                    if (extra != null && extra.contains("Using filesort")) {
+                        flags.add("filesort on " + table);
+                    }
+                    if (extra != null && extra.contains("Using temporary")) {
+                        flags.add("temporary table for " + table);
+                    }
+                }
+            }
+            stats.plan = String.join("; ", steps);
+            stats.flags = List.copyOf(flags);
+            if (flags.isEmpty()) {
+                logger.info("Plan of slow statement: {} -- {}", stats.plan, shape);
+            } else {
+                logger.warn("Slow statement uses {}: {} -- {}", String.join(", ", flags), stats.plan, shape);
+            }
+        } catch (SQLException e) {
+            logger.debug("Could not explain {}: {}", shape, e.getMessage());
+        }
+    }
+
+    /**
+     * The executions in the ring, newest first.
+     */
+    public List<QuerySample> recentSamples() {
+        List<QuerySample> samples = new ArrayList<>(ring.length);
+        synchronized (ring) {
+            for (long i = recorded - 1; i >= 0 && i >= recorded - ring.length; i--) {
+                samples.add(ring[(int) (i % ring.length)]);
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Writes the report, if a path is configured, and stops explaining statements. Only the first call does.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        explainer.shutdown();
+        try {
+            if (!explainer.awaitTermination(2, TimeUnit.SECONDS)) {
+                explainer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String path = REPORT_PATH_KEY.get();
+        if (path != null && !path.isBlank()) {
+            writeReport(Path.of(path));
+        }
+    }
+
+    public void writeReport(Path path) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+                writeReport(out);
+            }
+            logger.info("Query report written to {}", path);
+        } catch (IOException e) {
+            logger.warn("Could not write the query report to {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void writeReport(PrintWriter out) {
+        List<Map.Entry<String, ShapeStats>> byTotal = new ArrayList<>(shapes.entrySet());
+        byTotal.sort(Comparator.comparingLong((Map.Entry<String, ShapeStats> entry) -> entry.getValue().totalNanos.sum())
+                .reversed());
+        long executions = byTotal.stream().mapToLong(entry -> entry.getValue().count.sum()).sum();
+
+        out.printf(Locale.ROOT, "Query report, %s%n", Instant.now());
+        out.printf(Locale.ROOT, "%d statements in %d shapes, %d slower than %d ms%n%n",
+                executions, byTotal.size(), slowCount.sum(), SLOW_MS_KEY.get());
+        out.printf(Locale.ROOT, "%8s %10s %8s %8s %9s %6s  %s%n",
+                "count", "total ms", "avg ms", "max ms", "avg rows", "slow", "statement");
+        for (Map.Entry<String, ShapeStats> entry : byTotal.subList(0, Math.min(REPORT_SHAPES, byTotal.size()))) {
+            ShapeStats stats = entry.getValue();
+            long count = Math.max(1, stats.count.sum());
+            out.printf(Locale.ROOT, "%8d %10.1f %8.2f %8.1f %9.1f %6d  %s%n",
+                    stats.count.sum(), stats.totalNanos.sum() / 1e6, stats.totalNanos.sum() / 1e6 / count,
+                    stats.maxNanos() / 1e6, (double) stats.rows.sum() / count, stats.slow.sum(), entry.getKey());
+            if (stats.plan != null) {
+                out.printf(Locale.ROOT, "%55s  plan: %s%n", "", stats.plan);
+            }
+            if (!stats.flags.isEmpty()) {
+                out.printf(Locale.ROOT, "%55s  FLAGGED: %s%n", "", String.join(", ", stats.flags));
+            }
+        }
+
+        List<QuerySample> slowest = new ArrayList<>(recentSamples());
+        slowest.sort(Comparator.comparingLong(QuerySample::nanos).reversed());
+        out.printf(Locale.ROOT, "%nSlowest of the last %d statements:%n", Math.min(recorded(), ring.length));
+        for (QuerySample sample : slowest.subList(0, Math.min(REPORT_SLOW_SAMPLES, slowest.size()))) {
+            out.printf(Locale.ROOT, "%s %8.1f ms %8d rows  %s%n",
+                    Instant.ofEpochMilli(sample.finishedAt()), sample.nanos() / 1e6, sample.rows(), sample.shape());
+        }
+    }
+
+    private long recorded() {
+        synchronized (ring) {
+            return recorded;
+        }
+    }
+
+    /**
+     * What is known about a statement from its text alone.
+     *
+     * @param verb        first keyword in lower case, for the per-verb timers
+     * @param explainable whether MySQL can explain it and the plan involves reading rows
+     */
+    record Statement(String shape, int parameters, String verb, boolean explainable) {
+
+        static Statement of(String sql) {
+            String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+            shape = PLACEHOLDER_LIST.matcher(shape).replaceAll("(?, ...)");
+            shape = REPEATED_LISTS.matcher(shape).replaceAll("(?, ...), ...");
+            shape = NUMBER.matcher(shape).replaceAll("N");
+            int space = shape.indexOf(' ');
+            String verb = (space < 0 ? shape : shape.substring(0, space)).toLowerCase(Locale.ROOT);
+            boolean explainable = switch (verb) {
+                case "select", "update", "delete" -> true;
+                case "insert", "replace" -> shape.toLowerCase(Locale.ROOT).contains(" select ");
+                default -> false;
+            };
+            return new Statement(shape, countPlaceholders(sql), verb, explainable);
+        }
+
+        private static int countPlaceholders(String sql) {
+            int count = 0;
+            char quote = 0;
+            for (int i = 0; i < sql.length(); i++) {
+                char c = sql.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '\'' || c == '"' || c == '`') {
+                    quote = c;
+                } else if (c == '?') {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static final class ShapeStats {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder slow = new LongAdder();
+        final AtomicBoolean explained = new AtomicBoolean();
+        private long maxNanos; // guarded by this
+        volatile String plan;
+        volatile List<String> flags = List.of();
+
+        void add(long nanos, long rowCount) {
+            count.increment();
+            totalNanos.add(nanos);
+            rows.add(rowCount);
+            synchronized (this) {
+                maxNanos = Math.max(maxNanos, nanos);
+            }
+        }
+
+        synchronized long maxNanos() {
+            return maxNanos;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.demo.dao.profiling;
+
+/**
+ * One executed statement as kept in the {@link QueryProfiler}'s ring.
+ *
+ * @param shape      the SQL with whitespace collapsed and placeholder lists and numbers folded, so that all
+ *                   executions of a statement share it
+ * @param parameters number of bind parameters
+ * @param rows       rows read or affected
+ * @param nanos      time until the statement returned, without reading its rows
+ * @param finishedAt wall-clock time in milliseconds
+ */
+public record QuerySample(String shape, int parameters, long rows, long nanos, long finishedAt) {
+}
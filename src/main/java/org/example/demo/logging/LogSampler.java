@@ -0,0 +1,98 @@
+package org.example.demo.logging;
+
+import org.example.demo.config.ConfigKey;
+import org.example.demo.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limit for the log messages of one noisy subsystem. At most {@code log.sample.perSecond} messages pass
+ * per second; the rest are dropped and counted, and the count is appended to the next message that passes, so
+ * a flood shows up as a few lines instead of thousands.
+ * <p>
+ * The check is a few atomic operations and allocates nothing, and it runs only if the level is enabled, so a
+ * sampler can guard logging on hot paths. Dropped messages are also counted in the
+ * {@code log.<subsystem>.suppressed} metric.
+ */
+public final class LogSampler {
+    // Configuration keys
+    private static final ConfigKey<Integer> PER_SECOND_KEY = ConfigKey.ofInt("log.sample.perSecond", 10, 1);
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private final AtomicLong window = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicInteger passedInWindow = new AtomicInteger();
+    private final AtomicInteger suppressedSinceLast = new AtomicInteger();
+    private final AtomicLong suppressedTotal = new AtomicLong();
+
+    private LogSampler(String subsystem) {
+        MetricsRegistry.getInstance().registerGauge("log." + subsystem + ".suppressed", suppressedTotal::get);
+    }
+
+    public static LogSampler forSubsystem(String subsystem) {
+        return new LogSampler(subsystem);
+    }
+
+    public void debug(Logger logger, String format, Object arg) {
+        if (logger.isDebugEnabled() && allow()) {
+            int suppressed = suppressedSinceLast.getAndSet(0);
+            if (suppressed > 0) {
+                logger.debug(format + " ({} similar messages suppressed)", arg, suppressed);
+            } else {
+                logger.debug(format, arg);
+            }
+        }
+    }
+
+    public void info(Logger logger, String format, Object arg) {
+        if (logger.isInfoEnabled() && allow()) {
+            int suppressed = suppressedSinceLast.getAndSet(0);
+            if (suppressed > 0) {
+                logger.info(format + " ({} similar messages suppressed)", arg, suppressed);
+            } else {
+                logger.info(format, arg);
+            }
+        }
+    }
+
+    public void info(Logger logger, String format, Object arg1, Object arg2) {
+        if (logger.isInfoEnabled() && allow()) {
+            int suppressed = suppressedSinceLast.getAndSet(0);
+            if (suppressed > 0) {
+                logger.info(format + " ({} similar messages suppressed)", arg1, arg2, suppressed);
+            } else {
+                logger.info(format, arg1, arg2);
+            }
+        }
+    }
+
+    public void warn(Logger logger, String format, Object arg) {
+        if (logger.isWarnEnabled() && allow()) {
+            int suppressed = suppressedSinceLast.getAndSet(0);
+            if (suppressed > 0) {
+                logger.warn(format + " ({} similar messages suppressed)", arg, suppressed);
+            } else {
+                logger.warn(format, arg);
+            }
+        }
+    }
+
+    /**
+     * True if a message may be logged now; otherwise it is counted as suppressed.
+     */
+    public boolean allow() {
+        long current = System.nanoTime() / WINDOW_NANOS;
+        long previous = window.get();
+        if (current != previous && window.compareAndSet(previous, current)) {
+            passedInWindow.set(0);
+        }
+        if (passedInWindow.incrementAndGet() <= PER_SECOND_KEY.get()) {
+            return true;
+        }
+        suppressedSinceLast.incrementAndGet();
+        suppressedTotal.incrementAndGet();
+        return false;
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.demo.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide registry for counters, gauges and timings.
+ * Subsystems register what they want to expose; the registry only keeps numbers and
+ * renders them as a flat, sorted snapshot.
+ */
+public class MetricsRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+    private static final MetricsRegistry instance = new MetricsRegistry();
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    public static MetricsRegistry getInstance() {
+        return instance;
+    }
+
+    public void increment(String name) {
+        add(name, 1);
+    }
+
+    public void add(String name, long delta) {
+        counters.computeIfAbsent(name, key -> new LongAdder()).add(delta);
+    }
+
+    public long getCount(String name) {
+        LongAdder counter = counters.get(name);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    public void registerGauge(String name, Supplier<? extends Number> gauge) {
+        gauges.put(name, gauge);
+    }
+
+    public void recordNanos(String name, long nanos) {
+        timers.computeIfAbsent(name, key -> new Timer()).record(nanos);
+    }
+
+    public Timer getTimer(String name) {
+        return timers.computeIfAbsent(name, key -> new Timer());
+    }
+
+    /**
+     * Flat view of every metric, sorted by name. Timers expand into count/avg/max entries in milliseconds.
+     */
+    public Map<String, Number> snapshot() {
+        Map<String, Number> result = new TreeMap<>();
+        counters.forEach((name, counter) -> result.put(name, counter.sum()));
+        gauges.forEach((name, gauge) -> {
+            try {
+                result.put(name, gauge.get());
+            } catch (Exception e) {
+                logger.debug("Gauge '{}' failed: {}", name, e.getMessage());
+            }
+        });
+        timers.forEach((name, timer) -> {
+            result.put(name + ".count", timer.getCount());
+            result.put(name + ".avgMs", timer.getAverageMillis());
+            result.put(name + ".maxMs", timer.getMaxMillis());
+        });
+        return result;
+    }
+
+    public void logSummary() {
+        Map<String, Number> snapshot = snapshot();
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        StringBuilder summary = new StringBuilder("Metrics summary:");
+        snapshot.forEach((name, value) -> summary.append("\n  ").append(name).append(" = ").append(value));
+        logger.info(summary.toString());
+    }
+
+    /**
+     * Lock-free duration accumulator. Keeps count, total and max only, which is enough for the summaries.
+     */
+    public static class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private volatile long maxNanos;
+
+        public void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            if (nanos > maxNanos) {
+                synchronized (this) {
+                    if (nanos > maxNanos) {
+                        maxNanos = nanos;
+                    }
+                }
+            }
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getAverageMillis() {
+            long n = count.sum();
+            return n == 0 ? 0.0 : totalNanos.sum() / (double) n / 1_000_000.0;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+    }
+}
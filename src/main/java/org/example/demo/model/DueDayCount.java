@@ -0,0 +1,9 @@
+package org.example.demo.model;
+
+import java.time.LocalDate;
+
+/**
+ * One row of a due-date aggregate: how many todos with the given priority and completion are due on {@code day}.
+ */
+public record DueDayCount(LocalDate day, Todo.Priority priority, boolean completed, int count) {
+}
@@ -0,0 +1,19 @@
+package org.example.demo.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position in a list of todos ordered newest first: the creation time and id of the last todo of a page. The
+ * next page starts with the todo right after it, so pages stay stable while rows are added in front.
+ */
+public record PageCursor(LocalDateTime createdAt, int id) {
+    public PageCursor {
+        if (createdAt == null) {
+            throw new IllegalArgumentException("Cursor needs a creation time");
+        }
+    }
+
+    public static PageCursor after(Todo todo) {
+        return new PageCursor(todo.getCreatedAt(), todo.getId());
+    }
+}
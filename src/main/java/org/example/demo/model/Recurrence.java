@@ -0,0 +1,164 @@
+package org.example.demo.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Parsed form of a todo's recurrence rule, a subset of the iCalendar RRULE syntax:
+ * {@code FREQ=DAILY|WEEKLY|MONTHLY|YEARLY}, optional {@code INTERVAL=n}, {@code BYDAY=MO,WE,...} (weekly only),
+ * {@code COUNT=n}, {@code UNTIL=yyyyMMdd'T'HHmmss} and {@code DTSTART=yyyyMMdd'T'HHmmss}. The series starts at
+ * {@code DTSTART}, or at the todo's due date when the rule has none, and every occurrence is computed from that
+ * start so that e.g. a monthly series on the 31st keeps returning to the 31st. {@code COUNT} is the number of
+ * occurrences of the whole series, counted from its start.
+ */
+public record Recurrence(Frequency frequency, int interval, Set<DayOfWeek> byDay, Integer count, LocalDateTime until,
+                         LocalDateTime start) {
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    public enum Frequency {
+        DAILY("day"),
+        WEEKLY("week"),
+        MONTHLY("month"),
+        YEARLY("year");
+
+        private final String unit;
+
+        Frequency(String unit) {
+            this.unit = unit;
+        }
+    }
+
+    public Recurrence {
+        if (frequency == null) {
+            throw new IllegalArgumentException("Recurrence needs a frequency");
+        }
+        if (interval < 1) {
+            throw new IllegalArgumentException("Recurrence interval must be positive: " + interval);
+        }
+        if (count != null && count < 1) {
+            throw new IllegalArgumentException("Recurrence count must be positive: " + count);
+        }
+        byDay = byDay == null || byDay.isEmpty()
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(byDay));
+        if (!byDay.isEmpty() && frequency != Frequency.WEEKLY) {
+            throw new IllegalArgumentException("BYDAY is only supported for weekly recurrence");
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the rule is malformed or uses unsupported parts
+     */
+    public static Recurrence parse(String rule) {
+        Frequency frequency = null;
+        int interval = 1;
+        Set<DayOfWeek> byDay = EnumSet.noneOf(DayOfWeek.class);
+        Integer count = null;
+        LocalDateTime until = null;
+        LocalDateTime start = null;
+        for (String part : rule.trim().split(";")) {
+            String[] pair = part.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Malformed recurrence rule part '" + part + "' in " + rule);
+            }
+            String value = pair[1].trim();
+            switch (pair[0].trim().toUpperCase(Locale.ROOT)) {
+                case "FREQ" -> frequency = parseValue(part, () -> Frequency.valueOf(value.toUpperCase(Locale.ROOT)));
+                case "INTERVAL" -> interval = parseValue(part, () -> Integer.parseInt(value));
+                case "COUNT" -> count = parseValue(part, () -> Integer.parseInt(value));
+                case "UNTIL" -> until = parseValue(part, () -> LocalDateTime.parse(value, DATE_TIME_FORMAT));
+                case "DTSTART" -> start = parseValue(part, () -> LocalDateTime.parse(value, DATE_TIME_FORMAT));
+                case "BYDAY" -> {
+                    for (String day : value.split(",")) {
+                        byDay.add(parseDay(day.trim()));
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unsupported recurrence rule part '" + part + "'");
+            }
+        }
+        return new Recurrence(frequency, interval, byDay, count, until, start);
+    }
+
+    public String toRule() {
+        StringJoiner rule = new StringJoiner(";");
+        rule.add("FREQ=" + frequency);
+        if (interval != 1) {
+            rule.add("INTERVAL=" + interval);
+        }
+        if (!byDay.isEmpty()) {
+            rule.add("BYDAY=" + byDay.stream().map(day -> day.name().substring(0, 2)).collect(Collectors.joining(",")));
+        }
+        if (count != null) {
+            rule.add("COUNT=" + count);
+        }
+        if (until != null) {
+            rule.add("UNTIL=" + until.format(DATE_TIME_FORMAT));
+        }
+        if (start != null) {
+            rule.add("DTSTART=" + start.format(DATE_TIME_FORMAT));
+        }
+        return rule.toString();
+    }
+
+    /**
+     * The same rule starting at {@code start}; null starts it at the todo's due date.
+     */
+    public Recurrence withStart(LocalDateTime start) {
+        return new Recurrence(frequency, interval, byDay, count, until, start);
+    }
+
+    /**
+     * Short human-readable form, e.g. "Every 2 weeks on Mon, Thu".
+     */
+    public String describe() {
+        StringBuilder text = new StringBuilder("Every ");
+        if (interval == 1) {
+            text.append(frequency.unit);
+        } else {
+            text.append(interval).append(' ').append(frequency.unit).append('s');
+        }
+        if (!byDay.isEmpty()) {
+            text.append(" on ").append(byDay.stream()
+                    .map(day -> day.getDisplayName(TextStyle.SHORT, Locale.getDefault()))
+                    .collect(Collectors.joining(", ")));
+        }
+        if (count != null) {
+            text.append(", ").append(count).append(count == 1 ? " time" : " times");
+        }
+        if (until != null) {
+            text.append(", until ").append(until.format(DateTimeFormatter.ofPattern("MMM dd, yyyy")));
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toRule();
+    }
+
+    private static <T> T parseValue(String part, Supplier<T> parser) {
+        try {
+            return parser.get();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid value in recurrence rule part '" + part + "'", e);
+        }
+    }
+
+    private static DayOfWeek parseDay(String code) {
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.name().startsWith(code.toUpperCase(Locale.ROOT)) && code.length() == 2) {
+                return day;
+            }
+        }
+        throw new IllegalArgumentException("Unknown day '" + code + "'");
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.demo.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted reminder progress of one todo: the occurrence it is for ({@code dueAt}), when it fires next
+ * ({@code nextFireAt}, null once fired or when there is nothing to remind about), when it last fired and
+ * how long it is snoozed. Keeping this outside the todo row means a restart neither repeats nor forgets reminders.
+ */
+public record ReminderState(int todoId, int ownerId, int listId, LocalDateTime dueAt, LocalDateTime nextFireAt,
+                            LocalDateTime lastFiredAt, LocalDateTime snoozedUntil) {
+
+    /**
+     * A reminder for the occurrence due at {@code dueAt} that fires at {@code fireAt}.
+     */
+    public static ReminderState pending(Todo todo, LocalDateTime dueAt, LocalDateTime fireAt, LocalDateTime lastFiredAt) {
+        return new ReminderState(todo.getId(), todo.getOwnerId(), todo.getListId(), dueAt, fireAt, lastFiredAt, null);
+    }
+
+    /**
+     * Nothing to remind about, e.g. the todo is completed or has no due date.
+     */
+    public static ReminderState none(Todo todo, LocalDateTime lastFiredAt) {
+        return new ReminderState(todo.getId(), todo.getOwnerId(), todo.getListId(), null, null, lastFiredAt, null);
+    }
+
+    public boolean isPending() {
+        return nextFireAt != null;
+    }
+
+    public boolean isSnoozed(LocalDateTime now) {
+        return snoozedUntil != null && snoozedUntil.isAfter(now);
+    }
+
+    /**
+     * This occurrence has been reminded about; it will not fire again.
+     */
+    public ReminderState fired(LocalDateTime at) {
+        return new ReminderState(todoId, ownerId, listId, dueAt, null, at, null);
+    }
+
+    /**
+     * This occurrence was missed (e.g. the app was closed); it is dropped without firing.
+     */
+    public ReminderState skipped() {
+        return new ReminderState(todoId, ownerId, listId, dueAt, null, lastFiredAt, null);
+    }
+
+    public ReminderState snoozedUntil(LocalDateTime until) {
+        return new ReminderState(todoId, ownerId, listId, dueAt, until, lastFiredAt, until);
+    }
+}
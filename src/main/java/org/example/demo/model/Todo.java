@@ -8,20 +8,38 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Optional;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Todo {
     // Getters and Setters
     private int id;
+    /** Owning user and list; 0 until the todo is assigned a {@link TodoScope}. */
+    private int ownerId;
+    private int listId;
     private String title;
     private String description;
+    /**
+     * True if {@link #description} holds only the start of the stored text, as list queries read. Such a
+     * todo never overwrites the stored description when saved.
+     */
+    private boolean descriptionTruncated;
     private Priority priority;
     private boolean completed;
     private LocalDateTime createdAt;
     private LocalDateTime dueDate;
+    /** RRULE-style {@link Recurrence} text, or null for a one-off todo. The due date is the current occurrence. */
+    private String recurrenceRule;
+    /** Last modification as recorded by the database; null for todos that were never loaded from it. */
+    private LocalDateTime updatedAt;
+    /**
+     * Row version, incremented by every update in the database. An update is only applied to the version it
+     * was based on; 0 for todos that were never loaded from the database.
+     */
+    private int version;
 
     @Getter
     public enum Priority {
@@ -53,6 +71,13 @@ public class Todo {
         this.dueDate = dueDate;
     }
 
+    /**
+     * Detached copy, safe to hand to other threads while this instance keeps being edited.
+     */
+    public Todo copy() {
+        return toBuilder().build();
+    }
+
     public String getFormattedCreatedAt() {
         return createdAt.format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm"));
     }
@@ -62,6 +87,19 @@ public class Todo {
         return dueDate.format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm"));
     }
 
+    public boolean isRecurring() {
+        return recurrenceRule != null && !recurrenceRule.isBlank();
+    }
+
+    /**
+     * Parsed recurrence rule; empty for one-off todos.
+     *
+     * @throws IllegalArgumentException if the stored rule is malformed
+     */
+    public Optional<Recurrence> getRecurrence() {
+        return isRecurring() ? Optional.of(Recurrence.parse(recurrenceRule)) : Optional.empty();
+    }
+
     public boolean isOverdue() {
         return dueDate != null && LocalDateTime.now().isAfter(dueDate) && !completed;
     }
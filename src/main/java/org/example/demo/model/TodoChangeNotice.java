@@ -0,0 +1,10 @@
+package org.example.demo.model;
+
+/**
+ * One entry of a scope's change feed: the todo with {@code todoId} was written, or deleted, by the client
+ * identified by {@code origin}. Notices carry no row data; readers fetch the current row themselves.
+ *
+ * @param seq position in the scope's feed; consecutive notices of a scope have consecutive numbers
+ */
+public record TodoChangeNotice(long seq, int todoId, boolean deleted, String origin) {
+}
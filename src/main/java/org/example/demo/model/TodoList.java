@@ -0,0 +1,31 @@
+package org.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A named list (project) owned by one user. Todos reference it through {@link Todo#getListId()}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoList {
+    private int id;
+    private int ownerId;
+    private String name;
+    private LocalDateTime createdAt;
+
+    public TodoScope toScope() {
+        return new TodoScope(ownerId, id);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
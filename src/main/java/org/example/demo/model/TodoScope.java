@@ -0,0 +1,37 @@
+package org.example.demo.model;
+
+/**
+ * The partition a client works in: one owner's list. Every todo belongs to exactly one scope, and the
+ * DAO only ever reads or writes rows inside the scope it is given.
+ */
+public record TodoScope(int ownerId, int listId) {
+    /** The user and list that single-user installations and migrated rows belong to. */
+    public static final TodoScope DEFAULT = new TodoScope(1, 1);
+
+    public TodoScope {
+        if (ownerId <= 0 || listId <= 0) {
+            throw new IllegalArgumentException("Invalid scope owner=" + ownerId + " list=" + listId);
+        }
+    }
+
+    public static TodoScope of(Todo todo) {
+        return new TodoScope(todo.getOwnerId(), todo.getListId());
+    }
+
+    public boolean contains(Todo todo) {
+        return todo.getOwnerId() == ownerId && todo.getListId() == listId;
+    }
+
+    /**
+     * Stamps this scope onto a todo that was created without one.
+     */
+    public void assignTo(Todo todo) {
+        todo.setOwnerId(ownerId);
+        todo.setListId(listId);
+    }
+
+    @Override
+    public String toString() {
+        return "owner " + ownerId + " / list " + listId;
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class User {
+    private int id;
+    private String username;
+    private String displayName;
+    private LocalDateTime createdAt;
+
+    @Override
+    public String toString() {
+        return displayName != null ? displayName : username;
+    }
+}
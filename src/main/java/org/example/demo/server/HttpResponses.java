@@ -0,0 +1,125 @@
+package org.example.demo.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes JSON responses with validators and compression.
+ * <p>
+ * Bodies of successful reads carry a weak ETag derived from their content. A request whose
+ * {@code If-None-Match} names it gets an empty 304, so a client polling an unchanged page or todo transfers
+ * headers only. The tag is weak because it names the JSON, not the bytes, so the same tag is valid with and
+ * without gzip. Bodies of at least {@code gzipMinBytes} are gzipped for clients that accept it; smaller ones
+ * are not worth the CPU.
+ */
+final class HttpResponses {
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+
+    private HttpResponses() {
+    }
+
+    /**
+     * Sends {@code json} with {@code status}. If {@code cacheable}, the body gets an ETag and a matching
+     * {@code If-None-Match} turns the response into a 304.
+     */
+    static void sendJson(HttpExchange exchange, int status, String json, boolean cacheable, int gzipMinBytes)
+            throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", JSON_TYPE);
+        if (cacheable) {
+            String etag = etag(body);
+            headers.set("ETag", etag);
+            headers.set("Cache-Control", "no-cache");
+            if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+                headers.remove("Content-Type");
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+        }
+        if (body.length >= gzipMinBytes) {
+            headers.add("Vary", "Accept-Encoding");
+            if (acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+                body = gzip(body);
+                headers.set("Content-Encoding", "gzip");
+            }
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    /**
+     * The weak ETag of a JSON body.
+     */
+    static String etag(String json) {
+        return etag(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * True if an {@code If-None-Match} or {@code If-Match} header value names {@code etag} or is {@code *}.
+     * Weak and strong forms of a tag compare equal.
+     */
+    static boolean matches(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : header.split(",")) {
+            String tag = candidate.strip();
+            if (tag.equals("*") || stripWeak(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "W/\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.strip().split(";");
+            if (parts[0].strip().equalsIgnoreCase("gzip")) {
+                // "gzip;q=0" explicitly refuses it
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed, 8192)) {
+            out.write(body);
+        }
+        return compressed.toByteArray();
+    }
+}
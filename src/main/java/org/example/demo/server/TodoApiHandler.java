@@ -0,0 +1,302 @@
+package org.example.demo.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.example.demo.config.ConfigKey;
+import org.example.demo.dao.DataAccessException;
+import org.example.demo.dao.TodoConflictException;
+import org.example.demo.dao.TodoDAO;
+import org.example.demo.metrics.MetricsRegistry;
+import org.example.demo.model.PageCursor;
+import org.example.demo.model.Todo;
+import org.example.demo.model.TodoScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The todo resources of one list:
+ * <pre>
+ * GET    /api/owners/{ownerId}/lists/{listId}/todos?limit=&amp;after=   one page, newest first
+ * POST   /api/owners/{ownerId}/lists/{listId}/todos                   create
+ * GET    /api/owners/{ownerId}/lists/{listId}/todos/{id}              one todo with its full description
+ * PUT    /api/owners/{ownerId}/lists/{listId}/todos/{id}              update the fields sent
+ * DELETE /api/owners/{ownerId}/lists/{listId}/todos/{id}              delete
+ * </pre>
+ * Pages are keyset-paginated: {@code next} in a page is an opaque cursor to pass as {@code after}, and is null
+ * on the last page. Descriptions in pages are previews, as in the desktop list. Reads return an ETag; a PUT
+ * or DELETE with {@code If-Match} is refused with 412 if the todo has changed since, a PUT that keeps colliding
+ * with concurrent writes with 409.
+ * <p>
+ * Each exchange runs on its own virtual thread, so a request waiting for a pooled connection or the database
+ * holds no platform thread. Invalid input is answered with 400, an unavailable database with 503.
+ */
+class TodoApiHandler implements HttpHandler {
+    private static final Logger logger = LoggerFactory.getLogger(TodoApiHandler.class);
+    // Configuration keys
+    private static final ConfigKey<Integer> PAGE_DEFAULT_KEY = ConfigKey.ofInt("server.page.defaultSize", 50, 1);
+    private static final ConfigKey<Integer> PAGE_MAX_KEY = ConfigKey.ofInt("server.page.maxSize", 500, 1);
+    private static final ConfigKey<Integer> GZIP_MIN_BYTES_KEY = ConfigKey.ofInt("server.gzip.minBytes", 1024, 0);
+
+    static final String PREFIX = "/api/owners/";
+    private static final int MAX_BODY_BYTES = 1024 * 1024;
+    /** A PUT that keeps losing to concurrent writes is answered with 409 after this many tries. */
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+
+    private final TodoDAO dao;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    TodoApiHandler(TodoDAO dao) {
+        this.dao = dao;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        String route = "unmatched";
+        int status;
+        try {
+            Request request = Request.parse(exchange);
+            route = request.route(exchange.getRequestMethod());
+            status = dispatch(exchange, request);
+        } catch (IllegalArgumentException e) {
+            status = error(exchange, 400, e.getMessage());
+        } catch (NoSuchElementException e) {
+            status = error(exchange, 404, e.getMessage());
+        } catch (TodoConflictException e) {
+            status = error(exchange, 409, e.getMessage());
+        } catch (DataAccessException e) {
+            exchange.getResponseHeaders().set("Retry-After", "5");
+            status = error(exchange, 503, "Database unavailable");
+        } catch (IOException e) {
+            // Client went away; nothing to answer
+            status = 499;
+            logger.debug("Exchange {} {} aborted: {}", exchange.getRequestMethod(), exchange.getRequestURI(), e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Request {} {} failed", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            status = error(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+        metrics.recordNanos("http." + route, System.nanoTime() - start);
+        metrics.increment("http.status." + status);
+    }
+
+    private int dispatch(HttpExchange exchange, Request request) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (request.id() == null) {
+            return switch (method) {
+                case "GET" -> listPage(exchange, request.scope());
+                case "POST" -> create(exchange, request.scope());
+                default -> methodNotAllowed(exchange, "GET, POST");
+            };
+        }
+        int id = request.id();
+        return switch (method) {
+            case "GET" -> get(exchange, request.scope(), id);
+            case "PUT" -> update(exchange, request.scope(), id);
+            case "DELETE" -> delete(exchange, request.scope(), id);
+            default -> methodNotAllowed(exchange, "GET, PUT, DELETE");
+        };
+    }
+
+    private int listPage(HttpExchange exchange, TodoScope scope) throws IOException {
+        Map<String, String> query = queryParameters(exchange.getRequestURI().getRawQuery());
+        int limit = query.containsKey("limit") ? parseInt("limit", query.get("limit")) : PAGE_DEFAULT_KEY.get();
+        if (limit < 1 || limit > PAGE_MAX_KEY.get()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + PAGE_MAX_KEY.get());
+        }
+        PageCursor after = query.containsKey("after") ? decodeCursor(query.get("after")) : null;
+        // One extra row tells whether another page follows
+        List<Todo> rows = dao.findPage(scope, after, limit + 1);
+        String next = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            next = encodeCursor(PageCursor.after(rows.get(limit - 1)));
+        }
+        metrics.add("http.todos.pageRows", rows.size());
+        HttpResponses.sendJson(exchange, 200, TodoJson.writePage(rows, next), true, GZIP_MIN_BYTES_KEY.get());
+        return 200;
+    }
+
+    private int get(HttpExchange exchange, TodoScope scope, int id) throws IOException {
+        Todo todo = find(scope, id);
+        HttpResponses.sendJson(exchange, 200, TodoJson.write(todo), true, GZIP_MIN_BYTES_KEY.get());
+        return 200;
+    }
+
+    private int create(HttpExchange exchange, TodoScope scope) throws IOException {
+        Todo todo = Todo.builder().priority(Todo.Priority.MEDIUM).build();
+        TodoJson.read(readBody(exchange), todo);
+        scope.assignTo(todo);
+        dao.save(todo);
+        Todo created = find(scope, todo.getId());
+        exchange.getResponseHeaders().set("Location", exchange.getRequestURI().getPath() + "/" + created.getId());
+        HttpResponses.sendJson(exchange, 201, TodoJson.write(created), false, GZIP_MIN_BYTES_KEY.get());
+        return 201;
+    }
+
+    /**
+     * Applies the sent fields to the stored todo. If another write gets in between, the fields are applied
+     * again to the newer row, as they only name what this request changes; with {@code If-Match} the client
+     * asked for the state it saw, so the request is refused instead.
+     */
+    private int update(HttpExchange exchange, TodoScope scope, int id) throws IOException {
+        String body = readBody(exchange);
+        for (int attempt = 1; ; attempt++) {
+            Todo current = find(scope, id);
+            if (!preconditionHolds(exchange, current)) {
+                return error(exchange, 412, "Todo " + id + " has changed");
+            }
+            TodoJson.read(body, current);
+            try {
+                if (!dao.save(current)) {
+                    throw new NoSuchElementException("Todo " + id + " not found");
+                }
+                break;
+            } catch (TodoConflictException e) {
+                metrics.increment("http.todos.conflicts");
+                if (exchange.getRequestHeaders().containsKey("If-Match")) {
+                    return error(exchange, 412, "Todo " + id + " has changed");
+                }
+                if (attempt == MAX_UPDATE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+        HttpResponses.sendJson(exchange, 200, TodoJson.write(find(scope, id)), true, GZIP_MIN_BYTES_KEY.get());
+        return 200;
+    }
+
+    private int delete(HttpExchange exchange, TodoScope scope, int id) throws IOException {
+        if (exchange.getRequestHeaders().containsKey("If-Match") && !preconditionHolds(exchange, find(scope, id))) {
+            return error(exchange, 412, "Todo " + id + " has changed");
+        }
+        if (!dao.deleteById(scope, id)) {
+            throw new NoSuchElementException("Todo " + id + " not found");
+        }
+        HttpResponses.sendEmpty(exchange, 204);
+        return 204;
+    }
+
+    /**
+     * True unless the request has an {@code If-Match} that does not name the current representation.
+     */
+    private static boolean preconditionHolds(HttpExchange exchange, Todo current) {
+        String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+        return ifMatch == null || HttpResponses.matches(ifMatch, HttpResponses.etag(TodoJson.write(current)));
+    }
+
+    private Todo find(TodoScope scope, int id) {
+        return dao.findById(scope, id).orElseThrow(() -> new NoSuchElementException("Todo " + id + " not found"));
+    }
+
+    private int methodNotAllowed(HttpExchange exchange, String allowed) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        return error(exchange, 405, "Method " + exchange.getRequestMethod() + " not allowed");
+    }
+
+    private static int error(HttpExchange exchange, int status, String message) {
+        try {
+            HttpResponses.sendJson(exchange, status, TodoJson.writeError(status, message), false, Integer.MAX_VALUE);
+        } catch (IOException | RuntimeException e) {
+            // Headers were already sent or the client is gone
+            logger.debug("Could not send error {}: {}", status, e.getMessage());
+        }
+        return status;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body exceeds " + MAX_BODY_BYTES + " bytes");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    static String encodeCursor(PageCursor cursor) {
+        String plain = cursor.createdAt() + "," + cursor.id();
+        return CURSOR_ENCODER.encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageCursor decodeCursor(String token) {
+        try {
+            String plain = new String(CURSOR_DECODER.decode(token), StandardCharsets.UTF_8);
+            int comma = plain.lastIndexOf(',');
+            return new PageCursor(LocalDateTime.parse(plain.substring(0, comma)), Integer.parseInt(plain.substring(comma + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static Map<String, String> queryParameters(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals >= 0 ? pair.substring(0, equals) : pair, StandardCharsets.UTF_8);
+            String value = equals >= 0 ? URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8) : "";
+            parameters.put(name, value);
+        }
+        return parameters;
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    /**
+     * A request path split into scope and optional todo id.
+     */
+    private record Request(TodoScope scope, Integer id) {
+        /**
+         * @throws NoSuchElementException if the path does not name a todo resource
+         */
+        static Request parse(HttpExchange exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String[] segments = path.startsWith(PREFIX) ? path.substring(PREFIX.length()).split("/") : new String[0];
+            // {ownerId}/lists/{listId}/todos[/{id}]
+            if (segments.length < 4 || segments.length > 5
+                    || !segments[1].equals("lists") || !segments[3].equals("todos")) {
+                throw new NoSuchElementException("No resource at " + path);
+            }
+            TodoScope scope = new TodoScope(parseInt("ownerId", segments[0]), parseInt("listId", segments[2]));
+            return new Request(scope, segments.length == 5 ? Integer.valueOf(parseInt("id", segments[4])) : null);
+        }
+
+        /**
+         * Metric name of the operation, e.g. {@code todos.list}.
+         */
+        String route(String method) {
+            String operation = switch (method) {
+                case "GET" -> id == null ? "list" : "get";
+                case "POST" -> "create";
+                case "PUT" -> "update";
+                case "DELETE" -> "delete";
+                default -> "other";
+            };
+            return "todos." + operation;
+        }
+    }
+}
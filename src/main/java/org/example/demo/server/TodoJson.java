@@ -0,0 +1,301 @@
+package org.example.demo.server;
+
+import org.example.demo.model.Todo;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON form of todos for the HTTP API. Dates are ISO-8601 local date-times as the database stores them.
+ * <p>
+ * Request bodies are flat objects of strings, numbers, booleans and null, which is all a todo needs, so the
+ * parser accepts exactly that and rejects anything else with an {@link IllegalArgumentException}.
+ */
+final class TodoJson {
+    private TodoJson() {
+    }
+
+    static String write(Todo todo) {
+        StringBuilder json = new StringBuilder(256);
+        appendTodo(json, todo);
+        return json.toString();
+    }
+
+    /**
+     * A page of todos; {@code next} is the cursor of the following page, or null on the last page.
+     */
+    static String writePage(List<Todo> todos, String next) {
+        StringBuilder json = new StringBuilder(64 + todos.size() * 256).append("{\"items\":[");
+        for (int i = 0; i < todos.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendTodo(json, todos.get(i));
+        }
+        json.append("],\"next\":");
+        appendString(json, next);
+        return json.append('}').toString();
+    }
+
+    static String writeError(int status, String message) {
+        StringBuilder json = new StringBuilder("{\"status\":").append(status).append(",\"error\":");
+        appendString(json, message);
+        return json.append('}').toString();
+    }
+
+    /**
+     * Applies the fields present in {@code body} to {@code todo}. Absent fields keep their value; {@code id},
+     * scope, timestamps and version are not writable.
+     *
+     * @throws IllegalArgumentException if the body is not a flat JSON object or a field has the wrong type
+     */
+    static void read(String body, Todo todo) {
+        Map<String, Object> fields = new Parser(body).parseObject();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            Object value = field.getValue();
+            switch (field.getKey()) {
+                case "title" -> todo.setTitle(string(field.getKey(), value));
+                case "description" -> {
+                    todo.setDescription(string(field.getKey(), value));
+                    todo.setDescriptionTruncated(false);
+                }
+                case "priority" -> todo.setPriority(priority(value));
+                case "completed" -> todo.setCompleted(bool(field.getKey(), value));
+                case "dueDate" -> todo.setDueDate(dateTime(field.getKey(), value));
+                case "recurrenceRule" -> todo.setRecurrenceRule(string(field.getKey(), value));
+                case "id", "ownerId", "listId", "createdAt", "updatedAt", "version", "descriptionTruncated" -> {
+                    // Read-only; accepted so that a fetched todo can be sent back as is
+                }
+                default -> throw new IllegalArgumentException("Unknown field '" + field.getKey() + "'");
+            }
+        }
+        if (todo.getTitle() == null || todo.getTitle().isBlank()) {
+            throw new IllegalArgumentException("Field 'title' is required");
+        }
+    }
+
+    private static void appendTodo(StringBuilder json, Todo todo) {
+        json.append("{\"id\":").append(todo.getId())
+                .append(",\"ownerId\":").append(todo.getOwnerId())
+                .append(",\"listId\":").append(todo.getListId())
+                .append(",\"title\":");
+        appendString(json, todo.getTitle());
+        json.append(",\"description\":");
+        appendString(json, todo.getDescription());
+        json.append(",\"descriptionTruncated\":").append(todo.isDescriptionTruncated())
+                .append(",\"priority\":");
+        appendString(json, todo.getPriority() != null ? todo.getPriority().name() : null);
+        json.append(",\"completed\":").append(todo.isCompleted())
+                .append(",\"createdAt\":");
+        appendDateTime(json, todo.getCreatedAt());
+        json.append(",\"dueDate\":");
+        appendDateTime(json, todo.getDueDate());
+        json.append(",\"recurrenceRule\":");
+        appendString(json, todo.getRecurrenceRule());
+        json.append(",\"updatedAt\":");
+        appendDateTime(json, todo.getUpdatedAt());
+        json.append(",\"version\":").append(todo.getVersion())
+                .append('}');
+    }
+
+    private static void appendDateTime(StringBuilder json, LocalDateTime value) {
+        appendString(json, value != null ? value.toString() : null);
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    private static String string(String name, Object value) {
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a string");
+        }
+        return (String) value;
+    }
+
+    private static boolean bool(String name, Object value) {
+        if (!(value instanceof Boolean)) {
+            throw new IllegalArgumentException("Field '" + name + "' must be true or false");
+        }
+        return (Boolean) value;
+    }
+
+    private static Todo.Priority priority(Object value) {
+        try {
+            return Todo.Priority.valueOf(string("priority", value));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Field 'priority' must be one of LOW, MEDIUM, HIGH");
+        }
+    }
+
+    private static LocalDateTime dateTime(String name, Object value) {
+        String text = string(name, value);
+        try {
+            return text != null ? LocalDateTime.parse(text) : null;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a date-time like 2024-05-01T09:00");
+        }
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Map<String, Object> parseObject() {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+            } else {
+                while (true) {
+                    skipWhitespace();
+                    String name = parseString();
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+                    fields.put(name, parseValue());
+                    skipWhitespace();
+                    char c = next();
+                    if (c == '}') {
+                        break;
+                    }
+                    if (c != ',') {
+                        throw error("Expected ',' or '}'");
+                    }
+                }
+            }
+            skipWhitespace();
+            if (pos < text.length()) {
+                throw error("Unexpected content after the object");
+            }
+            return fields;
+        }
+
+        private Object parseValue() {
+            char c = peek();
+            if (c == '"') {
+                return parseString();
+            }
+            if (text.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            if (text.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            if (c == '-' || Character.isDigit(c)) {
+                int start = pos;
+                while (pos < text.length() && "+-.eE0123456789".indexOf(text.charAt(pos)) >= 0) {
+                    pos++;
+                }
+                try {
+                    return Double.parseDouble(text.substring(start, pos));
+                } catch (NumberFormatException e) {
+                    throw error("Invalid number");
+                }
+            }
+            throw error("Expected a string, number, boolean or null");
+        }
+
+        private String parseString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) {
+                            throw error("Incomplete unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid unicode escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> throw error("Invalid escape");
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw error("Unexpected end of input");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Malformed JSON at position " + pos + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.demo.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.demo.config.ConfigKey;
+import org.example.demo.config.ConfigurationManager;
+import org.example.demo.config.DatabaseConfig;
+import org.example.demo.dao.CachingTodoDAO;
+import org.example.demo.dao.DataAccessException;
+import org.example.demo.dao.TodoArchiveDAO;
+import org.example.demo.dao.TodoDAO;
+import org.example.demo.metrics.MetricsRegistry;
+import org.example.demo.service.archive.TodoArchiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless entry point: serves the todos of every user and list as a JSON API (see {@link TodoApiHandler}),
+ * so that many clients share one connection pool instead of each opening its own to MySQL.
+ * <p>
+ * Every exchange runs on a new virtual thread. Besides the API there are {@code GET /health}, which pings the
+ * database, and {@code GET /metrics} with the same numbers the desktop app logs. The server has no
+ * authentication of its own and binds to localhost unless {@code server.host} says otherwise.
+ */
+public final class TodoServer {
+    private static final Logger logger = LoggerFactory.getLogger(TodoServer.class);
+    // Configuration keys
+    private static final ConfigKey<String> HOST_KEY = ConfigKey.ofString("server.host", "localhost");
+    private static final ConfigKey<Integer> PORT_KEY = ConfigKey.ofInt("server.port", 8080, 0);
+
+    /** How long {@link #stop()} lets running exchanges finish. */
+    private static final int STOP_DELAY_SECONDS = 2;
+
+    static {
+        // Without TCP_NODELAY, a response written as headers and body waits for the client's delayed ACK (~40 ms).
+        // Read once when the first server is created, so it has to be set before that.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final TodoDAO dao;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public TodoServer(TodoDAO dao, InetSocketAddress address) throws IOException {
+        this.dao = dao;
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        TodoApiHandler api = new TodoApiHandler(dao);
+        server.createContext(TodoApiHandler.PREFIX, exchange -> counted(() -> api.handle(exchange)));
+        server.createContext("/health", exchange -> counted(() -> health(exchange)));
+        server.createContext("/metrics", exchange -> counted(() -> metrics(exchange)));
+        server.setExecutor(executor);
+        MetricsRegistry.getInstance().registerGauge("http.inFlight", inFlight::get);
+    }
+
+    /**
+     * A server on the configured host and port.
+     */
+    public static TodoServer create(TodoDAO dao) throws IOException {
+        return new TodoServer(dao, new InetSocketAddress(HOST_KEY.get(), PORT_KEY.get()));
+    }
+
+    public void start() {
+        server.start();
+        logger.info("Todo server listening on http://{}:{}", server.getAddress().getHostString(), server.getAddress().getPort());
+    }
+
+    /**
+     * Stops accepting requests, waits briefly for running ones and shuts down their executor.
+     */
+    public void stop() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.shutdown();
+        logger.info("Todo server stopped");
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                dao.ping();
+                HttpResponses.sendJson(exchange, 200, "{\"status\":\"UP\"}", false, Integer.MAX_VALUE);
+            } catch (DataAccessException e) {
+                HttpResponses.sendJson(exchange, 503, "{\"status\":\"DOWN\"}", false, Integer.MAX_VALUE);
+            }
+        }
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            StringBuilder json = new StringBuilder("{");
+            for (Map.Entry<String, Number> metric : MetricsRegistry.getInstance().snapshot().entrySet()) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                json.append('"').append(metric.getKey()).append("\":").append(metric.getValue());
+            }
+            HttpResponses.sendJson(exchange, 200, json.append('}').toString(), false, Integer.MAX_VALUE);
+        }
+    }
+
+    private void counted(ExchangeAction action) throws IOException {
+        inFlight.incrementAndGet();
+        try {
+            action.run();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ExchangeAction {
+        void run() throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (DatabaseConfig.getDataSource() == null) {
+            logger.warn("No database connection pool; requests will fail with 503 until the configuration is fixed");
+        }
+        TodoServer server = create(CachingTodoDAO.wrap(new TodoDAO()));
+        server.start();
+        // Clients only see archived rows disappear through the change feed
+        Optional<TodoArchiver> archiver = TodoArchiver.start(TodoArchiveDAO.ALL_OWNERS, (scope, ids) -> { });
+        // Pool sizes and cache limits follow edits to the config file as in the desktop app
+        ConfigurationManager.startWatching();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            archiver.ifPresent(TodoArchiver::close);
+            ConfigurationManager.stopWatching();
+            DatabaseConfig.closeDataSource();
+            MetricsRegistry.getInstance().logSummary();
+        }, "todo-server-shutdown"));
+    }
+}
@@ -1,33 +1,87 @@
 package org.example.demo.service;
 
 import javafx.application.Platform;
-import javafx.scene.control.Alert;
-import javafx.scene.control.ButtonType;
+import org.example.demo.component.ToastPresenter;
+import org.example.demo.config.ConfigChangeEvent;
+import org.example.demo.config.ConfigKey;
+import org.example.demo.config.ConfigurationManager;
+import org.example.demo.dao.DataAccessException;
+import org.example.demo.dao.ReminderDAO;
+import org.example.demo.logging.LogSampler;
+import org.example.demo.metrics.MetricsRegistry;
+import org.example.demo.model.Recurrence;
+import org.example.demo.model.ReminderState;
 import org.example.demo.model.Todo;
+import org.example.demo.model.TodoScope;
+import org.example.demo.service.event.TodoEvent;
+import org.example.demo.service.event.TodoEventSubscriber;
+import org.example.demo.service.notification.NotificationDigest;
+import org.example.demo.service.notification.NotificationPipeline;
+import org.example.demo.service.notification.Reminder;
+import org.example.demo.service.notification.TrayNotifier;
+import org.example.demo.service.recurrence.RecurrenceExpander;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.awt.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 public class NotificationService {
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+    /** Loading a list schedules and cancels reminders by the hundred. */
+    private static final LogSampler sampledLog = LogSampler.forSubsystem("notifications");
+    private static final DateTimeFormatter DUE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    /** How long before its due time a todo is reminded about. */
+    private static final Duration REMINDER_LEAD = Duration.ofMinutes(5);
+    /** Todos listed by name in a digest; the rest are counted. */
+    private static final int DIGEST_LINES = 5;
+    // Configuration keys
+    private static final ConfigKey<Integer> WINDOW_KEY = ConfigKey.ofInt("notifications.coalesceWindowMs", 2000, 0);
+    private static final ConfigKey<Integer> QUEUE_CAPACITY_KEY = ConfigKey.ofInt("notifications.queueCapacity", 1000, 1);
+    private static final ConfigKey<Integer> BURST_KEY = ConfigKey.ofInt("notifications.rate.burst", 3, 1);
+    private static final ConfigKey<Integer> PER_MINUTE_KEY = ConfigKey.ofInt("notifications.rate.perMinute", 6, 1);
+    private static final ConfigKey<Integer> TOAST_SECONDS_KEY = ConfigKey.ofInt("notifications.toast.seconds", 8, 1);
+    private static final ConfigKey<Integer> TOAST_MAX_VISIBLE_KEY = ConfigKey.ofInt("notifications.toast.maxVisible", 3, 1);
+    private static final ConfigKey<Integer> HORIZON_KEY = ConfigKey.ofInt("notifications.horizonMinutes", 60, 1);
+    private static final ConfigKey<Boolean> TRAY_KEY = ConfigKey.ofBoolean("notifications.tray.enabled", true);
     private static NotificationService instance;
     private final ScheduledExecutorService scheduler;
+    private final NotificationPipeline pipeline;
+    private ToastPresenter toasts;
+    private final Map<Integer, ScheduledFuture<?>> scheduledReminders = new ConcurrentHashMap<>();
+    private final Map<Integer, ReminderState> states = new ConcurrentHashMap<>();
+    private final ReminderDAO reminderDAO = new ReminderDAO();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private volatile Duration horizon;
+    private volatile LocalDateTime horizonEnd = LocalDateTime.MIN;
+    private volatile boolean memoryOnly;
     private TodoService todoService; // Remove final to avoid initialization issues
-    private boolean systemTraySupported;
-    private SystemTray systemTray;
-    private TrayIcon trayIcon;
+    /** Set once the tray icon has been added; stays null without a system tray. */
+    private volatile TrayNotifier tray;
 
     private NotificationService() {
         scheduler = Executors.newScheduledThreadPool(2);
+        pipeline = new NotificationPipeline(scheduler, this::deliver, Duration.ofMillis(WINDOW_KEY.get()),
+                QUEUE_CAPACITY_KEY.get(), BURST_KEY.get(), PER_MINUTE_KEY.get());
+        horizon = Duration.ofMinutes(HORIZON_KEY.get());
+        ConfigurationManager.addChangeListener(this::onConfigChanged);
+        metrics.registerGauge("notifications.scheduled", scheduledReminders::size);
         // Don't get TodoService instance here to avoid circular dependency
-        initializeSystemTray();
-        startNotificationChecker();
+        if (TRAY_KEY.get()) {
+            // Starting the AWT toolkit takes a while; keep it off the way to the first frame
+            scheduler.execute(this::initializeSystemTray);
+        }
     }
 
     public static NotificationService getInstance() {
@@ -37,99 +91,78 @@ public class NotificationService {
         return instance;
     }
 
-    private void initializeSystemTray() {
-        if (SystemTray.isSupported()) {
-            systemTraySupported = true;
-            systemTray = SystemTray.getSystemTray();
-            
-            // Create tray icon
-            try {
-                // Create a simple icon (you can replace with an actual icon file)
-                Image icon = Toolkit.getDefaultToolkit().createImage(new byte[0]);
-                trayIcon = new TrayIcon(icon, "Todo Reminder");
-                trayIcon.setImageAutoSize(true);
-                systemTray.add(trayIcon);
-                logger.info("System tray initialized successfully");
-            } catch (AWTException e) {
-                logger.error("Error initializing system tray", e);
-                systemTraySupported = false;
-            }
-        } else {
-            logger.warn("System tray not supported on this platform");
-            systemTraySupported = false;
+    private void onConfigChanged(ConfigChangeEvent event) {
+        if (event.affects(WINDOW_KEY, QUEUE_CAPACITY_KEY, BURST_KEY, PER_MINUTE_KEY)) {
+            pipeline.reconfigure(Duration.ofMillis(WINDOW_KEY.get()),
+                    QUEUE_CAPACITY_KEY.get(), BURST_KEY.get(), PER_MINUTE_KEY.get());
+            logger.info("Notification pipeline reconfigured");
+        }
+        if (event.affects(HORIZON_KEY)) {
+            horizon = Duration.ofMinutes(HORIZON_KEY.get());
+            // Takes effect with the next horizon refresh
+            logger.info("Reminder horizon changed to {} minutes", horizon.toMinutes());
         }
     }
 
-    private void startNotificationChecker() {
-        // Check for due todos every minute
-        scheduler.scheduleAtFixedRate(this::checkForDueTodos, 0, 1, TimeUnit.MINUTES);
-        logger.info("Notification checker started - checking every minute");
-    }
-
-    private void checkForDueTodos() {
-        try {
-            // Get TodoService instance when needed to avoid circular dependency
-            if (todoService == null) {
-                todoService = TodoService.getInstance();
-            }
-            
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime reminderTime = now.plusMinutes(5);
-            
-            todoService.getAllTodos().stream()
-                .filter(todo -> !todo.isCompleted())
-                .filter(todo -> todo.getDueDate() != null)
-                .filter(todo -> isWithinReminderWindow(todo.getDueDate(), now, reminderTime))
-                .forEach(this::sendNotification);
-                
-        } catch (Exception e) {
-            logger.error("Error checking for due todos", e);
-        }
+    private void initializeSystemTray() {
+        tray = TrayNotifier.create().orElse(null);
     }
 
-    private boolean isWithinReminderWindow(LocalDateTime dueDate, LocalDateTime now, LocalDateTime reminderTime) {
-        // Check if the due date is within the next 5 minutes
-        return dueDate.isAfter(now) && dueDate.isBefore(reminderTime.plusMinutes(1));
+    /**
+     * Queues a reminder; it is delivered shortly, possibly grouped with others that are due around the same time.
+     */
+    private void sendNotification(Todo todo, LocalDateTime dueAt) {
+        logger.debug("Queueing notification for todo: {}", todo.getTitle());
+        pipeline.submit(todo, dueAt);
     }
 
-    private void sendNotification(Todo todo) {
-        logger.info("Sending notification for todo: {}", todo.getTitle());
-        
-        String title = "Todo Reminder";
-        String message = String.format("'%s' is due in 5 minutes!\nDue: %s", 
-            todo.getTitle(), 
-            todo.getDueDate().format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm")));
+    /**
+     * Shows one tray message and one toast per digest. Called on the scheduler.
+     */
+    private void deliver(NotificationDigest digest) {
+        String title;
+        String message;
+        if (digest.isSingle()) {
+            Reminder reminder = digest.first();
+            title = "Todo Reminder";
+            message = String.format("'%s' is due in 5 minutes!\nDue: %s",
+                    reminder.todo().getTitle(), reminder.dueAt().format(DUE_FORMAT));
+        } else {
+            title = digest.size() + " todos are due soon";
+            StringBuilder lines = new StringBuilder();
+            digest.reminders().stream().limit(DIGEST_LINES).forEach(reminder -> lines
+                    .append("\u2022 ").append(reminder.dueAt().format(TIME_FORMAT))
+                    .append("  ").append(reminder.todo().getTitle()).append('\n'));
+            if (digest.size() > DIGEST_LINES) {
+                lines.append("...and ").append(digest.size() - DIGEST_LINES).append(" more");
+            }
+            message = lines.toString().strip();
+        }
+        sampledLog.info(logger, "Delivering notification: {}", title);
 
-        // Try system tray notification first
-        if (systemTraySupported && trayIcon != null) {
-            trayIcon.displayMessage(title, message, TrayIcon.MessageType.INFO);
+        TrayNotifier current = tray;
+        if (current != null) {
+            current.show(title, message);
         }
-        
-        // Also show JavaFX dialog notification
-        Platform.runLater(() -> showJavaFXNotification(title, message, todo));
+        Platform.runLater(() -> showToast(title, message, digest));
     }
 
-    private void showJavaFXNotification(String title, String message, Todo todo) {
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle(title);
-        alert.setHeaderText("Todo Due Soon!");
-        alert.setContentText(message);
-        
-        // Add custom buttons
-        ButtonType markCompleteButton = new ButtonType("Mark Complete");
-        ButtonType snoozeButton = new ButtonType("Snooze 10 min");
-        ButtonType dismissButton = new ButtonType("Dismiss");
-        
-        alert.getButtonTypes().setAll(markCompleteButton, snoozeButton, dismissButton);
-        
-        alert.showAndWait().ifPresent(response -> {
-            if (response == markCompleteButton) {
-                markTodoComplete(todo);
-            } else if (response == snoozeButton) {
-                snoozeTodo(todo, 10);
-            }
-            // Dismiss does nothing
-        });
+    private void showToast(String title, String message, NotificationDigest digest) {
+        if (toasts == null) {
+            toasts = new ToastPresenter(
+                    Duration.ofSeconds(TOAST_SECONDS_KEY.get()),
+                    TOAST_MAX_VISIBLE_KEY.get());
+        }
+        List<ToastPresenter.Action> actions = new ArrayList<>();
+        if (digest.isSingle()) {
+            Reminder reminder = digest.first();
+            actions.add(new ToastPresenter.Action("Mark Complete", () -> markTodoComplete(reminder.todo())));
+            actions.add(new ToastPresenter.Action("Snooze 10 min", () -> snoozeTodo(reminder.todo(), reminder.dueAt(), 10)));
+        }
+        actions.add(new ToastPresenter.Action("Dismiss", () -> { }));
+        if (!toasts.show(title, message, actions)) {
+            logger.debug("No window showing, notification '{}' shown in the tray only", title);
+        }
     }
 
     private void markTodoComplete(Todo todo) {
@@ -137,19 +170,25 @@ public class NotificationService {
             if (todoService == null) {
                 todoService = TodoService.getInstance();
             }
-            todo.setCompleted(true);
-            todoService.updateTodo(todo);
+            todoService.completeTodo(todo);
             logger.info("Marked todo as complete from notification: {}", todo.getTitle());
         } catch (Exception e) {
             logger.error("Error marking todo as complete", e);
         }
     }
 
-    private void snoozeTodo(Todo todo, int minutes) {
+    private void snoozeTodo(Todo todo, LocalDateTime dueAt, int minutes) {
         try {
             if (todoService == null) {
                 todoService = TodoService.getInstance();
             }
+            if (todo.isRecurring()) {
+                // Moving the due date would shift the whole series: remind about this occurrence once more instead
+                LocalDateTime until = LocalDateTime.now().plusMinutes(minutes);
+                scheduler.execute(() -> snooze(todo, dueAt, until));
+                logger.info("Snoozed occurrence of recurring todo for {} minutes: {}", minutes, todo.getTitle());
+                return;
+            }
             LocalDateTime newDueDate = todo.getDueDate().plusMinutes(minutes);
             todo.setDueDate(newDueDate);
             todoService.updateTodo(todo);
@@ -159,51 +198,225 @@ public class NotificationService {
         }
     }
 
-    public void scheduleNotification(Todo todo) {
+    /**
+     * Keeps reminders in step with the todo change stream instead of rescanning the list. Reminder progress
+     * is persisted, so a restart neither repeats nor forgets a reminder: only reminders firing within the
+     * horizon are loaded and timed, and the horizon is topped up periodically. Events are handled on this
+     * service's scheduler.
+     */
+    public void subscribeTo(TodoService todoService) {
+        this.todoService = todoService;
+        todoService.getEventPublisher().subscribe(new TodoEventSubscriber("notifications") {
+            @Override
+            protected void onEvent(TodoEvent event) {
+                switch (event.type()) {
+                    case CREATED, UPDATED, COMPLETED -> scheduleNotification(event.todo());
+                    case DELETED -> cancelNotification(event.todo());
+                    case RELOADED -> reload(event.todos());
+                }
+            }
+        }, scheduler);
+        long refreshMillis = Math.max(TimeUnit.MINUTES.toMillis(1), horizon.toMillis() / 2);
+        scheduler.scheduleWithFixedDelay(this::refreshHorizon, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Brings the todo's reminder up to date and times it if it fires within the horizon. A recurring series
+     * only ever has its next occurrence scheduled; the following one is planned when that reminder fires.
+     */
+    public synchronized void scheduleNotification(Todo todo) {
+        ReminderState previous = currentState(todo);
+        update(todo, previous, plan(todo, previous, LocalDateTime.now()));
+    }
+
+    public synchronized void cancelNotification(Todo todo) {
+        states.remove(todo.getId());
+        if (cancelScheduled(todo.getId())) {
+            sampledLog.info(logger, "Notification cancelled for todo: {}", todo.getTitle());
+        }
+    }
+
+    private synchronized void reload(List<Todo> todos) {
+        scheduledReminders.values().forEach(future -> future.cancel(false));
+        scheduledReminders.clear();
+        states.clear();
+        if (!loadHorizon()) {
+            // Without stored reminder state every todo is timed in memory
+            todos.forEach(this::scheduleNotification);
+        }
+    }
+
+    private synchronized void refreshHorizon() {
+        try {
+            loadHorizon();
+        } catch (Exception e) {
+            logger.error("Error loading upcoming reminders", e);
+        }
+    }
+
+    /**
+     * Times the pending reminders of the current list that fire within the horizon. Returns false, and
+     * switches to in-memory reminders, when the stored state cannot be read.
+     */
+    private boolean loadHorizon() {
+        LocalDateTime until = LocalDateTime.now().plus(horizon);
+        List<ReminderDAO.DueReminder> due;
+        try {
+            due = reminderDAO.findDueBefore(todoService.getScope(), until);
+        } catch (DataAccessException e) {
+            logger.warn("Reminder state unavailable, scheduling reminders in memory: {}", e.getMessage());
+            memoryOnly = true;
+            horizonEnd = LocalDateTime.MAX;
+            return false;
+        }
+        memoryOnly = false;
+        horizonEnd = until;
+        for (ReminderDAO.DueReminder reminder : due) {
+            Todo todo = reminder.todo();
+            if (!scheduledReminders.containsKey(todo.getId())) {
+                // State changed in this session wins over the stored row
+                ReminderState state = states.computeIfAbsent(todo.getId(), id -> reminder.state());
+                arm(todo, state);
+            }
+        }
+        metrics.add("notifications.horizon.loaded", due.size());
+        logger.debug("Loaded {} reminder(s) firing before {}", due.size(), until);
+        return true;
+    }
+
+    /**
+     * Reminder for the todo's first occurrence after {@code after}. An occurrence that already has a state
+     * (pending, fired or snoozed) keeps it, which is what stops a todo from being reminded about twice.
+     */
+    private ReminderState plan(Todo todo, ReminderState previous, LocalDateTime after) {
+        LocalDateTime lastFiredAt = previous != null ? previous.lastFiredAt() : null;
         if (todo.getDueDate() == null || todo.isCompleted()) {
+            return ReminderState.none(todo, lastFiredAt);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (previous != null && previous.isSnoozed(now)) {
+            return previous;
+        }
+        Optional<LocalDateTime> dueAt = nextDueTime(todo, after);
+        if (dueAt.isEmpty() || !dueAt.get().isAfter(now)) {
+            return ReminderState.none(todo, lastFiredAt);
+        }
+        if (previous != null && dueAt.get().equals(previous.dueAt())) {
+            return previous;
+        }
+        LocalDateTime fireAt = dueAt.get().minus(REMINDER_LEAD);
+        return ReminderState.pending(todo, dueAt.get(), fireAt.isAfter(now) ? fireAt : now, lastFiredAt);
+    }
+
+    private void update(Todo todo, ReminderState previous, ReminderState next) {
+        states.put(todo.getId(), next);
+        if (!next.equals(previous)) {
+            persist(next);
+        }
+        arm(todo, next);
+    }
+
+    /**
+     * Times a pending reminder that fires within the loaded horizon; later ones are picked up by
+     * {@link #refreshHorizon()}. A reminder that should have fired more than the lead time ago was missed
+     * while the app was closed and is skipped instead of fired late.
+     */
+    private void arm(Todo todo, ReminderState state) {
+        cancelScheduled(todo.getId());
+        if (!state.isPending()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (state.nextFireAt().isBefore(now.minus(REMINDER_LEAD))) {
+            update(todo, state, plan(todo, state.skipped(), now));
             return;
         }
+        if (!state.nextFireAt().isBefore(horizonEnd)) {
+            return;
+        }
+        Duration delay = Duration.between(now, state.nextFireAt());
+        ScheduledFuture<?> future = scheduler.schedule(() -> fire(todo, state),
+                Math.max(0, delay.toMillis()), TimeUnit.MILLISECONDS);
+        scheduledReminders.put(todo.getId(), future);
+        sampledLog.info(logger, "Scheduled notification for '{}' in {} minutes", todo.getTitle(), delay.toMinutes());
+    }
 
+    private synchronized void fire(Todo todo, ReminderState state) {
+        scheduledReminders.remove(todo.getId());
+        if (!state.equals(states.get(todo.getId()))) {
+            // Replaced while this task was waiting for the lock
+            return;
+        }
+        sendNotification(todo, state.dueAt());
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime notificationTime = todo.getDueDate().minusMinutes(5);
-        
-        if (notificationTime.isAfter(now)) {
-            long delayMinutes = java.time.Duration.between(now, notificationTime).toMinutes();
-            
-            scheduler.schedule(() -> sendNotification(todo), delayMinutes, TimeUnit.MINUTES);
-            
-            logger.info("Scheduled notification for '{}' in {} minutes", 
-                todo.getTitle(), delayMinutes);
+        // A recurring series moves on to the occurrence after this one; a one-off todo stays fired
+        update(todo, state, plan(todo, state.fired(now), state.dueAt().isAfter(now) ? state.dueAt() : now));
+    }
+
+    private synchronized void snooze(Todo todo, LocalDateTime dueAt, LocalDateTime until) {
+        ReminderState current = currentState(todo);
+        LocalDateTime lastFiredAt = current != null ? current.lastFiredAt() : null;
+        update(todo, current, ReminderState.pending(todo, dueAt, until, lastFiredAt).snoozedUntil(until));
+    }
+
+    private ReminderState currentState(Todo todo) {
+        ReminderState state = states.get(todo.getId());
+        if (state != null || memoryOnly || todo.getId() <= 0) {
+            return state;
+        }
+        try {
+            return reminderDAO.findByTodoId(TodoScope.of(todo), todo.getId()).orElse(null);
+        } catch (DataAccessException e) {
+            logger.debug("Reminder state of todo {} unavailable: {}", todo.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void persist(ReminderState state) {
+        // Offline todos have no row to reference yet; their state lives in memory until they get a real id
+        if (memoryOnly || state.todoId() <= 0) {
+            return;
+        }
+        try {
+            reminderDAO.save(state);
+        } catch (DataAccessException e) {
+            logger.debug("Reminder state of todo {} not saved: {}", state.todoId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Due time of the first occurrence after {@code after}; for one-off todos simply the due date.
+     */
+    private Optional<LocalDateTime> nextDueTime(Todo todo, LocalDateTime after) {
+        Optional<Recurrence> recurrence = TodoService.recurrenceOf(todo);
+        if (recurrence.isEmpty() || after.isBefore(todo.getDueDate())) {
+            return Optional.of(todo.getDueDate());
         }
+        return RecurrenceExpander.next(TodoService.seriesStart(todo, recurrence.get()), recurrence.get(), after);
     }
 
-    public void cancelNotification(Todo todo) {
-        // Note: In a production app, you'd want to track scheduled tasks to cancel them
-        logger.info("Notification cancelled for todo: {}", todo.getTitle());
+    private boolean cancelScheduled(int todoId) {
+        ScheduledFuture<?> future = scheduledReminders.remove(todoId);
+        return future != null && future.cancel(false);
     }
 
     public void shutdown() {
         scheduler.shutdown();
-        if (systemTraySupported && trayIcon != null) {
-            systemTray.remove(trayIcon);
+        TrayNotifier current = tray;
+        if (current != null) {
+            current.remove();
         }
         logger.info("NotificationService shutdown completed");
     }
 
     // Method to test notifications
     public void testNotification() {
-        Platform.runLater(() -> {
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Test Notification");
-            alert.setHeaderText("Notification System Test");
-            alert.setContentText("If you can see this, notifications are working!");
-            alert.showAndWait();
-        });
+        Platform.runLater(() -> showToast("Test Notification", "If you can see this, notifications are working!",
+                new NotificationDigest(List.of())));
         
-        if (systemTraySupported && trayIcon != null) {
-            trayIcon.displayMessage("Test Notification", 
-                "System tray notifications are working!", 
-                TrayIcon.MessageType.INFO);
+        TrayNotifier current = tray;
+        if (current != null) {
+            current.show("Test Notification", "System tray notifications are working!");
         }
     }
 }
@@ -1,42 +1,241 @@
 package org.example.demo.service;
 
+import org.example.demo.config.ConfigKey;
+import org.example.demo.config.ConfigurationManager;
+import org.example.demo.dao.CachingTodoDAO;
+import org.example.demo.dao.DataAccessException;
+import org.example.demo.dao.ResilientTodoDAO;
+import org.example.demo.dao.TodoArchiveDAO;
+import org.example.demo.dao.TodoConflictException;
 import org.example.demo.dao.TodoDAO;
+import org.example.demo.dao.TodoListDAO;
+import org.example.demo.metrics.MetricsRegistry;
+import org.example.demo.model.DueDayCount;
+import org.example.demo.model.Recurrence;
 import org.example.demo.model.Todo;
+import org.example.demo.model.TodoList;
+import org.example.demo.model.TodoScope;
+import org.example.demo.service.agenda.AgendaAggregator;
+import org.example.demo.service.agenda.AgendaBucket;
+import org.example.demo.service.agenda.AgendaCounts;
+import org.example.demo.service.agenda.AgendaGranularity;
+import org.example.demo.service.archive.TodoArchiver;
+import org.example.demo.service.event.TodoEvent;
+import org.example.demo.service.event.TodoEventPublisher;
+import org.example.demo.service.history.TodoChange;
+import org.example.demo.service.history.TodoCommand;
+import org.example.demo.service.history.UndoHistory;
+import org.example.demo.service.recurrence.RecurrenceExpander;
+import org.example.demo.service.recurrence.TodoOccurrence;
+import org.example.demo.service.search.SearchResult;
+import org.example.demo.service.search.TodoSearchEngine;
+import org.example.demo.service.sort.SortKey;
+import org.example.demo.service.sort.SortedTodoList;
+import org.example.demo.service.store.ColumnarTodoList;
+import org.example.demo.service.store.MemoryFootprint;
+import org.example.demo.service.store.SnapshotStore;
+import org.example.demo.service.store.TodoColumnStore;
+import org.example.demo.service.store.TodoSnapshot;
+import org.example.demo.service.sync.TodoChangeFeed;
+import org.example.demo.service.sync.TodoConflict;
+import org.example.demo.service.sync.TodoMerge;
+import org.example.demo.service.trace.OperationTrace;
+import org.example.demo.service.trace.TraceRecorder;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 public class TodoService {
     private static final Logger logger = LoggerFactory.getLogger(TodoService.class);
+    private static final ConfigKey<Boolean> COLUMNAR_STORE_KEY = ConfigKey.ofBoolean("todo.store.columnar", false);
+    private static final ConfigKey<Integer> USER_ID_KEY = ConfigKey.ofInt("app.user.id", TodoScope.DEFAULT.ownerId(), 1);
+    private static final ConfigKey<Integer> LIST_ID_KEY = ConfigKey.ofInt("app.list.id", TodoScope.DEFAULT.listId(), 1);
+    private static final ConfigKey<Integer> UNDO_MAX_COMMANDS_KEY = ConfigKey.ofInt("undo.maxCommands", 100, 1);
+    private static final ConfigKey<Integer> UNDO_MAX_BYTES_KEY = ConfigKey.ofInt("undo.maxBytes", 1024 * 1024, 0);
+    /** Saving an edit is given up after this many merges lost to yet another concurrent change. */
+    private static final int MAX_MERGE_ATTEMPTS = 3;
+    private static final int MAX_EDIT_BASES = 16;
     private static TodoService instance;
     private ObservableList<Todo> todos;
+    private final SortedTodoList sortedTodos;
+    private TodoColumnStore columnStore;
     private TodoDAO todoDAO;
+    private final TodoListDAO todoListDAO = new TodoListDAO();
+    // Written on the FX thread, read by background services such as reminders
+    private volatile TodoScope scope;
+    private ResilientTodoDAO resilientDAO;
     private boolean databaseAvailable = true;
+    private boolean loadedFromDatabase;
     private NotificationService notificationService;
+    private final TodoEventPublisher eventPublisher;
+    private final TodoStatistics statistics;
+    private final AgendaAggregator agenda;
+    private final ExecutorService statisticsExecutor;
+    private final TodoSearchEngine searchEngine;
+    private final ExecutorService searchExecutor;
+    private SnapshotStore snapshotStore;
+    private boolean snapshotDirty;
+    private TodoChangeFeed changeFeed;
+    private TodoArchiver archiver;
+    private final TraceRecorder traceRecorder = TraceRecorder.start().orElse(null);
+    private String lastSearch = "";
+    private final TodoArchiveDAO archiveDAO = new TodoArchiveDAO();
+    /** Ids changed locally while a snapshot is being reconciled; null when no reconciliation is running. */
+    private Set<Integer> editedWhileReconciling;
+    private final UndoHistory history = new UndoHistory(UNDO_MAX_COMMANDS_KEY.get(), UNDO_MAX_BYTES_KEY.get());
+    private final ReadOnlyBooleanWrapper canUndo = new ReadOnlyBooleanWrapper();
+    private final ReadOnlyBooleanWrapper canRedo = new ReadOnlyBooleanWrapper();
+    private int nextLocalId = -1;
+    /** State each open edit started from, by todo id; dialogs that were cancelled age out. */
+    private final Map<Integer, Todo> editBases = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Todo> eldest) {
+            return size() > MAX_EDIT_BASES;
+        }
+    };
+    private Consumer<TodoConflict> conflictHandler = conflict ->
+            logger.warn("Edit of todo {} kept the other client's {}", conflict.saved().getId(), conflict.fields());
 
     private TodoService() {
-        todos = FXCollections.observableArrayList();
-        todoDAO = new TodoDAO();
-        loadTodosFromDatabase();
+        scope = new TodoScope(
+                USER_ID_KEY.get(),
+                LIST_ID_KEY.get());
+        logger.info("Working in {}", scope);
+        todos = createTodoList();
+        sortedTodos = new SortedTodoList(todos, SortKey.NEWEST);
+        todoDAO = createTodoDAO();
+        eventPublisher = new TodoEventPublisher(() -> List.copyOf(todos));
+        statistics = new TodoStatistics();
+        statisticsExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "todo-statistics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        eventPublisher.subscribe(statistics, statisticsExecutor);
+        agenda = new AgendaAggregator();
+        eventPublisher.subscribe(agenda, statisticsExecutor);
+        // Indexing large reloads must not delay statistics, so search gets its own thread
+        searchEngine = new TodoSearchEngine();
+        searchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "todo-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        eventPublisher.subscribe(searchEngine, searchExecutor);
+        snapshotStore = SnapshotStore.create().orElse(null);
+        todos.addListener((ListChangeListener<Todo>) change -> snapshotDirty = true);
+        changeFeed = TodoChangeFeed.start(todoDAO, new TodoChangeFeed.Listener() {
+            @Override
+            public void onChanges(TodoScope changedScope, List<Todo> changed, Set<Integer> removedIds) {
+                Platform.runLater(() -> applyRemoteChanges(changedScope, changed, removedIds));
+            }
+
+            @Override
+            public void onGap(TodoScope gapScope) {
+                Platform.runLater(() -> catchUp(gapScope));
+            }
+        }).orElse(null);
+        // The change feed skips this process's own writes, so archived rows are dropped here
+        archiver = TodoArchiver.start(scope.ownerId(), (archivedScope, ids) ->
+                Platform.runLater(() -> applyRemoteChanges(archivedScope, List.of(), new HashSet<>(ids)))).orElse(null);
+        loadTodos();
+        if (snapshotStore != null) {
+            snapshotStore.schedulePeriodic(() -> Platform.runLater(this::saveSnapshotIfDirty));
+        }
         // Initialize notification service after loading todos
         initializeNotificationService();
+        // All components are created, so every setting is declared and unknown keys can be told apart
+        ConfigurationManager.logReport();
+        // Components registered for configuration changes above now follow edits to the config file
+        ConfigurationManager.startWatching();
     }
 
     private void initializeNotificationService() {
         try {
             notificationService = NotificationService.getInstance();
-            // Schedule notifications for existing todos
-            todos.stream()
-                .filter(todo -> !todo.isCompleted() && todo.getDueDate() != null)
-                .forEach(notificationService::scheduleNotification);
+            // Subscribing delivers the current todos first, which schedules their reminders
+            notificationService.subscribeTo(this);
         } catch (Exception e) {
             logger.warn("Could not initialize notification service: {}", e.getMessage());
         }
     }
 
+    private ObservableList<Todo> createTodoList() {
+        if (!COLUMNAR_STORE_KEY.get()) {
+            return FXCollections.observableArrayList();
+        }
+        // Compact mode: rows live in primitive columns and are materialized only when read
+        columnStore = new TodoColumnStore();
+        columnStore.setScope(scope);
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.registerGauge("store.columnar.rows", columnStore::size);
+        metrics.registerGauge("store.columnar.objectListBytes", () -> columnStore.footprint().objectListBytes());
+        metrics.registerGauge("store.columnar.columnarBytes", () -> columnStore.footprint().columnarBytes());
+        logger.info("Using columnar todo store");
+        return new ColumnarTodoList(columnStore);
+    }
+
+    private TodoDAO createTodoDAO() {
+        TodoDAO dao = CachingTodoDAO.wrap(new TodoDAO());
+        try {
+            resilientDAO = ResilientTodoDAO.create(dao);
+        } catch (DataAccessException e) {
+            logger.error("Write journal unavailable, offline changes will not be persisted: {}", e.getMessage());
+            return dao;
+        }
+        resilientDAO.setListener(new ResilientTodoDAO.Listener() {
+            @Override
+            public void onIdReassigned(int temporaryId, int realId) {
+                Platform.runLater(() -> reassignId(temporaryId, realId));
+            }
+
+            @Override
+            public void onUnavailable() {
+                if (changeFeed != null) {
+                    changeFeed.setSuspended(true);
+                }
+                Platform.runLater(() -> databaseAvailable = false);
+            }
+
+            @Override
+            public void onRecovered() {
+                if (changeFeed != null) {
+                    changeFeed.setSuspended(false);
+                }
+                Platform.runLater(() -> {
+                    databaseAvailable = true;
+                    if (!loadedFromDatabase) {
+                        // Replace the in-memory fallback with the real data
+                        loadTodosFromDatabase();
+                    }
+                });
+            }
+        });
+        return resilientDAO;
+    }
+
     public static TodoService getInstance() {
         if (instance == null) {
             instance = new TodoService();
@@ -44,37 +243,195 @@ public class TodoService {
         return instance;
     }
 
+    /**
+     * Shows the scope's last snapshot right away if there is one and brings it up to date in the background;
+     * otherwise loads from the database before returning.
+     */
+    private void loadTodos() {
+        Optional<TodoSnapshot> snapshot = snapshotStore != null ? snapshotStore.load(scope) : Optional.empty();
+        if (snapshot.isEmpty()) {
+            loadTodosFromDatabase();
+            return;
+        }
+        todos.setAll(snapshot.get().todos());
+        snapshotDirty = false;
+        loadedFromDatabase = false;
+        logger.info("Showing {} todos from snapshot, reconciling with the database", todos.size());
+        eventPublisher.publishReload(todos);
+        reconcile(snapshot.get().highWatermark());
+    }
+
+    /**
+     * Fetches rows changed since {@code highWatermark} plus the ids of all rows, off the FX thread. Falls back
+     * to a full load when no loaded row carried a modification time.
+     */
+    private void reconcile(LocalDateTime highWatermark) {
+        TodoScope reconcileScope = scope;
+        editedWhileReconciling = new HashSet<>();
+        Thread thread = new Thread(() -> {
+            try {
+                long sequence = currentChangeSequence(reconcileScope);
+                List<Todo> changed = highWatermark != null
+                        ? todoDAO.findUpdatedSince(reconcileScope, highWatermark)
+                        : todoDAO.findAll(reconcileScope);
+                Set<Integer> liveIds = todoDAO.findIds(reconcileScope);
+                Platform.runLater(() -> applyReconciliation(reconcileScope, changed, liveIds, sequence));
+            } catch (Exception e) {
+                logger.error("Could not reconcile snapshot with the database: {}", e.getMessage());
+                Platform.runLater(() -> {
+                    editedWhileReconciling = null;
+                    databaseAvailable = false;
+                });
+            }
+        }, "todo-reconcile");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Merges the database's changes into the loaded rows: changed rows replace their loaded copy, rows
+     * missing from the database are dropped and new rows are added. Todos edited here meanwhile win.
+     */
+    private void applyReconciliation(TodoScope reconcileScope, List<Todo> changed, Set<Integer> liveIds, long sequence) {
+        Set<Integer> edited = editedWhileReconciling;
+        editedWhileReconciling = null;
+        if (!reconcileScope.equals(scope)) {
+            return;
+        }
+        resumeChangeFeed(sequence);
+        Map<Integer, Todo> changedById = new HashMap<>();
+        changed.forEach(todo -> changedById.put(todo.getId(), todo));
+        List<Todo> merged = new ArrayList<>(Math.max(todos.size(), liveIds.size()));
+        int updated = 0;
+        int removed = 0;
+        for (Todo todo : todos) {
+            Todo fresh = changedById.remove(todo.getId());
+            if (edited.contains(todo.getId())) {
+                merged.add(todo);
+            } else if (fresh != null) {
+                merged.add(fresh);
+                updated++;
+            } else if (todo.getId() > 0 && liveIds.contains(todo.getId())) {
+                merged.add(todo);
+            } else {
+                // Deleted elsewhere, or a journaled insert that has been replayed since
+                removed++;
+            }
+        }
+        int added = 0;
+        for (Todo todo : changedById.values()) {
+            if (!edited.contains(todo.getId())) {
+                merged.add(todo);
+                added++;
+            }
+        }
+        databaseAvailable = true;
+        loadedFromDatabase = true;
+        logger.info("Reconciled with the database: {} updated, {} added, {} removed", updated, added, removed);
+        if (updated + added + removed > 0) {
+            todos.setAll(merged);
+            eventPublisher.publishReload(todos);
+        }
+    }
+
     private void loadTodosFromDatabase() {
         try {
-            todos.clear();
-            todos.addAll(todoDAO.findAll());
+            long sequence = currentChangeSequence(scope);
+            todos.setAll(todoDAO.findAll(scope));
             databaseAvailable = true;
+            loadedFromDatabase = true;
+            resumeChangeFeed(sequence);
             logger.info("Loaded {} todos from database", todos.size());
+            if (columnStore != null) {
+                logger.info("Columnar store footprint: {}", columnStore.footprint());
+            }
         } catch (Exception e) {
             logger.error("Error loading todos from database: {}", e.getMessage());
             logger.warn("Falling back to in-memory storage");
             databaseAvailable = false;
             loadSampleDataForInMemoryMode();
+            if (resilientDAO != null) {
+                // Writes journaled while offline, possibly in an earlier session
+                todos.addAll(resilientDAO.findPending(scope));
+            }
+        }
+        eventPublisher.publishReload(todos);
+    }
+
+    /**
+     * Where the change feed of {@code loadScope} stands, read before loading its rows; -1 without a feed or
+     * if it cannot be read, which leaves the feed paused but does not fail the load.
+     */
+    private long currentChangeSequence(TodoScope loadScope) {
+        if (changeFeed == null) {
+            return -1;
+        }
+        try {
+            return changeFeed.currentSequence(loadScope);
+        } catch (DataAccessException e) {
+            logger.warn("Change feed unavailable, other clients' changes appear after a refresh: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    private void resumeChangeFeed(long sequence) {
+        if (changeFeed != null && sequence >= 0) {
+            changeFeed.resume(scope, sequence);
         }
     }
 
+    /**
+     * Shows rows that other clients have written. They replace the local copy as a reload would, so subscribers
+     * see ordinary updates, creations and deletions.
+     */
+    private void applyRemoteChanges(TodoScope changedScope, List<Todo> changed, Set<Integer> removedIds) {
+        if (!changedScope.equals(scope)) {
+            return;
+        }
+        changed.forEach(todo -> setInMemory(todo.getId(), todo));
+        removedIds.forEach(id -> setInMemory(id, null));
+        logger.debug("Applied changes from other clients: {} changed, {} removed", changed.size(), removedIds.size());
+    }
+
+    /**
+     * The change feed missed notices: fetch what changed since the newest loaded row instead, which resumes
+     * the feed. Nothing to do if a reconciliation is already running.
+     */
+    private void catchUp(TodoScope gapScope) {
+        if (!gapScope.equals(scope) || editedWhileReconciling != null) {
+            return;
+        }
+        LocalDateTime highWatermark = todos.stream()
+                .map(Todo::getUpdatedAt)
+                .filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo)
+                .orElse(null);
+        reconcile(highWatermark);
+    }
+
     private void loadSampleDataForInMemoryMode() {
         if (todos.isEmpty()) {
             logger.info("Loading sample data for in-memory mode");
             // Add some sample data when database is not available
-            todos.add(new Todo(
+            Todo welcome = new Todo(
                 "Welcome to Todo App (In-Memory Mode)", 
-                "Database connection failed. Your data will not be persisted.",
+                "Database connection failed. Your changes are kept locally and synced once it is reachable.",
                 Todo.Priority.HIGH,
                 null
-            ));
+            );
+            welcome.setId(nextLocalId());
+            scope.assignTo(welcome);
+            todos.add(welcome);
             
-            todos.add(new Todo(
+            Todo setup = new Todo(
                 "Setup MySQL Database", 
                 "Please check your MySQL installation and credentials to enable data persistence.",
                 Todo.Priority.MEDIUM,
                 null
-            ));
+            );
+            setup.setId(nextLocalId());
+            scope.assignTo(setup);
+            todos.add(setup);
         }
     }
 
@@ -82,153 +439,556 @@ public class TodoService {
         return todos;
     }
 
+    /**
+     * All todos in a switchable order, kept sorted incrementally as todos change.
+     */
+    public SortedTodoList getSortedTodos() {
+        return sortedTodos;
+    }
+
+    public boolean isDatabaseAvailable() {
+        return databaseAvailable;
+    }
+
+    /**
+     * The owner and list whose todos are loaded; new todos are created in it.
+     */
+    public TodoScope getScope() {
+        return scope;
+    }
+
+    /**
+     * Replaces the loaded todos with those of another list. Subscribers see a single reload.
+     */
+    public void switchScope(TodoScope newScope) {
+        if (newScope.equals(scope)) {
+            return;
+        }
+        logger.info("Switching from {} to {}", scope, newScope);
+        if (changeFeed != null) {
+            changeFeed.pause();
+        }
+        // While the loaded todos still belong to the old list
+        saveSnapshotIfDirty();
+        scope = newScope;
+        // Recorded changes belong to the old list
+        history.clear();
+        updateUndoState();
+        todos.clear();
+        if (columnStore != null) {
+            columnStore.setScope(newScope);
+        }
+        loadTodos();
+    }
+
+    /**
+     * Lists owned by the current user, or an empty list while the database is unreachable.
+     */
+    public List<TodoList> getLists() {
+        try {
+            return todoListDAO.findByOwner(scope.ownerId());
+        } catch (DataAccessException e) {
+            logger.error("Could not load lists: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    public Optional<TodoList> createList(String name) {
+        TodoList list = TodoList.builder().ownerId(scope.ownerId()).name(name).build();
+        try {
+            return todoListDAO.insert(list) ? Optional.of(list) : Optional.empty();
+        } catch (DataAccessException e) {
+            logger.error("Could not create list '{}': {}", name, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Persists and adds a todo. While the database is unreachable the write is journaled and replayed
+     * later, so the todo is always added to the list.
+     */
     public void addTodo(Todo todo) {
-        if (databaseAvailable) {
-            try {
-                if (todoDAO.save(todo)) {
-                    todos.add(todo);
-                    // Schedule notification for the new todo
-                    if (notificationService != null) {
-                        notificationService.scheduleNotification(todo);
-                    }
-                } else {
-                    throw new RuntimeException("Failed to save todo to database");
-                }
-            } catch (Exception e) {
-                logger.error("Database error, falling back to in-memory: {}", e.getMessage());
-                databaseAvailable = false;
-                todos.add(todo);
-                // Schedule notification even in in-memory mode
-                if (notificationService != null) {
-                    notificationService.scheduleNotification(todo);
-                }
-            }
-        } else {
-            todos.add(todo);
-            // Schedule notification for in-memory mode
-            if (notificationService != null) {
-                notificationService.scheduleNotification(todo);
+        if (todo.getOwnerId() == 0) {
+            scope.assignTo(todo);
+        }
+        try {
+            if (!todoDAO.save(todo)) {
+                logger.warn("Todo '{}' was not saved to the database", todo.getTitle());
             }
+        } catch (Exception e) {
+            logger.error("Database error, keeping todo in memory only: {}", e.getMessage());
         }
+        addToMemory(todo);
+        record(TodoCommand.of("Add '" + todo.getTitle() + "'", TodoChange.created(todo)));
+        trace(OperationTrace.Kind.ADD, todo.getId(), todo.getTitle());
     }
 
+    /**
+     * Persists and shows a changed todo. Pass an edited copy rather than the listed instance, so the
+     * previous state is still known and the change can be undone.
+     */
     public void updateTodo(Todo todo) {
-        if (databaseAvailable) {
-            try {
-                if (todoDAO.save(todo)) {
-                    // Find and replace the existing todo in the list
-                    for (int i = 0; i < todos.size(); i++) {
-                        if (todos.get(i).getId() == todo.getId()) {
-                            todos.set(i, todo);
-                            break;
-                        }
-                    }
-                    // Update notification schedule
-                    if (notificationService != null) {
-                        if (todo.isCompleted()) {
-                            notificationService.cancelNotification(todo);
-                        } else {
-                            notificationService.scheduleNotification(todo);
-                        }
-                    }
-                } else {
-                    throw new RuntimeException("Failed to update todo in database");
-                }
-            } catch (Exception e) {
-                logger.error("Database error, updating in-memory only: {}", e.getMessage());
-                databaseAvailable = false;
-                // Update in memory only
-                for (int i = 0; i < todos.size(); i++) {
-                    if (todos.get(i).getId() == todo.getId()) {
-                        todos.set(i, todo);
-                        break;
+        update(todo, "Edit '" + todo.getTitle() + "'");
+    }
+
+    /**
+     * Saves {@code todo}, merging it with whatever other clients saved since it was read. The edit's base, to
+     * tell which side changed a field, is the copy handed out by {@link #beginEdit} if its version matches,
+     * and otherwise the listed todo, the newest state this client knows.
+     */
+    private void update(Todo todo, String description) {
+        Optional<Todo> listed = getTodoById(todo.getId()).filter(current -> current != todo);
+        Optional<Todo> before = listed;
+        if (!todo.isDescriptionTruncated()) {
+            // The description may be replaced, so undo needs the text it replaces, not its preview
+            before = before.map(this::withFullDescriptionIfAvailable);
+        }
+        Todo base = editBases.remove(todo.getId());
+        if (base == null || base.getVersion() != todo.getVersion()) {
+            base = before.orElse(null);
+        }
+        Todo saved = todo;
+        Set<TodoMerge.Field> conflicts = EnumSet.noneOf(TodoMerge.Field.class);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    if (!todoDAO.save(saved)) {
+                        logger.warn("Todo {} no longer exists in the database", todo.getId());
                     }
-                }
-                // Update notification even in in-memory mode
-                if (notificationService != null) {
-                    if (todo.isCompleted()) {
-                        notificationService.cancelNotification(todo);
-                    } else {
-                        notificationService.scheduleNotification(todo);
+                    break;
+                } catch (TodoConflictException e) {
+                    if (attempt == MAX_MERGE_ATTEMPTS) {
+                        throw e;
                     }
+                    MetricsRegistry.getInstance().increment("todo.conflicts");
+                    Todo current = e.getCurrent();
+                    // Merge the previous result, not the original edit, so fields already resolved as theirs stay so
+                    TodoMerge.Result merge = TodoMerge.merge(base, saved, current);
+                    logger.info("Todo {} was changed elsewhere, merging: {}", todo.getId(), merge.conflicts().isEmpty()
+                            ? "no conflicts" : "conflicts in " + merge.conflicts());
+                    // Undo goes back to the state this edit replaced, which is theirs now
+                    before = Optional.of(current);
+                    base = current;
+                    saved = merge.merged();
+                    conflicts.addAll(merge.conflicts());
                 }
             }
-        } else {
-            // Update in memory only
-            for (int i = 0; i < todos.size(); i++) {
-                Todo existing = todos.get(i);
-                if (existing.getId() == todo.getId() || existing.getTitle().equals(todo.getTitle())) {
-                    existing.setTitle(todo.getTitle());
-                    existing.setDescription(todo.getDescription());
-                    existing.setPriority(todo.getPriority());
-                    existing.setCompleted(todo.isCompleted());
-                    existing.setDueDate(todo.getDueDate());
-                    break;
-                }
+        } catch (TodoConflictException e) {
+            logger.warn("Giving up on todo {} after {} merges, keeping the stored version: {}",
+                    todo.getId(), MAX_MERGE_ATTEMPTS - 1, e.getMessage());
+            saved = e.getCurrent();
+            before = Optional.empty();
+            conflicts = EnumSet.allOf(TodoMerge.Field.class);
+        } catch (Exception e) {
+            logger.error("Database error, updating in-memory only: {}", e.getMessage());
+        }
+        Todo after = saved;
+        before.ifPresent(previous -> record(TodoCommand.of(description, TodoChange.updated(previous, after))));
+        replaceInMemory(saved);
+        if (!conflicts.isEmpty()) {
+            conflictHandler.accept(new TodoConflict(saved.copy(), todo, conflicts));
+        }
+    }
+
+    /**
+     * A copy of {@code todo} to edit, with its full description. Remembers the state it started from, so
+     * that saving it can be merged with changes other clients make meanwhile.
+     *
+     * @throws DataAccessException if the description cannot be loaded
+     */
+    public Todo beginEdit(Todo todo) {
+        Todo editable = withFullDescription(todo);
+        editBases.put(todo.getId(), editable.copy());
+        return editable;
+    }
+
+    /**
+     * Called on the FX thread when an edit was saved merged with another client's change to the same fields,
+     * keeping theirs. The default only logs it.
+     */
+    public void setConflictHandler(Consumer<TodoConflict> conflictHandler) {
+        this.conflictHandler = Objects.requireNonNull(conflictHandler);
+    }
+
+    /**
+     * Marks a todo done. A recurring todo moves on to its next occurrence instead and is completed only
+     * once its series has ended. The given instance is left unchanged.
+     */
+    public void completeTodo(Todo todo) {
+        trace(OperationTrace.Kind.TOGGLE, todo.getId(), null);
+        Todo updated = todo.copy();
+        Optional<Recurrence> recurrence = recurrenceOf(updated);
+        if (recurrence.isPresent() && updated.getDueDate() != null) {
+            Recurrence rule = recurrence.get();
+            LocalDateTime start = seriesStart(updated, rule);
+            Optional<LocalDateTime> next = RecurrenceExpander.next(start, rule, updated.getDueDate());
+            if (next.isPresent()) {
+                updated.setDueDate(next.get());
+                // Pin the start so later occurrences and COUNT keep referring to the first one
+                updated.setRecurrenceRule(rule.withStart(start).toRule());
+                update(updated, "Complete occurrence of '" + updated.getTitle() + "'");
+                return;
             }
-            // Update notification for in-memory mode
-            if (notificationService != null) {
-                if (todo.isCompleted()) {
-                    notificationService.cancelNotification(todo);
-                } else {
-                    notificationService.scheduleNotification(todo);
+        }
+        updated.setCompleted(true);
+        update(updated, "Complete '" + updated.getTitle() + "'");
+    }
+
+    public void reopenTodo(Todo todo) {
+        trace(OperationTrace.Kind.TOGGLE, todo.getId(), null);
+        Todo updated = todo.copy();
+        updated.setCompleted(false);
+        update(updated, "Reopen '" + updated.getTitle() + "'");
+    }
+
+    public ReadOnlyBooleanProperty canUndoProperty() {
+        return canUndo.getReadOnlyProperty();
+    }
+
+    public ReadOnlyBooleanProperty canRedoProperty() {
+        return canRedo.getReadOnlyProperty();
+    }
+
+    /**
+     * Reverts the latest recorded change, writing all affected rows back in one batch.
+     *
+     * @return what was undone, or empty if there was nothing to undo
+     */
+    public Optional<String> undo() {
+        Optional<TodoCommand> command = history.undo();
+        command.ifPresent(this::apply);
+        updateUndoState();
+        return command.map(TodoCommand::description);
+    }
+
+    /**
+     * Re-applies the latest undone change.
+     *
+     * @return what was redone, or empty if there was nothing to redo
+     */
+    public Optional<String> redo() {
+        Optional<TodoCommand> command = history.redo();
+        command.ifPresent(this::apply);
+        updateUndoState();
+        return command.map(TodoCommand::description);
+    }
+
+    private void record(TodoCommand command) {
+        history.record(command);
+        updateUndoState();
+    }
+
+    private void updateUndoState() {
+        canUndo.set(history.canUndo());
+        canRedo.set(history.canRedo());
+    }
+
+    /**
+     * Brings every todo of the command to its {@code after} state. Persisted rows go to the database as one
+     * batch; a todo that never reached the database is created again under a new id.
+     */
+    private void apply(TodoCommand command) {
+        List<Todo> upserts = new ArrayList<>();
+        List<Integer> deletes = new ArrayList<>();
+        List<TodoChange> applied = new ArrayList<>(command.changes().size());
+        for (TodoChange change : command.changes()) {
+            Todo after = change.after();
+            if (after == null && change.todoId() > 0) {
+                deletes.add(change.todoId());
+            } else if (after == null) {
+                deleteQuietly(change.todoId());
+            } else if (after.getId() > 0) {
+                upserts.add(after);
+            } else if (change.before() != null) {
+                // Local-only todo: edited through the regular path, which journals it like any other edit
+                saveQuietly(after.copy());
+            } else {
+                Todo recreated = after.copy();
+                recreated.setId(0);
+                saveQuietly(recreated);
+                if (recreated.getId() == 0) {
+                    recreated.setId(nextLocalId());
                 }
+                history.reassignId(after.getId(), recreated.getId());
+                change = new TodoChange(null, recreated);
+            }
+            applied.add(change);
+        }
+        try {
+            if (!upserts.isEmpty() || !deletes.isEmpty()) {
+                todoDAO.applyBatch(scope, upserts, deletes);
             }
+        } catch (Exception e) {
+            logger.error("Database error, applying '{}' in memory only: {}", command.description(), e.getMessage());
+        }
+        for (TodoChange change : applied) {
+            setInMemory(change.todoId(), change.after());
         }
     }
 
-    public void deleteTodo(Todo todo) {
-        if (databaseAvailable) {
-            try {
-                if (todoDAO.deleteById(todo.getId())) {
-                    todos.remove(todo);
-                    // Cancel notification for deleted todo
-                    if (notificationService != null) {
-                        notificationService.cancelNotification(todo);
-                    }
-                } else {
-                    throw new RuntimeException("Failed to delete todo from database");
+    private void saveQuietly(Todo todo) {
+        try {
+            todoDAO.save(todo);
+        } catch (Exception e) {
+            logger.error("Database error, keeping todo in memory only: {}", e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(int id) {
+        try {
+            todoDAO.deleteById(scope, id);
+        } catch (Exception e) {
+            logger.error("Database error, deleting from memory only: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Occurrences due in {@code [from, to)}, ordered by time. Recurring series are expanded for this window only.
+     */
+    public List<TodoOccurrence> getOccurrences(LocalDateTime from, LocalDateTime to) {
+        List<TodoOccurrence> occurrences = new ArrayList<>();
+        for (Todo todo : todos) {
+            if (todo.isCompleted() || todo.getDueDate() == null) {
+                continue;
+            }
+            Optional<Recurrence> recurrence = recurrenceOf(todo);
+            if (recurrence.isPresent()) {
+                // The due date is the current occurrence; those before it are done
+                if (!todo.getDueDate().isBefore(from) && todo.getDueDate().isBefore(to)) {
+                    occurrences.add(new TodoOccurrence(todo, todo.getDueDate()));
                 }
-            } catch (Exception e) {
-                logger.error("Database error, deleting from memory only: {}", e.getMessage());
-                databaseAvailable = false;
-                todos.remove(todo);
-                // Cancel notification even in in-memory mode
-                if (notificationService != null) {
-                    notificationService.cancelNotification(todo);
+                for (LocalDateTime dueAt : RecurrenceExpander.between(seriesStart(todo, recurrence.get()), recurrence.get(), from, to)) {
+                    if (dueAt.isAfter(todo.getDueDate())) {
+                        occurrences.add(new TodoOccurrence(todo, dueAt));
+                    }
                 }
+            } else if (!todo.getDueDate().isBefore(from) && todo.getDueDate().isBefore(to)) {
+                occurrences.add(new TodoOccurrence(todo, todo.getDueDate()));
             }
-        } else {
-            todos.remove(todo);
-            // Cancel notification for in-memory mode
-            if (notificationService != null) {
-                notificationService.cancelNotification(todo);
-            }
+        }
+        occurrences.sort(Comparator.comparing(TodoOccurrence::dueAt));
+        return occurrences;
+    }
+
+    /**
+     * The todo's recurrence, treating a malformed stored rule as no recurrence.
+     */
+    static Optional<Recurrence> recurrenceOf(Todo todo) {
+        try {
+            return todo.getRecurrence();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring invalid recurrence rule of todo {}: {}", todo.getId(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * First occurrence of the todo's series: the rule's {@code DTSTART}, or the due date for rules without one.
+     */
+    static LocalDateTime seriesStart(Todo todo, Recurrence rule) {
+        return rule.start() != null ? rule.start() : todo.getDueDate();
+    }
+
+    public void deleteTodo(Todo todo) {
+        // Undo inserts the row again, which needs the whole description
+        Todo deleted = withFullDescriptionIfAvailable(todo);
+        try {
+            todoDAO.deleteById(scope, todo.getId());
+        } catch (Exception e) {
+            logger.error("Database error, deleting from memory only: {}", e.getMessage());
+        }
+        removeFromMemory(todo);
+        record(TodoCommand.of("Delete '" + todo.getTitle() + "'", TodoChange.deleted(deleted)));
+        trace(OperationTrace.Kind.DELETE, todo.getId(), null);
+    }
+
+    /**
+     * The full description of a todo whose list entry may hold only a preview. Falls back to the preview if
+     * the database cannot be reached.
+     */
+    public String getFullDescription(Todo todo) {
+        return withFullDescriptionIfAvailable(todo).getDescription();
+    }
+
+    /**
+     * A copy of {@code todo} with its full description, which is loaded if the list holds only a preview.
+     * Edits must start from such a copy.
+     *
+     * @throws DataAccessException if the description cannot be loaded
+     */
+    public Todo withFullDescription(Todo todo) {
+        Todo copy = todo.copy();
+        if (todo.isDescriptionTruncated()) {
+            copy.setDescription(todoDAO.findDescription(scope, todo.getId()).orElse(todo.getDescription()));
+            copy.setDescriptionTruncated(false);
+        }
+        return copy;
+    }
+
+    private Todo withFullDescriptionIfAvailable(Todo todo) {
+        if (!todo.isDescriptionTruncated()) {
+            return todo;
+        }
+        try {
+            return withFullDescription(todo);
+        } catch (DataAccessException e) {
+            logger.warn("Could not load the description of todo {}, keeping its preview: {}", todo.getId(), e.getMessage());
+            return todo;
         }
     }
 
     public void deleteTodoById(int id) {
-        if (databaseAvailable) {
-            try {
-                if (todoDAO.deleteById(id)) {
-                    todos.removeIf(todo -> todo.getId() == id);
-                } else {
-                    throw new RuntimeException("Failed to delete todo from database");
-                }
-            } catch (Exception e) {
-                logger.error("Database error, deleting from memory only: {}", e.getMessage());
-                databaseAvailable = false;
-                todos.removeIf(todo -> todo.getId() == id);
+        getTodoById(id).ifPresent(this::deleteTodo);
+    }
+
+    /**
+     * Up to {@code limit} archived todos of the current list that were completed between {@code from} and
+     * {@code to}, both inclusive, newest first. Archived todos are not part of the loaded list and are read
+     * from the database on every call.
+     *
+     * @throws DataAccessException if the archive cannot be read
+     */
+    public List<Todo> getArchivedTodos(LocalDate from, LocalDate to, int limit) {
+        return archiveDAO.findArchived(scope, from.atStartOfDay(), to.plusDays(1).atStartOfDay(), limit);
+    }
+
+    /**
+     * Moves an archived todo back into the list and reopens it; the reopening can be undone, the move not.
+     *
+     * @throws DataAccessException if the database cannot be reached
+     */
+    public void reopenArchivedTodo(Todo todo) {
+        Optional<Todo> restored = archiveDAO.restore(scope, todo.getId());
+        if (restored.isEmpty()) {
+            logger.warn("Todo {} is no longer archived", todo.getId());
+            return;
+        }
+        addToMemory(restored.get());
+        reopenTodo(restored.get());
+    }
+
+    /**
+     * Deletes an archived todo for good; this cannot be undone.
+     *
+     * @throws DataAccessException if the database cannot be reached
+     */
+    public void deleteArchivedTodo(Todo todo) {
+        if (!archiveDAO.deleteById(scope, todo.getId())) {
+            logger.warn("Todo {} is no longer archived", todo.getId());
+        }
+    }
+
+    private void addToMemory(Todo todo) {
+        if (todo.getId() == 0) {
+            // Not persisted: give it a unique negative id so subscribers can track it
+            todo.setId(nextLocalId());
+        }
+        todos.add(todo);
+        trackEdit(todo);
+        eventPublisher.publish(TodoEvent.Type.CREATED, todo);
+    }
+
+    private void replaceInMemory(Todo todo) {
+        for (int i = 0; i < todos.size(); i++) {
+            if (todos.get(i).getId() == todo.getId()) {
+                todos.set(i, todo);
+                break;
+            }
+        }
+        trackEdit(todo);
+        publishUpdate(todo);
+    }
+
+    private void removeFromMemory(Todo todo) {
+        todos.remove(todo);
+        trackEdit(todo);
+        eventPublisher.publish(TodoEvent.Type.DELETED, todo);
+    }
+
+    /**
+     * Shows a copy of {@code state} for the todo with {@code id}, adding it if missing, or removes the todo
+     * when {@code state} is null.
+     */
+    private void setInMemory(int id, Todo state) {
+        int index = -1;
+        for (int i = 0; i < todos.size(); i++) {
+            if (todos.get(i).getId() == id) {
+                index = i;
+                break;
+            }
+        }
+        if (state == null) {
+            if (index >= 0) {
+                removeFromMemory(todos.get(index));
             }
+            return;
+        }
+        Todo todo = state.copy();
+        trackEdit(todo);
+        if (index >= 0) {
+            todos.set(index, todo);
+            publishUpdate(todo);
         } else {
-            todos.removeIf(todo -> todo.getId() == id);
+            todos.add(todo);
+            eventPublisher.publish(TodoEvent.Type.CREATED, todo);
+        }
+    }
+
+    private void trackEdit(Todo todo) {
+        if (editedWhileReconciling != null) {
+            editedWhileReconciling.add(todo.getId());
+        }
+    }
+
+    /**
+     * Copies the loaded todos on the FX thread for a background save. Only data that came from the database
+     * is snapshotted, never the in-memory fallback.
+     */
+    private void saveSnapshotIfDirty() {
+        captureSnapshot(scope).ifPresent(snapshotStore::saveAsync);
+    }
+
+    /**
+     * @param loadedScope the scope the loaded todos belong to, which the snapshot is saved under
+     */
+    private Optional<TodoSnapshot> captureSnapshot(TodoScope loadedScope) {
+        if (snapshotStore == null || !snapshotDirty || !loadedFromDatabase) {
+            return Optional.empty();
+        }
+        snapshotDirty = false;
+        return Optional.of(TodoSnapshot.of(loadedScope, todos.stream().map(Todo::copy).toList()));
+    }
+
+    private void publishUpdate(Todo todo) {
+        eventPublisher.publish(todo.isCompleted() ? TodoEvent.Type.COMPLETED : TodoEvent.Type.UPDATED, todo);
+    }
+
+    private int nextLocalId() {
+        // Share the journal's id space so local ids never collide with offline inserts
+        return resilientDAO != null ? resilientDAO.nextTemporaryId() : nextLocalId--;
+    }
+
+    /**
+     * An offline insert reached the database: swap the temporary id for the real one. Subscribers see the
+     * temporary row deleted and the persisted row created.
+     */
+    private void reassignId(int temporaryId, int realId) {
+        for (int i = 0; i < todos.size(); i++) {
+            Todo existing = todos.get(i);
+            if (existing.getId() == temporaryId) {
+                Todo persisted = existing.copy();
+                persisted.setId(realId);
+                todos.set(i, persisted);
+                eventPublisher.publish(TodoEvent.Type.DELETED, existing);
+                eventPublisher.publish(TodoEvent.Type.CREATED, persisted);
+                history.reassignId(temporaryId, realId);
+                return;
+            }
         }
     }
 
     public Optional<Todo> getTodoById(int id) {
-        return todos.stream()
-                .filter(todo -> todo.getId() == id)
-                .findFirst();
+        return sortedTodos.findById(id);
     }
 
     public ObservableList<Todo> getCompletedTodos() {
@@ -243,22 +1003,113 @@ public class TodoService {
         return todos.filtered(Todo::isOverdue);
     }
 
+    /**
+     * Counts maintained from the event stream; register a listener to be pushed updates instead of polling.
+     */
+    public TodoStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Due-date buckets of the loaded list, maintained from the event stream.
+     */
+    public AgendaAggregator getAgenda() {
+        return agenda;
+    }
+
+    /**
+     * Agenda across all of the current user's lists. The counting is done by the database, so lists that
+     * are not loaded cost one aggregate query; falls back to the loaded list while the database is unreachable.
+     */
+    public List<AgendaBucket> getOwnerAgenda(AgendaGranularity granularity, LocalDate from, LocalDate to) {
+        try {
+            AgendaCounts counts = new AgendaCounts();
+            LocalDate start = granularity.bucketStart(from);
+            LocalDate end = granularity.next(granularity.bucketStart(to));
+            for (DueDayCount row : todoDAO.countByDueDay(scope.ownerId(), start, end)) {
+                counts.add(row.day(), row.priority(), row.completed(), row.count());
+            }
+            return counts.range(granularity, from, to);
+        } catch (DataAccessException e) {
+            logger.warn("Owner agenda unavailable, showing the open list only: {}", e.getMessage());
+            return agenda.range(granularity, from, to);
+        }
+    }
+
+    /**
+     * Ranked search over the loaded todos, see {@link TodoSearchEngine#search}.
+     */
+    public SearchResult search(String query, int limit) {
+        // The list re-runs an open search after every change; only a new query is something the user did
+        if (!query.equals(lastSearch)) {
+            lastSearch = query;
+            trace(OperationTrace.Kind.SEARCH, 0, query);
+        }
+        return searchEngine.search(query, limit);
+    }
+
+    private void trace(OperationTrace.Kind kind, int todoId, String text) {
+        if (traceRecorder != null) {
+            traceRecorder.record(kind, todoId, text);
+        }
+    }
+
+    /**
+     * Ranked full-text search over the loaded todos, maintained from the event stream.
+     */
+    public TodoSearchEngine getSearchEngine() {
+        return searchEngine;
+    }
+
+    /**
+     * Change stream for subscribers that keep their own incremental state.
+     */
+    public TodoEventPublisher getEventPublisher() {
+        return eventPublisher;
+    }
+
     public int getTotalCount() {
         return todos.size();
     }
 
     public int getCompletedCount() {
+        if (columnStore != null) {
+            return columnStore.countCompleted();
+        }
         return (int) todos.stream().filter(Todo::isCompleted).count();
     }
 
     public int getPendingCount() {
-        return (int) todos.stream().filter(todo -> !todo.isCompleted()).count();
+        return getTotalCount() - getCompletedCount();
     }
 
     public int getOverdueCount() {
+        if (columnStore != null) {
+            return columnStore.countOverdue(LocalDateTime.now());
+        }
         return (int) todos.stream().filter(Todo::isOverdue).count();
     }
 
+    /**
+     * The packed store behind {@link #getAllTodos()}, present only when {@code todo.store.columnar} is enabled.
+     */
+    public Optional<TodoColumnStore> getColumnStore() {
+        return Optional.ofNullable(columnStore);
+    }
+
+    /**
+     * Estimated heap usage of the loaded todos, as object list versus columnar layout.
+     */
+    public MemoryFootprint getMemoryFootprint() {
+        if (columnStore != null) {
+            return columnStore.footprint();
+        }
+        TodoColumnStore probe = new TodoColumnStore();
+        probe.setScope(scope);
+        probe.appendAll(todos);
+        return probe.footprint();
+    }
+
     public void refreshFromDatabase() {
         if (databaseAvailable) {
             loadTodosFromDatabase();
@@ -273,8 +1124,30 @@ public class TodoService {
     }
 
     public void shutdown() {
+        ConfigurationManager.stopWatching();
+        if (snapshotStore != null) {
+            // Let a periodic save finish first so it cannot overwrite the final one
+            snapshotStore.close();
+            captureSnapshot(scope).ifPresent(snapshotStore::save);
+        }
+        if (changeFeed != null) {
+            changeFeed.close();
+        }
+        if (archiver != null) {
+            archiver.close();
+        }
+        if (traceRecorder != null) {
+            traceRecorder.close();
+        }
+        eventPublisher.close();
+        statisticsExecutor.shutdown();
+        searchExecutor.shutdown();
+        if (resilientDAO != null) {
+            resilientDAO.close();
+        }
         if (notificationService != null) {
             notificationService.shutdown();
         }
+        MetricsRegistry.getInstance().logSummary();
     }
 }
@@ -0,0 +1,92 @@
+package org.example.demo.service;
+
+import org.example.demo.model.Todo;
+import org.example.demo.service.event.TodoEvent;
+import org.example.demo.service.event.TodoEventSubscriber;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Total/completed/pending/overdue counts maintained incrementally from the todo event stream.
+ * Overdue is time dependent, so pending due dates are kept in a sorted multiset and counted at read time.
+ */
+public class TodoStatistics extends TodoEventSubscriber {
+
+    public record Snapshot(int total, int completed, int pending, int overdue) {
+    }
+
+    private record Entry(boolean completed, LocalDateTime dueDate) {
+    }
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final TreeMap<LocalDateTime, Integer> pendingDueDates = new TreeMap<>();
+    private final List<Consumer<Snapshot>> listeners = new CopyOnWriteArrayList<>();
+    private int completed;
+
+    public TodoStatistics() {
+        super("statistics");
+    }
+
+    /**
+     * Called on the statistics executor after every applied change.
+     */
+    public void addListener(Consumer<Snapshot> listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized Snapshot getSnapshot() {
+        int total = entries.size();
+        int overdue = 0;
+        for (int count : pendingDueDates.headMap(LocalDateTime.now()).values()) {
+            overdue += count;
+        }
+        return new Snapshot(total, completed, total - completed, overdue);
+    }
+
+    @Override
+    protected void onEvent(TodoEvent event) {
+        synchronized (this) {
+            switch (event.type()) {
+                case CREATED, UPDATED, COMPLETED -> put(event.todo());
+                case DELETED -> remove(event.todoId());
+                case RELOADED -> {
+                    entries.clear();
+                    pendingDueDates.clear();
+                    completed = 0;
+                    event.todos().forEach(this::put);
+                }
+            }
+        }
+        Snapshot snapshot = getSnapshot();
+        listeners.forEach(listener -> listener.accept(snapshot));
+    }
+
+    private void put(Todo todo) {
+        remove(todo.getId());
+        Entry entry = new Entry(todo.isCompleted(), todo.getDueDate());
+        entries.put(todo.getId(), entry);
+        if (entry.completed()) {
+            completed++;
+        } else if (entry.dueDate() != null) {
+            pendingDueDates.merge(entry.dueDate(), 1, Integer::sum);
+        }
+    }
+
+    private void remove(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        if (entry.completed()) {
+            completed--;
+        } else if (entry.dueDate() != null) {
+            pendingDueDates.computeIfPresent(entry.dueDate(), (due, count) -> count == 1 ? null : count - 1);
+        }
+    }
+}
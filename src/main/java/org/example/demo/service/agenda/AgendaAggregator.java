@@ -0,0 +1,77 @@
+package org.example.demo.service.agenda;
+
+import org.example.demo.model.Todo;
+import org.example.demo.service.event.TodoEvent;
+import org.example.demo.service.event.TodoEventSubscriber;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@link AgendaCounts} of the loaded todos, maintained incrementally from the todo event stream. The last
+ * counted state of every todo is remembered so an update or delete can take back exactly what was added.
+ */
+public class AgendaAggregator extends TodoEventSubscriber {
+
+    private record Entry(LocalDate dueDay, Todo.Priority priority, boolean completed) {
+    }
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final AgendaCounts counts = new AgendaCounts();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    public AgendaAggregator() {
+        super("agenda");
+    }
+
+    /**
+     * Called on the subscriber's executor after every applied change.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized List<AgendaBucket> range(AgendaGranularity granularity, LocalDate from, LocalDate to) {
+        return counts.range(granularity, from, to);
+    }
+
+    public synchronized int[] pendingPerDay(LocalDate from, int days) {
+        return counts.pendingPerDay(from, days);
+    }
+
+    @Override
+    protected void onEvent(TodoEvent event) {
+        synchronized (this) {
+            switch (event.type()) {
+                case CREATED, UPDATED, COMPLETED -> put(event.todo());
+                case DELETED -> remove(event.todoId());
+                case RELOADED -> {
+                    entries.clear();
+                    counts.clear();
+                    event.todos().forEach(this::put);
+                }
+            }
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    private void put(Todo todo) {
+        remove(todo.getId());
+        if (todo.getDueDate() == null) {
+            return;
+        }
+        Entry entry = new Entry(todo.getDueDate().toLocalDate(), todo.getPriority(), todo.isCompleted());
+        entries.put(todo.getId(), entry);
+        counts.add(entry.dueDay(), entry.priority(), entry.completed(), 1);
+    }
+
+    private void remove(int id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            counts.add(entry.dueDay(), entry.priority(), entry.completed(), -1);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.demo.service.agenda;
+
+import org.example.demo.model.Todo;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable counts of the todos due in one day, week or month, split by priority and completion.
+ */
+public final class AgendaBucket {
+    private final LocalDate start;
+    private final AgendaGranularity granularity;
+    private final int[] counts;
+
+    AgendaBucket(LocalDate start, AgendaGranularity granularity, int[] counts) {
+        this.start = start;
+        this.granularity = granularity;
+        this.counts = counts.clone();
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    /**
+     * Last day covered by this bucket.
+     */
+    public LocalDate getEnd() {
+        return granularity.next(start).minusDays(1);
+    }
+
+    public AgendaGranularity getGranularity() {
+        return granularity;
+    }
+
+    public int getCount(Todo.Priority priority, boolean completed) {
+        return counts[AgendaCounts.cell(priority, completed)];
+    }
+
+    public int getPending() {
+        return sum(false);
+    }
+
+    public int getCompleted() {
+        return sum(true);
+    }
+
+    public int getTotal() {
+        return getPending() + getCompleted();
+    }
+
+    public boolean isEmpty() {
+        return getTotal() == 0;
+    }
+
+    private int sum(boolean completed) {
+        int sum = 0;
+        for (int cell = completed ? 1 : 0; cell < counts.length; cell += 2) {
+            sum += counts[cell];
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return granularity + " " + start + ": " + getPending() + " pending, " + getCompleted() + " completed";
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.demo.service.agenda;
+
+import org.example.demo.model.Todo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Todo counts bucketed by due date at every {@link AgendaGranularity} at once, each bucket split by
+ * priority and completion. A change updates one bucket per granularity, so a range query only visits
+ * the buckets it returns. Todos without a due date are not on the agenda and are not counted.
+ * <p>
+ * Not thread-safe.
+ */
+public class AgendaCounts {
+    private static final Todo.Priority[] PRIORITIES = Todo.Priority.values();
+    /** Two cells (pending, completed) per priority plus a pair for todos without one. */
+    static final int CELLS = (PRIORITIES.length + 1) * 2;
+
+    private final EnumMap<AgendaGranularity, TreeMap<LocalDate, int[]>> buckets = new EnumMap<>(AgendaGranularity.class);
+
+    public AgendaCounts() {
+        for (AgendaGranularity granularity : AgendaGranularity.values()) {
+            buckets.put(granularity, new TreeMap<>());
+        }
+    }
+
+    static int cell(Todo.Priority priority, boolean completed) {
+        int slot = priority == null ? PRIORITIES.length : priority.ordinal();
+        return slot * 2 + (completed ? 1 : 0);
+    }
+
+    /**
+     * Adds {@code delta} (negative to remove) todos due on {@code dueDay}.
+     */
+    public void add(LocalDate dueDay, Todo.Priority priority, boolean completed, int delta) {
+        int cell = cell(priority, completed);
+        for (Map.Entry<AgendaGranularity, TreeMap<LocalDate, int[]>> entry : buckets.entrySet()) {
+            LocalDate start = entry.getKey().bucketStart(dueDay);
+            TreeMap<LocalDate, int[]> byStart = entry.getValue();
+            int[] counts = byStart.computeIfAbsent(start, key -> new int[CELLS]);
+            counts[cell] += delta;
+            if (isZero(counts)) {
+                byStart.remove(start);
+            }
+        }
+    }
+
+    public void clear() {
+        buckets.values().forEach(TreeMap::clear);
+    }
+
+    /**
+     * One bucket per {@code granularity} step from the bucket containing {@code from} through the one
+     * containing {@code to}, including empty ones, so the result can be rendered as a contiguous series.
+     */
+    public List<AgendaBucket> range(AgendaGranularity granularity, LocalDate from, LocalDate to) {
+        TreeMap<LocalDate, int[]> byStart = buckets.get(granularity);
+        int[] empty = new int[CELLS];
+        List<AgendaBucket> result = new ArrayList<>();
+        for (LocalDate start = granularity.bucketStart(from); !start.isAfter(to); start = granularity.next(start)) {
+            result.add(new AgendaBucket(start, granularity, byStart.getOrDefault(start, empty)));
+        }
+        return result;
+    }
+
+    /**
+     * Pending todos per day for {@code days} days starting at {@code from}; the input of a load heatmap.
+     */
+    public int[] pendingPerDay(LocalDate from, int days) {
+        TreeMap<LocalDate, int[]> byDay = buckets.get(AgendaGranularity.DAY);
+        int[] load = new int[days];
+        for (Map.Entry<LocalDate, int[]> entry : byDay.subMap(from, from.plusDays(days)).entrySet()) {
+            int[] counts = entry.getValue();
+            int pending = 0;
+            for (int cell = 0; cell < CELLS; cell += 2) {
+                pending += counts[cell];
+            }
+            load[(int) (entry.getKey().toEpochDay() - from.toEpochDay())] = pending;
+        }
+        return load;
+    }
+
+    private static boolean isZero(int[] counts) {
+        for (int count : counts) {
+            if (count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
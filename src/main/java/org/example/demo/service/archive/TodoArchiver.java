@@ -0,0 +1,120 @@
+package org.example.demo.service.archive;
+
+import org.example.demo.config.ConfigKey;
+import org.example.demo.dao.DataAccessException;
+import org.example.demo.dao.TodoArchiveDAO;
+import org.example.demo.logging.LogSampler;
+import org.example.demo.metrics.MetricsRegistry;
+import org.example.demo.model.TodoScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves todos completed more than {@code archive.afterDays} ago from {@code todos} to {@code todos_archive}, so
+ * that list loads, counts and the indexes of the hot table only cover the working set.
+ * <p>
+ * Every {@code archive.intervalMinutes} the archiver moves rows in batches of {@code archive.batchSize}, one
+ * short transaction each, with a pause in between so that interactive writes are not held up. Several clients
+ * may archive at the same time; each skips the rows another one has locked. A desktop client only moves its
+ * own user's todos, the server those of every owner.
+ */
+public class TodoArchiver implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TodoArchiver.class);
+    // Configuration keys
+    private static final ConfigKey<Boolean> ENABLED_KEY = ConfigKey.ofBoolean("archive.enabled", true);
+    private static final ConfigKey<Integer> AFTER_DAYS_KEY = ConfigKey.ofInt("archive.afterDays", 30, 1);
+    private static final ConfigKey<Integer> BATCH_SIZE_KEY = ConfigKey.ofInt("archive.batchSize", 500, 1);
+    private static final ConfigKey<Integer> INTERVAL_MINUTES_KEY = ConfigKey.ofInt("archive.intervalMinutes", 60, 1);
+
+    private static final long FIRST_RUN_DELAY_SECONDS = 60;
+    private static final long BATCH_PAUSE_MS = 500;
+    /** While the database is down every run fails the same way. */
+    private static final LogSampler sampledLog = LogSampler.forSubsystem("archive");
+
+    /**
+     * Called on the archiver's thread after each batch, once per scope with rows in it.
+     */
+    public interface Listener {
+        void onArchived(TodoScope scope, List<Integer> ids);
+    }
+
+    private final TodoArchiveDAO archiveDAO;
+    private final int ownerId;
+    private final Listener listener;
+    private final ScheduledExecutorService executor;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    /**
+     * @param ownerId whose todos are archived, or {@link TodoArchiveDAO#ALL_OWNERS}
+     */
+    public TodoArchiver(TodoArchiveDAO archiveDAO, int ownerId, Listener listener) {
+        this.archiveDAO = archiveDAO;
+        this.ownerId = ownerId;
+        this.listener = listener;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "todo-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * A running archiver for the todos of {@code ownerId}, or of every owner for
+     * {@link TodoArchiveDAO#ALL_OWNERS}; empty when {@code archive.enabled} is off.
+     */
+    public static Optional<TodoArchiver> start(int ownerId, Listener listener) {
+        if (!ENABLED_KEY.get()) {
+            logger.info("Archiving disabled; completed todos stay in the working set");
+            return Optional.empty();
+        }
+        TodoArchiver archiver = new TodoArchiver(new TodoArchiveDAO(), ownerId, listener);
+        archiver.schedule(TimeUnit.SECONDS.toMillis(FIRST_RUN_DELAY_SECONDS));
+        return Optional.of(archiver);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void schedule(long delayMs) {
+        try {
+            executor.schedule(this::runBatch, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Closed
+        }
+    }
+
+    private void runBatch() {
+        int batchSize = BATCH_SIZE_KEY.get();
+        int moved = 0;
+        try {
+            long start = System.nanoTime();
+            Map<TodoScope, List<Integer>> archived = archiveDAO.archiveCompleted(ownerId, AFTER_DAYS_KEY.get(), batchSize);
+            metrics.recordNanos("archive.batch", System.nanoTime() - start);
+            for (Map.Entry<TodoScope, List<Integer>> entry : archived.entrySet()) {
+                moved += entry.getValue().size();
+                listener.onArchived(entry.getKey(), entry.getValue());
+            }
+            if (moved > 0) {
+                metrics.add("archive.moved", moved);
+                logger.info("Archived {} todo(s) completed more than {} day(s) ago", moved, AFTER_DAYS_KEY.get());
+            }
+        } catch (DataAccessException e) {
+            sampledLog.debug(logger, "Archiving failed: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error while archiving", e);
+        } finally {
+            // A full batch means more rows are waiting
+            schedule(moved == batchSize ? BATCH_PAUSE_MS : TimeUnit.MINUTES.toMillis(INTERVAL_MINUTES_KEY.get()));
+        }
+    }
+}
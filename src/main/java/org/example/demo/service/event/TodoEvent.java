@@ -0,0 +1,29 @@
+package org.example.demo.service.event;
+
+import org.example.demo.model.Todo;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A single change published by {@code TodoService}. {@link #todo()} is a detached copy taken when the
+ * change happened, so subscribers on other threads never observe later edits.
+ *
+ * @param type     what happened
+ * @param todoId   id of the affected todo, or 0 for {@link Type#RELOADED}
+ * @param todo     snapshot of the todo after the change (before it, for {@link Type#DELETED}); null for reloads
+ * @param todos    full snapshot for {@link Type#RELOADED}, empty otherwise
+ * @param sequence monotonically increasing per publisher
+ * @param timestamp when the change was published
+ */
+public record TodoEvent(Type type, int todoId, Todo todo, List<Todo> todos, long sequence, Instant timestamp) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        COMPLETED,
+        DELETED,
+        /** The whole list was replaced; subscribers should rebuild from {@link #todos()}. */
+        RELOADED
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.demo.service.event;
+
+import org.example.demo.metrics.MetricsRegistry;
+import org.example.demo.model.Todo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Fan-out of {@link TodoEvent}s built on {@link SubmissionPublisher}. Every subscriber gets its own bounded
+ * buffer and runs on its own executor, so a slow consumer never stalls the publishing (FX) thread or the
+ * other subscribers.
+ * <p>
+ * Publishing never blocks: when a subscriber's buffer is full the event is dropped for that subscriber only,
+ * and it is marked stale. Before its next event it receives a {@link TodoEvent.Type#RELOADED} snapshot, so
+ * incremental state is rebuilt instead of silently drifting.
+ */
+public class TodoEventPublisher implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TodoEventPublisher.class);
+    public static final int DEFAULT_BUFFER_CAPACITY = 1024;
+
+    private final Supplier<List<Todo>> snapshotSupplier;
+    private final List<Channel> channels = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    public TodoEventPublisher(Supplier<List<Todo>> snapshotSupplier) {
+        this.snapshotSupplier = snapshotSupplier;
+    }
+
+    public void subscribe(TodoEventSubscriber subscriber, Executor executor) {
+        subscribe(subscriber, executor, DEFAULT_BUFFER_CAPACITY);
+    }
+
+    public void subscribe(TodoEventSubscriber subscriber, Executor executor, int bufferCapacity) {
+        SubmissionPublisher<TodoEvent> publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+        Channel channel = new Channel(publisher, subscriber);
+        channels.add(channel);
+        publisher.subscribe(subscriber);
+        // Late subscribers start from the current state rather than an empty one
+        offer(channel, reloadEvent(snapshotSupplier.get()));
+        logger.debug("Subscriber '{}' attached to todo event stream", subscriber.getName());
+    }
+
+    public void publish(TodoEvent.Type type, Todo todo) {
+        publish(new TodoEvent(type, todo.getId(), todo.copy(), List.of(), sequence.incrementAndGet(), Instant.now()));
+    }
+
+    public void publishReload(List<Todo> todos) {
+        publish(reloadEvent(todos));
+    }
+
+    private void publish(TodoEvent event) {
+        metrics.increment("events.published");
+        for (Channel channel : channels) {
+            if (channel.stale && event.type() != TodoEvent.Type.RELOADED) {
+                if (!offer(channel, reloadEvent(snapshotSupplier.get()))) {
+                    continue;
+                }
+            }
+            offer(channel, event);
+        }
+    }
+
+    private boolean offer(Channel channel, TodoEvent event) {
+        int lag = channel.publisher.offer(event, (subscriber, dropped) -> false);
+        if (lag < 0) {
+            if (!channel.stale) {
+                logger.warn("Todo event buffer full for subscriber '{}'; it will be resynchronized", channel.subscriber.getName());
+            }
+            channel.stale = true;
+            metrics.increment("events.dropped");
+            return false;
+        }
+        if (event.type() == TodoEvent.Type.RELOADED) {
+            channel.stale = false;
+        }
+        return true;
+    }
+
+    private TodoEvent reloadEvent(List<Todo> todos) {
+        List<Todo> snapshot = todos.stream().map(Todo::copy).toList();
+        return new TodoEvent(TodoEvent.Type.RELOADED, 0, null, snapshot, sequence.incrementAndGet(), Instant.now());
+    }
+
+    @Override
+    public void close() {
+        channels.forEach(channel -> channel.publisher.close());
+        channels.clear();
+    }
+
+    private static final class Channel {
+        private final SubmissionPublisher<TodoEvent> publisher;
+        private final TodoEventSubscriber subscriber;
+        private volatile boolean stale;
+
+        private Channel(SubmissionPublisher<TodoEvent> publisher, TodoEventSubscriber subscriber) {
+            this.publisher = publisher;
+            this.subscriber = subscriber;
+        }
+    }
+}
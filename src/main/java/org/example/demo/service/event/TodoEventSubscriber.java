@@ -0,0 +1,63 @@
+package org.example.demo.service.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Base class for consumers of the todo change stream. Requests events in batches so a slow subscriber
+ * applies back-pressure to its own buffer only, and routes events to {@link #onEvent(TodoEvent)}.
+ */
+public abstract class TodoEventSubscriber implements Flow.Subscriber<TodoEvent> {
+    private static final Logger logger = LoggerFactory.getLogger(TodoEventSubscriber.class);
+    private static final int BATCH_SIZE = 64;
+
+    private final String name;
+    private Flow.Subscription subscription;
+    private int remainingInBatch;
+
+    protected TodoEventSubscriber(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        remainingInBatch = BATCH_SIZE;
+        subscription.request(BATCH_SIZE);
+    }
+
+    @Override
+    public void onNext(TodoEvent event) {
+        try {
+            onEvent(event);
+        } catch (Exception e) {
+            logger.error("Subscriber '{}' failed to handle {} event for todo {}", name, event.type(), event.todoId(), e);
+        }
+        if (--remainingInBatch == 0) {
+            remainingInBatch = BATCH_SIZE;
+            subscription.request(BATCH_SIZE);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        logger.error("Todo event stream failed for subscriber '{}'", name, throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        logger.debug("Todo event stream completed for subscriber '{}'", name);
+    }
+
+    /**
+     * Applies one change. {@link TodoEvent.Type#RELOADED} events carry the full list and replace any
+     * incremental state, which is also how a subscriber recovers after its buffer overflowed.
+     */
+    protected abstract void onEvent(TodoEvent event);
+}
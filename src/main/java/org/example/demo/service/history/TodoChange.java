@@ -0,0 +1,30 @@
+package org.example.demo.service.history;
+
+import org.example.demo.model.Todo;
+
+/**
+ * One todo before and after a change, as detached copies that are never edited afterwards. {@code before}
+ * is null for a creation and {@code after} is null for a deletion.
+ */
+public record TodoChange(Todo before, Todo after) {
+
+    public static TodoChange created(Todo todo) {
+        return new TodoChange(null, todo.copy());
+    }
+
+    public static TodoChange updated(Todo before, Todo after) {
+        return new TodoChange(before.copy(), after.copy());
+    }
+
+    public static TodoChange deleted(Todo todo) {
+        return new TodoChange(todo.copy(), null);
+    }
+
+    public int todoId() {
+        return after != null ? after.getId() : before.getId();
+    }
+
+    public TodoChange inverse() {
+        return new TodoChange(after, before);
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.demo.service.history;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A user action as the todo changes it made, applied and reverted as a whole.
+ *
+ * @param description short label such as "Delete 'Buy milk'", shown on undo and redo
+ */
+public record TodoCommand(String description, List<TodoChange> changes) {
+
+    public TodoCommand {
+        changes = List.copyOf(changes);
+    }
+
+    public static TodoCommand of(String description, TodoChange change) {
+        return new TodoCommand(description, List.of(change));
+    }
+
+    /**
+     * The command that reverts this one: every change inverted, in reverse order.
+     */
+    public TodoCommand inverse() {
+        List<TodoChange> inverted = new ArrayList<>(changes.size());
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            inverted.add(changes.get(i).inverse());
+        }
+        return new TodoCommand(description, inverted);
+    }
+}
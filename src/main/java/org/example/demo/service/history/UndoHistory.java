@@ -0,0 +1,168 @@
+package org.example.demo.service.history;
+
+import org.example.demo.model.Todo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Undo and redo stacks of {@link TodoCommand}s within a count and memory budget.
+ * <p>
+ * Commands store only the todos they touched, never the list. Consecutive edits of the same todo share the
+ * copy in between: the state one command left behind is the same instance the next command starts from.
+ * When the budget is exceeded, the oldest undo steps are dropped. Memory is an estimate of retained copies.
+ * <p>
+ * Not thread-safe; used from the FX thread.
+ */
+public class UndoHistory {
+    private static final int COMMAND_OVERHEAD_BYTES = 64;
+    private static final int CHANGE_OVERHEAD_BYTES = 32;
+
+    private record Entry(TodoCommand command, long bytes) {
+    }
+
+    private final int maxCommands;
+    private final long maxBytes;
+    /** Most recent first. */
+    private final Deque<Entry> undoStack = new ArrayDeque<>();
+    private final Deque<Entry> redoStack = new ArrayDeque<>();
+    private long bytes;
+
+    public UndoHistory(int maxCommands, long maxBytes) {
+        this.maxCommands = Math.max(1, maxCommands);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Records a command that has just been applied. Discards anything that could be redone.
+     */
+    public void record(TodoCommand command) {
+        redoStack.forEach(entry -> bytes -= entry.bytes());
+        redoStack.clear();
+        Entry entry = share(command);
+        undoStack.push(entry);
+        bytes += entry.bytes();
+        while (undoStack.size() > 1 && (undoStack.size() > maxCommands || bytes > maxBytes)) {
+            bytes -= undoStack.removeLast().bytes();
+        }
+    }
+
+    /**
+     * Moves the latest command to the redo stack and returns what reverts it.
+     */
+    public Optional<TodoCommand> undo() {
+        Entry entry = undoStack.poll();
+        if (entry == null) {
+            return Optional.empty();
+        }
+        redoStack.push(entry);
+        return Optional.of(entry.command().inverse());
+    }
+
+    /**
+     * Moves the latest undone command back to the undo stack and returns it for re-applying.
+     */
+    public Optional<TodoCommand> redo() {
+        Entry entry = redoStack.poll();
+        if (entry == null) {
+            return Optional.empty();
+        }
+        undoStack.push(entry);
+        return Optional.of(entry.command());
+    }
+
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    public Optional<String> undoDescription() {
+        return Optional.ofNullable(undoStack.peek()).map(entry -> entry.command().description());
+    }
+
+    public Optional<String> redoDescription() {
+        return Optional.ofNullable(redoStack.peek()).map(entry -> entry.command().description());
+    }
+
+    public int size() {
+        return undoStack.size() + redoStack.size();
+    }
+
+    public long getEstimatedBytes() {
+        return bytes;
+    }
+
+    /**
+     * Follows a todo whose id changed, e.g. when an offline insert reached the database.
+     */
+    public void reassignId(int oldId, int newId) {
+        for (Deque<Entry> stack : List.of(undoStack, redoStack)) {
+            for (Entry entry : stack) {
+                for (TodoChange change : entry.command().changes()) {
+                    // Shared instances may be visited twice; the check makes that harmless
+                    if (change.before() != null && change.before().getId() == oldId) {
+                        change.before().setId(newId);
+                    }
+                    if (change.after() != null && change.after().getId() == oldId) {
+                        change.after().setId(newId);
+                    }
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Reuses the previous command's resulting copies where this command starts from an equal state, and
+     * estimates what the command retains on its own.
+     */
+    private Entry share(TodoCommand command) {
+        Entry previous = undoStack.peek();
+        long size = COMMAND_OVERHEAD_BYTES + 2L * command.description().length();
+        List<TodoChange> changes = new ArrayList<>(command.changes().size());
+        for (TodoChange change : command.changes()) {
+            Todo before = change.before();
+            Todo shared = previous != null && before != null ? previousState(previous, before) : null;
+            if (shared != null) {
+                before = shared;
+            } else {
+                size += estimateBytes(before);
+            }
+            size += CHANGE_OVERHEAD_BYTES + estimateBytes(change.after());
+            changes.add(new TodoChange(before, change.after()));
+        }
+        return new Entry(new TodoCommand(command.description(), changes), size);
+    }
+
+    private static Todo previousState(Entry previous, Todo state) {
+        for (TodoChange change : previous.command().changes()) {
+            if (change.after() != null && change.after().getId() == state.getId() && Objects.equals(change.after(), state)) {
+                return change.after();
+            }
+        }
+        return null;
+    }
+
+    private static long estimateBytes(Todo todo) {
+        if (todo == null) {
+            return 0;
+        }
+        long size = 200;
+        size += todo.getTitle() != null ? 40 + todo.getTitle().length() : 0;
+        size += todo.getDescription() != null ? 40 + todo.getDescription().length() : 0;
+        size += todo.getRecurrenceRule() != null ? 40 + todo.getRecurrenceRule().length() : 0;
+        return size;
+    }
+}
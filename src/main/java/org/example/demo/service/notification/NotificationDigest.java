@@ -0,0 +1,26 @@
+package org.example.demo.service.notification;
+
+import java.util.List;
+
+/**
+ * Reminders delivered together as one notification, oldest first. Usually a single reminder; reminders
+ * that arrive within one coalescing window, or while delivery is rate limited, are grouped.
+ */
+public record NotificationDigest(List<Reminder> reminders) {
+
+    public NotificationDigest {
+        reminders = List.copyOf(reminders);
+    }
+
+    public boolean isSingle() {
+        return reminders.size() == 1;
+    }
+
+    public Reminder first() {
+        return reminders.get(0);
+    }
+
+    public int size() {
+        return reminders.size();
+    }
+}
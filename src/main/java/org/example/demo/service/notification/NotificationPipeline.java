@@ -0,0 +1,124 @@
+package org.example.demo.service.notification;
+
+import org.example.demo.metrics.MetricsRegistry;
+import org.example.demo.model.Todo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Queue between "a reminder is due" and "the user sees it".
+ * <p>
+ * The first reminder to arrive opens a coalescing window; everything queued by the time it closes is
+ * delivered as one {@link NotificationDigest}. Deliveries are limited by a token bucket; while it is empty
+ * the queue keeps filling and is delivered as a larger digest once a token is available, so a burst of
+ * reminders ends up as a few notifications instead of hundreds. Reminders are only dropped when the queue
+ * is full (oldest first) or when the same occurrence is already queued.
+ */
+public class NotificationPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationPipeline.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<NotificationDigest> sink;
+    // Guarded by this; replaced by reconfigure()
+    private Duration window;
+    private int capacity;
+    private TokenBucket bucket;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final Deque<Reminder> queue = new ArrayDeque<>();
+    private boolean flushScheduled;
+
+    /**
+     * @param scheduler           runs flushes; {@code sink} is called on it
+     * @param window              how long to wait for more reminders before delivering
+     * @param capacity            queued reminders beyond which the oldest are dropped
+     * @param burst               deliveries allowed back to back
+     * @param deliveriesPerMinute sustained delivery rate
+     */
+    public NotificationPipeline(ScheduledExecutorService scheduler, Consumer<NotificationDigest> sink, Duration window,
+                                int capacity, int burst, double deliveriesPerMinute) {
+        this.scheduler = scheduler;
+        this.sink = sink;
+        this.window = window;
+        this.capacity = Math.max(1, capacity);
+        this.bucket = new TokenBucket(burst, deliveriesPerMinute / 60.0);
+        metrics.registerGauge("notifications.queued", this::pendingCount);
+    }
+
+    /**
+     * Applies new limits from the next flush on. The rate limit starts over with a full bucket.
+     */
+    public synchronized void reconfigure(Duration window, int capacity, int burst, double deliveriesPerMinute) {
+        this.window = window;
+        this.capacity = Math.max(1, capacity);
+        this.bucket = new TokenBucket(burst, deliveriesPerMinute / 60.0);
+        while (queue.size() > this.capacity) {
+            queue.pollFirst();
+            metrics.increment("notifications.dropped");
+        }
+    }
+
+    public synchronized int pendingCount() {
+        return queue.size();
+    }
+
+    public void submit(Todo todo, LocalDateTime dueAt) {
+        Reminder reminder = new Reminder(todo, dueAt, System.nanoTime());
+        synchronized (this) {
+            for (Reminder queued : queue) {
+                if (queued.todo().getId() == todo.getId() && Objects.equals(queued.dueAt(), dueAt)) {
+                    metrics.increment("notifications.duplicates");
+                    return;
+                }
+            }
+            if (queue.size() >= capacity) {
+                queue.pollFirst();
+                metrics.increment("notifications.dropped");
+            }
+            queue.addLast(reminder);
+            metrics.increment("notifications.submitted");
+            if (!flushScheduled) {
+                flushScheduled = true;
+                scheduler.schedule(this::flush, window.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        List<Reminder> batch;
+        synchronized (this) {
+            if (!bucket.tryAcquire()) {
+                // Keep collecting; whatever arrives meanwhile joins this digest
+                metrics.increment("notifications.rateLimited");
+                long wait = Math.max(bucket.nanosUntilAvailable(), window.toNanos());
+                scheduler.schedule(this::flush, wait, TimeUnit.NANOSECONDS);
+                return;
+            }
+            batch = new ArrayList<>(queue);
+            queue.clear();
+            flushScheduled = false;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        batch.forEach(reminder -> metrics.recordNanos("notifications.latency", now - reminder.queuedAtNanos()));
+        metrics.increment("notifications.delivered");
+        metrics.add("notifications.coalesced", batch.size() - 1);
+        try {
+            sink.accept(new NotificationDigest(batch));
+        } catch (RuntimeException e) {
+            logger.error("Failed to deliver {} reminder(s)", batch.size(), e);
+        }
+    }
+}
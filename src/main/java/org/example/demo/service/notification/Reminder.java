@@ -0,0 +1,11 @@
+package org.example.demo.service.notification;
+
+import org.example.demo.model.Todo;
+
+import java.time.LocalDateTime;
+
+/**
+ * A todo occurrence to remind about. {@code queuedAtNanos} is used to report delivery latency.
+ */
+public record Reminder(Todo todo, LocalDateTime dueAt, long queuedAtNanos) {
+}
@@ -0,0 +1,59 @@
+package org.example.demo.service.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.AWTException;
+import java.awt.Image;
+import java.awt.SystemTray;
+import java.awt.Toolkit;
+import java.awt.TrayIcon;
+import java.util.Optional;
+
+/**
+ * The system tray icon that shows reminders as desktop messages. This is the only user of AWT in the app;
+ * keeping it in its own class means AWT is loaded and its toolkit started only when the tray is created,
+ * which happens off the startup path.
+ */
+public final class TrayNotifier {
+    private static final Logger logger = LoggerFactory.getLogger(TrayNotifier.class);
+
+    private final SystemTray systemTray;
+    private final TrayIcon trayIcon;
+
+    private TrayNotifier(SystemTray systemTray, TrayIcon trayIcon) {
+        this.systemTray = systemTray;
+        this.trayIcon = trayIcon;
+    }
+
+    /**
+     * Adds the tray icon, or returns empty if the platform has no system tray or the icon cannot be added.
+     */
+    public static Optional<TrayNotifier> create() {
+        if (!SystemTray.isSupported()) {
+            logger.warn("System tray not supported on this platform");
+            return Optional.empty();
+        }
+        SystemTray systemTray = SystemTray.getSystemTray();
+        try {
+            // Create a simple icon (you can replace with an actual icon file)
+            Image icon = Toolkit.getDefaultToolkit().createImage(new byte[0]);
+            TrayIcon trayIcon = new TrayIcon(icon, "Todo Reminder");
+            trayIcon.setImageAutoSize(true);
+            systemTray.add(trayIcon);
+            logger.info("System tray initialized successfully");
+            return Optional.of(new TrayNotifier(systemTray, trayIcon));
+        } catch (AWTException e) {
+            logger.error("Error initializing system tray", e);
+            return Optional.empty();
+        }
+    }
+
+    public void show(String title, String message) {
+        trayIcon.displayMessage(title, message, TrayIcon.MessageType.INFO);
+    }
+
+    public void remove() {
+        systemTray.remove(trayIcon);
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.demo.service.recurrence;
+
+import org.example.demo.model.Recurrence;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Expands a recurrence rule into occurrence times on demand. Nothing is materialized up front: callers
+ * pull occurrences from a lazy iterator, and lookups for a time window jump straight to the period
+ * containing it instead of walking the series from its start.
+ */
+public final class RecurrenceExpander {
+
+    private RecurrenceExpander() {
+    }
+
+    /**
+     * All occurrences of the series starting at {@code start}, in order. May be infinite.
+     */
+    public static Stream<LocalDateTime> occurrences(LocalDateTime start, Recurrence rule) {
+        return stream(new OccurrenceIterator(start, rule, 0));
+    }
+
+    /**
+     * First occurrence strictly after {@code after}, if the series has one.
+     */
+    public static Optional<LocalDateTime> next(LocalDateTime start, Recurrence rule, LocalDateTime after) {
+        return stream(OccurrenceIterator.near(start, rule, after))
+                .filter(occurrence -> occurrence.isAfter(after))
+                .findFirst();
+    }
+
+    /**
+     * Occurrences in {@code [from, to)}, expanded only for that window.
+     */
+    public static List<LocalDateTime> between(LocalDateTime start, Recurrence rule, LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> result = new ArrayList<>();
+        Iterator<LocalDateTime> iterator = OccurrenceIterator.near(start, rule, from);
+        while (iterator.hasNext()) {
+            LocalDateTime occurrence = iterator.next();
+            if (!occurrence.isBefore(to)) {
+                break;
+            }
+            if (!occurrence.isBefore(from)) {
+                result.add(occurrence);
+            }
+        }
+        return result;
+    }
+
+    private static Stream<LocalDateTime> stream(Iterator<LocalDateTime> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SORTED), false);
+    }
+
+    /**
+     * Walks the series period by period (a day, week, month or year times the interval). Period {@code p}
+     * is computed from the series start directly, so iteration can begin at any period.
+     */
+    private static final class OccurrenceIterator implements Iterator<LocalDateTime> {
+        private final LocalDateTime start;
+        private final Recurrence rule;
+        private final List<DayOfWeek> weekDays;
+        private final List<LocalDateTime> pending = new ArrayList<>();
+        private long period;
+        private long emitted;
+        private boolean exhausted;
+
+        private OccurrenceIterator(LocalDateTime start, Recurrence rule, long firstPeriod) {
+            this.start = start;
+            this.rule = rule;
+            Set<DayOfWeek> days = rule.byDay().isEmpty() ? EnumSet.of(start.getDayOfWeek()) : rule.byDay();
+            this.weekDays = List.copyOf(days);
+            this.period = firstPeriod;
+            this.emitted = occurrencesBefore(firstPeriod);
+        }
+
+        /**
+         * Iterator positioned a period before the one containing {@code time}, so nothing at or after it is skipped.
+         */
+        static OccurrenceIterator near(LocalDateTime start, Recurrence rule, LocalDateTime time) {
+            if (!time.isAfter(start)) {
+                return new OccurrenceIterator(start, rule, 0);
+            }
+            LocalDateTime anchor = rule.frequency() == Recurrence.Frequency.WEEKLY ? weekStart(start) : start;
+            long units = unit(rule.frequency()).between(anchor, time);
+            return new OccurrenceIterator(start, rule, Math.max(0, units / rule.interval() - 1));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pending.isEmpty() && !exhausted) {
+                fill();
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public LocalDateTime next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            emitted++;
+            return pending.remove(0);
+        }
+
+        private void fill() {
+            for (LocalDateTime occurrence : occurrencesIn(period++)) {
+                if (rule.until() != null && occurrence.isAfter(rule.until())) {
+                    exhausted = true;
+                    return;
+                }
+                if (rule.count() != null && emitted + pending.size() >= rule.count()) {
+                    exhausted = true;
+                    return;
+                }
+                pending.add(occurrence);
+            }
+        }
+
+        private List<LocalDateTime> occurrencesIn(long p) {
+            long step = p * rule.interval();
+            return switch (rule.frequency()) {
+                case DAILY -> List.of(start.plusDays(step));
+                case MONTHLY -> List.of(start.plusMonths(step));
+                case YEARLY -> List.of(start.plusYears(step));
+                case WEEKLY -> {
+                    LocalDateTime week = weekStart(start).plusWeeks(step);
+                    List<LocalDateTime> days = new ArrayList<>(weekDays.size());
+                    for (DayOfWeek day : weekDays) {
+                        LocalDateTime occurrence = week.with(TemporalAdjusters.nextOrSame(day));
+                        if (!occurrence.isBefore(start)) {
+                            days.add(occurrence);
+                        }
+                    }
+                    yield days;
+                }
+            };
+        }
+
+        /**
+         * Occurrences in the periods before {@code p}; needed to honour COUNT when starting mid-series.
+         */
+        private long occurrencesBefore(long p) {
+            if (p == 0) {
+                return 0;
+            }
+            if (rule.frequency() != Recurrence.Frequency.WEEKLY) {
+                return p;
+            }
+            return p * weekDays.size() - (weekDays.size() - occurrencesIn(0).size());
+        }
+
+        private static LocalDateTime weekStart(LocalDateTime dateTime) {
+            return dateTime.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        private static ChronoUnit unit(Recurrence.Frequency frequency) {
+            return switch (frequency) {
+                case DAILY -> ChronoUnit.DAYS;
+                case WEEKLY -> ChronoUnit.WEEKS;
+                case MONTHLY -> ChronoUnit.MONTHS;
+                case YEARLY -> ChronoUnit.YEARS;
+            };
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.demo.service.recurrence;
+
+import org.example.demo.model.Todo;
+
+import java.time.LocalDateTime;
+
+/**
+ * One occurrence of a todo: its due date for one-off todos, or one expanded time of a recurring series.
+ */
+public record TodoOccurrence(Todo todo, LocalDateTime dueAt) {
+}
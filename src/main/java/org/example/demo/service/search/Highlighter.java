@@ -0,0 +1,42 @@
+package org.example.demo.service.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the words of a text that matched a search, including stemmed, prefix and fuzzy matches, so a view
+ * can emphasize them.
+ */
+public final class Highlighter {
+    public static final Highlighter NONE = new Highlighter(Set.of());
+
+    /**
+     * Character range {@code [start, end)} of a matched word.
+     */
+    public record Span(int start, int end) {
+    }
+
+    private final Set<String> matchedTerms;
+
+    Highlighter(Set<String> matchedTerms) {
+        this.matchedTerms = Set.copyOf(matchedTerms);
+    }
+
+    public boolean isEmpty() {
+        return matchedTerms.isEmpty();
+    }
+
+    public List<Span> spans(String text) {
+        if (matchedTerms.isEmpty() || text == null) {
+            return List.of();
+        }
+        List<Span> spans = new ArrayList<>();
+        for (Tokenizer.Token token : Tokenizer.tokenize(text)) {
+            if (matchedTerms.contains(Stemmer.stem(token.text()))) {
+                spans.add(new Span(token.start(), token.end()));
+            }
+        }
+        return spans;
+    }
+}
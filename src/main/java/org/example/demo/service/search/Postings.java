@@ -0,0 +1,110 @@
+package org.example.demo.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Documents containing one term with their term frequencies, in an open-addressing int-to-int hash table.
+ * Avoids boxing, which matters with millions of postings.
+ */
+final class Postings {
+    private static final int FREE = Integer.MIN_VALUE;
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(int doc, int frequency);
+    }
+
+    private int[] docs;
+    private int[] frequencies;
+    private int size;
+
+    Postings() {
+        docs = new int[4];
+        frequencies = new int[4];
+        Arrays.fill(docs, FREE);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Term frequency in {@code doc}, or 0 if the document does not contain the term.
+     */
+    int get(int doc) {
+        int mask = docs.length - 1;
+        for (int slot = hash(doc) & mask; docs[slot] != FREE; slot = (slot + 1) & mask) {
+            if (docs[slot] == doc) {
+                return frequencies[slot];
+            }
+        }
+        return 0;
+    }
+
+    void put(int doc, int frequency) {
+        if ((size + 1) * 4 > docs.length * 3) {
+            resize(docs.length * 2);
+        }
+        int mask = docs.length - 1;
+        int slot = hash(doc) & mask;
+        while (docs[slot] != FREE && docs[slot] != doc) {
+            slot = (slot + 1) & mask;
+        }
+        if (docs[slot] == FREE) {
+            docs[slot] = doc;
+            size++;
+        }
+        frequencies[slot] = frequency;
+    }
+
+    boolean remove(int doc) {
+        int mask = docs.length - 1;
+        int slot = hash(doc) & mask;
+        while (docs[slot] != doc) {
+            if (docs[slot] == FREE) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int gap = slot;
+        for (int next = (gap + 1) & mask; docs[next] != FREE; next = (next + 1) & mask) {
+            int home = hash(docs[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                docs[gap] = docs[next];
+                frequencies[gap] = frequencies[next];
+                gap = next;
+            }
+        }
+        docs[gap] = FREE;
+        size--;
+        return true;
+    }
+
+    void forEach(Visitor visitor) {
+        for (int slot = 0; slot < docs.length; slot++) {
+            if (docs[slot] != FREE) {
+                visitor.visit(docs[slot], frequencies[slot]);
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        int[] oldDocs = docs;
+        int[] oldFrequencies = frequencies;
+        docs = new int[capacity];
+        frequencies = new int[capacity];
+        Arrays.fill(docs, FREE);
+        size = 0;
+        for (int slot = 0; slot < oldDocs.length; slot++) {
+            if (oldDocs[slot] != FREE) {
+                put(oldDocs[slot], oldFrequencies[slot]);
+            }
+        }
+    }
+
+    private static int hash(int doc) {
+        int h = doc * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
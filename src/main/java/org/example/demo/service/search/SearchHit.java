@@ -0,0 +1,7 @@
+package org.example.demo.service.search;
+
+/**
+ * A matching todo and its BM25 relevance; higher is better.
+ */
+public record SearchHit(int todoId, double score) {
+}
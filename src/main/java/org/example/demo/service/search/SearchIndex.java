@@ -0,0 +1,315 @@
+package org.example.demo.service.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over todo titles and descriptions with BM25 ranking.
+ * <p>
+ * Words are tokenized and stemmed; title words count {@value #TITLE_WEIGHT} times. Each query word matches
+ * its own stem, the stems of indexed words within a small edit distance (found through a trigram index over
+ * the vocabulary), and while typing, the stems of words starting with the last word. Terms are scored most selective first;
+ * once {@value #POSTINGS_BUDGET} postings have been scanned, the remaining common terms only re-score
+ * documents that already matched, which bounds query cost on very large indexes. Only the top {@code k}
+ * documents are kept, in a bounded heap.
+ * <p>
+ * Thread-safe: updates take a write lock, queries a read lock.
+ */
+public class SearchIndex {
+    static final int TITLE_WEIGHT = 2;
+    static final int POSTINGS_BUDGET = 400_000;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_WEIGHT = 0.8;
+    private static final double FUZZY_WEIGHT = 0.6;
+    private static final int MAX_EXPANSIONS = 8;
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    private record Document(String[] terms, String[] words, int length) {
+    }
+
+    private record QueryTerm(String term, Postings postings, double weight, double idf) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> dictionary = new HashMap<>();
+    /** Words as written, with the number of documents using them; typos and prefixes are matched against these. */
+    private final TreeMap<String, Integer> words = new TreeMap<>();
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private long totalLength;
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a todo, replacing what was indexed for the same id before.
+     */
+    public void put(int id, String title, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        Set<String> documentWords = new HashSet<>();
+        for (Tokenizer.Token token : Tokenizer.tokenize(title)) {
+            frequencies.merge(Stemmer.stem(token.text()), TITLE_WEIGHT, Integer::sum);
+            documentWords.add(token.text());
+        }
+        for (Tokenizer.Token token : Tokenizer.tokenize(description)) {
+            frequencies.merge(Stemmer.stem(token.text()), 1, Integer::sum);
+            documentWords.add(token.text());
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                dictionary.computeIfAbsent(entry.getKey(), key -> new Postings()).put(id, entry.getValue());
+                length += entry.getValue();
+            }
+            for (String word : documentWords) {
+                if (words.merge(word, 1, Integer::sum) == 1) {
+                    for (String trigram : trigramsOf(word)) {
+                        trigrams.computeIfAbsent(trigram, key -> new HashSet<>()).add(word);
+                    }
+                }
+            }
+            documents.put(id, new Document(frequencies.keySet().toArray(String[]::new),
+                    documentWords.toArray(String[]::new), length));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            dictionary.clear();
+            words.clear();
+            trigrams.clear();
+            documents.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The {@code limit} best matches for {@code query}, best first, plus a highlighter for the terms that matched.
+     */
+    public SearchResult search(String query, int limit) {
+        List<Tokenizer.Token> tokens = Tokenizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return SearchResult.EMPTY;
+        }
+        // The last word is still being typed unless the query ends with a separator
+        boolean lastIsPrefix = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return SearchResult.EMPTY;
+            }
+            List<QueryTerm> queryTerms = new ArrayList<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean prefix = lastIsPrefix && i == tokens.size() - 1;
+                expand(tokens.get(i).text(), prefix).forEach((term, weight) -> {
+                    Postings postings = dictionary.get(term);
+                    double idf = Math.log(1 + (documentCount - postings.size() + 0.5) / (postings.size() + 0.5));
+                    queryTerms.add(new QueryTerm(term, postings, weight, idf));
+                });
+            }
+            queryTerms.sort(Comparator.comparingDouble(QueryTerm::idf).reversed());
+
+            double averageLength = (double) totalLength / documentCount;
+            Map<Integer, double[]> scores = new HashMap<>();
+            long scanned = 0;
+            for (QueryTerm queryTerm : queryTerms) {
+                if (scanned < POSTINGS_BUDGET || scores.isEmpty()) {
+                    queryTerm.postings().forEach((doc, frequency) -> scores
+                            .computeIfAbsent(doc, key -> new double[1])[0] += score(queryTerm, doc, frequency, averageLength));
+                    scanned += queryTerm.postings().size();
+                } else {
+                    // Budget spent: common terms only refine documents that already matched
+                    for (Map.Entry<Integer, double[]> entry : scores.entrySet()) {
+                        int frequency = queryTerm.postings().get(entry.getKey());
+                        if (frequency > 0) {
+                            entry.getValue()[0] += score(queryTerm, entry.getKey(), frequency, averageLength);
+                        }
+                    }
+                }
+            }
+
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(SearchHit::score));
+            for (Map.Entry<Integer, double[]> entry : scores.entrySet()) {
+                double score = entry.getValue()[0];
+                if (top.size() < limit || score > top.peek().score()) {
+                    top.add(new SearchHit(entry.getKey(), score));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+            List<SearchHit> hits = new ArrayList<>(top);
+            hits.sort(Comparator.comparingDouble(SearchHit::score).reversed().thenComparingInt(SearchHit::todoId));
+
+            Set<String> matched = new HashSet<>();
+            queryTerms.forEach(queryTerm -> matched.add(queryTerm.term()));
+            return new SearchResult(hits, scores.size(), new Highlighter(matched));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double score(QueryTerm queryTerm, int doc, int frequency, double averageLength) {
+        double norm = K1 * (1 - B + B * documents.get(doc).length() / averageLength);
+        return queryTerm.weight() * queryTerm.idf() * frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    /**
+     * Dictionary terms a query word should match, with their weights.
+     */
+    private Map<String, Double> expand(String word, boolean prefix) {
+        Map<String, Double> terms = new LinkedHashMap<>();
+        String stem = Stemmer.stem(word);
+        if (dictionary.containsKey(stem)) {
+            terms.put(stem, 1.0);
+        }
+        if (prefix) {
+            words.subMap(word, word + Character.MAX_VALUE).keySet().stream()
+                    .map(Stemmer::stem)
+                    .distinct()
+                    .sorted(Comparator.comparingInt((String term) -> dictionary.get(term).size()).reversed())
+                    .limit(MAX_EXPANSIONS)
+                    .forEach(term -> terms.putIfAbsent(term, PREFIX_WEIGHT));
+        }
+        if (word.length() >= MIN_FUZZY_LENGTH) {
+            int maxEdits = word.length() >= 8 ? 2 : 1;
+            for (String candidate : fuzzyCandidates(word, maxEdits)) {
+                terms.putIfAbsent(Stemmer.stem(candidate), FUZZY_WEIGHT);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Indexed words within {@code maxEdits} of {@code word}. Candidates must share enough trigrams to be
+     * worth the edit-distance check; the most similar ones are kept.
+     */
+    private List<String> fuzzyCandidates(String word, int maxEdits) {
+        List<String> grams = trigramsOf(word);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            for (String candidate : trigrams.getOrDefault(gram, Set.of())) {
+                shared.merge(candidate, 1, Integer::sum);
+            }
+        }
+        // An edit touches at most three trigrams, a transposition four
+        int minShared = Math.max(1, grams.size() - 4 * maxEdits);
+        return shared.entrySet().stream()
+                .filter(entry -> entry.getValue() >= minShared && !entry.getKey().equals(word))
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .map(Map.Entry::getKey)
+                .filter(candidate -> Math.abs(candidate.length() - word.length()) <= maxEdits
+                        && editDistance(word, candidate, maxEdits) <= maxEdits)
+                .limit(MAX_EXPANSIONS)
+                .toList();
+    }
+
+    private void removeLocked(int id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        totalLength -= document.length();
+        for (String term : document.terms()) {
+            Postings postings = dictionary.get(term);
+            postings.remove(id);
+            if (postings.size() == 0) {
+                dictionary.remove(term);
+            }
+        }
+        for (String word : document.words()) {
+            if (words.merge(word, -1, Integer::sum) == 0) {
+                words.remove(word);
+                for (String trigram : trigramsOf(word)) {
+                    Set<String> gramWords = trigrams.get(trigram);
+                    gramWords.remove(word);
+                    if (gramWords.isEmpty()) {
+                        trigrams.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Trigrams of the word padded with boundary markers, so short words and word edges are represented too.
+     */
+    static List<String> trigramsOf(String word) {
+        String padded = "$" + word + "$";
+        List<String> grams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions), giving up early once
+     * every alignment exceeds {@code max}.
+     */
+    static int editDistance(String a, String b, int max) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.demo.service.search;
+
+import java.util.List;
+
+/**
+ * Ranked hits of a query, best first. {@code totalMatches} counts every matching todo, not just the returned ones.
+ */
+public record SearchResult(List<SearchHit> hits, int totalMatches, Highlighter highlighter) {
+    public static final SearchResult EMPTY = new SearchResult(List.of(), 0, Highlighter.NONE);
+}
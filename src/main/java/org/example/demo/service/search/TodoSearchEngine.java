@@ -0,0 +1,57 @@
+package org.example.demo.service.search;
+
+import org.example.demo.metrics.MetricsRegistry;
+import org.example.demo.model.Todo;
+import org.example.demo.service.event.TodoEvent;
+import org.example.demo.service.event.TodoEventSubscriber;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@link SearchIndex} of the loaded todos, maintained incrementally from the todo event stream.
+ * Queries may run on any thread while the index is being updated.
+ */
+public class TodoSearchEngine extends TodoEventSubscriber {
+    private final SearchIndex index = new SearchIndex();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    public TodoSearchEngine() {
+        super("search");
+        metrics.registerGauge("search.index.documents", index::size);
+    }
+
+    /**
+     * Called on the subscriber's executor after every applied change, so open searches can be re-run.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public SearchResult search(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            return index.search(query, limit);
+        } finally {
+            metrics.recordNanos("search.query", System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    protected void onEvent(TodoEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED, COMPLETED -> put(event.todo());
+            case DELETED -> index.remove(event.todoId());
+            case RELOADED -> {
+                index.clear();
+                event.todos().forEach(this::put);
+            }
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    private void put(Todo todo) {
+        index.put(todo.getId(), todo.getTitle(), todo.getDescription());
+    }
+}
@@ -0,0 +1,207 @@
+package org.example.demo.service.sort;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted multiset with positional access, implemented as a treap whose nodes carry subtree sizes.
+ * Insert, remove, {@link #indexOf} and {@link #get} are O(log n) expected; a bulk {@link #rebuild}
+ * is O(n log n). The comparator must be a total order: elements comparing equal are treated as the same element.
+ */
+final class OrderStatisticTree<E> {
+
+    private static final class Node<E> {
+        final E value;
+        int priority;
+        int size = 1;
+        Node<E> left;
+        Node<E> right;
+
+        Node(E value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    /** The two treaps a {@link #split} produces. */
+    private record Split<E>(Node<E> left, Node<E> right) {
+    }
+
+    private final Comparator<? super E> comparator;
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<E> root;
+
+    OrderStatisticTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    void clear() {
+        root = null;
+    }
+
+    void add(E value) {
+        Split<E> parts = split(root, value, false);
+        root = merge(merge(parts.left(), new Node<>(value, random.nextInt())), parts.right());
+    }
+
+    boolean remove(E value) {
+        Split<E> lower = split(root, value, false);
+        Split<E> upper = split(lower.right(), value, true);
+        root = merge(lower.left(), upper.right());
+        return upper.left() != null;
+    }
+
+    /**
+     * Position of {@code value} in sort order, or -1 if absent.
+     */
+    int indexOf(E value) {
+        int rank = 0;
+        Node<E> node = root;
+        while (node != null) {
+            int c = comparator.compare(value, node.value);
+            if (c < 0) {
+                node = node.left;
+            } else if (c > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    /**
+     * All elements in sort order.
+     */
+    List<E> toList() {
+        List<E> values = new ArrayList<>(size());
+        ArrayDeque<Node<E>> stack = new ArrayDeque<>();
+        Node<E> node = root;
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            values.add(node.value);
+            node = node.right;
+        }
+        return values;
+    }
+
+    /**
+     * Replaces the contents with {@code values}. Builds a balanced tree from the sorted input instead of
+     * inserting one by one, then hands out random priorities in level order so the heap property holds.
+     */
+    void rebuild(List<E> values) {
+        List<E> sorted = new ArrayList<>(values);
+        sorted.sort(comparator);
+        root = build(sorted, 0, sorted.size());
+        if (root == null) {
+            return;
+        }
+        int[] priorities = new int[sorted.size()];
+        for (int i = 0; i < priorities.length; i++) {
+            priorities[i] = random.nextInt();
+        }
+        Arrays.sort(priorities);
+        int next = priorities.length - 1;
+        ArrayDeque<Node<E>> queue = new ArrayDeque<>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            Node<E> node = queue.poll();
+            node.priority = priorities[next--];
+            if (node.left != null) {
+                queue.add(node.left);
+            }
+            if (node.right != null) {
+                queue.add(node.right);
+            }
+        }
+    }
+
+    private Node<E> build(List<E> sorted, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        Node<E> node = new Node<>(sorted.get(mid), 0);
+        node.left = build(sorted, from, mid);
+        node.right = build(sorted, mid + 1, to);
+        update(node);
+        return node;
+    }
+
+    /**
+     * Splits into elements before {@code value} and the rest; with {@code inclusive} the first part also
+     * takes elements equal to it.
+     */
+    private Split<E> split(Node<E> node, E value, boolean inclusive) {
+        if (node == null) {
+            return new Split<>(null, null);
+        }
+        int c = comparator.compare(node.value, value);
+        if (c < 0 || (inclusive && c == 0)) {
+            Split<E> parts = split(node.right, value, inclusive);
+            node.right = parts.left();
+            update(node);
+            return new Split<>(node, parts.right());
+        }
+        Split<E> parts = split(node.left, value, inclusive);
+        node.left = parts.right();
+        update(node);
+        return new Split<>(parts.left(), node);
+    }
+
+    private Node<E> merge(Node<E> left, Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.demo.service.sort;
+
+import org.example.demo.model.Todo;
+import org.example.demo.service.store.TodoColumnStore;
+
+/**
+ * Immutable copy of the fields todos are sorted by. Todos are edited in place, so the trees must hold
+ * a snapshot: it is what lets the old position be found after a todo has already changed.
+ */
+record SortEntry(int id, long createdAt, long dueAt, int priority, boolean completed) {
+    /** Sorts todos without a due date after all others. */
+    static final long NO_DUE_DATE = Long.MAX_VALUE;
+
+    static SortEntry of(Todo todo) {
+        long due = todo.getDueDate() == null ? NO_DUE_DATE : TodoColumnStore.encode(todo.getDueDate());
+        int priority = todo.getPriority() == null ? -1 : todo.getPriority().ordinal();
+        return new SortEntry(todo.getId(), TodoColumnStore.encode(todo.getCreatedAt()), due, priority, todo.isCompleted());
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.demo.service.sort;
+
+import lombok.Getter;
+
+import java.util.Comparator;
+
+/**
+ * Orderings maintained by {@link SortedTodoIndex}. Each one ends with the id as tie-breaker, so no two
+ * todos ever compare equal.
+ */
+public enum SortKey {
+    NEWEST("Newest first", Comparator.comparingLong(SortEntry::createdAt).reversed()),
+    DUE_DATE("Due date", Comparator.comparingLong(SortEntry::dueAt)
+            .thenComparing(Comparator.comparingInt(SortEntry::priority).reversed())),
+    PRIORITY("Priority", Comparator.comparingInt(SortEntry::priority).reversed()
+            .thenComparingLong(SortEntry::dueAt)),
+    STATUS("Pending first", Comparator.comparing(SortEntry::completed)
+            .thenComparingLong(SortEntry::dueAt));
+
+    @Getter
+    private final String displayName;
+    private final Comparator<SortEntry> comparator;
+
+    SortKey(String displayName, Comparator<SortEntry> comparator) {
+        this.displayName = displayName;
+        this.comparator = comparator.thenComparingInt(SortEntry::id);
+    }
+
+    Comparator<SortEntry> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.demo.service.sort;
+
+import org.example.demo.model.Todo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps todo ids in every {@link SortKey} order at once, one order-statistic tree per key. Adding,
+ * repositioning or removing a todo costs O(k log n) for k keys, and the position of any id in any order
+ * is an O(log n) lookup, so switching order never needs a full sort.
+ */
+public class SortedTodoIndex {
+    private final Map<Integer, SortEntry> entries = new HashMap<>();
+    private final EnumMap<SortKey, OrderStatisticTree<SortEntry>> trees = new EnumMap<>(SortKey.class);
+
+    public SortedTodoIndex() {
+        for (SortKey key : SortKey.values()) {
+            trees.put(key, new OrderStatisticTree<>(key.comparator()));
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean contains(int id) {
+        return entries.containsKey(id);
+    }
+
+    /**
+     * Adds a todo, or moves it to the positions matching its current field values.
+     */
+    public void put(Todo todo) {
+        SortEntry entry = SortEntry.of(todo);
+        SortEntry previous = entries.put(todo.getId(), entry);
+        if (entry.equals(previous)) {
+            return;
+        }
+        for (OrderStatisticTree<SortEntry> tree : trees.values()) {
+            if (previous != null) {
+                tree.remove(previous);
+            }
+            tree.add(entry);
+        }
+    }
+
+    public boolean remove(int id) {
+        SortEntry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        for (OrderStatisticTree<SortEntry> tree : trees.values()) {
+            tree.remove(entry);
+        }
+        return true;
+    }
+
+    /**
+     * Position of the todo with {@code id} in {@code key} order, or -1 if it is not indexed.
+     */
+    public int indexOf(SortKey key, int id) {
+        SortEntry entry = entries.get(id);
+        return entry == null ? -1 : trees.get(key).indexOf(entry);
+    }
+
+    public int idAt(SortKey key, int index) {
+        return trees.get(key).get(index).id();
+    }
+
+    /**
+     * All ids in {@code key} order.
+     */
+    public List<Integer> ids(SortKey key) {
+        List<SortEntry> ordered = trees.get(key).toList();
+        List<Integer> ids = new ArrayList<>(ordered.size());
+        for (SortEntry entry : ordered) {
+            ids.add(entry.id());
+        }
+        return ids;
+    }
+
+    public void rebuild(Collection<? extends Todo> todos) {
+        entries.clear();
+        for (Todo todo : todos) {
+            entries.put(todo.getId(), SortEntry.of(todo));
+        }
+        List<SortEntry> values = new ArrayList<>(entries.values());
+        for (OrderStatisticTree<SortEntry> tree : trees.values()) {
+            tree.rebuild(values);
+        }
+    }
+}
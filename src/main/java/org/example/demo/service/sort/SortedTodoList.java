@@ -0,0 +1,201 @@
+package org.example.demo.service.sort;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+import org.example.demo.model.Todo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Sorted view of a todo list that follows its source incrementally. Every source change is applied to a
+ * {@link SortedTodoIndex} and re-fired at the affected sorted positions; switching the {@link SortKey}
+ * fires a single permutation computed from the index, without sorting.
+ * <p>
+ * The view keeps only ids and sort keys. Elements are read from the source, so a source that materializes
+ * its rows on demand stays compact; the view mirrors the source ids to find the row of an id.
+ * <p>
+ * Like the source list, this view must only be used from the thread that modifies the source.
+ */
+public class SortedTodoList extends ObservableListBase<Todo> {
+    /** Changes touching more rows than this rebuild the index instead of updating it row by row. */
+    private static final int BULK_THRESHOLD = 256;
+
+    private final ObservableList<Todo> source;
+    private final SortedTodoIndex index = new SortedTodoIndex();
+    /** Ids of the source rows, in source order. */
+    private int[] sourceIds = new int[16];
+    private int sourceSize;
+    /** Source row of each id, rebuilt from {@link #sourceIds} on the next lookup once rows have moved. */
+    private final Map<Integer, Integer> rowsById = new HashMap<>();
+    private boolean rowsStale;
+    private SortKey sortKey;
+
+    public SortedTodoList(ObservableList<Todo> source, SortKey sortKey) {
+        this.source = source;
+        this.sortKey = sortKey;
+        rebuild();
+        source.addListener(this::onSourceChanged);
+    }
+
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    public void setSortKey(SortKey newKey) {
+        if (newKey == sortKey) {
+            return;
+        }
+        List<Integer> oldOrder = index.ids(sortKey);
+        sortKey = newKey;
+        int[] permutation = new int[oldOrder.size()];
+        for (int i = 0; i < permutation.length; i++) {
+            permutation[i] = index.indexOf(newKey, oldOrder.get(i));
+        }
+        beginChange();
+        nextPermutation(0, permutation.length, permutation);
+        endChange();
+    }
+
+    /**
+     * The todo with {@code id}, read from the source.
+     */
+    public Optional<Todo> findById(int id) {
+        int row = rowOf(id);
+        return row < 0 ? Optional.empty() : Optional.of(source.get(row));
+    }
+
+    @Override
+    public Todo get(int index) {
+        return source.get(rowOf(this.index.idAt(sortKey, index)));
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    private void onSourceChanged(ListChangeListener.Change<? extends Todo> change) {
+        int touched = 0;
+        while (change.next()) {
+            touched += change.getRemovedSize() + change.getAddedSize();
+        }
+        change.reset();
+        if (touched > BULK_THRESHOLD) {
+            Map<Integer, Todo> removedById = new HashMap<>();
+            while (change.next()) {
+                change.getRemoved().forEach(todo -> removedById.put(todo.getId(), todo));
+            }
+            List<Integer> oldOrder = index.ids(sortKey);
+            rebuild();
+            List<Todo> removed = new ArrayList<>(oldOrder.size());
+            for (int id : oldOrder) {
+                Todo todo = removedById.get(id);
+                removed.add(todo != null ? todo : source.get(rowOf(id)));
+            }
+            beginChange();
+            nextReplace(0, size(), removed);
+            endChange();
+            return;
+        }
+
+        beginChange();
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                // Source order does not affect the sorted order, only the rows of the ids
+                int[] moved = Arrays.copyOfRange(sourceIds, change.getFrom(), change.getTo());
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    sourceIds[change.getPermutation(i)] = moved[i - change.getFrom()];
+                }
+                rowsStale = true;
+                continue;
+            }
+            if (change.wasUpdated()) {
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    Todo todo = change.getList().get(i);
+                    evict(todo);
+                    insert(todo);
+                }
+                continue;
+            }
+            removeRows(change.getFrom(), change.getRemovedSize());
+            change.getRemoved().forEach(this::evict);
+            List<? extends Todo> added = change.getAddedSubList();
+            addRows(change.getFrom(), added);
+            added.forEach(this::insert);
+        }
+        endChange();
+    }
+
+    private void insert(Todo todo) {
+        index.put(todo);
+        int position = index.indexOf(sortKey, todo.getId());
+        nextAdd(position, position + 1);
+    }
+
+    private void evict(Todo todo) {
+        int position = index.indexOf(sortKey, todo.getId());
+        if (position < 0) {
+            return;
+        }
+        index.remove(todo.getId());
+        nextRemove(position, todo);
+    }
+
+    private int rowOf(int id) {
+        if (rowsStale) {
+            rowsById.clear();
+            for (int row = 0; row < sourceSize; row++) {
+                rowsById.put(sourceIds[row], row);
+            }
+            rowsStale = false;
+        }
+        return rowsById.getOrDefault(id, -1);
+    }
+
+    private void addRows(int from, List<? extends Todo> todos) {
+        int count = todos.size();
+        if (count == 0) {
+            return;
+        }
+        if (sourceSize + count > sourceIds.length) {
+            sourceIds = Arrays.copyOf(sourceIds, Math.max(sourceSize + count, sourceIds.length * 2));
+        }
+        System.arraycopy(sourceIds, from, sourceIds, from + count, sourceSize - from);
+        for (int i = 0; i < count; i++) {
+            int id = todos.get(i).getId();
+            sourceIds[from + i] = id;
+            rowsById.put(id, from + i);
+        }
+        // Appending leaves the other rows where they were
+        rowsStale |= from < sourceSize;
+        sourceSize += count;
+    }
+
+    private void removeRows(int from, int count) {
+        if (count == 0) {
+            return;
+        }
+        for (int row = from; row < from + count; row++) {
+            rowsById.remove(sourceIds[row]);
+        }
+        System.arraycopy(sourceIds, from + count, sourceIds, from, sourceSize - from - count);
+        rowsStale |= from + count < sourceSize;
+        sourceSize -= count;
+    }
+
+    private void rebuild() {
+        sourceSize = 0;
+        rowsById.clear();
+        rowsStale = false;
+        // Read each source row once; the copies are dropped once indexed
+        List<Todo> todos = new ArrayList<>(source);
+        addRows(0, todos);
+        index.rebuild(todos);
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.demo.service.store;
+
+import javafx.collections.ObservableListBase;
+import org.example.demo.model.Todo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@code ObservableList<Todo>} backed by a {@link TodoColumnStore}. Elements are materialized on
+ * {@link #get(int)}, so the list view only pays for the rows it renders; writes go back to the columns.
+ * <p>
+ * Because every {@code get} returns a fresh copy, changes made to a returned todo must be written back
+ * with {@link #set(int, Todo)} to become visible to other readers.
+ */
+public class ColumnarTodoList extends ObservableListBase<Todo> {
+    private final TodoColumnStore store;
+
+    public ColumnarTodoList(TodoColumnStore store) {
+        this.store = store;
+    }
+
+    public TodoColumnStore getStore() {
+        return store;
+    }
+
+    @Override
+    public Todo get(int index) {
+        return store.materialize(index);
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public void add(int index, Todo todo) {
+        store.insert(index, todo);
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Todo> todos) {
+        if (todos.isEmpty()) {
+            return false;
+        }
+        int from = store.size();
+        store.appendAll(todos);
+        beginChange();
+        nextAdd(from, store.size());
+        endChange();
+        return true;
+    }
+
+    @Override
+    public boolean setAll(Collection<? extends Todo> todos) {
+        List<Todo> removed = hasListeners() ? snapshot() : Collections.emptyList();
+        store.clear();
+        store.appendAll(todos);
+        beginChange();
+        nextReplace(0, store.size(), removed);
+        endChange();
+        return true;
+    }
+
+    @Override
+    public Todo set(int index, Todo todo) {
+        Todo old = store.materialize(index);
+        store.set(index, todo);
+        beginChange();
+        nextSet(index, old);
+        endChange();
+        return old;
+    }
+
+    @Override
+    public Todo remove(int index) {
+        Todo old = store.materialize(index);
+        store.removeRange(index, index + 1);
+        beginChange();
+        nextRemove(index, old);
+        endChange();
+        return old;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex == toIndex) {
+            return;
+        }
+        List<Todo> removed = new ArrayList<>(toIndex - fromIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            removed.add(store.materialize(i));
+        }
+        store.removeRange(fromIndex, toIndex);
+        beginChange();
+        nextRemove(fromIndex, removed);
+        endChange();
+    }
+
+    @Override
+    public void clear() {
+        if (hasListeners()) {
+            removeRange(0, size());
+        } else {
+            store.clear();
+        }
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return o instanceof Todo todo ? store.indexOf(todo) : -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    private List<Todo> snapshot() {
+        List<Todo> copy = new ArrayList<>(store.size());
+        for (int i = 0; i < store.size(); i++) {
+            copy.add(store.materialize(i));
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.demo.service.store;
+
+/**
+ * Estimated heap usage of the same rows held as {@code ObservableList<Todo>} versus {@link TodoColumnStore}.
+ * Figures assume a 64-bit JVM with compressed oops and compact (Latin-1) strings.
+ */
+public record MemoryFootprint(int rows, long objectListBytes, long columnarBytes, int uniqueStrings) {
+
+    public long savingsBytes() {
+        return objectListBytes - columnarBytes;
+    }
+
+    public double savingsPercent() {
+        return objectListBytes == 0 ? 0.0 : savingsBytes() * 100.0 / objectListBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows: ObservableList<Todo> ~%d KB, columnar ~%d KB (%.1f%% saved, %d unique strings)",
+                rows, objectListBytes / 1024, columnarBytes / 1024, savingsPercent(), uniqueStrings);
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.demo.service.store;
+
+import org.example.demo.config.ConfigChangeEvent;
+import org.example.demo.config.ConfigChangeListener;
+import org.example.demo.config.ConfigKey;
+import org.example.demo.config.ConfigurationManager;
+import org.example.demo.metrics.MetricsRegistry;
+import org.example.demo.model.TodoScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One {@link TodoSnapshot} file per scope in a local directory. Periodic saves run on a background thread;
+ * the final save on shutdown is synchronous.
+ */
+public class SnapshotStore implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotStore.class);
+    // Configuration keys
+    private static final ConfigKey<Boolean> ENABLED_KEY = ConfigKey.ofBoolean("snapshot.enabled", true);
+    private static final ConfigKey<String> DIRECTORY_KEY = ConfigKey.ofString("snapshot.dir",
+            Path.of(System.getProperty("user.home"), ".todo-app").toString());
+    private static final ConfigKey<Integer> INTERVAL_KEY = ConfigKey.ofInt("snapshot.intervalSeconds", 60, 0);
+
+    private final Path directory;
+    private int intervalSeconds;
+    private final ScheduledExecutorService executor;
+    private final ConfigChangeListener configListener = this::onConfigChanged;
+    private Runnable periodicTask;
+    private ScheduledFuture<?> periodicSave;
+    private final AtomicLong lastWrittenBytes = new AtomicLong();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    public SnapshotStore(Path directory, int intervalSeconds) {
+        this.directory = directory;
+        this.intervalSeconds = intervalSeconds;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "todo-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metrics.registerGauge("snapshot.bytes", lastWrittenBytes::get);
+        ConfigurationManager.addChangeListener(configListener);
+    }
+
+    /**
+     * Store configured from {@link ConfigurationManager}, or empty when snapshots are disabled.
+     */
+    public static Optional<SnapshotStore> create() {
+        if (!ENABLED_KEY.get()) {
+            return Optional.empty();
+        }
+        return Optional.of(new SnapshotStore(Path.of(DIRECTORY_KEY.get()), INTERVAL_KEY.get()));
+    }
+
+    public Path pathFor(TodoScope scope) {
+        return directory.resolve("todos-" + scope.ownerId() + "-" + scope.listId() + ".snapshot");
+    }
+
+    /**
+     * The last saved snapshot of {@code scope}; empty if there is none or it cannot be used.
+     */
+    public Optional<TodoSnapshot> load(TodoScope scope) {
+        Path path = pathFor(scope);
+        long start = System.nanoTime();
+        try {
+            Optional<TodoSnapshot> snapshot = TodoSnapshot.read(path).filter(loaded -> loaded.scope().equals(scope));
+            metrics.recordNanos("snapshot.read", System.nanoTime() - start);
+            snapshot.ifPresent(loaded -> logger.info("Read snapshot of {} todos from {} in {} ms", loaded.todos().size(),
+                    path, (System.nanoTime() - start) / 1_000_000));
+            return snapshot;
+        } catch (IOException e) {
+            logger.warn("Could not read snapshot {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Runs {@code task} every configured interval, typically to capture and {@link #saveAsync} the current todos.
+     * Does nothing while the interval is 0. The interval follows configuration changes.
+     */
+    public synchronized void schedulePeriodic(Runnable task) {
+        periodicTask = task;
+        reschedule();
+    }
+
+    private void onConfigChanged(ConfigChangeEvent event) {
+        if (event.affects(INTERVAL_KEY)) {
+            synchronized (this) {
+                intervalSeconds = INTERVAL_KEY.get();
+                reschedule();
+            }
+            logger.info("Snapshot interval changed to {}s", INTERVAL_KEY.get());
+        }
+    }
+
+    private void reschedule() {
+        if (periodicSave != null) {
+            periodicSave.cancel(false);
+            periodicSave = null;
+        }
+        if (periodicTask != null && intervalSeconds > 0 && !executor.isShutdown()) {
+            periodicSave = executor.scheduleWithFixedDelay(periodicTask, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public void saveAsync(TodoSnapshot snapshot) {
+        executor.execute(() -> save(snapshot));
+    }
+
+    /**
+     * Writes the snapshot on the calling thread. Failures are logged; a missing snapshot only costs startup time.
+     */
+    public void save(TodoSnapshot snapshot) {
+        Path path = pathFor(snapshot.scope());
+        long start = System.nanoTime();
+        try {
+            lastWrittenBytes.set(snapshot.write(path));
+            metrics.recordNanos("snapshot.write", System.nanoTime() - start);
+            logger.debug("Wrote snapshot of {} todos to {}", snapshot.todos().size(), path);
+        } catch (IOException e) {
+            logger.warn("Could not write snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Stops periodic saves and waits briefly for a save in progress.
+     */
+    @Override
+    public void close() {
+        ConfigurationManager.removeChangeListener(configListener);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
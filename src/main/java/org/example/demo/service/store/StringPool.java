@@ -0,0 +1,63 @@
+package org.example.demo.service.store;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Deduplicates equal strings so repeated titles and descriptions share one instance.
+ * Unlike {@link String#intern()} the pool is owned by the store and dropped with it.
+ * <p>
+ * Entries are reference-counted: every {@link #intern} must be matched by a {@link #release} once the row no
+ * longer holds the string, so text of edited and removed rows does not stay reachable.
+ */
+class StringPool {
+    private static final class Entry {
+        final String value;
+        int references;
+
+        Entry(String value) {
+            this.value = value;
+        }
+    }
+
+    private final Map<String, Entry> pool = new HashMap<>();
+    private long uniqueChars;
+
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        Entry entry = pool.get(value);
+        if (entry == null) {
+            entry = new Entry(value);
+            pool.put(value, entry);
+            uniqueChars += value.length();
+        }
+        entry.references++;
+        return entry.value;
+    }
+
+    void release(String value) {
+        if (value == null) {
+            return;
+        }
+        Entry entry = pool.get(value);
+        if (entry != null && --entry.references == 0) {
+            pool.remove(value);
+            uniqueChars -= value.length();
+        }
+    }
+
+    int size() {
+        return pool.size();
+    }
+
+    long getUniqueChars() {
+        return uniqueChars;
+    }
+
+    void clear() {
+        pool.clear();
+        uniqueChars = 0;
+    }
+}
@@ -0,0 +1,362 @@
+package org.example.demo.service.store;
+
+import org.example.demo.model.Todo;
+import org.example.demo.model.TodoScope;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Column-oriented storage for todos. Each field lives in its own primitive array indexed by row,
+ * so a row costs about 48 bytes plus its (deduplicated) strings instead of a {@link Todo} with up to three
+ * {@link LocalDateTime} graphs.
+ * <p>
+ * Rows keep insertion order; {@link ColumnarTodoList} uses the row number as the list index.
+ * Dates are stored as epoch millis of the local date-time encoded at UTC, which round-trips
+ * {@link LocalDateTime} at millisecond precision.
+ * <p>
+ * A store holds the rows of a single {@link TodoScope}, so owner and list are kept once per store
+ * rather than per row.
+ */
+public class TodoColumnStore {
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final byte FLAG_COMPLETED = 1;
+    private static final byte FLAG_DESCRIPTION_TRUNCATED = 2;
+    private static final byte NO_PRIORITY = -1;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Todo.Priority[] PRIORITIES = Todo.Priority.values();
+
+    private int size;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] versions = new int[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private byte[] priorities = new byte[INITIAL_CAPACITY];
+    private long[] createdAt = new long[INITIAL_CAPACITY];
+    private long[] dueAt = new long[INITIAL_CAPACITY];
+    private long[] updatedAt = new long[INITIAL_CAPACITY];
+    private String[] titles = new String[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private String[] recurrenceRules = new String[INITIAL_CAPACITY];
+
+    private final StringPool strings = new StringPool();
+    private TodoScope scope = TodoScope.DEFAULT;
+
+    public static long encode(LocalDateTime dateTime) {
+        return dateTime == null ? NO_DATE : dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime decode(long epochMillis) {
+        if (epochMillis == NO_DATE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    public synchronized TodoScope getScope() {
+        return scope;
+    }
+
+    /**
+     * Switches the store to another partition; only allowed while it is empty.
+     */
+    public synchronized void setScope(TodoScope scope) {
+        if (size > 0 && !scope.equals(this.scope)) {
+            throw new IllegalStateException("Cannot change the scope of a non-empty store");
+        }
+        this.scope = scope;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void insert(int row, Todo todo) {
+        if (row < 0 || row > size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+        ensureCapacity(size + 1);
+        int tail = size - row;
+        if (tail > 0) {
+            shift(row, row + 1, tail);
+        }
+        size++;
+        write(row, todo);
+    }
+
+    public synchronized void appendAll(Collection<? extends Todo> todos) {
+        ensureCapacity(size + todos.size());
+        for (Todo todo : todos) {
+            write(size++, todo);
+        }
+    }
+
+    public synchronized void set(int row, Todo todo) {
+        checkRow(row);
+        checkScope(todo);
+        releaseStrings(row);
+        write(row, todo);
+    }
+
+    public synchronized void removeRange(int fromRow, int toRow) {
+        if (fromRow < 0 || toRow > size || fromRow > toRow) {
+            throw new IndexOutOfBoundsException("Range [" + fromRow + ", " + toRow + ") out of bounds for size " + size);
+        }
+        for (int row = fromRow; row < toRow; row++) {
+            releaseStrings(row);
+        }
+        int removed = toRow - fromRow;
+        int tail = size - toRow;
+        if (tail > 0) {
+            shift(toRow, fromRow, tail);
+        }
+        // Drop string references held by the vacated tail rows
+        Arrays.fill(titles, size - removed, size, null);
+        Arrays.fill(descriptions, size - removed, size, null);
+        Arrays.fill(recurrenceRules, size - removed, size, null);
+        size -= removed;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(titles, 0, size, null);
+        Arrays.fill(descriptions, 0, size, null);
+        Arrays.fill(recurrenceRules, 0, size, null);
+        size = 0;
+        strings.clear();
+    }
+
+    public synchronized Todo materialize(int row) {
+        checkRow(row);
+        return Todo.builder()
+                .id(ids[row])
+                .ownerId(scope.ownerId())
+                .listId(scope.listId())
+                .title(titles[row])
+                .description(descriptions[row])
+                .descriptionTruncated(descriptionTruncatedAt(row))
+                .priority(priorityAt(row))
+                .completed((flags[row] & FLAG_COMPLETED) != 0)
+                .createdAt(decode(createdAt[row]))
+                .dueDate(decode(dueAt[row]))
+                .updatedAt(decode(updatedAt[row]))
+                .recurrenceRule(recurrenceRules[row])
+                .version(versions[row])
+                .build();
+    }
+
+    /**
+     * Positions a flyweight on the given row. The same view instance can be reused for any number of rows.
+     */
+    public TodoView view(int row, TodoView reuse) {
+        synchronized (this) {
+            checkRow(row);
+        }
+        TodoView view = reuse != null ? reuse : new TodoView(this);
+        view.moveTo(row);
+        return view;
+    }
+
+    /**
+     * Visits every row through one reused flyweight; the view must not escape the callback.
+     */
+    public synchronized void forEach(Consumer<TodoView> action) {
+        TodoView view = new TodoView(this);
+        for (int row = 0; row < size; row++) {
+            view.moveTo(row);
+            action.accept(view);
+        }
+    }
+
+    /**
+     * Finds the first row holding {@code todo}. Persisted todos match by id; unsaved ones (id 0) match by content.
+     */
+    public synchronized int indexOf(Todo todo) {
+        int id = todo.getId();
+        if (id != 0) {
+            for (int row = 0; row < size; row++) {
+                if (ids[row] == id) {
+                    return row;
+                }
+            }
+            return -1;
+        }
+        for (int row = 0; row < size; row++) {
+            if (ids[row] == 0 && contentEquals(row, todo)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    public synchronized int countCompleted() {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            count += flags[row] & FLAG_COMPLETED;
+        }
+        return count;
+    }
+
+    public synchronized int countOverdue(LocalDateTime now) {
+        long nowMillis = encode(now);
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if ((flags[row] & FLAG_COMPLETED) == 0 && dueAt[row] != NO_DATE && dueAt[row] < nowMillis) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized MemoryFootprint footprint() {
+        long objectList = arrayBytes(4, size); // ArrayList backing Object[]
+        long columnar = arrayBytes(4, ids.length) * 2 + arrayBytes(1, flags.length) * 2
+                + arrayBytes(8, createdAt.length) * 3 + arrayBytes(4, titles.length) * 3;
+        for (int row = 0; row < size; row++) {
+            objectList += 56; // Todo: header, four ints, boolean and six references
+            objectList += 72; // createdAt: LocalDateTime + LocalDate + LocalTime
+            if (dueAt[row] != NO_DATE) {
+                objectList += 72;
+            }
+            if (updatedAt[row] != NO_DATE) {
+                objectList += 72;
+            }
+            objectList += stringBytes(titles[row]) + stringBytes(descriptions[row]) + stringBytes(recurrenceRules[row]);
+        }
+        columnar += strings.size() * 40L + strings.getUniqueChars();
+        return new MemoryFootprint(size, objectList, columnar, strings.size());
+    }
+
+    // Package-private accessors used by TodoView; callers hold a valid row.
+
+    synchronized int idAt(int row) {
+        return ids[row];
+    }
+
+    synchronized String titleAt(int row) {
+        return titles[row];
+    }
+
+    synchronized String descriptionAt(int row) {
+        return descriptions[row];
+    }
+
+    synchronized boolean descriptionTruncatedAt(int row) {
+        return (flags[row] & FLAG_DESCRIPTION_TRUNCATED) != 0;
+    }
+
+    synchronized String recurrenceRuleAt(int row) {
+        return recurrenceRules[row];
+    }
+
+    synchronized boolean completedAt(int row) {
+        return (flags[row] & FLAG_COMPLETED) != 0;
+    }
+
+    synchronized Todo.Priority priorityAt(int row) {
+        byte ordinal = priorities[row];
+        return ordinal == NO_PRIORITY ? null : PRIORITIES[ordinal];
+    }
+
+    synchronized long createdAtMillis(int row) {
+        return createdAt[row];
+    }
+
+    synchronized long dueAtMillis(int row) {
+        return dueAt[row];
+    }
+
+    synchronized long updatedAtMillis(int row) {
+        return updatedAt[row];
+    }
+
+    private void checkScope(Todo todo) {
+        if (todo.getOwnerId() != 0 && !scope.contains(todo)) {
+            throw new IllegalArgumentException("Todo " + todo.getId() + " does not belong to " + scope);
+        }
+    }
+
+    private void write(int row, Todo todo) {
+        checkScope(todo);
+        ids[row] = todo.getId();
+        versions[row] = todo.getVersion();
+        flags[row] = (byte) ((todo.isCompleted() ? FLAG_COMPLETED : 0)
+                | (todo.isDescriptionTruncated() ? FLAG_DESCRIPTION_TRUNCATED : 0));
+        priorities[row] = todo.getPriority() == null ? NO_PRIORITY : (byte) todo.getPriority().ordinal();
+        createdAt[row] = encode(todo.getCreatedAt());
+        dueAt[row] = encode(todo.getDueDate());
+        updatedAt[row] = encode(todo.getUpdatedAt());
+        titles[row] = strings.intern(todo.getTitle());
+        descriptions[row] = strings.intern(todo.getDescription());
+        recurrenceRules[row] = strings.intern(todo.getRecurrenceRule());
+    }
+
+    private void releaseStrings(int row) {
+        strings.release(titles[row]);
+        strings.release(descriptions[row]);
+        strings.release(recurrenceRules[row]);
+    }
+
+    private boolean contentEquals(int row, Todo todo) {
+        return Objects.equals(titles[row], todo.getTitle())
+                && Objects.equals(descriptions[row], todo.getDescription())
+                && descriptionTruncatedAt(row) == todo.isDescriptionTruncated()
+                && priorityAt(row) == todo.getPriority()
+                && completedAt(row) == todo.isCompleted()
+                && createdAt[row] == encode(todo.getCreatedAt())
+                && dueAt[row] == encode(todo.getDueDate())
+                && Objects.equals(recurrenceRules[row], todo.getRecurrenceRule());
+    }
+
+    private void shift(int from, int to, int length) {
+        System.arraycopy(ids, from, ids, to, length);
+        System.arraycopy(versions, from, versions, to, length);
+        System.arraycopy(flags, from, flags, to, length);
+        System.arraycopy(priorities, from, priorities, to, length);
+        System.arraycopy(createdAt, from, createdAt, to, length);
+        System.arraycopy(dueAt, from, dueAt, to, length);
+        System.arraycopy(updatedAt, from, updatedAt, to, length);
+        System.arraycopy(titles, from, titles, to, length);
+        System.arraycopy(descriptions, from, descriptions, to, length);
+        System.arraycopy(recurrenceRules, from, recurrenceRules, to, length);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        dueAt = Arrays.copyOf(dueAt, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        recurrenceRules = Arrays.copyOf(recurrenceRules, capacity);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+    }
+
+    private static long arrayBytes(int elementSize, int length) {
+        return align(16L + (long) elementSize * length);
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 24 + arrayBytes(1, value.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,199 @@
+package org.example.demo.service.store;
+
+import org.example.demo.model.Todo;
+import org.example.demo.model.TodoScope;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * The todos of one scope as they were last shown, persisted so the next launch can render them before the
+ * database has answered.
+ * <p>
+ * File layout (big-endian): a header with magic, format version, scope, save time, high watermark and row count,
+ * then the rows, then a CRC32 over everything before it. Files are read and written through memory mappings
+ * and replaced atomically, so a reader sees either the old or the new snapshot. Unknown versions and files
+ * that fail the checksum are ignored rather than repaired; the database stays the source of truth.
+ *
+ * @param savedAtMillis when the snapshot was taken, epoch millis
+ * @param highWatermark latest {@link Todo#getUpdatedAt()} among the rows; rows changed in the database at or
+ *                      after it must be fetched again. Null if no row came from the database.
+ */
+public record TodoSnapshot(TodoScope scope, long savedAtMillis, LocalDateTime highWatermark, List<Todo> todos) {
+    private static final int MAGIC = 0x54444f53; // "TDOS"
+    static final short VERSION = 3;
+    private static final byte FLAG_COMPLETED = 1;
+    private static final byte FLAG_DESCRIPTION_TRUNCATED = 2;
+    private static final int HEADER_BYTES = 4 + 2 + 4 + 4 + 8 + 8 + 4;
+    private static final int CRC_BYTES = 8;
+
+    /**
+     * Snapshot of {@code todos}, which must be detached copies.
+     */
+    public static TodoSnapshot of(TodoScope scope, List<Todo> todos) {
+        LocalDateTime highWatermark = todos.stream()
+                .map(Todo::getUpdatedAt)
+                .filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo)
+                .orElse(null);
+        return new TodoSnapshot(scope, System.currentTimeMillis(), highWatermark, List.copyOf(todos));
+    }
+
+    /**
+     * Reads a snapshot, or returns empty if the file is missing, from another format version, or damaged.
+     *
+     * @throws IOException if the file exists but cannot be read
+     */
+    public static Optional<TodoSnapshot> read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + CRC_BYTES || size > Integer.MAX_VALUE) {
+                return Optional.empty();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                return Optional.empty();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(0).limit((int) size - CRC_BYTES));
+            if (crc.getValue() != buffer.getLong((int) size - CRC_BYTES)) {
+                return Optional.empty();
+            }
+            TodoScope scope = new TodoScope(buffer.getInt(), buffer.getInt());
+            long savedAt = buffer.getLong();
+            LocalDateTime highWatermark = TodoColumnStore.decode(buffer.getLong());
+            int count = buffer.getInt();
+            List<Todo> todos = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                todos.add(readTodo(buffer, scope));
+            }
+            return Optional.of(new TodoSnapshot(scope, savedAt, highWatermark, todos));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            // Passed the checksum but does not parse: written by a buggy version, treat as absent
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the snapshot to a temporary file next to {@code path} and moves it into place.
+     */
+    public long write(Path path) throws IOException {
+        List<byte[][]> strings = new ArrayList<>(todos.size());
+        long size = HEADER_BYTES + CRC_BYTES;
+        for (Todo todo : todos) {
+            byte[][] encoded = {utf8(todo.getTitle()), utf8(todo.getDescription()), utf8(todo.getRecurrenceRule())};
+            strings.add(encoded);
+            size += 4 + 4 + 1 + 1 + 8 * 3;
+            for (byte[] bytes : encoded) {
+                size += 4 + (bytes != null ? bytes.length : 0);
+            }
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + todos.size() + " todos exceeds 2 GB");
+        }
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(MAGIC)
+                        .putShort(VERSION)
+                        .putInt(scope.ownerId())
+                        .putInt(scope.listId())
+                        .putLong(savedAtMillis)
+                        .putLong(TodoColumnStore.encode(highWatermark))
+                        .putInt(todos.size());
+                for (int i = 0; i < todos.size(); i++) {
+                    writeTodo(buffer, todos.get(i), strings.get(i));
+                }
+                CRC32 crc = new CRC32();
+                crc.update(buffer.duplicate().flip());
+                buffer.putLong(crc.getValue());
+                buffer.force();
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return size;
+    }
+
+    private static void writeTodo(ByteBuffer buffer, Todo todo, byte[][] strings) {
+        buffer.putInt(todo.getId())
+                .putInt(todo.getVersion())
+                .put((byte) (todo.getPriority() != null ? todo.getPriority().ordinal() : -1))
+                .put((byte) ((todo.isCompleted() ? FLAG_COMPLETED : 0)
+                        | (todo.isDescriptionTruncated() ? FLAG_DESCRIPTION_TRUNCATED : 0)))
+                .putLong(TodoColumnStore.encode(todo.getCreatedAt()))
+                .putLong(TodoColumnStore.encode(todo.getDueDate()))
+                .putLong(TodoColumnStore.encode(todo.getUpdatedAt()));
+        for (byte[] bytes : strings) {
+            if (bytes == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(bytes.length).put(bytes);
+            }
+        }
+    }
+
+    private static Todo readTodo(ByteBuffer buffer, TodoScope scope) {
+        int id = buffer.getInt();
+        int version = buffer.getInt();
+        byte priority = buffer.get();
+        byte flags = buffer.get();
+        LocalDateTime createdAt = TodoColumnStore.decode(buffer.getLong());
+        LocalDateTime dueDate = TodoColumnStore.decode(buffer.getLong());
+        LocalDateTime updatedAt = TodoColumnStore.decode(buffer.getLong());
+        return Todo.builder()
+                .id(id)
+                .ownerId(scope.ownerId())
+                .listId(scope.listId())
+                .priority(priority >= 0 ? Todo.Priority.values()[priority] : null)
+                .completed((flags & FLAG_COMPLETED) != 0)
+                .createdAt(createdAt)
+                .dueDate(dueDate)
+                .updatedAt(updatedAt)
+                .version(version)
+                .title(readString(buffer))
+                .description(readString(buffer))
+                .descriptionTruncated((flags & FLAG_DESCRIPTION_TRUNCATED) != 0)
+                .recurrenceRule(readString(buffer))
+                .build();
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("String length " + length + " beyond end of snapshot");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
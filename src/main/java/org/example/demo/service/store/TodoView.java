@@ -0,0 +1,87 @@
+package org.example.demo.service.store;
+
+import org.example.demo.model.Todo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flyweight cursor over one row of a {@link TodoColumnStore}. Reading through a view allocates nothing
+ * except the {@link LocalDateTime} getters; call {@link #toTodo()} only when a real object must escape.
+ * A view is repositioned in place, so never keep a reference to it past the current iteration.
+ */
+public final class TodoView {
+    private final TodoColumnStore store;
+    private int row;
+
+    TodoView(TodoColumnStore store) {
+        this.store = store;
+    }
+
+    void moveTo(int row) {
+        this.row = row;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getId() {
+        return store.idAt(row);
+    }
+
+    public String getTitle() {
+        return store.titleAt(row);
+    }
+
+    public String getDescription() {
+        return store.descriptionAt(row);
+    }
+
+    public boolean isDescriptionTruncated() {
+        return store.descriptionTruncatedAt(row);
+    }
+
+    public String getRecurrenceRule() {
+        return store.recurrenceRuleAt(row);
+    }
+
+    public Todo.Priority getPriority() {
+        return store.priorityAt(row);
+    }
+
+    public boolean isCompleted() {
+        return store.completedAt(row);
+    }
+
+    public long getDueEpochMillis() {
+        return store.dueAtMillis(row);
+    }
+
+    public boolean hasDueDate() {
+        return store.dueAtMillis(row) != TodoColumnStore.NO_DATE;
+    }
+
+    public LocalDateTime getDueDate() {
+        return TodoColumnStore.decode(store.dueAtMillis(row));
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return TodoColumnStore.decode(store.createdAtMillis(row));
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return TodoColumnStore.decode(store.updatedAtMillis(row));
+    }
+
+    /**
+     * Same rule as {@link Todo#isOverdue()}, evaluated on the packed columns.
+     */
+    public boolean isOverdue(long nowEpochMillis) {
+        long due = store.dueAtMillis(row);
+        return due != TodoColumnStore.NO_DATE && due < nowEpochMillis && !store.completedAt(row);
+    }
+
+    public Todo toTodo() {
+        return store.materialize(row);
+    }
+}
@@ -0,0 +1,277 @@
+package org.example.demo.service.sync;
+
+import org.example.demo.config.ConfigKey;
+import org.example.demo.dao.DataAccessException;
+import org.example.demo.dao.TodoChangeDAO;
+import org.example.demo.dao.TodoDAO;
+import org.example.demo.logging.LogSampler;
+import org.example.demo.metrics.MetricsRegistry;
+import org.example.demo.model.Todo;
+import org.example.demo.model.TodoChangeNotice;
+import org.example.demo.model.TodoScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows the change feed of the loaded scope so that rows written by other clients show up without a reload.
+ * <p>
+ * Every {@code sync.pollMs} the feed compares the scope's latest sequence number with the last one it has
+ * seen; that is a single primary key lookup while nothing changes. New notices from other clients are folded
+ * to one entry per todo, the affected rows are fetched in one query and handed to the {@link Listener}. Notices
+ * written by this process are skipped, since its own list already shows them.
+ * <p>
+ * Numbers in a scope's feed have no holes, so a missing number means notices were purged before this client
+ * read them. The same applies when more notices are waiting than {@code sync.maxNoticesPerPoll}. In both cases
+ * the feed pauses and asks the listener to catch up another way, then to {@link #resume} it at the sequence
+ * number read before catching up.
+ * <p>
+ * Notices older than {@code sync.retentionHours} are purged once an hour by every client.
+ */
+public class TodoChangeFeed implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TodoChangeFeed.class);
+    // Configuration keys
+    private static final ConfigKey<Boolean> ENABLED_KEY = ConfigKey.ofBoolean("sync.enabled", true);
+    private static final ConfigKey<Integer> POLL_MS_KEY = ConfigKey.ofInt("sync.pollMs", 1000, 100);
+    private static final ConfigKey<Integer> MAX_NOTICES_KEY = ConfigKey.ofInt("sync.maxNoticesPerPoll", 500, 1);
+    private static final ConfigKey<Integer> RETENTION_HOURS_KEY = ConfigKey.ofInt("sync.retentionHours", 24, 1);
+
+    private static final long PURGE_INTERVAL_MINUTES = 60;
+    /** A catch-up that has not resumed the feed by then is asked for again. */
+    private static final long GAP_RETRY_NANOS = TimeUnit.SECONDS.toNanos(30);
+    /** While the database is down every poll fails the same way. */
+    private static final LogSampler sampledLog = LogSampler.forSubsystem("sync");
+
+    /**
+     * Callbacks from the feed's thread; implementations must hop to their own thread.
+     */
+    public interface Listener {
+        /**
+         * Other clients wrote rows of {@code scope}: {@code changed} holds their current state, with description
+         * previews as in a list load, and {@code removedIds} the todos that no longer exist.
+         */
+        void onChanges(TodoScope scope, List<Todo> changed, Set<Integer> removedIds);
+
+        /**
+         * Notices of {@code scope} were missed. The feed is paused until {@link #resume} is called.
+         */
+        void onGap(TodoScope scope);
+    }
+
+    private final TodoDAO todoDAO;
+    private final TodoChangeDAO changeDAO;
+    private final Listener listener;
+    private final ScheduledExecutorService executor;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    // Guarded by this; a null scope means paused
+    private TodoScope scope;
+    private long lastSeq;
+    /** Scope waiting for a catch-up after a gap, and when it was asked for. */
+    private TodoScope gapScope;
+    private long gapSignalledAt;
+    private volatile boolean suspended;
+
+    public TodoChangeFeed(TodoDAO todoDAO, TodoChangeDAO changeDAO, Listener listener) {
+        this.todoDAO = todoDAO;
+        this.changeDAO = changeDAO;
+        this.listener = listener;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "todo-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metrics.registerGauge("sync.lastSequence", this::getLastSequence);
+    }
+
+    /**
+     * A running feed reading rows through {@code todoDAO}, or empty when {@code sync.enabled} is off. It stays
+     * paused until {@link #resume} is called.
+     */
+    public static Optional<TodoChangeFeed> start(TodoDAO todoDAO, Listener listener) {
+        if (!ENABLED_KEY.get()) {
+            logger.info("Change feed disabled; other clients' changes appear after a refresh");
+            return Optional.empty();
+        }
+        TodoChangeFeed feed = new TodoChangeFeed(todoDAO, new TodoChangeDAO(), listener);
+        feed.schedulePoll();
+        feed.executor.scheduleWithFixedDelay(feed::purge, 1, PURGE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        return Optional.of(feed);
+    }
+
+    /**
+     * The latest sequence number of {@code scope}. Read it before loading the scope's rows and pass it to
+     * {@link #resume} afterwards, so that nothing written in between is missed.
+     *
+     * @throws DataAccessException if the database cannot be read
+     */
+    public long currentSequence(TodoScope scope) {
+        return changeDAO.findLatestSequence(scope);
+    }
+
+    /**
+     * Follows {@code scope} from the notice after {@code seq} on.
+     */
+    public synchronized void resume(TodoScope scope, long seq) {
+        this.scope = scope;
+        this.lastSeq = seq;
+        this.gapScope = null;
+    }
+
+    /**
+     * Stops delivering changes until the next {@link #resume}, e.g. while another scope is loaded.
+     */
+    public synchronized void pause() {
+        scope = null;
+        gapScope = null;
+    }
+
+    /**
+     * While suspended, e.g. because the database is known to be unreachable, no polls are made. The position
+     * is kept, so nothing is missed.
+     */
+    public void setSuspended(boolean suspended) {
+        this.suspended = suspended;
+    }
+
+    public synchronized long getLastSequence() {
+        return scope != null ? lastSeq : -1;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void schedulePoll() {
+        try {
+            // Read on every poll, so that edits to the interval apply right away
+            executor.schedule(this::pollAndReschedule, POLL_MS_KEY.get(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Closed
+        }
+    }
+
+    private void pollAndReschedule() {
+        try {
+            poll();
+        } catch (DataAccessException e) {
+            sampledLog.debug(logger, "Change feed poll failed: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error in change feed", e);
+        } finally {
+            schedulePoll();
+        }
+    }
+
+    private void poll() {
+        if (suspended) {
+            return;
+        }
+        TodoScope pollScope;
+        long after;
+        TodoScope retryGap = null;
+        synchronized (this) {
+            pollScope = scope;
+            after = lastSeq;
+            if (gapScope != null && System.nanoTime() - gapSignalledAt > GAP_RETRY_NANOS) {
+                // The catch-up failed; ask again rather than stay paused for good
+                retryGap = gapScope;
+                gapSignalledAt = System.nanoTime();
+            }
+        }
+        if (retryGap != null) {
+            listener.onGap(retryGap);
+        }
+        if (pollScope == null) {
+            return;
+        }
+        long latest = changeDAO.findLatestSequence(pollScope);
+        if (latest == after) {
+            return;
+        }
+        if (latest < after || latest - after > MAX_NOTICES_KEY.get()) {
+            // Counters reset, or so far behind that catching up is cheaper than patching row by row
+            signalGap(pollScope, after, latest);
+            return;
+        }
+        List<TodoChangeNotice> notices = changeDAO.findSince(pollScope, after, (int) (latest - after));
+        // Latest state per todo in feed order; a later write by this process makes earlier notices moot
+        Map<Integer, Boolean> deletedById = new LinkedHashMap<>();
+        long expected = after + 1;
+        for (TodoChangeNotice notice : notices) {
+            if (notice.seq() != expected) {
+                signalGap(pollScope, after, latest);
+                return;
+            }
+            expected++;
+            if (TodoChangeDAO.ORIGIN.equals(notice.origin())) {
+                deletedById.remove(notice.todoId());
+            } else {
+                deletedById.put(notice.todoId(), notice.deleted());
+            }
+        }
+        if (expected != latest + 1) {
+            signalGap(pollScope, after, latest);
+            return;
+        }
+
+        Set<Integer> upsertedIds = new HashSet<>();
+        Set<Integer> removedIds = new HashSet<>();
+        deletedById.forEach((id, deleted) -> (deleted ? removedIds : upsertedIds).add(id));
+        List<Todo> changed = todoDAO.findByIds(pollScope, upsertedIds);
+        // Rows written and then deleted since are gone as well
+        changed.forEach(todo -> upsertedIds.remove(todo.getId()));
+        removedIds.addAll(upsertedIds);
+
+        synchronized (this) {
+            if (!pollScope.equals(scope) || lastSeq != after) {
+                // Paused or moved meanwhile; whoever did that has loaded newer rows
+                return;
+            }
+            lastSeq = latest;
+        }
+        metrics.add("sync.notices", notices.size());
+        if (changed.isEmpty() && removedIds.isEmpty()) {
+            return;
+        }
+        metrics.add("sync.rowsPatched", changed.size() + removedIds.size());
+        logger.debug("Change feed of {} at {}: {} changed, {} removed", pollScope, latest, changed.size(), removedIds.size());
+        listener.onChanges(pollScope, changed, removedIds);
+    }
+
+    private void signalGap(TodoScope pollScope, long after, long latest) {
+        synchronized (this) {
+            if (!pollScope.equals(scope) || lastSeq != after) {
+                return;
+            }
+            scope = null;
+            gapScope = pollScope;
+            gapSignalledAt = System.nanoTime();
+        }
+        metrics.increment("sync.gaps");
+        logger.info("Change feed of {} skipped from {} to {}, catching up", pollScope, after, latest);
+        listener.onGap(pollScope);
+    }
+
+    private void purge() {
+        try {
+            int purged = changeDAO.purgeOlderThan(RETENTION_HOURS_KEY.get());
+            if (purged > 0) {
+                logger.info("Purged {} change notice(s) older than {}h", purged, RETENTION_HOURS_KEY.get());
+                metrics.add("sync.purged", purged);
+            }
+        } catch (DataAccessException e) {
+            sampledLog.debug(logger, "Purging change notices failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.demo.service.sync;
+
+import org.example.demo.model.Todo;
+
+import java.util.Set;
+
+/**
+ * An edit that was saved merged with a concurrent change by another client, where both changed the same
+ * {@code fields}. {@code saved} is what the database now holds, with the other client's values in those fields.
+ *
+ * @param mine the edit as the user made it
+ */
+public record TodoConflict(Todo saved, Todo mine, Set<TodoMerge.Field> fields) {
+    public TodoConflict {
+        fields = Set.copyOf(fields);
+    }
+
+    /**
+     * A copy of {@code saved} with the user's values in the conflicting fields, ready to be saved on top of it.
+     */
+    public Todo withMine() {
+        Todo resolved = saved.copy();
+        fields.forEach(field -> field.copy(mine, resolved));
+        return resolved;
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.demo.service.sync;
+
+import org.example.demo.model.Todo;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Three-way merge of two concurrent edits of a todo, field by field. A field changed on one side only takes
+ * that side's value; a field changed on both sides to different values is a conflict and keeps the value of
+ * {@code theirs}, which is already stored, so nobody's change is overwritten without being asked.
+ */
+public final class TodoMerge {
+
+    /**
+     * The fields a user edits.
+     */
+    public enum Field {
+        TITLE("title", new FieldAccess<>(Todo::getTitle, Todo::setTitle)),
+        DESCRIPTION("description", new FieldAccess<>(Todo::getDescription, (todo, value) -> {
+            todo.setDescription(value);
+            todo.setDescriptionTruncated(false);
+        })),
+        PRIORITY("priority", new FieldAccess<>(Todo::getPriority, Todo::setPriority)),
+        COMPLETED("completed", new FieldAccess<>(Todo::isCompleted, Todo::setCompleted)),
+        DUE_DATE("due date", new FieldAccess<>(Todo::getDueDate, Todo::setDueDate)),
+        RECURRENCE("recurrence", new FieldAccess<>(Todo::getRecurrenceRule, Todo::setRecurrenceRule));
+
+        private final String label;
+        private final FieldAccess<?> access;
+
+        Field(String label, FieldAccess<?> access) {
+            this.label = label;
+            this.access = access;
+        }
+
+        /**
+         * Copies this field's value from {@code source} to {@code target}.
+         */
+        public void copy(Todo source, Todo target) {
+            access.copy(source, target);
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+
+        /**
+         * Whether {@code edited} changed this field relative to {@code base}. A description preview was not
+         * edited, and one compared with a base preview only counts as changed if it no longer starts with it.
+         */
+        boolean changed(Todo base, Todo edited) {
+            if (this == DESCRIPTION) {
+                if (edited.isDescriptionTruncated()) {
+                    return false;
+                }
+                if (base.isDescriptionTruncated()) {
+                    return edited.getDescription() == null || !edited.getDescription().startsWith(base.getDescription());
+                }
+            }
+            return !access.sameValue(base, edited);
+        }
+
+        boolean sameValue(Todo a, Todo b) {
+            if (this == DESCRIPTION && (a.isDescriptionTruncated() || b.isDescriptionTruncated())) {
+                // A preview tells nothing about the rest of the text
+                return false;
+            }
+            return access.sameValue(a, b);
+        }
+    }
+
+    /**
+     * Reads and writes one field of a todo with its own value type.
+     */
+    private record FieldAccess<T>(Function<Todo, T> getter, BiConsumer<Todo, T> setter) {
+
+        void copy(Todo source, Todo target) {
+            setter.accept(target, getter.apply(source));
+        }
+
+        boolean sameValue(Todo a, Todo b) {
+            return Objects.equals(getter.apply(a), getter.apply(b));
+        }
+    }
+
+    /**
+     * @param merged    {@code theirs} with every change of {@code mine} that does not conflict, at their version
+     * @param conflicts fields both sides changed to different values; {@code merged} holds their value
+     */
+    public record Result(Todo merged, Set<Field> conflicts) {
+        public Result {
+            conflicts = Set.copyOf(conflicts);
+        }
+
+        public boolean isClean() {
+            return conflicts.isEmpty();
+        }
+    }
+
+    private TodoMerge() {
+    }
+
+    /**
+     * Merges {@code mine} into {@code theirs}. Without a {@code base}, every field in which the two differ
+     * counts as changed on both sides.
+     */
+    public static Result merge(Todo base, Todo mine, Todo theirs) {
+        Todo merged = theirs.copy();
+        Set<Field> conflicts = EnumSet.noneOf(Field.class);
+        for (Field field : Field.values()) {
+            boolean mineChanged = field.changed(base != null ? base : theirs, mine);
+            if (!mineChanged || field.sameValue(mine, theirs)) {
+                continue;
+            }
+            boolean theirsChanged = base == null || field.changed(base, theirs);
+            if (theirsChanged) {
+                conflicts.add(field);
+            } else {
+                field.copy(mine, merged);
+            }
+        }
+        return new Result(merged, conflicts);
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.demo.service.trace;
+
+/**
+ * Line format of recorded user operations, as written by {@link TraceRecorder} and read by the replay tool
+ * ({@code org.example.demo.tools.WorkloadTool}). One operation per line, fields separated by tabs:
+ * <pre>
+ * offsetMs  kind  todoId  text
+ * </pre>
+ * {@code offsetMs} counts from the start of the recording, {@code todoId} is the todo operated on or created
+ * (0 for a search), and {@code text} the title added or the query searched for. Tabs and line breaks in the
+ * text are replaced by spaces.
+ */
+public final class OperationTrace {
+
+    public enum Kind { ADD, TOGGLE, SEARCH, DELETE }
+
+    public record Operation(long offsetMs, Kind kind, int todoId, String text) {
+        public Operation {
+            text = text == null ? "" : text.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+        }
+    }
+
+    private OperationTrace() {
+    }
+
+    public static String format(Operation operation) {
+        return operation.offsetMs() + "\t" + operation.kind() + "\t" + operation.todoId() + "\t" + operation.text();
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code line} is not a trace line
+     */
+    public static Operation parse(String line) {
+        String[] fields = line.split("\t", 4);
+        if (fields.length < 3) {
+            throw new IllegalArgumentException("Not a trace line: " + line);
+        }
+        try {
+            return new Operation(Long.parseLong(fields[0]), Kind.valueOf(fields[1]), Integer.parseInt(fields[2]),
+                    fields.length > 3 ? fields[3] : "");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Not a trace line: " + line, e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.demo.service.trace;
+
+import org.example.demo.config.ConfigKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the user's operations to {@code trace.recordPath} in the {@link OperationTrace} format, so that a
+ * real session can be replayed against another dataset. The file is written on a background thread; the
+ * calling thread, usually the FX thread, only queues the line.
+ * <p>
+ * The trace holds the titles added and the queries searched for, so it is off unless a path is configured.
+ */
+public class TraceRecorder implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TraceRecorder.class);
+    // Configuration keys
+    private static final ConfigKey<String> RECORD_PATH_KEY = ConfigKey.ofString("trace.recordPath", "");
+
+    private final BufferedWriter writer;
+    private final long startNanos = System.nanoTime();
+    private final ExecutorService executor;
+
+    public TraceRecorder(BufferedWriter writer) {
+        this.writer = writer;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "todo-trace");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * A recorder writing to the configured file, replacing an earlier trace; empty if none is configured or
+     * the file cannot be opened.
+     */
+    public static Optional<TraceRecorder> start() {
+        String path = RECORD_PATH_KEY.get();
+        if (path == null || path.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            BufferedWriter writer = Files.newBufferedWriter(Path.of(path), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            logger.info("Recording user operations to {}", path);
+            return Optional.of(new TraceRecorder(writer));
+        } catch (IOException e) {
+            logger.warn("Cannot record user operations to {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void record(OperationTrace.Kind kind, int todoId, String text) {
+        long offsetMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        String line = OperationTrace.format(new OperationTrace.Operation(offsetMs, kind, todoId, text));
+        try {
+            executor.execute(() -> write(line));
+        } catch (RejectedExecutionException e) {
+            // Closed
+        }
+    }
+
+    private void write(String line) {
+        try {
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException e) {
+            logger.warn("Could not record operation: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the queued operations and closes the file.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Trace writer did not finish, the trace may be incomplete");
+            }
+            writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.warn("Could not close the trace: {}", e.getMessage());
+        }
+    }
+}
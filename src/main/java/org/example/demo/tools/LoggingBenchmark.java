@@ -0,0 +1,148 @@
+package org.example.demo.tools;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Measures how long logging blocks the calling thread, which in the app is the FX thread running an event
+ * handler. The same workload runs in two child JVMs: once with the former synchronous console configuration
+ * ("before") and once with the application's {@code logback.xml} ("after"), and latency percentiles of both
+ * are printed side by side.
+ * <p>
+ * The workload is bursts of handler calls, each logging two INFO lines like a completion toggle used to,
+ * separated by pauses as between user actions. Console output of the children is discarded, so the numbers
+ * leave out terminal rendering, which only adds to the synchronous case. Log files of the "after" run go to
+ * a temporary directory.
+ * <p>
+ * Usage: {@code java -cp <runtime classpath> org.example.demo.tools.LoggingBenchmark [bursts] [burstSize] [pauseMs]}
+ */
+public final class LoggingBenchmark {
+    private static final String CHILD = "--child";
+    private static final String RESULT = "RESULT";
+
+    /** The console configuration before logging became asynchronous. */
+    private static final String SYNC_CONFIG = """
+            <configuration>
+                <appender name="STDOUT" class="ch.qos.logback.core.ConsoleAppender">
+                    <target>System.out</target>
+                    <encoder class="ch.qos.logback.classic.encoder.PatternLayoutEncoder">
+                        <pattern>%d{HH:mm:ss.SSS} [%thread] %highlight(%-5level) %cyan(%logger{36}) - %msg%n</pattern>
+                    </encoder>
+                    <withJansi>true</withJansi>
+                </appender>
+                <root level="INFO">
+                    <appender-ref ref="STDOUT" />
+                </root>
+                <statusListener class="ch.qos.logback.core.status.NopStatusListener" />
+            </configuration>
+            """;
+
+    private LoggingBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && CHILD.equals(args[0])) {
+            runChild(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+            return;
+        }
+        String bursts = args.length > 0 ? args[0] : "200";
+        String burstSize = args.length > 1 ? args[1] : "50";
+        String pauseMillis = args.length > 2 ? args[2] : "20";
+        System.out.printf("%d bursts of %d handler calls, %d ms apart; latency per call in microseconds%n",
+                Integer.parseInt(bursts), Integer.parseInt(burstSize), Integer.parseInt(pauseMillis));
+        System.out.printf("%-8s %10s %10s %10s %10s %10s%n", "", "mean", "p50", "p99", "p99.9", "max");
+        for (String mode : List.of("before", "after")) {
+            System.out.println(fork(mode, bursts, burstSize, pauseMillis));
+        }
+    }
+
+    private static String fork(String mode, String bursts, String burstSize, String pauseMillis)
+            throws IOException, InterruptedException {
+        String classPath = System.getProperty("java.class.path");
+        if (classPath == null || classPath.isBlank()) {
+            throw new IllegalStateException("Run the benchmark from the class path, not as a module");
+        }
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Path logDir = Files.createTempDirectory("logging-benchmark");
+        List<String> command = new ArrayList<>(List.of(java, "-cp", classPath, "-Dtodo.log.dir=" + logDir));
+        if ("before".equals(mode)) {
+            Path config = logDir.resolve("logback-sync.xml");
+            Files.writeString(config, SYNC_CONFIG);
+            command.add("-Dlogback.configurationFile=" + config);
+        }
+        command.addAll(List.of(LoggingBenchmark.class.getName(), CHILD, mode, bursts, burstSize, pauseMillis));
+        try {
+            Process process = new ProcessBuilder(command)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            String result = null;
+            try (BufferedReader errors = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = errors.readLine()) != null) {
+                    if (line.startsWith(RESULT)) {
+                        result = line.substring(RESULT.length()).trim();
+                    }
+                }
+            }
+            if (process.waitFor() != 0 || result == null) {
+                throw new IllegalStateException("Benchmark run '" + mode + "' failed with exit code " + process.exitValue());
+            }
+            return result;
+        } finally {
+            deleteRecursively(logDir);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static void runChild(String mode, int bursts, int burstSize, int pauseMillis) throws InterruptedException {
+        // Named like the controller whose handlers used to log this way
+        Logger log = LoggerFactory.getLogger("org.example.demo.controller.TodoMainController");
+        // Warm up the JIT and the appenders with the same workload
+        measure(log, Math.max(1, bursts / 4), burstSize, pauseMillis);
+        long[] nanos = measure(log, bursts, burstSize, pauseMillis);
+        Arrays.sort(nanos);
+        double mean = Arrays.stream(nanos).average().orElse(0);
+        System.err.printf(Locale.ROOT, "%s %-8s %10.1f %10.1f %10.1f %10.1f %10.1f%n", RESULT, mode,
+                mean / 1000, percentile(nanos, 0.50) / 1000, percentile(nanos, 0.99) / 1000,
+                percentile(nanos, 0.999) / 1000, nanos[nanos.length - 1] / 1000.0);
+    }
+
+    private static long[] measure(Logger log, int bursts, int burstSize, int pauseMillis) throws InterruptedException {
+        long[] nanos = new long[bursts * burstSize];
+        int call = 0;
+        for (int burst = 0; burst < bursts; burst++) {
+            for (int i = 0; i < burstSize; i++) {
+                long start = System.nanoTime();
+                log.info("Toggling completion status for todo: {} (current: {})", "Todo " + i, i % 2 == 0);
+                log.info("Successfully toggled completion for todo: {}", "Todo " + i);
+                nanos[call++] = System.nanoTime() - start;
+            }
+            Thread.sleep(pauseMillis);
+        }
+        return nanos;
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
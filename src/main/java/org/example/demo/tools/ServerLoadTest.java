@@ -0,0 +1,295 @@
+package org.example.demo.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Load test for the todo server ({@code org.example.demo.server.TodoServer}). A number of simulated clients,
+ * each on its own virtual thread, work on one list for a fixed time, and throughput and latency percentiles
+ * are printed per operation.
+ * <p>
+ * A client mostly reads: it pages through the list, revalidating pages it has seen with {@code If-None-Match}
+ * as a polling client would, and opens single todos. Every tenth operation creates or updates a todo. All
+ * requests accept gzip. Unchanged pages answered with 304 and failed requests are counted separately.
+ * <p>
+ * The list is seeded with {@code seed} todos first. Writes go to the real database, so point the server at a
+ * test schema.
+ * <p>
+ * Usage: {@code java -cp <runtime classpath> org.example.demo.tools.ServerLoadTest
+ * [baseUrl] [clients] [seconds] [ownerId] [listId] [seed]}
+ */
+public final class ServerLoadTest {
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+    private static final Pattern NEXT = Pattern.compile("\"next\":\"([^\"]+)\"");
+
+    private enum Operation { PAGE, GET, CREATE, UPDATE }
+
+    private final HttpClient client;
+    private final String todosUrl;
+
+    private ServerLoadTest(HttpClient client, String todosUrl) {
+        this.client = client;
+        this.todosUrl = todosUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int ownerId = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        int listId = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+        int seed = args.length > 5 ? Integer.parseInt(args[5]) : 500;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            ServerLoadTest test = new ServerLoadTest(client,
+                    baseUrl + "/api/owners/" + ownerId + "/lists/" + listId + "/todos");
+            test.seed(seed);
+
+            System.out.printf("%d clients for %d s against %s%n", clients, seconds, test.todosUrl);
+            long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+            List<Client> workers = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                Client worker = test.new Client(deadline);
+                workers.add(worker);
+                executor.submit(worker);
+            }
+            executor.shutdown();
+            executor.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+            report(workers, seconds);
+        }
+    }
+
+    private void seed(int count) throws IOException, InterruptedException {
+        for (int i = 0; i < count; i++) {
+            HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(todosUrl))
+                    .POST(HttpRequest.BodyPublishers.ofString(newTodo(i))));
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed with HTTP " + response.statusCode() + ": " + text(response));
+            }
+        }
+    }
+
+    private static String newTodo(int n) {
+        return "{\"title\":\"Load test todo " + n + "\",\"description\":\"" + "Generated by the load test. ".repeat(1 + n % 8)
+                + "\",\"priority\":\"" + (n % 3 == 0 ? "HIGH" : n % 3 == 1 ? "MEDIUM" : "LOW") + "\"}";
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request
+                .header("Accept-Encoding", "gzip")
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String text(HttpResponse<byte[]> response) throws IOException {
+        boolean gzipped = response.headers().firstValue("Content-Encoding").filter("gzip"::equals).isPresent();
+        try (InputStream body = gzipped
+                ? new GZIPInputStream(new ByteArrayInputStream(response.body()))
+                : new ByteArrayInputStream(response.body())) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * One simulated client with its own latencies, so recording needs no synchronization.
+     */
+    private final class Client implements Runnable {
+        private final long deadline;
+        private final Map<Operation, Latencies> latencies = new EnumMap<>(Operation.class);
+        private final List<Integer> knownIds = new ArrayList<>();
+        /** ETag and next cursor of each page URL received, to revalidate it and move on after a 304. */
+        private final Map<String, String[]> seenPages = new HashMap<>();
+        private String nextCursor;
+        private long notModified;
+        private long errors;
+        private long bytesReceived;
+
+        Client(long deadline) {
+            this.deadline = deadline;
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new Latencies());
+            }
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int n = 0;
+            while (System.nanoTime() < deadline) {
+                Operation operation = ++n % 10 == 0
+                        ? (random.nextBoolean() ? Operation.CREATE : Operation.UPDATE)
+                        : (knownIds.isEmpty() || random.nextInt(3) > 0 ? Operation.PAGE : Operation.GET);
+                long start = System.nanoTime();
+                try {
+                    if (execute(operation, random)) {
+                        latencies.get(operation).add(System.nanoTime() - start);
+                    } else {
+                        errors++;
+                    }
+                } catch (IOException e) {
+                    errors++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private boolean execute(Operation operation, ThreadLocalRandom random) throws IOException, InterruptedException {
+            return switch (operation) {
+                case PAGE -> page();
+                case GET -> get(knownIds.get(random.nextInt(knownIds.size())));
+                case CREATE -> create(random.nextInt(1000));
+                case UPDATE -> knownIds.isEmpty() ? page() : update(knownIds.get(random.nextInt(knownIds.size())));
+            };
+        }
+
+        /**
+         * The next page, or the first one after the last; pages seen before are revalidated.
+         */
+        private boolean page() throws IOException, InterruptedException {
+            String url = todosUrl + "?limit=50" + (nextCursor != null ? "&after=" + nextCursor : "");
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).GET();
+            String[] seen = seenPages.get(url);
+            if (seen != null) {
+                request.header("If-None-Match", seen[0]);
+            }
+            HttpResponse<byte[]> response = send(request);
+            bytesReceived += response.body().length;
+            if (response.statusCode() == 304) {
+                notModified++;
+                nextCursor = seen[1];
+                return true;
+            }
+            if (response.statusCode() != 200) {
+                return false;
+            }
+            String json = text(response);
+            Matcher ids = ID.matcher(json);
+            while (ids.find() && knownIds.size() < 1000) {
+                knownIds.add(Integer.parseInt(ids.group(1)));
+            }
+            Matcher next = NEXT.matcher(json);
+            nextCursor = next.find() ? next.group(1) : null;
+            String cursor = nextCursor;
+            response.headers().firstValue("ETag").ifPresent(etag -> seenPages.put(url, new String[] {etag, cursor}));
+            return true;
+        }
+
+        private boolean get(int id) throws IOException, InterruptedException {
+            HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(todosUrl + "/" + id)).GET());
+            bytesReceived += response.body().length;
+            if (response.statusCode() == 404) {
+                knownIds.remove(Integer.valueOf(id));
+                return true;
+            }
+            return response.statusCode() == 200;
+        }
+
+        private boolean create(int n) throws IOException, InterruptedException {
+            HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(todosUrl))
+                    .POST(HttpRequest.BodyPublishers.ofString(newTodo(n))));
+            bytesReceived += response.body().length;
+            return response.statusCode() == 201;
+        }
+
+        private boolean update(int id) throws IOException, InterruptedException {
+            String body = "{\"completed\":" + ThreadLocalRandom.current().nextBoolean() + "}";
+            HttpResponse<byte[]> response = send(HttpRequest.newBuilder(URI.create(todosUrl + "/" + id))
+                    .PUT(HttpRequest.BodyPublishers.ofString(body)));
+            bytesReceived += response.body().length;
+            // 409: other clients kept updating the same todo
+            return response.statusCode() == 200 || response.statusCode() == 404 || response.statusCode() == 409;
+        }
+    }
+
+    /**
+     * Growable array of latencies in nanoseconds.
+     */
+    private static final class Latencies {
+        private long[] nanos = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+        }
+
+        void addAll(Latencies other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.nanos[i]);
+            }
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(nanos, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    private static void report(List<Client> workers, int seconds) {
+        Map<Operation, Latencies> merged = new EnumMap<>(Operation.class);
+        long notModified = 0;
+        long errors = 0;
+        long bytes = 0;
+        for (Operation operation : Operation.values()) {
+            merged.put(operation, new Latencies());
+        }
+        for (Client worker : workers) {
+            worker.latencies.forEach((operation, latencies) -> merged.get(operation).addAll(latencies));
+            notModified += worker.notModified;
+            errors += worker.errors;
+            bytes += worker.bytesReceived;
+        }
+        System.out.printf("%-8s %10s %10s %10s %10s %10s %10s%n", "", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        Latencies all = new Latencies();
+        for (Map.Entry<Operation, Latencies> entry : merged.entrySet()) {
+            printRow(entry.getKey().name().toLowerCase(Locale.ROOT), entry.getValue().sorted(), seconds);
+            all.addAll(entry.getValue());
+        }
+        printRow("total", all.sorted(), seconds);
+        System.out.printf("not modified (304): %d, failed: %d, received: %.1f MB%n", notModified, errors, bytes / 1e6);
+    }
+
+    private static void printRow(String label, long[] sorted, int seconds) {
+        if (sorted.length == 0) {
+            System.out.printf("%-8s %10d%n", label, 0);
+            return;
+        }
+        System.out.printf(Locale.ROOT, "%-8s %10d %10.1f %10.2f %10.2f %10.2f %10.2f%n", label, sorted.length,
+                (double) sorted.length / seconds, percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.90) / 1e6,
+                percentile(sorted, 0.99) / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
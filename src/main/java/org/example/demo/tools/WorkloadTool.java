@@ -0,0 +1,476 @@
+package org.example.demo.tools;
+
+import javafx.application.Platform;
+import org.example.demo.config.DatabaseConfig;
+import org.example.demo.model.Todo;
+import org.example.demo.model.TodoScope;
+import org.example.demo.service.TodoService;
+import org.example.demo.service.trace.OperationTrace;
+import org.example.demo.service.trace.OperationTrace.Kind;
+import org.example.demo.service.trace.OperationTrace.Operation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Production-sized workloads for the desktop app, in three commands:
+ * <ul>
+ * <li>{@code generate} writes a synthetic dataset straight into the {@code todos} table of the configured
+ * database, with multi-row inserts committed per batch. Priority mix, share of completed todos, due dates
+ * spread around today and description lengths (log-normal around a median) are configurable; a seed makes
+ * the dataset reproducible. The rows are not announced on the change feed, so open clients see them after a
+ * refresh.
+ * <li>{@code trace} writes a synthetic operation trace with Poisson arrivals, for when no recorded one is at
+ * hand. The app records real ones when {@code trace.recordPath} is set.
+ * <li>{@code replay} starts the JavaFX toolkit, loads {@link TodoService} as the app does and runs a trace
+ * against it on the FX thread, scaled by {@code speed}; 0 runs the operations back to back. Latencies count
+ * from the moment an operation was due, so a backed-up FX thread shows up in the tail. Todos a trace refers
+ * to that do not exist in the replayed list are replaced by random listed ones.
+ * </ul>
+ * Options are given as {@code name=value}. All commands work on the configured database and list, so point
+ * them at a test schema; {@code -Dapp.user.id} and {@code -Dapp.list.id} choose the list to replay against.
+ * Replaying needs a display.
+ * <p>
+ * Usage: {@code java -cp <runtime classpath> org.example.demo.tools.WorkloadTool
+ * generate [count=] [owner=] [list=] [seed=] [priorities=LOW:MEDIUM:HIGH] [completed=%] [due=%]
+ * [dueSpreadDays=] [historyDays=] [descriptionChars=] [batchSize=]}, {@code
+ * trace <file> [operations=] [rate=per second] [seed=] [mix=ADD:TOGGLE:SEARCH:DELETE]} or {@code
+ * replay <file> [speed=] [seed=]}
+ */
+public final class WorkloadTool {
+    private static final String[] WORDS = {
+            "review", "budget", "report", "call", "email", "plan", "draft", "update", "team", "meeting", "invoice",
+            "release", "test", "deploy", "design", "customer", "order", "renew", "license", "book", "flight",
+            "doctor", "groceries", "garden", "clean", "kitchen", "pay", "rent", "tax", "return", "prepare",
+            "slides", "quarterly", "goals", "backup", "laptop", "fix", "bug", "write", "notes", "read", "article"
+    };
+    private static final int SEARCH_LIMIT = 200;
+    private static final int MAX_DESCRIPTION_CHARS = 20_000;
+
+    private WorkloadTool() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: WorkloadTool generate|trace|replay [file] [name=value ...]");
+            System.exit(2);
+        }
+        switch (args[0]) {
+            case "generate" -> generate(new Options(args, 1));
+            case "trace" -> trace(Path.of(args[1]), new Options(args, 2));
+            case "replay" -> replay(Path.of(args[1]), new Options(args, 2));
+            default -> throw new IllegalArgumentException("Unknown command '" + args[0] + "'");
+        }
+    }
+
+    private static void generate(Options options) throws SQLException {
+        int count = options.getInt("count", 10_000);
+        TodoScope scope = new TodoScope(options.getInt("owner", 1), options.getInt("list", 1));
+        Random random = new Random(options.getInt("seed", 42));
+        int[] priorityWeights = options.getWeights("priorities", "1:2:1", Todo.Priority.values().length);
+        double completedShare = options.getInt("completed", 30) / 100.0;
+        double dueShare = options.getInt("due", 60) / 100.0;
+        int dueSpreadDays = options.getInt("dueSpreadDays", 14);
+        int historyDays = options.getInt("historyDays", 365);
+        int descriptionChars = options.getInt("descriptionChars", 120);
+        int batchSize = options.getInt("batchSize", 500);
+        options.rejectUnknown();
+
+        System.out.printf("Generating %d todos in %s%n", count, scope);
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            for (int written = 0; written < count; ) {
+                int rows = Math.min(batchSize, count - written);
+                try (PreparedStatement stmt = conn.prepareStatement(insertSql(rows))) {
+                    int index = 1;
+                    for (int row = 0; row < rows; row++) {
+                        LocalDateTime createdAt = now.minusSeconds((long) (random.nextDouble() * historyDays * 86_400));
+                        // Last change, which for a completed todo is its completion
+                        LocalDateTime updatedAt = createdAt.plusSeconds(
+                                (long) (random.nextDouble() * Duration.between(createdAt, now).toSeconds()));
+                        LocalDateTime dueDate = random.nextDouble() < dueShare
+                                ? now.plusMinutes(Math.round(random.nextGaussian() * dueSpreadDays * 1440)) : null;
+                        stmt.setInt(index++, scope.ownerId());
+                        stmt.setInt(index++, scope.listId());
+                        stmt.setString(index++, title(random));
+                        stmt.setString(index++, description(random, descriptionChars));
+                        stmt.setString(index++, Todo.Priority.values()[pick(random, priorityWeights)].name());
+                        stmt.setBoolean(index++, random.nextDouble() < completedShare);
+                        stmt.setTimestamp(index++, Timestamp.valueOf(createdAt));
+                        stmt.setTimestamp(index++, dueDate != null ? Timestamp.valueOf(dueDate) : null);
+                        stmt.setTimestamp(index++, Timestamp.valueOf(updatedAt));
+                    }
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+                written += rows;
+                if (written % (batchSize * 20) == 0 || written == count) {
+                    System.out.printf("  %d rows%n", written);
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "Wrote %d todos in %.1f s (%.0f rows/s)%n", count, seconds, count / seconds);
+        DatabaseConfig.closeDataSource();
+    }
+
+    private static String insertSql(int rows) {
+        return "INSERT INTO todos (owner_id, list_id, title, description, priority, completed, created_at, due_date, updated_at) VALUES "
+                + String.join(", ", Collections.nCopies(rows, "(?, ?, ?, ?, ?, ?, ?, ?, ?)"));
+    }
+
+    private static String title(Random random) {
+        StringBuilder title = new StringBuilder();
+        for (int i = 2 + random.nextInt(5); i > 0; i--) {
+            title.append(title.isEmpty() ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        title.setCharAt(0, Character.toUpperCase(title.charAt(0)));
+        return title.toString();
+    }
+
+    private static String description(Random random, int medianChars) {
+        if (medianChars == 0) {
+            return null;
+        }
+        // Log-normal: most descriptions are short, a few are very long
+        int length = (int) Math.min(MAX_DESCRIPTION_CHARS, Math.round(medianChars * Math.exp(random.nextGaussian())));
+        if (length == 0) {
+            return null;
+        }
+        StringBuilder description = new StringBuilder(length + 16);
+        while (description.length() < length) {
+            description.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(8) == 0 ? ". " : " ");
+        }
+        return description.substring(0, length).trim();
+    }
+
+    private static void trace(Path file, Options options) throws IOException {
+        int operations = options.getInt("operations", 1000);
+        double rate = options.getDouble("rate", 2);
+        Random random = new Random(options.getInt("seed", 42));
+        int[] mix = options.getWeights("mix", "2:4:3:1", Kind.values().length);
+        options.rejectUnknown();
+
+        double offsetMs = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < operations; i++) {
+                offsetMs += -Math.log(1 - random.nextDouble()) * 1000 / rate;
+                Kind kind = Kind.values()[pick(random, mix)];
+                String text = switch (kind) {
+                    case ADD -> title(random);
+                    case SEARCH -> WORDS[random.nextInt(WORDS.length)];
+                    default -> "";
+                };
+                // Id 0: the replay picks a listed todo
+                writer.write(OperationTrace.format(new Operation(Math.round(offsetMs), kind, 0, text)));
+                writer.newLine();
+            }
+        }
+        System.out.printf(Locale.ROOT, "Wrote %d operations over %.0f s to %s%n", operations, offsetMs / 1000, file);
+    }
+
+    private static void replay(Path file, Options options) throws Exception {
+        double speed = options.getDouble("speed", 1);
+        Random random = new Random(options.getInt("seed", 42));
+        options.rejectUnknown();
+        List<Operation> operations = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                operations.add(OperationTrace.parse(line));
+            }
+        }
+        if (operations.isEmpty()) {
+            System.out.println("Empty trace");
+            return;
+        }
+
+        Platform.startup(() -> { });
+        long loadStart = System.nanoTime();
+        TodoService service = onFxThread(TodoService::getInstance);
+        System.out.printf(Locale.ROOT, "Loaded %d todos in %.0f ms, replaying %d operations at speed %s%n",
+                onFxThread(() -> service.getAllTodos().size()), (System.nanoTime() - loadStart) / 1e6,
+                operations.size(), speed > 0 ? speed : "max");
+
+        Replayer replayer = new Replayer(service, random);
+        long start = System.nanoTime();
+        CompletableFuture<Void> last = CompletableFuture.completedFuture(null);
+        for (Operation operation : operations) {
+            long due = speed > 0 ? start + (long) (operation.offsetMs() * 1e6 / speed) : System.nanoTime();
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            Platform.runLater(() -> {
+                replayer.apply(operation, due);
+                done.complete(null);
+            });
+            if (speed <= 0) {
+                done.join();
+            }
+            last = done;
+        }
+        last.join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        replayer.report(seconds);
+
+        onFxThread(() -> {
+            service.shutdown();
+            return null;
+        });
+        Platform.exit();
+        DatabaseConfig.closeDataSource();
+        System.exit(0);
+    }
+
+    private static <T> T onFxThread(Callable<T> task) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result.get();
+    }
+
+    private static int pick(Random random, int[] weights) {
+        int total = Arrays.stream(weights).sum();
+        int r = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * Applies trace operations to the service. Used on the FX thread only, so it needs no synchronization.
+     */
+    private static final class Replayer {
+        private final TodoService service;
+        private final Random random;
+        /** Ids the trace gave to added todos, mapped to the ids they got in this replay. */
+        private final Map<Integer, Integer> replayedIds = new HashMap<>();
+        private final Map<Kind, Latencies> latencies = new EnumMap<>(Kind.class);
+        private long skipped;
+        private long errors;
+
+        Replayer(TodoService service, Random random) {
+            this.service = service;
+            this.random = random;
+            for (Kind kind : Kind.values()) {
+                latencies.put(kind, new Latencies());
+            }
+        }
+
+        void apply(Operation operation, long dueNanos) {
+            try {
+                if (execute(operation)) {
+                    latencies.get(operation.kind()).add(System.nanoTime() - dueNanos);
+                } else {
+                    skipped++;
+                }
+            } catch (RuntimeException e) {
+                errors++;
+            }
+        }
+
+        private boolean execute(Operation operation) {
+            switch (operation.kind()) {
+                case ADD -> {
+                    Todo todo = new Todo(operation.text().isBlank() ? "Replayed todo" : operation.text(), null,
+                            Todo.Priority.MEDIUM, null);
+                    service.addTodo(todo);
+                    if (operation.todoId() != 0) {
+                        replayedIds.put(operation.todoId(), todo.getId());
+                    }
+                }
+                case TOGGLE -> {
+                    Optional<Todo> todo = target(operation);
+                    if (todo.isEmpty()) {
+                        return false;
+                    }
+                    if (todo.get().isCompleted()) {
+                        service.reopenTodo(todo.get());
+                    } else {
+                        service.completeTodo(todo.get());
+                    }
+                }
+                case DELETE -> {
+                    Optional<Todo> todo = target(operation);
+                    if (todo.isEmpty()) {
+                        return false;
+                    }
+                    service.deleteTodo(todo.get());
+                }
+                case SEARCH -> service.search(operation.text(), SEARCH_LIMIT);
+            }
+            return true;
+        }
+
+        private Optional<Todo> target(Operation operation) {
+            int id = replayedIds.getOrDefault(operation.todoId(), operation.todoId());
+            Optional<Todo> todo = id != 0 ? service.getTodoById(id) : Optional.empty();
+            if (todo.isPresent()) {
+                return todo;
+            }
+            List<Todo> todos = service.getAllTodos();
+            return todos.isEmpty() ? Optional.empty() : Optional.of(todos.get(random.nextInt(todos.size())));
+        }
+
+        void report(double seconds) {
+            System.out.printf("%-8s %10s %10s %10s %10s %10s %10s%n", "", "ops", "ops/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+            Latencies all = new Latencies();
+            for (Map.Entry<Kind, Latencies> entry : latencies.entrySet()) {
+                printRow(entry.getKey().name().toLowerCase(Locale.ROOT), entry.getValue().sorted(), seconds);
+                all.addAll(entry.getValue());
+            }
+            printRow("total", all.sorted(), seconds);
+            System.out.printf(Locale.ROOT, "%.1f s, skipped (no todo to act on): %d, failed: %d%n", seconds, skipped, errors);
+        }
+    }
+
+    /**
+     * Growable array of latencies in nanoseconds.
+     */
+    private static final class Latencies {
+        private long[] nanos = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+        }
+
+        void addAll(Latencies other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.nanos[i]);
+            }
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(nanos, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    private static void printRow(String label, long[] sorted, double seconds) {
+        if (sorted.length == 0) {
+            System.out.printf("%-8s %10d%n", label, 0);
+            return;
+        }
+        System.out.printf(Locale.ROOT, "%-8s %10d %10.1f %10.2f %10.2f %10.2f %10.2f%n", label, sorted.length,
+                sorted.length / seconds, percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.90) / 1e6,
+                percentile(sorted, 0.99) / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    /**
+     * {@code name=value} arguments. A command reads all its options and then calls {@link #rejectUnknown}, so
+     * that a misspelt name is not silently ignored.
+     */
+    private static final class Options {
+        private final Map<String, String> values = new HashMap<>();
+        private final Set<String> read = new HashSet<>();
+
+        Options(String[] args, int from) {
+            for (int i = from; i < args.length; i++) {
+                int eq = args[i].indexOf('=');
+                if (eq <= 0) {
+                    throw new IllegalArgumentException("Expected name=value, got '" + args[i] + "'");
+                }
+                values.put(args[i].substring(0, eq), args[i].substring(eq + 1));
+            }
+        }
+
+        void rejectUnknown() {
+            Set<String> unknown = new HashSet<>(values.keySet());
+            unknown.removeAll(read);
+            if (!unknown.isEmpty()) {
+                throw new IllegalArgumentException("Unknown option(s) " + unknown + ", expected some of " + read);
+            }
+        }
+
+        int getInt(String name, int defaultValue) {
+            read.add(name);
+            String value = values.get(name);
+            try {
+                return value != null ? Integer.parseInt(value) : defaultValue;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " must be a whole number, got '" + value + "'");
+            }
+        }
+
+        double getDouble(String name, double defaultValue) {
+            read.add(name);
+            String value = values.get(name);
+            try {
+                return value != null ? Double.parseDouble(value) : defaultValue;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " must be a number, got '" + value + "'");
+            }
+        }
+
+        /**
+         * {@code count} non-negative weights separated by colons, not all zero.
+         */
+        int[] getWeights(String name, String defaultValue, int count) {
+            read.add(name);
+            String value = values.getOrDefault(name, defaultValue);
+            String[] parts = value.split(":");
+            if (parts.length != count) {
+                throw new IllegalArgumentException(name + " needs " + count + " weights separated by ':', got '" + value + "'");
+            }
+            int[] weights = new int[count];
+            for (int i = 0; i < count; i++) {
+                try {
+                    weights[i] = Integer.parseInt(parts[i].trim());
+                } catch (NumberFormatException e) {
+                    weights[i] = -1;
+                }
+                if (weights[i] < 0) {
+                    throw new IllegalArgumentException(name + " weights must be whole numbers >= 0, got '" + value + "'");
+                }
+            }
+            if (Arrays.stream(weights).sum() == 0) {
+                throw new IllegalArgumentException(name + " weights must not all be 0");
+            }
+            return weights;
+        }
+    }
+}
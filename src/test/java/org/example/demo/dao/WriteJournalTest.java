@@ -0,0 +1,116 @@
+package org.example.demo.dao;
+
+import org.example.demo.model.Todo;
+import org.example.demo.model.TodoScope;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteJournalTest {
+    private static final TodoScope SCOPE = new TodoScope(2, 5);
+
+    @TempDir
+    Path directory;
+
+    private static Todo todo(int id, int version) {
+        return Todo.builder()
+                .id(id)
+                .ownerId(SCOPE.ownerId())
+                .listId(SCOPE.listId())
+                .title("Call the plumber")
+                .description("About the kitchen sink")
+                .priority(Todo.Priority.MEDIUM)
+                .createdAt(LocalDateTime.of(2024, 4, 2, 10, 15, 30))
+                .dueDate(LocalDateTime.of(2024, 4, 9, 18, 0))
+                .recurrenceRule("FREQ=MONTHLY")
+                .version(version)
+                .build();
+    }
+
+    @Test
+    void pendingEntriesSurviveReopening() throws IOException {
+        Path path = directory.resolve("pending.journal");
+        String clientKey;
+        try (WriteJournal journal = new WriteJournal(path)) {
+            clientKey = journal.append(WriteJournal.Operation.INSERT, -1, SCOPE, todo(-1, 0)).clientKey();
+            journal.append(WriteJournal.Operation.UPDATE, 12, SCOPE, todo(12, 4));
+            journal.append(WriteJournal.Operation.DELETE, 13, SCOPE, null);
+        }
+
+        try (WriteJournal journal = new WriteJournal(path)) {
+            List<WriteJournal.Entry> entries = journal.pendingEntries();
+
+            assertEquals(3, entries.size());
+            assertEquals(todo(-1, 0), entries.get(0).todo());
+            assertNotNull(clientKey);
+            assertEquals(clientKey, entries.get(0).clientKey());
+            assertNull(entries.get(1).clientKey());
+            assertEquals(WriteJournal.Operation.UPDATE, entries.get(1).operation());
+            assertEquals(todo(12, 4), entries.get(1).todo());
+            assertEquals(4, entries.get(1).todo().getVersion());
+            assertEquals(SCOPE, entries.get(2).scope());
+            assertNull(entries.get(2).todo());
+            assertEquals(-1, journal.getLowestTemporaryId());
+        }
+    }
+
+    @Test
+    void acknowledgedEntriesAreNotReplayedAndKeepTheirRealIds() throws IOException {
+        Path path = directory.resolve("pending.journal");
+        try (WriteJournal journal = new WriteJournal(path)) {
+            WriteJournal.Entry insert = journal.append(WriteJournal.Operation.INSERT, -3, SCOPE, todo(-3, 0));
+            journal.append(WriteJournal.Operation.UPDATE, -3, SCOPE, todo(-3, 0));
+            journal.acknowledge(insert, 40);
+        }
+
+        try (WriteJournal journal = new WriteJournal(path)) {
+            assertEquals(1, journal.pendingCount());
+            assertEquals(WriteJournal.Operation.UPDATE, journal.pendingEntries().get(0).operation());
+            assertEquals(40, journal.resolveId(-3));
+        }
+    }
+
+    @Test
+    void truncatesOnceNothingIsPending() throws IOException {
+        Path path = directory.resolve("pending.journal");
+        try (WriteJournal journal = new WriteJournal(path)) {
+            WriteJournal.Entry entry = journal.append(WriteJournal.Operation.DELETE, 8, SCOPE, null);
+            journal.acknowledge(entry, 0);
+
+            assertFalse(journal.hasPending());
+        }
+        assertEquals(0, Files.size(path));
+    }
+
+    @Test
+    void dropsATornTrailingRecord() throws IOException {
+        Path path = directory.resolve("pending.journal");
+        try (WriteJournal journal = new WriteJournal(path)) {
+            journal.append(WriteJournal.Operation.UPDATE, 12, SCOPE, todo(12, 4));
+        }
+        long intact = Files.size(path);
+        Files.write(path, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (WriteJournal journal = new WriteJournal(path)) {
+            assertEquals(1, journal.pendingCount());
+            WriteJournal.Entry next = journal.append(WriteJournal.Operation.DELETE, 13, SCOPE, null);
+            assertEquals(2, next.sequence());
+        }
+        assertTrue(Files.size(path) > intact);
+        try (WriteJournal journal = new WriteJournal(path)) {
+            assertEquals(2, journal.pendingCount());
+        }
+    }
+}
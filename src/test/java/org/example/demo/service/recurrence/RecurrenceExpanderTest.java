@@ -0,0 +1,58 @@
+package org.example.demo.service.recurrence;
+
+import org.example.demo.model.Recurrence;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RecurrenceExpanderTest {
+
+    @Test
+    void monthlySeriesReturnsToTheStartDay() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 31, 9, 0);
+        Recurrence rule = Recurrence.parse("FREQ=MONTHLY");
+
+        LocalDateTime february = RecurrenceExpander.next(start, rule, start).orElseThrow();
+        LocalDateTime march = RecurrenceExpander.next(start, rule, february).orElseThrow();
+
+        assertEquals(LocalDateTime.of(2025, 2, 28, 9, 0), february);
+        assertEquals(LocalDateTime.of(2025, 3, 31, 9, 0), march);
+    }
+
+    @Test
+    void yearlySeriesKeepsLeapDays() {
+        LocalDateTime start = LocalDateTime.of(2024, 2, 29, 8, 0);
+        Recurrence rule = Recurrence.parse("FREQ=YEARLY");
+
+        List<LocalDateTime> occurrences = RecurrenceExpander.occurrences(start, rule).limit(5).toList();
+
+        assertEquals(LocalDateTime.of(2025, 2, 28, 8, 0), occurrences.get(1));
+        assertEquals(LocalDateTime.of(2028, 2, 29, 8, 0), occurrences.get(4));
+    }
+
+    @Test
+    void countIsTakenFromTheSeriesStart() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 6, 9, 0);
+        Recurrence rule = Recurrence.parse("FREQ=WEEKLY;BYDAY=MO,TH;COUNT=3");
+
+        LocalDateTime last = LocalDateTime.of(2025, 1, 13, 9, 0);
+        Optional<LocalDateTime> afterLast = RecurrenceExpander.next(start, rule, last);
+
+        assertEquals(List.of(start, LocalDateTime.of(2025, 1, 9, 9, 0), last),
+                RecurrenceExpander.occurrences(start, rule).toList());
+        assertEquals(Optional.empty(), afterLast);
+    }
+
+    @Test
+    void startSurvivesTheRuleText() {
+        Recurrence rule = Recurrence.parse("FREQ=MONTHLY;COUNT=4")
+                .withStart(LocalDateTime.of(2025, 1, 31, 9, 0));
+
+        assertEquals("FREQ=MONTHLY;COUNT=4;DTSTART=20250131T090000", rule.toRule());
+        assertEquals(rule, Recurrence.parse(rule.toRule()));
+    }
+}
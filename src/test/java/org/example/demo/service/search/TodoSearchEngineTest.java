@@ -0,0 +1,89 @@
+package org.example.demo.service.search;
+
+import org.example.demo.model.Todo;
+import org.example.demo.service.event.TodoEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TodoSearchEngineTest {
+    private TodoSearchEngine engine;
+    private long sequence;
+
+    private static Todo todo(int id, String title, String description) {
+        return Todo.builder().id(id).title(title).description(description).build();
+    }
+
+    private void publish(TodoEvent.Type type, Todo todo) {
+        engine.onEvent(new TodoEvent(type, todo.getId(), todo, null, ++sequence, Instant.now()));
+    }
+
+    private List<Integer> ids(String query) {
+        return engine.search(query, 10).hits().stream().map(SearchHit::todoId).toList();
+    }
+
+    @BeforeEach
+    void indexTodos() {
+        engine = new TodoSearchEngine();
+        List<Todo> todos = List.of(
+                todo(1, "Call the plumber", "The kitchen sink is leaking"),
+                todo(2, "Groceries", "Milk, bread and a call to the bakery about the cake"),
+                todo(3, "Book flights", "Compare prices for the summer holiday"),
+                todo(4, "Pay invoices", null));
+        engine.onEvent(new TodoEvent(TodoEvent.Type.RELOADED, 0, null, todos, ++sequence, Instant.now()));
+    }
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatches() {
+        assertEquals(List.of(1, 2), ids("call "));
+    }
+
+    @Test
+    void matchesInflectedForms() {
+        assertEquals(List.of(3), ids("flight "));
+        assertEquals(List.of(1), ids("leak "));
+    }
+
+    @Test
+    void toleratesTypos() {
+        assertEquals(List.of(2), ids("grocreies "));
+        assertEquals(List.of(4), ids("invoces "));
+    }
+
+    @Test
+    void completesTheWordBeingTyped() {
+        assertEquals(List.of(1), ids("plum"));
+        assertTrue(ids("plum ").isEmpty());
+    }
+
+    @Test
+    void followsCreatesUpdatesAndDeletes() {
+        publish(TodoEvent.Type.CREATED, todo(5, "Call the dentist", null));
+        publish(TodoEvent.Type.UPDATED, todo(1, "Fix the sink", "Leaking again"));
+        publish(TodoEvent.Type.DELETED, todo(2, "Groceries", null));
+
+        assertEquals(List.of(5), ids("call "));
+        assertEquals(List.of(1), ids("sink "));
+    }
+
+    @Test
+    void limitsHitsButCountsAllMatches() {
+        SearchResult result = engine.search("call ", 1);
+
+        assertEquals(1, result.hits().size());
+        assertEquals(1, result.hits().get(0).todoId());
+        assertEquals(2, result.totalMatches());
+    }
+
+    @Test
+    void editDistanceCountsTranspositionsAsOneEdit() {
+        assertEquals(1, SearchIndex.editDistance("form", "from", 2));
+        assertEquals(3, SearchIndex.editDistance("kitten", "sitting", 3));
+        assertEquals(2, SearchIndex.editDistance("abcdef", "uvwxyz", 1));
+    }
+}
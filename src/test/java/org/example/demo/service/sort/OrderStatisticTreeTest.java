@@ -0,0 +1,75 @@
+package org.example.demo.service.sort;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatisticTreeTest {
+
+    @Test
+    void keepsElementsSortedWithPositions() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        for (int value : new int[]{5, 1, 9, 3, 7}) {
+            tree.add(value);
+        }
+
+        assertEquals(List.of(1, 3, 5, 7, 9), tree.toList());
+        assertEquals(5, tree.size());
+        assertEquals(2, tree.indexOf(5));
+        assertEquals(-1, tree.indexOf(4));
+        assertEquals(9, tree.get(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(5));
+    }
+
+    @Test
+    void removesOnlyPresentElements() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        tree.rebuild(List.of(4, 2, 8, 6));
+
+        assertTrue(tree.remove(6));
+        assertFalse(tree.remove(6));
+        assertFalse(tree.remove(5));
+        assertEquals(List.of(2, 4, 8), tree.toList());
+        assertEquals(2, tree.indexOf(8));
+    }
+
+    @Test
+    void matchesSortedSetUnderRandomEdits() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.reverseOrder());
+        TreeSet<Integer> expected = new TreeSet<>(Comparator.reverseOrder());
+        Random random = new Random(42);
+        List<Integer> initial = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            initial.add(random.nextInt(1000));
+        }
+        tree.rebuild(new ArrayList<>(new TreeSet<>(initial)));
+        expected.addAll(initial);
+
+        for (int i = 0; i < 2000; i++) {
+            int value = random.nextInt(1000);
+            if (expected.contains(value)) {
+                assertTrue(tree.remove(value));
+                expected.remove(value);
+            } else {
+                tree.add(value);
+                expected.add(value);
+            }
+        }
+
+        List<Integer> sorted = new ArrayList<>(expected);
+        assertEquals(sorted, tree.toList());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i), tree.get(i));
+            assertEquals(i, tree.indexOf(sorted.get(i)));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.demo.service.sort;
+
+import org.example.demo.model.Todo;
+import org.example.demo.service.store.ColumnarTodoList;
+import org.example.demo.service.store.TodoColumnStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SortedTodoListTest {
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @Test
+    void readsRowsFromTheSourceAfterTheyMove() {
+        ColumnarTodoList source = new ColumnarTodoList(new TodoColumnStore());
+        source.addAll(List.of(todo(1, "first", 1), todo(2, "second", 2), todo(3, "third", 3)));
+        SortedTodoList sorted = new SortedTodoList(source, SortKey.NEWEST);
+
+        source.remove(0);
+        source.add(0, todo(4, "fourth", 4));
+        source.set(source.indexOf(todo(3, "", 0)), todo(3, "renamed", 3));
+
+        assertEquals(List.of(4, 3, 2), ids(sorted));
+        assertEquals("renamed", sorted.findById(3).orElseThrow().getTitle());
+        assertEquals("second", sorted.get(2).getTitle());
+        assertTrue(sorted.findById(1).isEmpty());
+    }
+
+    @Test
+    void followsBulkReplacements() {
+        ColumnarTodoList source = new ColumnarTodoList(new TodoColumnStore());
+        SortedTodoList sorted = new SortedTodoList(source, SortKey.NEWEST);
+
+        source.setAll(IntStream.rangeClosed(1, 500).mapToObj(id -> todo(id, "todo " + id, id)).toList());
+        source.remove(100);
+
+        assertEquals(499, sorted.size());
+        assertEquals(500, sorted.get(0).getId());
+        assertTrue(sorted.findById(101).isEmpty());
+        assertEquals("todo 102", sorted.findById(102).orElseThrow().getTitle());
+    }
+
+    private static List<Integer> ids(List<Todo> todos) {
+        List<Integer> ids = new ArrayList<>();
+        todos.forEach(todo -> ids.add(todo.getId()));
+        return ids;
+    }
+
+    private static Todo todo(int id, String title, int minutes) {
+        return Todo.builder()
+                .id(id)
+                .ownerId(1)
+                .listId(1)
+                .title(title)
+                .priority(Todo.Priority.MEDIUM)
+                .createdAt(CREATED.plusMinutes(minutes))
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.demo.service.store;
+
+import org.example.demo.model.Todo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TodoColumnStoreTest {
+
+    private static Todo todo(int id, String title, String description) {
+        return Todo.builder().id(id).title(title).description(description).build();
+    }
+
+    @Test
+    void sharesEqualStrings() {
+        TodoColumnStore store = new TodoColumnStore();
+        store.appendAll(List.of(todo(1, "Water plants", "Weekly"), todo(2, new String("Water plants"), "Weekly")));
+
+        assertSame(store.titleAt(0), store.titleAt(1));
+        assertEquals(2, store.footprint().uniqueStrings());
+    }
+
+    @Test
+    void releasesStringsOfEditedAndRemovedRows() {
+        TodoColumnStore store = new TodoColumnStore();
+        store.appendAll(List.of(todo(1, "Draft", "First notes"), todo(2, "Shared", "Same"), todo(3, "Shared", "Same")));
+
+        store.set(0, todo(1, "Final", "Clean copy"));
+        assertEquals(4, store.footprint().uniqueStrings());
+
+        store.removeRange(1, 2);
+        assertEquals(4, store.footprint().uniqueStrings());
+
+        store.removeRange(1, 2);
+        assertEquals(2, store.footprint().uniqueStrings());
+        assertEquals("Final", store.materialize(0).getTitle());
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.demo.service.store;
+
+import org.example.demo.model.Todo;
+import org.example.demo.model.TodoScope;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TodoSnapshotTest {
+    private static final TodoScope SCOPE = new TodoScope(3, 4);
+
+    @TempDir
+    Path directory;
+
+    private static Todo todo(int id, String title, LocalDateTime updatedAt) {
+        return Todo.builder()
+                .id(id)
+                .ownerId(SCOPE.ownerId())
+                .listId(SCOPE.listId())
+                .title(title)
+                .description("Notes on " + title + " ✓")
+                .priority(Todo.Priority.HIGH)
+                .completed(id % 2 == 0)
+                .createdAt(LocalDateTime.of(2024, 1, id, 8, 30, 15))
+                .dueDate(id == 1 ? null : LocalDateTime.of(2024, 6, id, 17, 0))
+                .recurrenceRule(id == 2 ? "FREQ=WEEKLY" : null)
+                .updatedAt(updatedAt)
+                .version(id * 10)
+                .build();
+    }
+
+    @Test
+    void roundTripsAllFields() throws IOException {
+        List<Todo> todos = List.of(
+                todo(1, "Plan trip", LocalDateTime.of(2024, 3, 1, 12, 0)),
+                todo(2, "Water plants", LocalDateTime.of(2024, 3, 5, 9, 45)),
+                todo(3, "", null));
+        Path path = directory.resolve("list.snapshot");
+
+        TodoSnapshot.of(SCOPE, todos).write(path);
+        Optional<TodoSnapshot> read = TodoSnapshot.read(path);
+
+        assertTrue(read.isPresent());
+        assertEquals(SCOPE, read.get().scope());
+        assertEquals(LocalDateTime.of(2024, 3, 5, 9, 45), read.get().highWatermark());
+        assertEquals(todos, read.get().todos());
+    }
+
+    @Test
+    void hasNoHighWatermarkWithoutDatabaseRows() {
+        TodoSnapshot snapshot = TodoSnapshot.of(SCOPE, List.of(todo(1, "Offline", null)));
+
+        assertNull(snapshot.highWatermark());
+    }
+
+    @Test
+    void columnStoreRowsKeepTheHighWatermark() {
+        TodoColumnStore store = new TodoColumnStore();
+        store.setScope(SCOPE);
+        store.appendAll(List.of(todo(1, "A", LocalDateTime.of(2024, 2, 1, 10, 0)),
+                todo(2, "B", LocalDateTime.of(2024, 2, 3, 10, 0))));
+
+        TodoSnapshot snapshot = TodoSnapshot.of(SCOPE, List.of(store.materialize(0), store.materialize(1)));
+
+        assertEquals(LocalDateTime.of(2024, 2, 3, 10, 0), snapshot.highWatermark());
+    }
+
+    @Test
+    void ignoresDamagedAndMissingFiles() throws IOException {
+        Path path = directory.resolve("list.snapshot");
+        assertTrue(TodoSnapshot.read(path).isEmpty());
+
+        TodoSnapshot.of(SCOPE, List.of(todo(1, "Plan trip", null))).write(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), Files.size(path) / 2);
+        }
+
+        assertTrue(TodoSnapshot.read(path).isEmpty());
+    }
+}
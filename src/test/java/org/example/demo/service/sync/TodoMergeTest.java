@@ -0,0 +1,106 @@
+package org.example.demo.service.sync;
+
+import org.example.demo.model.Todo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TodoMergeTest {
+
+    private static Todo base() {
+        return Todo.builder()
+                .id(7)
+                .title("Buy milk")
+                .description("Two litres")
+                .priority(Todo.Priority.LOW)
+                .dueDate(LocalDateTime.of(2024, 5, 1, 9, 0))
+                .version(3)
+                .build();
+    }
+
+    @Test
+    void takesChangesMadeOnOneSideOnly() {
+        Todo base = base();
+        Todo mine = base.toBuilder().title("Buy oat milk").build();
+        Todo theirs = base.toBuilder().description("Three litres").version(4).build();
+
+        TodoMerge.Result result = TodoMerge.merge(base, mine, theirs);
+
+        assertTrue(result.isClean());
+        assertEquals("Buy oat milk", result.merged().getTitle());
+        assertEquals("Three litres", result.merged().getDescription());
+        assertEquals(4, result.merged().getVersion());
+    }
+
+    @Test
+    void keepsTheirValueForFieldsChangedOnBothSides() {
+        Todo base = base();
+        Todo mine = base.toBuilder().priority(Todo.Priority.HIGH).completed(true).build();
+        Todo theirs = base.toBuilder().priority(Todo.Priority.MEDIUM).completed(true).version(4).build();
+
+        TodoMerge.Result result = TodoMerge.merge(base, mine, theirs);
+
+        assertEquals(Set.of(TodoMerge.Field.PRIORITY), result.conflicts());
+        assertEquals(Todo.Priority.MEDIUM, result.merged().getPriority());
+        assertTrue(result.merged().isCompleted());
+    }
+
+    @Test
+    void treatsEveryDifferenceAsConflictWithoutBase() {
+        Todo theirs = base();
+        Todo mine = theirs.toBuilder().title("Buy bread").priority(Todo.Priority.HIGH).build();
+
+        TodoMerge.Result result = TodoMerge.merge(null, mine, theirs);
+
+        assertEquals(Set.of(TodoMerge.Field.TITLE, TodoMerge.Field.PRIORITY), result.conflicts());
+        assertEquals("Buy milk", result.merged().getTitle());
+    }
+
+    @Test
+    void ignoresDescriptionPreviewsAsEdits() {
+        Todo base = base();
+        Todo mine = base.toBuilder().description("Two").descriptionTruncated(true).title("Buy more milk").build();
+        Todo theirs = base.toBuilder().description("Two litres, skimmed").version(4).build();
+
+        TodoMerge.Result result = TodoMerge.merge(base, mine, theirs);
+
+        assertTrue(result.isClean());
+        assertEquals("Two litres, skimmed", result.merged().getDescription());
+        assertEquals("Buy more milk", result.merged().getTitle());
+    }
+
+    @Test
+    void mergingThePreviousResultKeepsResolvedConflicts() {
+        Todo base = base();
+        Todo mine = base.toBuilder().title("Buy oat milk").priority(Todo.Priority.HIGH).build();
+        Todo theirs = base.toBuilder().priority(Todo.Priority.MEDIUM).version(4).build();
+        TodoMerge.Result first = TodoMerge.merge(base, mine, theirs);
+        Todo newer = theirs.toBuilder().description("Three litres").version(5).build();
+
+        TodoMerge.Result second = TodoMerge.merge(theirs, first.merged(), newer);
+
+        assertTrue(second.isClean());
+        assertEquals(Todo.Priority.MEDIUM, second.merged().getPriority());
+        assertEquals("Buy oat milk", second.merged().getTitle());
+        assertEquals("Three litres", second.merged().getDescription());
+    }
+
+    @Test
+    void conflictCanSwitchToMine() {
+        Todo base = base();
+        Todo mine = base.toBuilder().priority(Todo.Priority.HIGH).build();
+        Todo theirs = base.toBuilder().priority(Todo.Priority.MEDIUM).version(4).build();
+        TodoMerge.Result result = TodoMerge.merge(base, mine, theirs);
+
+        Todo resolved = new TodoConflict(result.merged(), mine, result.conflicts()).withMine();
+
+        assertEquals(Todo.Priority.HIGH, resolved.getPriority());
+        assertEquals(4, resolved.getVersion());
+        assertFalse(resolved.isDescriptionTruncated());
+    }
+}